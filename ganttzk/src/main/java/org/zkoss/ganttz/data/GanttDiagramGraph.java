@@ -280,6 +280,13 @@ public class GanttDiagramGraph<V, D extends IDependency<V>> implements ICritical
 
     private Map<V, V> fromChildToParent = new HashMap<>();
 
+    /**
+     * The {@link TaskPoint task points} already created. They're reused so
+     * their immediate successors and predecessors are only calculated once
+     * until the graph changes.
+     */
+    private final Map<TaskPoint, TaskPoint> taskPoints = new HashMap<>();
+
     private final List<Constraint<GanttDate>> globalStartConstraints;
 
     private final List<Constraint<GanttDate>> globalEndConstraints;
@@ -503,6 +510,7 @@ public class GanttDiagramGraph<V, D extends IDependency<V>> implements ICritical
 
         public void recalculationNeeded() {
             taskPointsByDepthCached = null;
+            taskPoints.clear();
         }
 
         public List<Recalculation> sort(Collection<? extends Recalculation> recalculationsToBeSorted) {
@@ -771,6 +779,13 @@ public class GanttDiagramGraph<V, D extends IDependency<V>> implements ICritical
 
         private ThreadLocal<DeferedNotifier> deferedNotifier = new ThreadLocal<>();
 
+        /**
+         * The tasks modified while executing
+         * {@link #enforceRestrictionsInBatch(IAction)}. It's <code>null</code>
+         * if not in batch mode.
+         */
+        private ThreadLocal<Set<V>> modifiedInBatch = new ThreadLocal<>();
+
         /**
          * It creates a {@link IDependenciesEnforcerHook} that starts the
          * algorithm <em>onEntrance</em> and in subsequent tasks position
@@ -822,13 +837,14 @@ public class GanttDiagramGraph<V, D extends IDependency<V>> implements ICritical
                             new StartDateNofitication(notification, previousStart, previousEnd, newStart);
 
                     deferedNotifier.get().add(task, startDateNotification);
-
+                    addToBatchIfAny(Collections.singletonList(task));
                 }
 
                 @Override
                 public void setNewEnd(GanttDate previousEnd, GanttDate newEnd) {
                     LengthNotification lengthNotification = new LengthNotification(notification, previousEnd, newEnd);
                     deferedNotifier.get().add(task, lengthNotification);
+                    addToBatchIfAny(Collections.singletonList(task));
                 }
             };
 
@@ -925,15 +941,57 @@ public class GanttDiagramGraph<V, D extends IDependency<V>> implements ICritical
         }
 
         void enforceRestrictionsOn(Collection<? extends V> tasks) {
-            List<Recalculation> allRecalculations = new ArrayList<>();
-            for (V each : tasks) {
-                allRecalculations.addAll(getRecalculationsNeededFrom(each));
+            if ( addToBatchIfAny(tasks) ) {
+                return;
             }
-            enforceRestrictionsOn(allRecalculations, tasks);
+            enforceRestrictionsOn(getRecalculationsNeededFrom(tasks), tasks);
         }
 
         void enforceRestrictionsOn(V task) {
-            enforceRestrictionsOn(getRecalculationsNeededFrom(task), Collections.singleton(task));
+            enforceRestrictionsOn(Collections.singleton(task));
+        }
+
+        /**
+         * @return <code>true</code> if in batch mode, so the tasks will be
+         *         enforced at the end of the batch
+         */
+        private boolean addToBatchIfAny(Collection<? extends V> tasks) {
+            Set<V> batch = modifiedInBatch.get();
+            if ( batch == null ) {
+                return false;
+            }
+            batch.addAll(tasks);
+
+            return true;
+        }
+
+        /**
+         * Executes the action without enforcing the dependencies each time a
+         * task is modified. Instead the modified tasks are collected and, when
+         * the action finishes, the restrictions are enforced from all of them
+         * in a single pass in topological order, so each affected task is
+         * recalculated only once. The listeners are notified once per affected
+         * task after that.
+         */
+        void enforceRestrictionsInBatch(final IAction action) {
+            if ( modifiedInBatch.get() != null ) {
+                action.doAction();
+                return;
+            }
+
+            executeWithPreAndPostActionsOnlyIfNewEntrance(new IAction() {
+                @Override
+                public void doAction() {
+                    Set<V> modified = new LinkedHashSet<>();
+                    modifiedInBatch.set(modified);
+                    try {
+                        action.doAction();
+                    } finally {
+                        modifiedInBatch.set(null);
+                    }
+                    doRecalculations(getRecalculationsNeededFrom(modified), modified);
+                }
+            });
         }
 
         void enforceRestrictionsOn(final List<Recalculation> recalculations,
@@ -1023,6 +1081,10 @@ public class GanttDiagramGraph<V, D extends IDependency<V>> implements ICritical
         }
 
         private void taskPositionModified(final V task) {
+            if ( addToBatchIfAny(Collections.singletonList(task)) ) {
+                return;
+            }
+
             executeWithPreAndPostActionsOnlyIfNewEntrance(new IAction() {
                 @Override
                 public void doAction() {
@@ -1163,19 +1225,31 @@ public class GanttDiagramGraph<V, D extends IDependency<V>> implements ICritical
     }
 
     List<Recalculation> getRecalculationsNeededFrom(V task) {
+        return getRecalculationsNeededFrom(Collections.singletonList(task));
+    }
+
+    /**
+     * The recalculations needed when all the provided tasks have been
+     * modified. The tasks reachable from several of them are only recalculated
+     * once, after all their predecessors.
+     */
+    List<Recalculation> getRecalculationsNeededFrom(Collection<? extends V> tasks) {
         List<Recalculation> result = new ArrayList<>();
         Set<Recalculation> parentRecalculationsAlreadyDone = new HashSet<>();
-        Recalculation first = recalculationFor(allPointsPotentiallyModified(task));
-        first.couldHaveBeenModifiedBeforehand();
-
-        result.addAll(getParentsRecalculations(parentRecalculationsAlreadyDone, first.taskPoint));
-        result.add(first);
-
         Queue<Recalculation> pendingOfVisit = new LinkedList<>();
-        pendingOfVisit.offer(first);
-
         Map<Recalculation, Recalculation> alreadyVisited = new HashMap<>();
-        alreadyVisited.put(first, first);
+
+        for (V task : tasks) {
+            Recalculation first = getRecalcualtionToAdd(allPointsPotentiallyModified(task), alreadyVisited);
+            first.couldHaveBeenModifiedBeforehand();
+
+            if ( !alreadyVisited.containsKey(first) ) {
+                result.addAll(getParentsRecalculations(parentRecalculationsAlreadyDone, first.taskPoint));
+                result.add(first);
+                pendingOfVisit.offer(first);
+                alreadyVisited.put(first, first);
+            }
+        }
 
         while (!pendingOfVisit.isEmpty()) {
 
@@ -1988,8 +2062,7 @@ public class GanttDiagramGraph<V, D extends IDependency<V>> implements ICritical
         topologicalSorter.recalculationNeeded();
         V destination = adapter.getDestination(dependency);
         V source = adapter.getSource(dependency);
-        enforcer.enforceRestrictionsOn(destination);
-        enforcer.enforceRestrictionsOn(source);
+        enforcer.enforceRestrictionsOn(asList(destination, source));
     }
 
     public boolean canAddDependency(D dependency) {
@@ -2040,6 +2113,21 @@ public class GanttDiagramGraph<V, D extends IDependency<V>> implements ICritical
         enforcer.taskPositionModified(task);
     }
 
+    public void enforceRestrictions(Collection<? extends V> tasks) {
+        enforcer.enforceRestrictionsOn(tasks);
+    }
+
+    /**
+     * Executes the action enforcing the restrictions only once at the end,
+     * from all the tasks modified or asked to be enforced meanwhile. It's
+     * useful when a lot of tasks are modified at once, e.g. moving several
+     * tasks, since otherwise the tasks depending on several of them would be
+     * recalculated once per modification.
+     */
+    public void enforceRestrictionsInBatch(IAction action) {
+        enforcer.enforceRestrictionsInBatch(action);
+    }
+
     public DeferedNotifier manualNotificationOn(IAction action) {
         return enforcer.manualNotification(action);
     }
@@ -2208,7 +2296,7 @@ public class GanttDiagramGraph<V, D extends IDependency<V>> implements ICritical
 
     TaskPoint destinationPoint(D dependency) {
         V destination = getDependencyDestination(dependency);
-        return new TaskPoint(destination, getDestinationPoint(dependency.getType()));
+        return taskPoint(destination, getDestinationPoint(dependency.getType()));
     }
 
     private Point getDestinationPoint(DependencyType type) {
@@ -2217,7 +2305,7 @@ public class GanttDiagramGraph<V, D extends IDependency<V>> implements ICritical
 
     TaskPoint sourcePoint(D dependency) {
         V source = getDependencySource(dependency);
-        return new TaskPoint(source, getSourcePoint(dependency.getType()));
+        return taskPoint(source, getSourcePoint(dependency.getType()));
     }
 
     /**
@@ -2246,7 +2334,14 @@ public class GanttDiagramGraph<V, D extends IDependency<V>> implements ICritical
     }
 
     TaskPoint allPointsPotentiallyModified(V task) {
-        return new TaskPoint(task, getDominatingPoint());
+        return taskPoint(task, getDominatingPoint());
+    }
+
+    private TaskPoint taskPoint(V task, Point entryPoint) {
+        TaskPoint result = new TaskPoint(task, entryPoint);
+        TaskPoint existent = taskPoints.putIfAbsent(result, result);
+
+        return existent != null ? existent : result;
     }
 
     private class TaskPoint {
@@ -2381,7 +2476,7 @@ public class GanttDiagramGraph<V, D extends IDependency<V>> implements ICritical
         private Collection<TaskPoint> getImmediatelyDerivedOnSameTask() {
             for (Point each : pointsModified) {
                 if ( isDominatingPoint(each) ) {
-                    return Collections.singletonList(new TaskPoint(task, each.getOther()));
+                    return Collections.singletonList(taskPoint(task, each.getOther()));
                 }
             }
 
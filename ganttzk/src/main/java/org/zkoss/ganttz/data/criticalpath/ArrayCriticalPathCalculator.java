@@ -0,0 +1,718 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.zkoss.ganttz.data.criticalpath;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.lang3.Validate;
+import org.joda.time.Days;
+import org.joda.time.LocalDate;
+import org.zkoss.ganttz.data.DependencyType;
+import org.zkoss.ganttz.data.GanttDate;
+import org.zkoss.ganttz.data.IDependency;
+import org.zkoss.ganttz.data.constraint.Constraint;
+
+/**
+ * <p>
+ * Calculates the critical path like {@link CriticalPathCalculator} but
+ * compiling the graph only once into int indexed arrays.
+ * </p>
+ * <p>
+ * Containers are replaced by their leaf tasks, as {@link CriticalPathCalculator}
+ * does, and every leaf task gets an index. Dependencies are kept as adjacency
+ * arrays by origin and by destination and the tasks are sorted
+ * topologically, so the earliest and latest start and finish of each task are
+ * calculated with two loops over primitive arrays instead of recursively
+ * visiting {@link Node} objects.
+ * </p>
+ * <p>
+ * Once calculated, the duration of a task or the dependencies between tasks
+ * can be changed and only the tasks affected by the change are calculated
+ * again.
+ * </p>
+ * <p>
+ * The values are days counted from the earliest start date of the tasks of
+ * the graph. This class isn't thread safe.
+ * </p>
+ */
+public class ArrayCriticalPathCalculator<T, D extends IDependency<T>> implements ICriticalPathCalculator<T> {
+
+    private static final int END_START = 0;
+
+    private static final int START_START = 1;
+
+    private static final int END_END = 2;
+
+    public static <T, D extends IDependency<T>> ArrayCriticalPathCalculator<T, D> create(
+            boolean dependenciesConstraintsHavePriority) {
+        return new ArrayCriticalPathCalculator<>(dependenciesConstraintsHavePriority);
+    }
+
+    private final boolean dependenciesConstraintsHavePriority;
+
+    private ICriticalPathCalculable<T> graph;
+
+    private LocalDate initDate;
+
+    private List<T> tasks;
+
+    private Map<T, Integer> indexes;
+
+    private int[] durations;
+
+    private List<Constraint<GanttDate>> constraints;
+
+    private boolean[] startsProject;
+
+    private boolean[] endsProject;
+
+    private int dependenciesCount;
+
+    private int[] origins;
+
+    private int[] destinations;
+
+    private int[] types;
+
+    private int[] firstOutgoing;
+
+    private int[] outgoing;
+
+    private int[] firstIncoming;
+
+    private int[] incoming;
+
+    private int[] order;
+
+    private int[] positions;
+
+    private int[] earliestStarts;
+
+    private int[] earliestFinishes;
+
+    private int[] latestStarts;
+
+    private int[] latestFinishes;
+
+    private int projectEnd;
+
+    private ArrayCriticalPathCalculator(boolean dependenciesConstraintsHavePriority) {
+        this.dependenciesConstraintsHavePriority = dependenciesConstraintsHavePriority;
+    }
+
+    @Override
+    public List<T> calculateCriticalPath(ICriticalPathCalculable<T> graph) {
+        compile(graph);
+        forwardAll();
+        projectEnd = calculateProjectEnd();
+        backwardAll();
+
+        return getCriticalPath();
+    }
+
+    /**
+     * @return the tasks on the critical path for the last calculated values
+     */
+    public List<T> getCriticalPath() {
+        checkCalculated();
+        List<T> result = new ArrayList<>();
+        for (int i = 0; i < tasks.size(); i++) {
+            if (latestStarts[i] == earliestStarts[i]) {
+                result.add(tasks.get(i));
+            }
+        }
+        return result;
+    }
+
+    public int getEarliestStart(T task) {
+        return earliestStarts[indexOf(task)];
+    }
+
+    public int getEarliestFinish(T task) {
+        return earliestFinishes[indexOf(task)];
+    }
+
+    public int getLatestStart(T task) {
+        return latestStarts[indexOf(task)];
+    }
+
+    public int getLatestFinish(T task) {
+        return latestFinishes[indexOf(task)];
+    }
+
+    /**
+     * Changes the duration of a task already compiled and calculates again the
+     * values of the tasks affected by it.
+     *
+     * @return the new critical path
+     */
+    public List<T> updateDuration(T task, int durationDays) {
+        Validate.isTrue(durationDays >= 0, "the duration cannot be negative");
+        int index = indexOf(task);
+        if (durations[index] != durationDays) {
+            durations[index] = durationDays;
+            recalculate(index, index);
+        }
+        return getCriticalPath();
+    }
+
+    /**
+     * Adds a dependency between two tasks already compiled, or changes its
+     * type if it already existed, and calculates again the values of the
+     * tasks affected by it.
+     *
+     * @return the new critical path
+     * @throws IllegalArgumentException
+     *             if the dependency would create a cycle
+     */
+    public List<T> addDependency(T origin, T destination, DependencyType type) {
+        Validate.notNull(type);
+        int from = indexOf(origin);
+        int to = indexOf(destination);
+        Validate.isTrue(from != to, "a task cannot depend on itself");
+
+        int existing = findDependency(from, to);
+        if (existing >= 0) {
+            types[existing] = toCode(type);
+        } else {
+            addDependency(from, to, toCode(type));
+            buildAdjacency();
+            if (!sortTopologically()) {
+                removeDependencyAt(dependenciesCount - 1);
+                buildAdjacency();
+                sortTopologically();
+                throw new IllegalArgumentException("the dependency from " + origin + " to " + destination
+                        + " would create a cycle");
+            }
+        }
+        dependenciesChangedBetween(from, to);
+        return getCriticalPath();
+    }
+
+    /**
+     * Removes the dependency between two tasks already compiled, if any, and
+     * calculates again the values of the tasks affected by it.
+     *
+     * @return the new critical path
+     */
+    public List<T> removeDependency(T origin, T destination) {
+        int from = indexOf(origin);
+        int to = indexOf(destination);
+
+        int existing = findDependency(from, to);
+        if (existing >= 0) {
+            removeDependencyAt(existing);
+            buildAdjacency();
+            sortTopologically();
+            dependenciesChangedBetween(from, to);
+        }
+        return getCriticalPath();
+    }
+
+    private void dependenciesChangedBetween(int from, int to) {
+        startsProject[to] = allIncomingAre(to, END_END);
+        endsProject[from] = allOutgoingAre(from, START_START);
+        recalculate(to, from);
+    }
+
+    private void checkCalculated() {
+        if (tasks == null) {
+            throw new IllegalStateException("the critical path has not been calculated yet");
+        }
+    }
+
+    private int indexOf(T task) {
+        checkCalculated();
+        Integer result = indexes.get(task);
+        if (result == null) {
+            throw new IllegalArgumentException(task + " is not a task of the graph");
+        }
+        return result;
+    }
+
+    private void compile(ICriticalPathCalculable<T> graph) {
+        this.graph = graph;
+        tasks = new ArrayList<>();
+        indexes = new HashMap<>();
+        for (T each : graph.getTasks()) {
+            if (!graph.isContainer(each) && !indexes.containsKey(each)) {
+                indexes.put(each, tasks.size());
+                tasks.add(each);
+            }
+        }
+        int n = tasks.size();
+
+        initDate = calculateInitDate();
+        durations = new int[n];
+        constraints = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            T task = tasks.get(i);
+            durations[i] = daysBetween(graph.getStartDate(task), graph.getEndDateFor(task));
+            constraints.add(getDateConstraints(task));
+        }
+
+        compileDependencies();
+        buildAdjacency();
+        if (!sortTopologically()) {
+            throw new IllegalArgumentException("the dependencies of the graph have cycles");
+        }
+
+        startsProject = new boolean[n];
+        for (T each : removeContainers(graph.getInitialTasks())) {
+            if (!graph.hasVisibleIncomingDependencies(each) && indexes.containsKey(each)) {
+                startsProject[indexes.get(each)] = true;
+            }
+        }
+        endsProject = new boolean[n];
+        for (T each : removeContainers(graph.getLatestTasks())) {
+            if (!graph.hasVisibleOutcomingDependencies(each) && indexes.containsKey(each)) {
+                endsProject[indexes.get(each)] = true;
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            startsProject[i] |= firstIncoming[i] == firstIncoming[i + 1];
+            endsProject[i] |= firstOutgoing[i] == firstOutgoing[i + 1];
+        }
+
+        earliestStarts = new int[n];
+        earliestFinishes = new int[n];
+        latestStarts = new int[n];
+        latestFinishes = new int[n];
+    }
+
+    private LocalDate calculateInitDate() {
+        if (graph.getTasks().isEmpty()) {
+            return null;
+        }
+        List<GanttDate> startDates = new ArrayList<>();
+        for (T task : graph.getTasks()) {
+            startDates.add(graph.getStartDate(task));
+        }
+        return toLocalDate(Collections.min(startDates));
+    }
+
+    private static LocalDate toLocalDate(GanttDate date) {
+        return LocalDate.fromDateFields(date.toDayRoundedDate());
+    }
+
+    private static int daysBetween(GanttDate start, GanttDate end) {
+        return Days.daysBetween(toLocalDate(start), toLocalDate(end)).getDays();
+    }
+
+    private Constraint<GanttDate> getDateConstraints(T task) {
+        if (dependenciesConstraintsHavePriority) {
+            return null;
+        }
+        List<Constraint<GanttDate>> all = new ArrayList<>();
+        List<Constraint<GanttDate>> startConstraints = graph.getStartConstraintsFor(task);
+        if (startConstraints != null) {
+            all.addAll(startConstraints);
+        }
+        List<Constraint<GanttDate>> endConstraints = graph.getEndConstraintsFor(task);
+        if (endConstraints != null) {
+            all.addAll(endConstraints);
+        }
+        return all.isEmpty() ? null : Constraint.coalesce(all);
+    }
+
+    private Collection<T> removeContainers(Collection<T> tasks) {
+        if (tasks == null) {
+            return Collections.emptyList();
+        }
+        List<T> result = new ArrayList<>();
+        for (T each : tasks) {
+            if (graph.isContainer(each)) {
+                result.addAll(removeContainers(graph.getChildren(each)));
+            } else {
+                result.add(each);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Adds the dependencies among leaf tasks and the ones coming from the
+     * dependencies of containers, which are expanded to all their leaf tasks.
+     * The type of each dependency is the type of the dependency in the graph
+     * if it exists or the type of the dependency of the container otherwise.
+     */
+    private void compileDependencies() {
+        dependenciesCount = 0;
+        origins = new int[16];
+        destinations = new int[16];
+        types = new int[16];
+
+        Set<Long> added = new HashSet<>();
+        Map<Long, DependencyType> containerTypes = new HashMap<>();
+
+        for (T task : tasks) {
+            int index = indexes.get(task);
+            for (T each : graph.getIncomingTasksFor(task)) {
+                addCompiledDependency(added, indexOfLeaf(each), index);
+            }
+            for (T each : graph.getOutgoingTasksFor(task)) {
+                addCompiledDependency(added, index, indexOfLeaf(each));
+            }
+        }
+
+        for (T container : graph.getTasks()) {
+            if (!graph.isContainer(container)) {
+                continue;
+            }
+            Collection<T> children = removeContainers(Collections.singletonList(container));
+            for (T each : removeChildrenAndParents(container, graph.getIncomingTasksFor(container))) {
+                DependencyType type = getTypeEndStartByDefault(graph.getDependencyFrom(each, container));
+                addContainerDependencies(added, containerTypes,
+                        removeContainers(Collections.singletonList(each)), children, type);
+            }
+            for (T each : removeChildrenAndParents(container, graph.getOutgoingTasksFor(container))) {
+                DependencyType type = getTypeEndStartByDefault(graph.getDependencyFrom(container, each));
+                addContainerDependencies(added, containerTypes, children,
+                        removeContainers(Collections.singletonList(each)), type);
+            }
+        }
+
+        for (int i = 0; i < dependenciesCount; i++) {
+            IDependency<T> dependency = graph.getDependencyFrom(tasks.get(origins[i]), tasks.get(destinations[i]));
+            DependencyType type = dependency != null
+                    ? dependency.getType()
+                    : containerTypes.get(key(origins[i], destinations[i]));
+            types[i] = toCode(type);
+        }
+    }
+
+    private int indexOfLeaf(T task) {
+        Integer result = graph.isContainer(task) ? null : indexes.get(task);
+        return result == null ? -1 : result;
+    }
+
+    private Set<T> removeChildrenAndParents(T container, Set<T> tasks) {
+        Set<T> result = new HashSet<>();
+        for (T each : tasks) {
+            if (!graph.contains(container, each) && !graph.contains(each, container)) {
+                result.add(each);
+            }
+        }
+        return result;
+    }
+
+    private static DependencyType getTypeEndStartByDefault(IDependency<?> dependency) {
+        return dependency != null ? dependency.getType() : DependencyType.END_START;
+    }
+
+    private void addContainerDependencies(Set<Long> added, Map<Long, DependencyType> containerTypes,
+            Collection<T> fromTasks, Collection<T> toTasks, DependencyType type) {
+        for (T origin : fromTasks) {
+            for (T destination : toTasks) {
+                int from = indexOfLeaf(origin);
+                int to = indexOfLeaf(destination);
+                if (addCompiledDependency(added, from, to)) {
+                    containerTypes.put(key(from, to), type);
+                }
+            }
+        }
+    }
+
+    private boolean addCompiledDependency(Set<Long> added, int from, int to) {
+        if (from < 0 || to < 0 || from == to) {
+            return false;
+        }
+        if (added.add(key(from, to))) {
+            addDependency(from, to, END_START);
+        }
+        return true;
+    }
+
+    private static long key(int from, int to) {
+        return ((long) from << 32) | to;
+    }
+
+    private static int toCode(DependencyType type) {
+        if (type == null) {
+            return END_START;
+        }
+        switch (type) {
+        case START_START:
+            return START_START;
+        case END_END:
+            return END_END;
+        case END_START:
+        default:
+            return END_START;
+        }
+    }
+
+    private void addDependency(int from, int to, int type) {
+        if (dependenciesCount == origins.length) {
+            int capacity = Math.max(16, dependenciesCount * 2);
+            origins = Arrays.copyOf(origins, capacity);
+            destinations = Arrays.copyOf(destinations, capacity);
+            types = Arrays.copyOf(types, capacity);
+        }
+        origins[dependenciesCount] = from;
+        destinations[dependenciesCount] = to;
+        types[dependenciesCount] = type;
+        dependenciesCount++;
+    }
+
+    private void removeDependencyAt(int dependency) {
+        int last = dependenciesCount - 1;
+        origins[dependency] = origins[last];
+        destinations[dependency] = destinations[last];
+        types[dependency] = types[last];
+        dependenciesCount--;
+    }
+
+    private int findDependency(int from, int to) {
+        for (int i = firstOutgoing[from]; i < firstOutgoing[from + 1]; i++) {
+            if (destinations[outgoing[i]] == to) {
+                return outgoing[i];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Builds the adjacency arrays: the dependencies going out of task
+     * <code>i</code> are <code>outgoing[firstOutgoing[i]]</code> to
+     * <code>outgoing[firstOutgoing[i + 1] - 1]</code> and the same for the
+     * incoming ones.
+     */
+    private void buildAdjacency() {
+        int n = tasks.size();
+        firstOutgoing = new int[n + 1];
+        firstIncoming = new int[n + 1];
+        for (int i = 0; i < dependenciesCount; i++) {
+            firstOutgoing[origins[i] + 1]++;
+            firstIncoming[destinations[i] + 1]++;
+        }
+        for (int i = 0; i < n; i++) {
+            firstOutgoing[i + 1] += firstOutgoing[i];
+            firstIncoming[i + 1] += firstIncoming[i];
+        }
+        outgoing = new int[dependenciesCount];
+        incoming = new int[dependenciesCount];
+        int[] nextOutgoing = Arrays.copyOf(firstOutgoing, n);
+        int[] nextIncoming = Arrays.copyOf(firstIncoming, n);
+        for (int i = 0; i < dependenciesCount; i++) {
+            outgoing[nextOutgoing[origins[i]]++] = i;
+            incoming[nextIncoming[destinations[i]]++] = i;
+        }
+    }
+
+    /**
+     * @return <code>false</code> if the dependencies have cycles
+     */
+    private boolean sortTopologically() {
+        int n = tasks.size();
+        int[] pending = new int[n];
+        int[] result = new int[n];
+        int size = 0;
+        for (int i = 0; i < n; i++) {
+            pending[i] = firstIncoming[i + 1] - firstIncoming[i];
+            if (pending[i] == 0) {
+                result[size++] = i;
+            }
+        }
+        for (int head = 0; head < size; head++) {
+            int current = result[head];
+            for (int i = firstOutgoing[current]; i < firstOutgoing[current + 1]; i++) {
+                int next = destinations[outgoing[i]];
+                if (--pending[next] == 0) {
+                    result[size++] = next;
+                }
+            }
+        }
+        if (size < n) {
+            return false;
+        }
+        order = result;
+        positions = new int[n];
+        for (int i = 0; i < n; i++) {
+            positions[order[i]] = i;
+        }
+        return true;
+    }
+
+    private boolean allIncomingAre(int task, int type) {
+        for (int i = firstIncoming[task]; i < firstIncoming[task + 1]; i++) {
+            if (types[incoming[i]] != type) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean allOutgoingAre(int task, int type) {
+        for (int i = firstOutgoing[task]; i < firstOutgoing[task + 1]; i++) {
+            if (types[outgoing[i]] != type) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int applyConstraint(int task, int start) {
+        Constraint<GanttDate> constraint = constraints.get(task);
+        if (constraint == null) {
+            return start;
+        }
+        GanttDate date = constraint.applyTo(GanttDate.createFrom(initDate.plusDays(start)));
+        return Days.daysBetween(initDate, toLocalDate(date)).getDays();
+    }
+
+    private int calculateEarliestStart(int task) {
+        int result = 0;
+        if (startsProject[task]) {
+            result = Math.max(result, applyConstraint(task, 0));
+        }
+        for (int i = firstIncoming[task]; i < firstIncoming[task + 1]; i++) {
+            int dependency = incoming[i];
+            int previous = origins[dependency];
+            int candidate;
+            switch (types[dependency]) {
+            case START_START:
+                candidate = earliestStarts[previous];
+                break;
+            case END_END:
+                candidate = earliestFinishes[previous] - durations[task];
+                break;
+            default:
+                candidate = earliestFinishes[previous];
+                break;
+            }
+            result = Math.max(result, applyConstraint(task, candidate));
+        }
+        return result;
+    }
+
+    private int calculateLatestFinish(int task) {
+        int duration = durations[task];
+        int result = Integer.MAX_VALUE;
+        if (endsProject[task]) {
+            result = applyConstraint(task, projectEnd - duration) + duration;
+        }
+        for (int i = firstOutgoing[task]; i < firstOutgoing[task + 1]; i++) {
+            int dependency = outgoing[i];
+            int next = destinations[dependency];
+            int candidate;
+            switch (types[dependency]) {
+            case START_START:
+                candidate = latestStarts[next] + duration;
+                break;
+            case END_END:
+                candidate = latestFinishes[next];
+                break;
+            default:
+                candidate = latestStarts[next];
+                break;
+            }
+            result = Math.min(result, applyConstraint(task, candidate - duration) + duration);
+        }
+        return result;
+    }
+
+    private int calculateProjectEnd() {
+        int result = 0;
+        for (int i = 0; i < tasks.size(); i++) {
+            if (endsProject[i]) {
+                result = Math.max(result, earliestFinishes[i]);
+            }
+        }
+        return result;
+    }
+
+    private void forwardAll() {
+        for (int task : order) {
+            earliestStarts[task] = calculateEarliestStart(task);
+            earliestFinishes[task] = earliestStarts[task] + durations[task];
+        }
+    }
+
+    private void backwardAll() {
+        for (int i = order.length - 1; i >= 0; i--) {
+            int task = order[i];
+            latestFinishes[task] = calculateLatestFinish(task);
+            latestStarts[task] = latestFinishes[task] - durations[task];
+        }
+    }
+
+    /**
+     * Calculates again the earliest values from <code>forwardFrom</code> and
+     * the latest values from <code>backwardFrom</code>, only following the
+     * dependencies of the tasks whose values have changed. If the end of the
+     * project changes all the latest values are calculated again.
+     */
+    private void recalculate(int forwardFrom, int backwardFrom) {
+        boolean[] pending = new boolean[tasks.size()];
+
+        pending[forwardFrom] = true;
+        for (int position = positions[forwardFrom]; position < order.length; position++) {
+            int task = order[position];
+            if (!pending[task]) {
+                continue;
+            }
+            pending[task] = false;
+            int earliestStart = calculateEarliestStart(task);
+            int earliestFinish = earliestStart + durations[task];
+            if (earliestStart != earliestStarts[task] || earliestFinish != earliestFinishes[task]) {
+                earliestStarts[task] = earliestStart;
+                earliestFinishes[task] = earliestFinish;
+                for (int i = firstOutgoing[task]; i < firstOutgoing[task + 1]; i++) {
+                    pending[destinations[outgoing[i]]] = true;
+                }
+            }
+        }
+
+        int newProjectEnd = calculateProjectEnd();
+        if (newProjectEnd != projectEnd) {
+            projectEnd = newProjectEnd;
+            backwardAll();
+            return;
+        }
+
+        pending[backwardFrom] = true;
+        for (int position = positions[backwardFrom]; position >= 0; position--) {
+            int task = order[position];
+            if (!pending[task]) {
+                continue;
+            }
+            pending[task] = false;
+            int latestFinish = calculateLatestFinish(task);
+            int latestStart = latestFinish - durations[task];
+            if (latestFinish != latestFinishes[task] || latestStart != latestStarts[task]) {
+                latestFinishes[task] = latestFinish;
+                latestStarts[task] = latestStart;
+                for (int i = firstIncoming[task]; i < firstIncoming[task + 1]; i++) {
+                    pending[origins[incoming[i]]] = true;
+                }
+            }
+        }
+    }
+
+}
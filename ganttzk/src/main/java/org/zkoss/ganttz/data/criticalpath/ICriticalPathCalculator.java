@@ -0,0 +1,35 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.zkoss.ganttz.data.criticalpath;
+
+import java.util.List;
+
+/**
+ * Calculates the tasks that are in the critical path of a
+ * {@link ICriticalPathCalculable} graph.
+ *
+ * @see CriticalPathCalculator
+ * @see ArrayCriticalPathCalculator
+ */
+public interface ICriticalPathCalculator<T> {
+
+    List<T> calculateCriticalPath(ICriticalPathCalculable<T> graph);
+
+}
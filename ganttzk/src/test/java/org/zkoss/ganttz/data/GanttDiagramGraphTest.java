@@ -0,0 +1,251 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.zkoss.ganttz.data;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.joda.time.LocalDate;
+import org.junit.Before;
+import org.junit.Test;
+import org.zkoss.ganttz.data.constraint.Constraint;
+import org.zkoss.ganttz.util.IAction;
+
+/**
+ * Tests for the dependencies enforcement of {@link GanttDiagramGraph}.
+ */
+public class GanttDiagramGraphTest {
+
+    private static final LocalDate START = new LocalDate(2012, 1, 2);
+
+    private static final long DAY = 24L * 60 * 60 * 1000;
+
+    private GanttDiagramGraph<Task, Dependency> graph;
+
+    @Before
+    public void setUp() {
+        graph = GanttDiagramGraph.create(false, GanttDiagramGraph.taskAdapter(),
+                Collections.<Constraint<GanttDate>> emptyList(), Collections.<Constraint<GanttDate>> emptyList(),
+                false);
+    }
+
+    private static Task createTask(String name, LocalDate start, int durationDays) {
+        DefaultFundamentalProperties properties = new DefaultFundamentalProperties(name,
+                start.toDateTimeAtStartOfDay().toDate(), durationDays * DAY, "",
+                start.toDateTimeAtStartOfDay().toDate(), start.toDateTimeAtStartOfDay().toDate(),
+                start.toDateTimeAtStartOfDay().toDate(), null, null, null);
+
+        return new TaskLeaf(properties);
+    }
+
+    private Task addTask(String name, int durationDays) {
+        Task result = createTask(name, START, durationDays);
+        graph.addTopLevel(result);
+
+        return result;
+    }
+
+    private void addDependency(Task source, Task destination) {
+        graph.add(new Dependency(source, destination, DependencyType.END_START));
+    }
+
+    private static void moveTo(Task task, final LocalDate date) {
+        task.doPositionModifications(new ITaskFundamentalProperties.IModifications() {
+            @Override
+            public void doIt(ITaskFundamentalProperties.IUpdatablePosition position) {
+                position.moveTo(GanttDate.createFrom(date));
+            }
+        });
+    }
+
+    private static LocalDate startOf(Task task) {
+        return task.getBeginDate().toLocalDate();
+    }
+
+    private static List<Object> startChangesOf(Task task) {
+        final List<Object> result = new ArrayList<>();
+        task.addFundamentalPropertiesChangeListener(new PropertyChangeListener() {
+            @Override
+            public void propertyChange(PropertyChangeEvent event) {
+                if ( "beginDate".equals(event.getPropertyName()) ) {
+                    result.add(event.getNewValue());
+                }
+            }
+        });
+
+        return result;
+    }
+
+    @Test
+    public void movingATaskMovesTheTasksDependingOnIt() {
+        Task first = addTask("first", 2);
+        Task second = addTask("second", 3);
+        Task third = addTask("third", 1);
+        addDependency(first, second);
+        addDependency(second, third);
+
+        moveTo(first, START.plusDays(10));
+
+        assertThat(startOf(second), equalTo(START.plusDays(12)));
+        assertThat(startOf(third), equalTo(START.plusDays(15)));
+    }
+
+    /**
+     * <pre>
+     * #### A #### -
+     *             |
+     *             -> #### C #### -> #### D ####
+     *             |
+     * #### B #### -
+     * </pre>
+     */
+    @Test
+    public void inBatchModeTheCommonSuccessorsAreRecalculatedAndNotifiedOnce() {
+        final Task a = addTask("a", 2);
+        final Task b = addTask("b", 4);
+        Task c = addTask("c", 1);
+        Task d = addTask("d", 1);
+        addDependency(a, c);
+        addDependency(b, c);
+        addDependency(c, d);
+        List<Object> changesOfC = startChangesOf(c);
+        List<Object> changesOfD = startChangesOf(d);
+
+        graph.enforceRestrictionsInBatch(new IAction() {
+            @Override
+            public void doAction() {
+                moveTo(a, START.plusDays(5));
+                moveTo(b, START.plusDays(6));
+            }
+        });
+
+        assertThat(startOf(c), equalTo(START.plusDays(10)));
+        assertThat(startOf(d), equalTo(START.plusDays(11)));
+        assertThat(changesOfC.size(), equalTo(1));
+        assertThat(changesOfD.size(), equalTo(1));
+    }
+
+    @Test
+    public void theBatchModeCanBeUsedInsideAManualNotification() {
+        final Task a = addTask("a", 2);
+        final Task b = addTask("b", 4);
+        Task c = addTask("c", 1);
+        Task d = addTask("d", 1);
+        addDependency(a, c);
+        addDependency(b, c);
+        addDependency(c, d);
+        List<Object> changesOfC = startChangesOf(c);
+        List<Object> changesOfD = startChangesOf(d);
+
+        GanttDiagramGraph<Task, Dependency>.DeferedNotifier notifier = graph.manualNotificationOn(new IAction() {
+            @Override
+            public void doAction() {
+                graph.enforceRestrictionsInBatch(new IAction() {
+                    @Override
+                    public void doAction() {
+                        moveTo(a, START.plusDays(5));
+                        moveTo(b, START.plusDays(6));
+                    }
+                });
+            }
+        });
+        notifier.doNotifications();
+
+        assertThat(startOf(c), equalTo(START.plusDays(10)));
+        assertThat(startOf(d), equalTo(START.plusDays(11)));
+        assertThat(changesOfC.size(), equalTo(1));
+        assertThat(changesOfD.size(), equalTo(1));
+    }
+
+    @Test
+    public void theBatchModeHasTheSameResultAsEnforcingEachModification() {
+        List<Task> sequential = createFanOut();
+        List<Task> batched = createFanOut();
+
+        moveTo(sequential.get(0), START.plusDays(3));
+        moveTo(sequential.get(1), START.plusDays(7));
+
+        final Task first = batched.get(0);
+        final Task second = batched.get(1);
+        graph.enforceRestrictionsInBatch(new IAction() {
+            @Override
+            public void doAction() {
+                moveTo(first, START.plusDays(3));
+                moveTo(second, START.plusDays(7));
+            }
+        });
+
+        for (int i = 0; i < sequential.size(); i++) {
+            assertThat(startOf(batched.get(i)), equalTo(startOf(sequential.get(i))));
+        }
+    }
+
+    /**
+     * Two roots with a chain of successors each one and some tasks depending
+     * on both chains.
+     */
+    private List<Task> createFanOut() {
+        List<Task> result = new ArrayList<>();
+        Task firstRoot = addTask("r1", 2);
+        Task secondRoot = addTask("r2", 1);
+        result.add(firstRoot);
+        result.add(secondRoot);
+        Task previousOfFirst = firstRoot;
+        Task previousOfSecond = secondRoot;
+        for (int i = 0; i < 5; i++) {
+            Task ofFirst = addTask("f" + i, 1 + i);
+            Task ofSecond = addTask("s" + i, 3);
+            Task common = addTask("c" + i, 2);
+            addDependency(previousOfFirst, ofFirst);
+            addDependency(previousOfSecond, ofSecond);
+            addDependency(ofFirst, common);
+            addDependency(ofSecond, common);
+            result.add(ofFirst);
+            result.add(ofSecond);
+            result.add(common);
+            previousOfFirst = ofFirst;
+            previousOfSecond = ofSecond;
+        }
+
+        return result;
+    }
+
+    @Test
+    public void enforcingSeveralTasksAtOnce() {
+        Task a = addTask("a", 2);
+        Task b = addTask("b", 4);
+        Task c = addTask("c", 1);
+        graph.addWithoutEnforcingConstraints(new Dependency(a, c, DependencyType.END_START));
+        graph.addWithoutEnforcingConstraints(new Dependency(b, c, DependencyType.END_START));
+        assertThat(startOf(c), equalTo(START));
+
+        graph.enforceRestrictions(Arrays.asList(a, b));
+
+        assertThat(startOf(c), equalTo(START.plusDays(4)));
+    }
+
+}
@@ -0,0 +1,388 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.zkoss.ganttz.data.criticalpath;
+
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.joda.time.LocalDate;
+import org.junit.Test;
+import org.zkoss.ganttz.data.DependencyType;
+import org.zkoss.ganttz.data.GanttDate;
+import org.zkoss.ganttz.data.IDependency;
+import org.zkoss.ganttz.data.ITaskFundamentalProperties;
+
+/**
+ * Tests for {@link ArrayCriticalPathCalculator}.
+ * <p>
+ * All the examples of {@link CriticalPathCalculatorTest} are run with this
+ * calculator too. The incremental updates are checked against calculating
+ * from scratch the graph with the change already applied.
+ * </p>
+ */
+public class ArrayCriticalPathCalculatorTest extends CriticalPathCalculatorTest {
+
+    private static final LocalDate START = new LocalDate(2009, 12, 1);
+
+    private static final DependencyType[] TYPES = {
+            DependencyType.END_START, DependencyType.START_START, DependencyType.END_END };
+
+    @Override
+    protected ICriticalPathCalculator<ITaskFundamentalProperties> buildCalculator() {
+        return ArrayCriticalPathCalculator.create(false);
+    }
+
+    private static class Example {
+
+        private final int[] durations;
+
+        private final List<int[]> dependencies = new ArrayList<>();
+
+        private List<ITaskFundamentalProperties> tasks;
+
+        private ICriticalPathCalculable<ITaskFundamentalProperties> graph;
+
+        Example(int... durations) {
+            this.durations = durations.clone();
+        }
+
+        Example dependency(int from, int to, DependencyType type) {
+            removeDependency(from, to);
+            dependencies.add(new int[] { from, to, type.ordinal() });
+            return this;
+        }
+
+        Example removeDependency(int from, int to) {
+            for (int[] each : dependencies) {
+                if (each[0] == from && each[1] == to) {
+                    dependencies.remove(each);
+                    break;
+                }
+            }
+            return this;
+        }
+
+        Example duration(int task, int days) {
+            durations[task] = days;
+            return this;
+        }
+
+        ITaskFundamentalProperties task(int index) {
+            return tasks.get(index);
+        }
+
+        ICriticalPathCalculable<ITaskFundamentalProperties> build() {
+            tasks = new ArrayList<>();
+            for (int each : durations) {
+                tasks.add(createTask(START, each));
+            }
+
+            graph = createNiceMock(ICriticalPathCalculable.class);
+            expect(graph.getTasks()).andReturn(tasks).anyTimes();
+            expect(graph.getInitialTasks()).andReturn(tasksWithAllDependencies(1, DependencyType.END_END))
+                    .anyTimes();
+            expect(graph.getLatestTasks()).andReturn(tasksWithAllDependencies(0, DependencyType.START_START))
+                    .anyTimes();
+
+            for (int[] each : dependencies) {
+                expect(graph.getDependencyFrom(task(each[0]), task(each[1])))
+                        .andReturn(createDependency(task(each[0]), task(each[1]), DependencyType.values()[each[2]]))
+                        .anyTimes();
+            }
+            for (int i = 0; i < tasks.size(); i++) {
+                ITaskFundamentalProperties task = task(i);
+                expect(graph.getIncomingTasksFor(task)).andReturn(related(i, 1, 0)).anyTimes();
+                expect(graph.getOutgoingTasksFor(task)).andReturn(related(i, 0, 1)).anyTimes();
+                expect(graph.getStartDate(task)).andReturn(task.getBeginDate()).anyTimes();
+                expect(graph.getEndDateFor(task)).andReturn(task.getEndDate()).anyTimes();
+            }
+            replay(graph);
+
+            return graph;
+        }
+
+        /**
+         * The tasks with no dependencies on <code>side</code> or with all of
+         * them of the given type, like the initial and the latest tasks of a
+         * Gantt diagram graph.
+         */
+        private List<ITaskFundamentalProperties> tasksWithAllDependencies(int side, DependencyType type) {
+            List<ITaskFundamentalProperties> result = new ArrayList<>();
+            for (int i = 0; i < tasks.size(); i++) {
+                boolean allOfType = true;
+                for (int[] each : dependencies) {
+                    allOfType &= each[side] != i || each[2] == type.ordinal();
+                }
+                if (allOfType) {
+                    result.add(task(i));
+                }
+            }
+            return result;
+        }
+
+        private Set<ITaskFundamentalProperties> related(int task, int side, int otherSide) {
+            Set<ITaskFundamentalProperties> result = new HashSet<>();
+            for (int[] each : dependencies) {
+                if (each[side] == task) {
+                    result.add(task(each[otherSide]));
+                }
+            }
+            return result;
+        }
+
+    }
+
+    private static ITaskFundamentalProperties createTask(LocalDate start, int durationDays) {
+        ITaskFundamentalProperties result = createNiceMock(ITaskFundamentalProperties.class);
+        expect(result.getBeginDate()).andReturn(GanttDate.createFrom(start)).anyTimes();
+        expect(result.getEndDate()).andReturn(GanttDate.createFrom(start.plusDays(durationDays))).anyTimes();
+        replay(result);
+
+        return result;
+    }
+
+    private static IDependency<ITaskFundamentalProperties> createDependency(
+            ITaskFundamentalProperties source,
+            ITaskFundamentalProperties destination,
+            DependencyType dependencyType) {
+
+        IDependency<ITaskFundamentalProperties> dependency = createNiceMock(IDependency.class);
+        expect(dependency.getSource()).andReturn(source).anyTimes();
+        expect(dependency.getDestination()).andReturn(destination).anyTimes();
+        expect(dependency.getType()).andReturn(dependencyType).anyTimes();
+        replay(dependency);
+
+        return dependency;
+    }
+
+    private static ArrayCriticalPathCalculator<ITaskFundamentalProperties, IDependency<ITaskFundamentalProperties>>
+    calculated(Example example) {
+        return calculated(example.build());
+    }
+
+    private static ArrayCriticalPathCalculator<ITaskFundamentalProperties, IDependency<ITaskFundamentalProperties>>
+    calculated(ICriticalPathCalculable<ITaskFundamentalProperties> graph) {
+        ArrayCriticalPathCalculator<ITaskFundamentalProperties, IDependency<ITaskFundamentalProperties>> result =
+                ArrayCriticalPathCalculator.create(false);
+
+        result.calculateCriticalPath(graph);
+        return result;
+    }
+
+    /**
+     * Checks that the values kept by <code>updated</code> for the tasks of
+     * <code>before</code> are the same that calculating from scratch
+     * <code>after</code>, that must have the same tasks in the same order.
+     */
+    private static void assertSameAsCalculatingFromScratch(
+            ArrayCriticalPathCalculator<ITaskFundamentalProperties, IDependency<ITaskFundamentalProperties>> updated,
+            Example before, Example after) {
+
+        ICriticalPathCalculable<ITaskFundamentalProperties> graph = after.build();
+        ArrayCriticalPathCalculator<ITaskFundamentalProperties, IDependency<ITaskFundamentalProperties>> fromScratch =
+                calculated(graph);
+
+        for (int i = 0; i < before.durations.length; i++) {
+            ITaskFundamentalProperties updatedTask = before.task(i);
+            ITaskFundamentalProperties task = after.task(i);
+            assertThat(updated.getEarliestStart(updatedTask), equalTo(fromScratch.getEarliestStart(task)));
+            assertThat(updated.getEarliestFinish(updatedTask), equalTo(fromScratch.getEarliestFinish(task)));
+            assertThat(updated.getLatestStart(updatedTask), equalTo(fromScratch.getLatestStart(task)));
+            assertThat(updated.getLatestFinish(updatedTask), equalTo(fromScratch.getLatestFinish(task)));
+        }
+
+        CriticalPathCalculator<ITaskFundamentalProperties, IDependency<ITaskFundamentalProperties>> calculator =
+                CriticalPathCalculator.create(false);
+        List<ITaskFundamentalProperties> expected = calculator.calculateCriticalPath(graph);
+        assertThat(indexesOf(updated.getCriticalPath(), before), equalTo(indexesOf(expected, after)));
+    }
+
+    private static Set<Integer> indexesOf(List<ITaskFundamentalProperties> criticalPath, Example example) {
+        Set<Integer> result = new HashSet<>();
+        for (ITaskFundamentalProperties each : criticalPath) {
+            result.add(example.tasks.indexOf(each));
+        }
+        return result;
+    }
+
+    /**
+     * <pre>
+     *            -> #### T1 #### -
+     *           |                |
+     * #### T0 ###                -> #### T3 ####
+     *           |                |
+     *            -> ## T2 ## ----
+     * </pre>
+     */
+    private static Example diamond(int daysTask1, int daysTask2) {
+        return new Example(3, daysTask1, daysTask2, 4)
+                .dependency(0, 1, DependencyType.END_START)
+                .dependency(0, 2, DependencyType.END_START)
+                .dependency(1, 3, DependencyType.END_START)
+                .dependency(2, 3, DependencyType.END_START);
+    }
+
+    @Test
+    public void changingTheDurationOfATaskMovesTheCriticalPath() {
+        Example example = diamond(10, 5);
+        ArrayCriticalPathCalculator<ITaskFundamentalProperties, IDependency<ITaskFundamentalProperties>> calculator =
+                calculated(example);
+        assertThat(indexesOf(calculator.getCriticalPath(), example), equalTo(set(0, 1, 3)));
+
+        calculator.updateDuration(example.task(2), 12);
+
+        assertThat(indexesOf(calculator.getCriticalPath(), example), equalTo(set(0, 2, 3)));
+        assertSameAsCalculatingFromScratch(calculator, example, diamond(10, 12));
+    }
+
+    @Test
+    public void shorteningTheLastTaskKeepsTheValuesConsistent() {
+        Example example = diamond(10, 5);
+        ArrayCriticalPathCalculator<ITaskFundamentalProperties, IDependency<ITaskFundamentalProperties>> calculator =
+                calculated(example);
+
+        calculator.updateDuration(example.task(3), 1);
+
+        assertSameAsCalculatingFromScratch(calculator, example, diamond(10, 5).duration(3, 1));
+    }
+
+    @Test
+    public void addingADependencyUpdatesTheCriticalPath() {
+        Example example = new Example(5, 6, 8, 2)
+                .dependency(0, 1, DependencyType.END_START)
+                .dependency(2, 3, DependencyType.END_START);
+        ArrayCriticalPathCalculator<ITaskFundamentalProperties, IDependency<ITaskFundamentalProperties>> calculator =
+                calculated(example);
+        assertThat(indexesOf(calculator.getCriticalPath(), example), equalTo(set(0, 1)));
+
+        calculator.addDependency(example.task(1), example.task(2), DependencyType.END_START);
+
+        assertSameAsCalculatingFromScratch(calculator, example, new Example(5, 6, 8, 2)
+                .dependency(0, 1, DependencyType.END_START)
+                .dependency(2, 3, DependencyType.END_START)
+                .dependency(1, 2, DependencyType.END_START));
+        assertThat(indexesOf(calculator.getCriticalPath(), example), equalTo(set(0, 1, 2, 3)));
+    }
+
+    @Test
+    public void changingTheTypeOfADependency() {
+        Example example = new Example(5, 3).dependency(0, 1, DependencyType.END_START);
+        ArrayCriticalPathCalculator<ITaskFundamentalProperties, IDependency<ITaskFundamentalProperties>> calculator =
+                calculated(example);
+
+        calculator.addDependency(example.task(0), example.task(1), DependencyType.START_START);
+
+        assertSameAsCalculatingFromScratch(calculator, example,
+                new Example(5, 3).dependency(0, 1, DependencyType.START_START));
+    }
+
+    @Test
+    public void removingADependencyUpdatesTheCriticalPath() {
+        Example example = diamond(10, 5);
+        ArrayCriticalPathCalculator<ITaskFundamentalProperties, IDependency<ITaskFundamentalProperties>> calculator =
+                calculated(example);
+
+        calculator.removeDependency(example.task(1), example.task(3));
+
+        assertSameAsCalculatingFromScratch(calculator, example, diamond(10, 5).removeDependency(1, 3));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void aDependencyCreatingACycleIsNotAllowed() {
+        Example example = diamond(10, 5);
+        ArrayCriticalPathCalculator<ITaskFundamentalProperties, IDependency<ITaskFundamentalProperties>> calculator =
+                calculated(example);
+
+        calculator.addDependency(example.task(3), example.task(0), DependencyType.END_START);
+    }
+
+    @Test
+    public void aRejectedDependencyDoesNotChangeTheValues() {
+        Example example = diamond(10, 5);
+        ArrayCriticalPathCalculator<ITaskFundamentalProperties, IDependency<ITaskFundamentalProperties>> calculator =
+                calculated(example);
+        try {
+            calculator.addDependency(example.task(3), example.task(1), DependencyType.END_START);
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+
+        assertSameAsCalculatingFromScratch(calculator, example, diamond(10, 5));
+    }
+
+    @Test
+    public void severalRandomChangesAreTheSameAsCalculatingFromScratch() {
+        Random random = new Random(7);
+        int tasks = 25;
+        int[] durations = new int[tasks];
+        for (int i = 0; i < tasks; i++) {
+            durations[i] = 1 + random.nextInt(10);
+        }
+        Example example = new Example(durations);
+        Example current = new Example(durations);
+        for (int i = 0; i < 40; i++) {
+            int from = random.nextInt(tasks - 1);
+            int to = from + 1 + random.nextInt(tasks - from - 1);
+            DependencyType type = TYPES[random.nextInt(TYPES.length)];
+            example.dependency(from, to, type);
+            current.dependency(from, to, type);
+        }
+        ArrayCriticalPathCalculator<ITaskFundamentalProperties, IDependency<ITaskFundamentalProperties>> calculator =
+                calculated(example);
+
+        for (int i = 0; i < 30; i++) {
+            int task = random.nextInt(tasks);
+            int from = random.nextInt(tasks - 1);
+            int to = from + 1 + random.nextInt(tasks - from - 1);
+            switch (random.nextInt(3)) {
+            case 0:
+                int days = random.nextInt(15);
+                calculator.updateDuration(example.task(task), days);
+                current.duration(task, days);
+                break;
+            case 1:
+                DependencyType type = TYPES[random.nextInt(TYPES.length)];
+                calculator.addDependency(example.task(from), example.task(to), type);
+                current.dependency(from, to, type);
+                break;
+            default:
+                calculator.removeDependency(example.task(from), example.task(to));
+                current.removeDependency(from, to);
+                break;
+            }
+            assertSameAsCalculatingFromScratch(calculator, example, current);
+        }
+    }
+
+    private static Set<Integer> set(Integer... values) {
+        return new HashSet<>(Arrays.asList(values));
+    }
+
+}
@@ -65,9 +65,7 @@ public class CriticalPathCalculatorTest {
         return result;
     }
 
-    private CriticalPathCalculator<ITaskFundamentalProperties, IDependency<ITaskFundamentalProperties>>
-    buildCalculator() {
-
+    protected ICriticalPathCalculator<ITaskFundamentalProperties> buildCalculator() {
         return CriticalPathCalculator.create(false);
     }
 
@@ -22,9 +22,13 @@
 package org.libreplan.business.calendars.entities;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.Objects;
 
@@ -74,6 +78,10 @@ public class BaseCalendar extends IntegrationEntity implements ICalendar, IHuman
 
     private Integer lastSequenceCode = 0;
 
+    private long capacityModification = CalendarCapacityIndex.nextModification();
+
+    private volatile CalendarCapacityIndex capacityIndex;
+
     /**
      * Constructor for hibernate. Do not use!
      */
@@ -129,6 +137,7 @@ public class BaseCalendar extends IntegrationEntity implements ICalendar, IHuman
 
         if ((calendarDataVersions != null) && (!calendarDataVersions.isEmpty())) {
             baseCalendar.calendarDataVersions = calendarDataVersions;
+            baseCalendar.invalidateCapacityIndex();
         }
 
         if (parent != null) {
@@ -239,6 +248,7 @@ public class BaseCalendar extends IntegrationEntity implements ICalendar, IHuman
         }
 
         exceptions.add(day);
+        invalidateCapacityIndex();
     }
 
     public void removeExceptionDay(LocalDate date) {
@@ -249,6 +259,7 @@ public class BaseCalendar extends IntegrationEntity implements ICalendar, IHuman
         }
 
         exceptions.remove(day);
+        invalidateCapacityIndex();
     }
 
     public void updateExceptionDay(LocalDate date, Capacity capacity, CalendarExceptionType type) {
@@ -290,11 +301,20 @@ public class BaseCalendar extends IntegrationEntity implements ICalendar, IHuman
     }
 
     private Capacity findCapacityAt(LocalDate date) {
+        int epochDay = CalendarCapacityIndex.toEpochDay(date);
+        CalendarCapacityIndex index = getCapacityIndexCovering(epochDay, epochDay + 1);
+        if (index != null) {
+            return index.getCapacityAt(epochDay);
+        }
+
+        return calculateCapacityAt(date, getExceptionDay(date));
+    }
+
+    private Capacity calculateCapacityAt(LocalDate date, CalendarException exceptionDay) {
         if (!isActive(date)) {
             return Capacity.zero();
         }
 
-        CalendarException exceptionDay = getExceptionDay(date);
         if (exceptionDay != null) {
             return exceptionDay.getCapacity();
         }
@@ -302,6 +322,80 @@ public class BaseCalendar extends IntegrationEntity implements ICalendar, IHuman
         return getCapacityConsideringCalendarDataOn(date, getDayFrom(date));
     }
 
+    /**
+     * Every change that could modify the capacities of the calendar must call
+     * this. The changes done through the methods of {@link BaseCalendar} and
+     * {@link CalendarData} already do it, but modifying the
+     * {@link CalendarException exceptions} or the {@link CalendarAvailability
+     * availabilities} directly doesn't.
+     */
+    public void invalidateCapacityIndex() {
+        capacityModification = CalendarCapacityIndex.nextModification();
+    }
+
+    /**
+     * The biggest modification of this calendar, its versions and the
+     * calendars it derives from. If it has changed since a
+     * {@link CalendarCapacityIndex} was built the index is outdated.
+     */
+    public long getCapacityStamp() {
+        long result = capacityModification;
+        for (CalendarData each : calendarDataVersions) {
+            result = Math.max(result, each.getCapacityModification());
+            BaseCalendar parent = each.getParent();
+            if (parent != null) {
+                result = Math.max(result, parent.getCapacityStamp());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return an up to date index including the days provided or
+     *         <code>null</code> if they're out of the days that can be indexed
+     */
+    private CalendarCapacityIndex getCapacityIndexCovering(int fromEpochDay, int endEpochDayExclusive) {
+        long stamp = getCapacityStamp();
+        CalendarCapacityIndex current = capacityIndex;
+        if (current != null && current.getStamp() == stamp && current.covers(fromEpochDay, endEpochDayExclusive)) {
+            return current;
+        }
+
+        CalendarCapacityIndex.Builder builder =
+                CalendarCapacityIndex.builderCovering(current, stamp, fromEpochDay, endEpochDayExclusive);
+        if (builder == null) {
+            return null;
+        }
+
+        Map<CalendarData, Map<LocalDate, CalendarException>> exceptionsByVersion = new IdentityHashMap<>();
+        LocalDate day = builder.getStart();
+        for (int i = 0; i < builder.size(); i++) {
+            CalendarData version = getCalendarData(day);
+            Map<LocalDate, CalendarException> exceptionsByDate = exceptionsByVersion.get(version);
+            if (exceptionsByDate == null) {
+                exceptionsByDate = byDate(getExceptions(day));
+                exceptionsByVersion.put(version, exceptionsByDate);
+            }
+            if (!builder.add(calculateCapacityAt(day, exceptionsByDate.get(day)))) {
+                return null;
+            }
+            day = day.plusDays(1);
+        }
+
+        CalendarCapacityIndex result = builder.build();
+        capacityIndex = result;
+
+        return result;
+    }
+
+    private static Map<LocalDate, CalendarException> byDate(Collection<CalendarException> exceptions) {
+        Map<LocalDate, CalendarException> result = new HashMap<>();
+        for (CalendarException each : exceptions) {
+            result.put(each.getDate(), each);
+        }
+        return result;
+    }
+
     private Days getDayFrom(LocalDate date) {
         return Days.values()[date.getDayOfWeek() - 1];
     }
@@ -346,11 +440,52 @@ public class BaseCalendar extends IntegrationEntity implements ICalendar, IHuman
      * @return Duration of work
      */
     public EffortDuration getWorkableDuration(LocalDate init, LocalDate endInclusive) {
+        return getCapacityBetween(IntraDayDate.startOfDay(init), IntraDayDate.startOfDay(endInclusive).nextDayAtStart());
+    }
 
-        Iterable<PartialDay> daysBetween =
-                IntraDayDate.startOfDay(init).daysUntil(IntraDayDate.startOfDay(endInclusive).nextDayAtStart());
+    /**
+     * The whole days in the interval are added up with the
+     * {@link CalendarCapacityIndex}, only the partial days at the start and
+     * the end are asked one by one.
+     */
+    @Override
+    public EffortDuration getCapacityBetween(IntraDayDate startInclusive, IntraDayDate endExclusive) {
+        Validate.isTrue(startInclusive.compareTo(endExclusive) <= 0, "the start must not be after the end");
+
+        LocalDate firstWholeDay = startInclusive.getEffortDuration().isZero()
+                ? startInclusive.getDate()
+                : startInclusive.getDate().plusDays(1);
+        LocalDate endOfWholeDays = endExclusive.getDate();
+
+        if (firstWholeDay.isBefore(endOfWholeDays)) {
+            EffortDuration wholeDays = getCapacityOfWholeDays(firstWholeDay, endOfWholeDays);
+            if (wholeDays != null) {
+                return sumDayByDay(startInclusive, IntraDayDate.startOfDay(firstWholeDay))
+                        .plus(wholeDays)
+                        .plus(sumDayByDay(IntraDayDate.startOfDay(endOfWholeDays), endExclusive));
+            }
+        }
+
+        return sumDayByDay(startInclusive, endExclusive);
+    }
+
+    /**
+     * @return the capacity of the days or <code>null</code> if they can't be
+     *         indexed
+     */
+    private EffortDuration getCapacityOfWholeDays(LocalDate startInclusive, LocalDate endExclusive) {
+        int from = CalendarCapacityIndex.toEpochDay(startInclusive);
+        int end = CalendarCapacityIndex.toEpochDay(endExclusive);
+        CalendarCapacityIndex index = getCapacityIndexCovering(from, end);
+        if (index == null) {
+            return null;
+        }
 
-        return EffortDuration.sum(daysBetween, new IEffortFrom<PartialDay>() {
+        return multiplyByCalendarUnits(standardCapacity(index.getStandardSeconds(from, end))).getStandardEffort();
+    }
+
+    private EffortDuration sumDayByDay(IntraDayDate startInclusive, IntraDayDate endExclusive) {
+        return EffortDuration.sum(startInclusive.daysUntil(endExclusive), new IEffortFrom<PartialDay>() {
             @Override
             public EffortDuration from(PartialDay each) {
                 return getCapacityOn(each);
@@ -444,6 +579,7 @@ public class BaseCalendar extends IntegrationEntity implements ICalendar, IHuman
                         }
 
                         Collections.sort(calendarDataVersions, CalendarData.BY_EXPIRING_DATE_COMPARATOR);
+                        invalidateCapacityIndex();
 
                         return newCalendarData;
                     }
@@ -491,6 +627,7 @@ public class BaseCalendar extends IntegrationEntity implements ICalendar, IHuman
         CalendarData newCalendarData = CalendarData.create();
         calendarDataVersions.add(newCalendarData);
         Collections.sort(calendarDataVersions, CalendarData.BY_EXPIRING_DATE_COMPARATOR);
+        invalidateCapacityIndex();
 
         return newCalendarData;
     }
@@ -508,6 +645,7 @@ public class BaseCalendar extends IntegrationEntity implements ICalendar, IHuman
         newCalendarData.setExpiringDate(expiringDate);
         calendarDataVersions.add(newCalendarData);
         Collections.sort(calendarDataVersions, CalendarData.BY_EXPIRING_DATE_COMPARATOR);
+        invalidateCapacityIndex();
 
         return newCalendarData;
     }
@@ -561,6 +699,7 @@ public class BaseCalendar extends IntegrationEntity implements ICalendar, IHuman
             else{
                 calendarDataVersions.add(version);
                 Collections.sort(calendarDataVersions, CalendarData.BY_EXPIRING_DATE_COMPARATOR);
+                invalidateCapacityIndex();
                 return;
             }
         }
@@ -583,6 +722,7 @@ public class BaseCalendar extends IntegrationEntity implements ICalendar, IHuman
                 }
 
                 calendarDataVersions.add(i, version);
+                invalidateCapacityIndex();
 
                 return;
             }
@@ -590,7 +730,7 @@ public class BaseCalendar extends IntegrationEntity implements ICalendar, IHuman
 
         calendarDataVersions.add(version);
         Collections.sort(calendarDataVersions, CalendarData.BY_EXPIRING_DATE_COMPARATOR);
-
+        invalidateCapacityIndex();
     }
 
     public BaseCalendar newCopy() {
@@ -609,6 +749,7 @@ public class BaseCalendar extends IntegrationEntity implements ICalendar, IHuman
         }
 
         copy.exceptions = new HashSet<>(this.exceptions);
+        copy.invalidateCapacityIndex();
     }
 
     public BaseCalendar newCopyResourceCalendar() {
@@ -813,6 +954,7 @@ public class BaseCalendar extends IntegrationEntity implements ICalendar, IHuman
         } else {
             calendarDataVersions.remove(calendarData);
         }
+        invalidateCapacityIndex();
     }
 
     public LocalDate getValidFrom(CalendarData calendarData) {
@@ -867,11 +1009,13 @@ public class BaseCalendar extends IntegrationEntity implements ICalendar, IHuman
                 }
             }
             calendarAvailabilities.add(calendarAvailability);
+            invalidateCapacityIndex();
         }
     }
 
     public void removeCalendarAvailability(CalendarAvailability calendarAvailability) {
         calendarAvailabilities.remove(calendarAvailability);
+        invalidateCapacityIndex();
     }
 
     public boolean isActive(LocalDate date) {
@@ -948,6 +1092,7 @@ public class BaseCalendar extends IntegrationEntity implements ICalendar, IHuman
             throw new IllegalArgumentException("Start date could not overlap previous calendar availability");
         }
         calendarAvailability.setStartDate(startDate);
+        invalidateCapacityIndex();
     }
 
     public void setEndDate(CalendarAvailability calendarAvailability, LocalDate endDate) {
@@ -957,6 +1102,7 @@ public class BaseCalendar extends IntegrationEntity implements ICalendar, IHuman
             throw new IllegalArgumentException("End date could not overlap next calendar availability");
         }
         calendarAvailability.setEndDate(endDate);
+        invalidateCapacityIndex();
     }
 
     @Override
@@ -970,13 +1116,48 @@ public class BaseCalendar extends IntegrationEntity implements ICalendar, IHuman
         return duration.atNearestMinute();
     }
 
+    /**
+     * The sum of {@link #asDurationOn(PartialDay, ResourcesPerDay)} for one
+     * resource per day along the whole days from start to end. With one
+     * resource per day that's the standard effort of each day, so it can be
+     * calculated with the index.
+     *
+     * @return the sum or <code>null</code> if the index can't be used
+     */
+    EffortDuration getDurationForOneResourcePerDay(LocalDate start, LocalDate endExclusive) {
+        int from = CalendarCapacityIndex.toEpochDay(start);
+        int end = CalendarCapacityIndex.toEpochDay(endExclusive);
+        if (from >= end) {
+            return EffortDuration.zero();
+        }
+        CalendarCapacityIndex index = getCapacityIndexCovering(from, end);
+        if (index == null || !index.isStandardInWholeMinutes() || !limitsAllowTheStandardEffort()) {
+            return null;
+        }
+        return EffortDuration.seconds((int) index.getStandardSeconds(from, end));
+    }
+
+    /**
+     * Only a calendar with zero units could limit the effort of a day below
+     * its standard effort.
+     */
+    private boolean limitsAllowTheStandardEffort() {
+        Capacity oneHour = Capacity.create(EffortDuration.hours(1)).notOverAssignableWithoutLimit();
+        return multiplyByCalendarUnits(oneHour).getStandardEffort().compareTo(EffortDuration.hours(1)) >= 0;
+    }
+
+    private static Capacity standardCapacity(long seconds) {
+        return Capacity.create(EffortDuration.seconds((int) seconds));
+    }
+
     /**
      * <p>
      *     Calendar units are the number of units this calendar is applied to.
      *     For example a {@link VirtualWorker} composed of ten workers would multiply the capacity by ten.
      * </p>
      * <p>
-     *     This method is intended to be overridden.
+     *     This method is intended to be overridden. The capacities are multiplied, so the capacity of several days
+     *     multiplied at once must be the same as multiplying each one.
      * </p>
      *
      */
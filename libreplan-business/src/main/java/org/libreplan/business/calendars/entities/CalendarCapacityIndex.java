@@ -0,0 +1,254 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.business.calendars.entities;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.lang3.Validate;
+import org.joda.time.LocalDate;
+
+/**
+ * <p>
+ * Precomputed capacities of a {@link BaseCalendar} for some contiguous days.
+ * </p>
+ * <p>
+ * Resolving the capacity of a day means looking for the {@link CalendarData}
+ * version, the exceptions of the calendar and its parents and the
+ * {@link CalendarAvailability availabilities}. The index does that once per
+ * day and keeps the result packed: the distinct capacities found are stored
+ * only once and each day keeps the position of its capacity as a
+ * <code>short</code>. It also keeps the accumulated standard effort so the sum
+ * of any range of days is a subtraction.
+ * </p>
+ * <p>
+ * The stored capacities are not multiplied by the calendar units, that's done
+ * by the calendar when reading them.
+ * </p>
+ * <p>
+ * The index is immutable. Every change done to the calendars involved takes a
+ * new value from {@link #nextModification()}, so an index built with a
+ * {@link #getStamp() stamp} smaller than the current one of the calendar is
+ * outdated.
+ * </p>
+ *
+ * @see BaseCalendar#getCapacityStamp()
+ */
+public class CalendarCapacityIndex {
+
+    /**
+     * By default at most thirty years are indexed per calendar. The days out
+     * of the indexed ones are calculated without the index.
+     */
+    public static final int DEFAULT_MAX_INDEXED_DAYS = 30 * 366;
+
+    /**
+     * The index grows in blocks of this size, aligned so the blocks of
+     * different calendars are the same.
+     */
+    static final int BLOCK_DAYS = 366;
+
+    private static final AtomicLong modifications = new AtomicLong();
+
+    private static volatile int maxIndexedDays = DEFAULT_MAX_INDEXED_DAYS;
+
+    public static long nextModification() {
+        return modifications.incrementAndGet();
+    }
+
+    public static int getMaxIndexedDays() {
+        return maxIndexedDays;
+    }
+
+    /**
+     * Sets the horizon of the indexes built from now on. Zero disables the
+     * indexes, so all capacities are calculated day by day.
+     */
+    public static void setMaxIndexedDays(int days) {
+        Validate.isTrue(days >= 0, "days cannot be negative");
+        maxIndexedDays = days;
+    }
+
+    /**
+     * Number of days since 1970-01-01. It's done with the fields of the date
+     * instead of {@link org.joda.time.Days#daysBetween} since this is called
+     * for every lookup.
+     */
+    public static int toEpochDay(LocalDate date) {
+        int month = date.getMonthOfYear();
+        int year = month <= 2 ? date.getYear() - 1 : date.getYear();
+        int era = (year >= 0 ? year : year - 399) / 400;
+        int yearOfEra = year - era * 400;
+        int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + date.getDayOfMonth() - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    /**
+     * @param current
+     *            the index that is going to be replaced if it's still valid,
+     *            so the new one keeps its days. It can be <code>null</code>
+     * @return a builder for the days needed or <code>null</code> if they are
+     *         more than {@link #getMaxIndexedDays()}
+     */
+    static Builder builderCovering(CalendarCapacityIndex current, long stamp, int fromEpochDay,
+            int endEpochDayExclusive) {
+        int start = blockStart(fromEpochDay);
+        int end = blockStart(endEpochDayExclusive - 1) + BLOCK_DAYS;
+        if (current != null && current.stamp == stamp) {
+            start = Math.min(start, current.startEpochDay);
+            end = Math.max(end, current.getEndEpochDayExclusive());
+        }
+        if ((long) end - start > maxIndexedDays) {
+            return null;
+        }
+        return new Builder(stamp, start, end);
+    }
+
+    private static int blockStart(int epochDay) {
+        return Math.floorDiv(epochDay, BLOCK_DAYS) * BLOCK_DAYS;
+    }
+
+    static class Builder {
+
+        private final long stamp;
+
+        private final int startEpochDay;
+
+        private final short[] capacityAt;
+
+        private final long[] standardSecondsBefore;
+
+        private final List<Capacity> capacities = new ArrayList<>();
+
+        private final Map<Capacity, Short> positions = new HashMap<>();
+
+        private boolean standardInWholeMinutes = true;
+
+        private int added = 0;
+
+        private Builder(long stamp, int startEpochDay, int endEpochDayExclusive) {
+            this.stamp = stamp;
+            this.startEpochDay = startEpochDay;
+            this.capacityAt = new short[endEpochDayExclusive - startEpochDay];
+            this.standardSecondsBefore = new long[capacityAt.length + 1];
+        }
+
+        LocalDate getStart() {
+            return new LocalDate(1970, 1, 1).plusDays(startEpochDay);
+        }
+
+        int size() {
+            return capacityAt.length;
+        }
+
+        /**
+         * @return <code>false</code> if there are too many different capacities
+         *         to be packed, so the index can't be built
+         */
+        boolean add(Capacity capacity) {
+            Short position = positions.get(capacity);
+            if (position == null) {
+                if (capacities.size() > Short.MAX_VALUE) {
+                    return false;
+                }
+                position = (short) capacities.size();
+                capacities.add(capacity);
+                positions.put(capacity, position);
+            }
+            int standardSeconds = capacity.getStandardEffort().getSeconds();
+            standardInWholeMinutes = standardInWholeMinutes && standardSeconds % 60 == 0;
+            capacityAt[added] = position;
+            standardSecondsBefore[added + 1] = standardSecondsBefore[added] + standardSeconds;
+            added++;
+            return true;
+        }
+
+        CalendarCapacityIndex build() {
+            Validate.isTrue(added == capacityAt.length, "there are days without capacity");
+            return new CalendarCapacityIndex(this);
+        }
+    }
+
+    private final long stamp;
+
+    private final int startEpochDay;
+
+    private final Capacity[] capacities;
+
+    private final short[] capacityAt;
+
+    private final long[] standardSecondsBefore;
+
+    private final boolean standardInWholeMinutes;
+
+    private CalendarCapacityIndex(Builder builder) {
+        this.stamp = builder.stamp;
+        this.startEpochDay = builder.startEpochDay;
+        this.capacities = builder.capacities.toArray(new Capacity[0]);
+        this.capacityAt = builder.capacityAt;
+        this.standardSecondsBefore = builder.standardSecondsBefore;
+        this.standardInWholeMinutes = builder.standardInWholeMinutes;
+    }
+
+    public long getStamp() {
+        return stamp;
+    }
+
+    public int getStartEpochDay() {
+        return startEpochDay;
+    }
+
+    public int getEndEpochDayExclusive() {
+        return startEpochDay + capacityAt.length;
+    }
+
+    public boolean covers(int fromEpochDay, int endEpochDayExclusive) {
+        return fromEpochDay >= startEpochDay && endEpochDayExclusive <= getEndEpochDayExclusive();
+    }
+
+    /**
+     * The capacity without multiplying by the calendar units.
+     */
+    public Capacity getCapacityAt(int epochDay) {
+        return capacities[capacityAt[epochDay - startEpochDay]];
+    }
+
+    /**
+     * The sum of the standard effort, without multiplying by the calendar
+     * units, of the days in the range.
+     */
+    public long getStandardSeconds(int fromEpochDay, int endEpochDayExclusive) {
+        return standardSecondsBefore[endEpochDayExclusive - startEpochDay]
+                - standardSecondsBefore[fromEpochDay - startEpochDay];
+    }
+
+    /**
+     * If all the standard efforts are whole minutes rounding them to the
+     * nearest minute doesn't change the sums.
+     */
+    public boolean isStandardInWholeMinutes() {
+        return standardInWholeMinutes;
+    }
+
+}
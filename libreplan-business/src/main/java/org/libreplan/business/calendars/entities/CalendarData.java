@@ -76,6 +76,7 @@ public class CalendarData extends IntegrationEntity {
         if (parent != null) {
             this.parent = parent;
         }
+        capacityModification = CalendarCapacityIndex.nextModification();
     }
 
     public void updateCapacitiesPerDay(Map<Integer, Capacity> capacityPerDay) throws IllegalArgumentException {
@@ -96,6 +97,8 @@ public class CalendarData extends IntegrationEntity {
 
     private BaseCalendar parent;
 
+    private long capacityModification = CalendarCapacityIndex.nextModification();
+
     public enum Days {
         MONDAY(Calendar.MONDAY),
         TUESDAY(Calendar.TUESDAY),
@@ -160,6 +163,7 @@ public class CalendarData extends IntegrationEntity {
 
     public void setCapacityAt(Days day, Capacity capacity) {
         capacityPerDay.put(day.ordinal(), capacity);
+        capacityModification = CalendarCapacityIndex.nextModification();
     }
 
 
@@ -181,6 +185,7 @@ public class CalendarData extends IntegrationEntity {
 
     public void setExpiringDate(LocalDate expiringDate) {
         this.expiringDate = expiringDate;
+        capacityModification = CalendarCapacityIndex.nextModification();
     }
 
     public CalendarData copy() {
@@ -198,10 +203,19 @@ public class CalendarData extends IntegrationEntity {
 
     public void setParent(BaseCalendar parent) {
         this.parent = parent;
+        capacityModification = CalendarCapacityIndex.nextModification();
     }
 
     public void removeExpiringDate() {
         this.expiringDate = null;
+        capacityModification = CalendarCapacityIndex.nextModification();
+    }
+
+    /**
+     * @see BaseCalendar#getCapacityStamp()
+     */
+    public long getCapacityModification() {
+        return capacityModification;
     }
 
     public boolean isPosteriorTo(LocalDate date) {
@@ -33,6 +33,8 @@ import java.util.List;
 import org.apache.commons.lang3.Validate;
 import org.joda.time.LocalDate;
 import org.libreplan.business.workingday.EffortDuration;
+import org.libreplan.business.workingday.EffortDuration.IEffortFrom;
+import org.libreplan.business.workingday.IntraDayDate;
 import org.libreplan.business.workingday.IntraDayDate.PartialDay;
 import org.libreplan.business.workingday.ResourcesPerDay;
 
@@ -83,6 +85,22 @@ public abstract class CombinedWorkHours implements ICalendar {
         return current;
     }
 
+    /**
+     * The combination is done day by day, so the capacities of the interval
+     * can't be got from the ones of each calendar.
+     */
+    @Override
+    public EffortDuration getCapacityBetween(IntraDayDate startInclusive,
+            IntraDayDate endExclusive) {
+        return EffortDuration.sum(startInclusive.daysUntil(endExclusive),
+                new IEffortFrom<PartialDay>() {
+                    @Override
+                    public EffortDuration from(PartialDay each) {
+                        return getCapacityOn(each);
+                    }
+                });
+    }
+
     @Override
     public EffortDuration asDurationOn(PartialDay day, ResourcesPerDay amount) {
         EffortDuration result = null;
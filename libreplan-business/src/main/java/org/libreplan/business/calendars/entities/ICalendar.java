@@ -23,6 +23,7 @@ package org.libreplan.business.calendars.entities;
 
 import org.joda.time.LocalDate;
 import org.libreplan.business.workingday.EffortDuration;
+import org.libreplan.business.workingday.IntraDayDate;
 import org.libreplan.business.workingday.IntraDayDate.PartialDay;
 import org.libreplan.business.workingday.ResourcesPerDay;
 
@@ -49,6 +50,18 @@ public interface ICalendar {
      */
     EffortDuration getCapacityOn(PartialDay partialDay);
 
+    /**
+     * Calculates the capacity duration of all the days in an interval.
+     * It's the sum of {@link #getCapacityOn(PartialDay)} for each day of the interval,
+     * so the first and the last days can be partial, but implementations can avoid asking day by day.
+     *
+     * @param startInclusive
+     * @param endExclusive
+     *            it can't be before startInclusive
+     * @return the capacity of the interval
+     */
+    EffortDuration getCapacityBetween(IntraDayDate startInclusive, IntraDayDate endExclusive);
+
     /**
      * Calculates the capacity information for a given date.
      * It contains information about the normal effort and the extra effort, i.e., the overtime effort.
@@ -22,8 +22,11 @@
 package org.libreplan.business.calendars.entities;
 
 import org.apache.commons.lang3.Validate;
+import org.joda.time.Days;
 import org.joda.time.LocalDate;
 import org.libreplan.business.workingday.EffortDuration;
+import org.libreplan.business.workingday.EffortDuration.IEffortFrom;
+import org.libreplan.business.workingday.IntraDayDate;
 import org.libreplan.business.workingday.IntraDayDate.PartialDay;
 import org.libreplan.business.workingday.ResourcesPerDay;
 
@@ -49,6 +52,32 @@ public class SameWorkHoursEveryDay implements ICalendar {
                 partialDay.getDate()).getStandardEffort());
     }
 
+    @Override
+    public EffortDuration getCapacityBetween(IntraDayDate startInclusive,
+            IntraDayDate endExclusive) {
+        Validate.isTrue(startInclusive.compareTo(endExclusive) <= 0);
+        if (startInclusive.getDate().equals(endExclusive.getDate())) {
+            return sum(startInclusive.daysUntil(endExclusive));
+        }
+        IntraDayDate startOfLastDay = IntraDayDate.startOfDay(endExclusive
+                .getDate());
+        IntraDayDate endOfFirstDay = startInclusive.nextDayAtStart();
+        int wholeDaysInBetween = Days.daysBetween(endOfFirstDay.getDate(),
+                startOfLastDay.getDate()).getDays();
+        return sum(startInclusive.daysUntil(endOfFirstDay))
+                .plus(EffortDuration.hours(hours).multiplyBy(wholeDaysInBetween))
+                .plus(sum(startOfLastDay.daysUntil(endExclusive)));
+    }
+
+    private EffortDuration sum(Iterable<PartialDay> days) {
+        return EffortDuration.sum(days, new IEffortFrom<PartialDay>() {
+            @Override
+            public EffortDuration from(PartialDay each) {
+                return getCapacityOn(each);
+            }
+        });
+    }
+
     @Override
     public EffortDuration asDurationOn(PartialDay day, ResourcesPerDay amount) {
         return amount.asDurationGivenWorkingDayOf(getCapacityOn(day));
@@ -22,6 +22,7 @@ package org.libreplan.business.calendars.entities;
 
 import static org.libreplan.business.workingday.EffortDuration.zero;
 
+import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -229,10 +230,21 @@ public class ThereAreHoursOnWorkHoursCalculator {
             EffortDuration maximum,
             ResourcesPerDay resourcesPerDay,
             LocalDate start, LocalDate end) {
+        if (calendar instanceof BaseCalendar && isOne(resourcesPerDay)) {
+            EffortDuration indexed = ((BaseCalendar) calendar)
+                    .getDurationForOneResourcePerDay(start, end);
+            if (indexed != null) {
+                return EffortDuration.min(indexed, maximum);
+            }
+        }
         return sunDurationUntil(calendar, maximum, resourcesPerDay, IntraDayDate.startOfDay(start),
                 IntraDayDate.startOfDay(end));
     }
 
+    private static boolean isOne(ResourcesPerDay resourcesPerDay) {
+        return resourcesPerDay.getAmount().compareTo(BigDecimal.ONE) == 0;
+    }
+
     private static EffortDuration sunDurationUntil(ICalendar calendar,
             EffortDuration maximum, ResourcesPerDay resourcesPerDay,
             IntraDayDate start, IntraDayDate end) {
@@ -0,0 +1,180 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.business.common;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Executes tasks associated to a key in a pool of threads.
+ * <p>
+ * The tasks of different keys run in parallel, but the ones of the same key run one after the other. While a task of
+ * a key is waiting to start, new tasks for the same key are merged into it. So the tasks of a key must be equivalent,
+ * like recalculating some data from scratch.
+ * <p>
+ * It keeps the number of keys waiting and the latency from the request till the end of the execution.
+ *
+ * @param <K>
+ *            the type of the keys. They must have proper equals and hashCode
+ */
+public class CoalescingExecutor<K> {
+
+    private static final Log LOG = LogFactory.getLog(CoalescingExecutor.class);
+
+    private static class State {
+
+        private boolean running = false;
+
+        private boolean pending = false;
+
+        private long requestedAt;
+
+        private Runnable next;
+
+        private long nextDelayMillis;
+    }
+
+    private final ScheduledExecutorService executor;
+
+    /**
+     * Guarded by itself.
+     */
+    private final Map<K, State> states = new HashMap<>();
+
+    private final AtomicLong completed = new AtomicLong();
+
+    private final AtomicLong totalLatencyMillis = new AtomicLong();
+
+    public CoalescingExecutor(int threads) {
+        this.executor = Executors.newScheduledThreadPool(threads);
+    }
+
+    /**
+     * @return <code>false</code> if there was already a task waiting for <code>key</code>, so <code>task</code> has
+     *         been merged into it
+     */
+    public boolean execute(K key, Runnable task) {
+        return schedule(key, task, 0);
+    }
+
+    /**
+     * Like {@link #execute(Object, Runnable)} but <code>task</code> doesn't start before <code>delayMillis</code>.
+     * A task can schedule another one for its own key, that would run after it.
+     */
+    public boolean schedule(K key, Runnable task, long delayMillis) {
+        synchronized (states) {
+            State state = states.get(key);
+
+            if ( state == null ) {
+                state = new State();
+                states.put(key, state);
+            } else if ( state.pending ) {
+                return false;
+            }
+            state.pending = true;
+            state.requestedAt = System.currentTimeMillis();
+
+            if ( state.running ) {
+                state.next = task;
+                state.nextDelayMillis = delayMillis;
+            } else {
+                submit(key, state, task, delayMillis);
+            }
+
+            return true;
+        }
+    }
+
+    private void submit(final K key, final State state, final Runnable task, long delayMillis) {
+        executor.schedule(new Runnable() {
+            @Override
+            public void run() {
+                execute(key, state, task);
+            }
+        }, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void execute(K key, State state, Runnable task) {
+        long requestedAt;
+        synchronized (states) {
+            state.pending = false;
+            state.running = true;
+            requestedAt = state.requestedAt;
+        }
+
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            LOG.error("Error executing task for " + key, e);
+        } finally {
+            completed.incrementAndGet();
+            totalLatencyMillis.addAndGet(System.currentTimeMillis() - requestedAt);
+
+            synchronized (states) {
+                state.running = false;
+
+                if ( state.pending ) {
+                    Runnable next = state.next;
+                    state.next = null;
+                    submit(key, state, next, state.nextDelayMillis);
+                } else {
+                    states.remove(key);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the number of keys with a task waiting to start
+     */
+    public int getPending() {
+        synchronized (states) {
+            int result = 0;
+            for (State each : states.values()) {
+                if ( each.pending ) {
+                    result++;
+                }
+            }
+
+            return result;
+        }
+    }
+
+    public long getCompleted() {
+        return completed.get();
+    }
+
+    /**
+     * @return the average time since a task is requested till it finishes, including the time waiting for other
+     *         tasks
+     */
+    public long getAverageLatencyMillis() {
+        long count = completed.get();
+        return count == 0 ? 0 : totalLatencyMillis.get() / count;
+    }
+
+}
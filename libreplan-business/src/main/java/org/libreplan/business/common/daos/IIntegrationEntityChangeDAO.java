@@ -0,0 +1,44 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.business.common.daos;
+
+import java.util.List;
+
+import org.libreplan.business.common.entities.IntegrationEntityChange;
+
+/**
+ * DAO for the change feed of the entities exported by the REST services.
+ *
+ * @see IntegrationEntityChange
+ */
+public interface IIntegrationEntityChangeDAO {
+
+    /**
+     * It returns, ordered by id, the committed changes whose id is greater
+     * than <code>cursor</code>. Changes with a higher id than a change whose
+     * transaction has not committed yet are not returned, so a client never
+     * moves its cursor past a change it has not seen.
+     *
+     * @param maxResults
+     *            maximum number of changes returned
+     */
+    List<IntegrationEntityChange> getChangesAfter(long cursor, int maxResults);
+
+}
@@ -21,6 +21,7 @@
 
 package org.libreplan.business.common.daos;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.libreplan.business.common.IntegrationEntity;
@@ -63,9 +64,30 @@ public interface IIntegrationEntityDAO<E extends IntegrationEntity>
 
     public E findExistingEntityByCode(String code);
 
+    /**
+     * It returns, in a single query, the entities whose code matches (ignoring
+     * case and surrounding whitespace) any of <code>codes</code>. Blank codes
+     * are ignored.
+     */
+    public List<E> findByCodes(Collection<String> codes);
+
     /**
      * It returns all entities ordered by ascending code.
      */
     public List<E> findAll();
 
+    /**
+     * It visits the entities ordered by ascending code, reading them with a
+     * database cursor. Visited entities are evicted from the session
+     * periodically, so the visitor must not keep references to them.
+     *
+     * @param firstResult
+     *            number of entities skipped at the beginning
+     * @param maxResults
+     *            maximum number of entities visited, or zero to visit all of
+     *            them
+     */
+    public void visitAll(int firstResult, int maxResults,
+            IIntegrationEntityVisitor<E> visitor);
+
 }
@@ -0,0 +1,34 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.business.common.daos;
+
+import org.libreplan.business.common.IntegrationEntity;
+
+/**
+ * Receives the entities one by one as they are read from the database, so all
+ * of them do not need to be kept in memory at the same time.
+ *
+ * @see IIntegrationEntityDAO#visitAll(int, int, IIntegrationEntityVisitor)
+ */
+public interface IIntegrationEntityVisitor<E extends IntegrationEntity> {
+
+    void visit(E entity);
+
+}
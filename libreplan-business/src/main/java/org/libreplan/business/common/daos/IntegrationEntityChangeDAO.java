@@ -0,0 +1,74 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.business.common.daos;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.type.StandardBasicTypes;
+import org.libreplan.business.common.entities.IntegrationEntityChange;
+import org.libreplan.business.common.entities.IntegrationEntityChange.Type;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.Scope;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * DAO for {@link IntegrationEntityChange}. Changes are written by
+ * {@link org.libreplan.business.hibernate.notification.IntegrationEntityChangesRecorder},
+ * which also keeps in <code>integration_entity_change_head</code> the highest
+ * id that can be read.
+ */
+@Repository
+@Scope(BeanDefinition.SCOPE_SINGLETON)
+public class IntegrationEntityChangeDAO implements IIntegrationEntityChangeDAO {
+
+    @Autowired
+    private SessionFactory sessionFactory;
+
+    @SuppressWarnings("unchecked")
+    @Override
+    @Transactional(readOnly = true)
+    public List<IntegrationEntityChange> getChangesAfter(long cursor, int maxResults) {
+        List<Object[]> rows = sessionFactory.getCurrentSession()
+                .createSQLQuery("SELECT id, entity_type, code, deleted, recorded_at FROM integration_entity_change " +
+                        "WHERE id > :cursor AND id <= (SELECT last_id FROM integration_entity_change_head) " +
+                        "ORDER BY id")
+                .addScalar("id", StandardBasicTypes.LONG)
+                .addScalar("entity_type", StandardBasicTypes.STRING)
+                .addScalar("code", StandardBasicTypes.STRING)
+                .addScalar("deleted", StandardBasicTypes.BOOLEAN)
+                .addScalar("recorded_at", StandardBasicTypes.TIMESTAMP)
+                .setParameter("cursor", cursor)
+                .setMaxResults(maxResults)
+                .list();
+
+        List<IntegrationEntityChange> result = new ArrayList<>();
+        for (Object[] each : rows) {
+            result.add(new IntegrationEntityChange((Long) each[0], Type.valueOf((String) each[1]), (String) each[2],
+                    (Boolean) each[3], (Date) each[4]));
+        }
+        return result;
+    }
+
+}
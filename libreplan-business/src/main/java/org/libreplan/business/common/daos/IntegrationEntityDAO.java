@@ -21,9 +21,17 @@
 
 package org.libreplan.business.common.daos;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.apache.commons.lang3.StringUtils;
+import org.hibernate.Query;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
 import org.hibernate.criterion.Order;
 import org.hibernate.criterion.Restrictions;
 import org.libreplan.business.common.IntegrationEntity;
@@ -41,6 +49,10 @@ public class IntegrationEntityDAO<E extends IntegrationEntity>
         extends GenericDAOHibernate<E, Long>
         implements IIntegrationEntityDAO<E> {
 
+    private static final int VISIT_FETCH_SIZE = 100;
+
+    private static final int VISIT_CLEAR_INTERVAL = 100;
+
     @Override
     public boolean existsByCode(String code) {
         try {
@@ -94,10 +106,73 @@ public class IntegrationEntityDAO<E extends IntegrationEntity>
         }
     }
 
+    @SuppressWarnings("unchecked")
+    @Override
+    @Transactional(readOnly = true)
+    public List<E> findByCodes(Collection<String> codes) {
+        Set<String> normalized = new HashSet<>();
+        for (String code : codes) {
+            if (!StringUtils.isBlank(code)) {
+                normalized.add(code.trim().toLowerCase());
+            }
+        }
+
+        if (normalized.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        return getSession()
+                .createQuery("FROM " + getEntityClass().getName() + " e WHERE lower(e." + getCodeProperty() + ") IN (:codes)")
+                .setParameterList("codes", new ArrayList<>(normalized))
+                .list();
+    }
+
     @SuppressWarnings("unchecked")
     @Override
     public List<E> findAll() {
         return getSession().createCriteria(getEntityClass()).addOrder(Order.asc("code")).list();
     }
 
+    /**
+     * It returns the path of the code property used in the queries of
+     * {@link #findByCodes(Collection)} and
+     * {@link #visitAll(int, int, IIntegrationEntityVisitor)}.
+     */
+    protected String getCodeProperty() {
+        return "code";
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void visitAll(int firstResult, int maxResults, IIntegrationEntityVisitor<E> visitor) {
+        visit(getSession().createQuery("FROM " + getEntityClass().getName() + " e ORDER BY e." + getCodeProperty()),
+                firstResult, maxResults, visitor);
+    }
+
+    /**
+     * It visits the entities returned by <code>query</code> with a forward
+     * only cursor, clearing the session every {@link #VISIT_CLEAR_INTERVAL}
+     * entities.
+     */
+    @SuppressWarnings("unchecked")
+    protected void visit(Query query, int firstResult, int maxResults, IIntegrationEntityVisitor<E> visitor) {
+        query.setReadOnly(true).setFetchSize(VISIT_FETCH_SIZE).setFirstResult(firstResult);
+        if (maxResults > 0) {
+            query.setMaxResults(maxResults);
+        }
+
+        ScrollableResults rows = query.scroll(ScrollMode.FORWARD_ONLY);
+        try {
+            int visited = 0;
+            while (rows.next()) {
+                visitor.visit((E) rows.get(0));
+                if (++visited % VISIT_CLEAR_INTERVAL == 0) {
+                    getSession().clear();
+                }
+            }
+        } finally {
+            rows.close();
+        }
+    }
+
 }
@@ -0,0 +1,141 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.business.common.entities;
+
+import java.util.Date;
+
+import org.libreplan.business.common.IntegrationEntity;
+import org.libreplan.business.orders.entities.Order;
+import org.libreplan.business.orders.entities.OrderElement;
+import org.libreplan.business.resources.entities.Resource;
+import org.libreplan.business.resources.entities.VirtualWorker;
+import org.libreplan.business.workreports.entities.WorkReport;
+import org.libreplan.business.workreports.entities.WorkReportLine;
+
+/**
+ * A modification of an entity exported by the REST services, as recorded in
+ * the change feed. Modifications of the elements of an order or of the lines
+ * of a work report are recorded as modifications of the order or work report
+ * they belong to.
+ */
+public class IntegrationEntityChange {
+
+    public enum Type {
+        ORDER, RESOURCE, WORK_REPORT
+    }
+
+    /**
+     * It returns the change recorded in the feed when <code>entity</code> is
+     * inserted, updated or deleted, or <code>null</code> if the feed does not
+     * track it.
+     */
+    public static IntegrationEntityChange of(Object entity, boolean deleted) {
+        if (entity instanceof Order) {
+            return create(Type.ORDER, (Order) entity, deleted);
+        }
+        if (entity instanceof OrderElement) {
+            return create(Type.ORDER, ((OrderElement) entity).getOrder(), false);
+        }
+        if (entity instanceof VirtualWorker) {
+            return null;
+        }
+        if (entity instanceof Resource) {
+            return create(Type.RESOURCE, (Resource) entity, deleted);
+        }
+        if (entity instanceof WorkReport) {
+            return create(Type.WORK_REPORT, (WorkReport) entity, deleted);
+        }
+        if (entity instanceof WorkReportLine) {
+            return create(Type.WORK_REPORT, ((WorkReportLine) entity).getWorkReport(), false);
+        }
+        return null;
+    }
+
+    /**
+     * It returns the deletion recorded in the feed when the code of
+     * <code>entity</code> changes from <code>oldCode</code>, so the entity is
+     * no longer known by its old code, or <code>null</code> if the feed does
+     * not track it or its code did not change.
+     */
+    public static IntegrationEntityChange ofCodeChange(Object entity, String oldCode) {
+        IntegrationEntityChange change = of(entity, true);
+        /*
+         * Elements of orders and lines of work reports are recorded as
+         * modifications, never as deletions, of the entity they belong to.
+         */
+        if (change == null || !change.isDeleted() || oldCode == null || oldCode.equals(change.getCode())) {
+            return null;
+        }
+        return new IntegrationEntityChange(null, change.getType(), oldCode, true, null);
+    }
+
+    private static IntegrationEntityChange create(Type type, IntegrationEntity entity, boolean deleted) {
+        if (entity == null || entity.getCode() == null) {
+            return null;
+        }
+        return new IntegrationEntityChange(null, type, entity.getCode(), deleted, null);
+    }
+
+    private final Long id;
+
+    private final Type type;
+
+    private final String code;
+
+    private final boolean deleted;
+
+    private final Date recordedAt;
+
+    public IntegrationEntityChange(Long id, Type type, String code, boolean deleted, Date recordedAt) {
+        this.id = id;
+        this.type = type;
+        this.code = code;
+        this.deleted = deleted;
+        this.recordedAt = recordedAt;
+    }
+
+    /**
+     * It is <code>null</code> until the change is recorded. Ids grow in the
+     * order the changes are committed, so they are used as feed cursors.
+     */
+    public Long getId() {
+        return id;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    /**
+     * If <code>true</code> the entity no longer exists.
+     */
+    public boolean isDeleted() {
+        return deleted;
+    }
+
+    public Date getRecordedAt() {
+        return recordedAt;
+    }
+
+}
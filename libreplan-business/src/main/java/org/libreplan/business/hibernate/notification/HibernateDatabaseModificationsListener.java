@@ -22,13 +22,18 @@ package org.libreplan.business.hibernate.notification;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
@@ -68,10 +73,14 @@ public class HibernateDatabaseModificationsListener implements
 
     private static final Log LOG = LogFactory.getLog(HibernateDatabaseModificationsListener.class);
 
-    private final ExecutorService executor = Executors.newFixedThreadPool(3);
+    private final Map<SnapshotPriority, ExecutorService> executors = new EnumMap<>(SnapshotPriority.class);
+
+    private final List<NotBlockingAutoUpdatedSnapshot<?>> snapshots = new CopyOnWriteArrayList<>();
 
     private final ConcurrentMap<Class<?>, BlockingQueue<NotBlockingAutoUpdatedSnapshot<?>>> interested;
 
+    private final ConcurrentMap<Class<?>, BlockingQueue<UpdateInterest>> interestedOnUpdate;
+
     private ConcurrentMap<Transaction, Dispatcher> pending = new ConcurrentHashMap<>();
 
     private Set<NotBlockingAutoUpdatedSnapshot<?>> snapshotsInterestedOn(Class<?> entityClass) {
@@ -94,18 +103,66 @@ public class HibernateDatabaseModificationsListener implements
         return result;
     }
 
+    /**
+     * A snapshot that is updated incrementally with the keys that the extractor obtains from the modified entities.
+     */
+    private static final class UpdateInterest {
+
+        private final NotBlockingAutoUpdatedSnapshot<?> snapshot;
+
+        private final IModificationKeyExtractor extractor;
+
+        UpdateInterest(NotBlockingAutoUpdatedSnapshot<?> snapshot, IModificationKeyExtractor extractor) {
+            this.snapshot = snapshot;
+            this.extractor = extractor;
+        }
+    }
+
+    private Map<NotBlockingAutoUpdatedSnapshot<?>, Set<Object>> keysForSnapshotsUpdatedOn(Object entity) {
+        BlockingQueue<UpdateInterest> queue = interestedOnUpdate.get(inferEntityClass(entity));
+        if ( queue == null ) {
+            return Collections.emptyMap();
+        }
+
+        Map<NotBlockingAutoUpdatedSnapshot<?>, Set<Object>> result = new HashMap<>();
+        for (UpdateInterest each : queue) {
+            Object key = each.extractor.extractKeyFrom(entity);
+            if ( key != null ) {
+                result.computeIfAbsent(each.snapshot, k -> new HashSet<>()).add(key);
+            }
+        }
+
+        return result;
+    }
+
     private final class Dispatcher implements Synchronization {
 
         private BlockingQueue<Class<?>> classes = new LinkedBlockingQueue<>();
+        private final Map<NotBlockingAutoUpdatedSnapshot<?>, Set<Object>> keys = new HashMap<>();
+        private final Set<NotBlockingAutoUpdatedSnapshot<?>> modified = new HashSet<>();
         private final Transaction transaction;
 
-        public Dispatcher(Transaction transaction, Class<?> entityClass) {
-            classes.offer(entityClass);
+        public Dispatcher(Transaction transaction, Object entity) {
             this.transaction = transaction;
+            add(entity);
         }
 
-        public void add(Class<?> entityClass) {
+        public synchronized void add(Object entity) {
+            Class<?> entityClass = inferEntityClass(entity);
             classes.offer(entityClass);
+            for (Map.Entry<NotBlockingAutoUpdatedSnapshot<?>, Set<Object>> each : keysForSnapshotsUpdatedOn(entity)
+                    .entrySet()) {
+
+                keys.computeIfAbsent(each.getKey(), k -> new HashSet<>()).addAll(each.getValue());
+                markModified(each.getKey());
+            }
+            snapshotsInterestedOn(entityClass).forEach(this::markModified);
+        }
+
+        private void markModified(NotBlockingAutoUpdatedSnapshot<?> snapshot) {
+            if ( modified.add(snapshot) ) {
+                snapshot.modificationPending();
+            }
         }
 
         @Override
@@ -117,17 +174,40 @@ public class HibernateDatabaseModificationsListener implements
             LOG.debug("transaction completed with status: " + status);
             pending.remove(transaction);
 
-            if ( isProbablySucessful(status) ) {
-                List<Class<?>> list = new ArrayList<>();
-                classes.drainTo(list);
-                LOG.debug(list.size() + " modification events recorded");
-                Set<NotBlockingAutoUpdatedSnapshot<?>> toDispatch = snapshotsInterestedOn(list);
+            try {
+                if ( isProbablySucessful(status) ) {
+                    List<Class<?>> list = new ArrayList<>();
+                    classes.drainTo(list);
+                    LOG.debug(list.size() + " modification events recorded");
+                    Set<NotBlockingAutoUpdatedSnapshot<?>> toDispatch = snapshotsInterestedOn(list);
+
+                    LOG.debug("dispatching " + toDispatch +
+                            " snapshots to reload due to transaction successful completion");
+
+                    dispatch(toDispatch);
+                    dispatchUpdates(keysNotReloaded(toDispatch));
+                }
+            } finally {
+                modificationsCompleted();
+            }
+        }
+
+        /**
+         * Done after dispatching, so the snapshots are never seen as up to date between the commit and the request
+         * of their calculation.
+         */
+        private synchronized void modificationsCompleted() {
+            modified.forEach(NotBlockingAutoUpdatedSnapshot::modificationCompleted);
+            modified.clear();
+        }
 
-                LOG.debug(
-                        "dispatching " + toDispatch + " snapshots to reload due to transaction successful completion");
+        private synchronized Map<NotBlockingAutoUpdatedSnapshot<?>, Set<Object>> keysNotReloaded(
+                Set<NotBlockingAutoUpdatedSnapshot<?>> reloaded) {
 
-                dispatch(toDispatch);
-            }
+            Map<NotBlockingAutoUpdatedSnapshot<?>, Set<Object>> result = new HashMap<>(keys);
+            result.keySet().removeAll(reloaded);
+
+            return result;
         }
 
         private boolean isProbablySucessful(int status) {
@@ -143,6 +223,10 @@ public class HibernateDatabaseModificationsListener implements
 
     public HibernateDatabaseModificationsListener() {
         interested = new ConcurrentHashMap<>();
+        interestedOnUpdate = new ConcurrentHashMap<>();
+        for (SnapshotPriority each : SnapshotPriority.values()) {
+            executors.put(each, Executors.newFixedThreadPool(each.getThreads()));
+        }
     }
 
     @PostConstruct
@@ -164,17 +248,17 @@ public class HibernateDatabaseModificationsListener implements
 
     @Override
     public void onPostDelete(PostDeleteEvent event) {
-        modificationOn(inferTransaction(event), inferEntityClass(getEntityObject(event)));
+        modificationOn(inferTransaction(event), getEntityObject(event));
     }
 
     @Override
     public void onPostUpdate(PostUpdateEvent event) {
-        modificationOn(inferTransaction(event), inferEntityClass(getEntityObject(event)));
+        modificationOn(inferTransaction(event), getEntityObject(event));
     }
 
     @Override
     public void onPostInsert(PostInsertEvent event) {
-        modificationOn(inferTransaction(event), inferEntityClass(getEntityObject(event)));
+        modificationOn(inferTransaction(event), getEntityObject(event));
     }
 
 
@@ -204,19 +288,25 @@ public class HibernateDatabaseModificationsListener implements
         return entity.getClass();
     }
 
-    void modificationOn(Transaction transaction, Class<?> entityClass) {
+    void modificationOn(Transaction transaction, Object entity) {
         if ( transaction == null ) {
-            dispatch(snapshotsInterestedOn(entityClass));
+            Set<NotBlockingAutoUpdatedSnapshot<?>> toReload = snapshotsInterestedOn(inferEntityClass(entity));
+            dispatch(toReload);
+
+            Map<NotBlockingAutoUpdatedSnapshot<?>, Set<Object>> toUpdate =
+                    new HashMap<>(keysForSnapshotsUpdatedOn(entity));
+            toUpdate.keySet().removeAll(toReload);
+            dispatchUpdates(toUpdate);
 
             return;
         }
-        Dispatcher newDispatcher = new Dispatcher(transaction, entityClass);
+        Dispatcher newDispatcher = new Dispatcher(transaction, entity);
         Dispatcher previous;
         previous = pending.putIfAbsent(transaction, newDispatcher);
 
         boolean dispatcherAlreadyExisted = previous != null;
         if ( dispatcherAlreadyExisted ) {
-            previous.add(entityClass);
+            previous.add(entity);
         } else {
             transaction.registerSynchronization(newDispatcher);
         }
@@ -227,18 +317,44 @@ public class HibernateDatabaseModificationsListener implements
     }
 
     private void dispatch(NotBlockingAutoUpdatedSnapshot<?> each) {
-        each.reloadNeeded(executor);
+        each.reloadNeeded(executorFor(each));
+    }
+
+    private void dispatchUpdates(Map<NotBlockingAutoUpdatedSnapshot<?>, Set<Object>> toBeUpdated) {
+        toBeUpdated.forEach((snapshot, keys) -> snapshot.updateNeeded(executorFor(snapshot), keys));
+    }
+
+    private ExecutorService executorFor(NotBlockingAutoUpdatedSnapshot<?> snapshot) {
+        return executors.get(snapshot.getPriority());
     }
 
     @Override
     public <T> IAutoUpdatedSnapshot<T> takeSnapshot(String name, Callable<T> callable, ReloadOn reloadOn) {
+        return takeSnapshot(name, SnapshotPriority.HIGH, callable, null, reloadOn);
+    }
+
+    @Override
+    public <T> IAutoUpdatedSnapshot<T> takeSnapshot(String name,
+                                                    Callable<T> callable,
+                                                    IIncrementalUpdate<T> incrementalUpdate,
+                                                    ReloadOn reloadOn) {
+        return takeSnapshot(name, SnapshotPriority.HIGH, callable, incrementalUpdate, reloadOn);
+    }
+
+    @Override
+    public <T> IAutoUpdatedSnapshot<T> takeSnapshot(String name,
+                                                    SnapshotPriority priority,
+                                                    Callable<T> callable,
+                                                    IIncrementalUpdate<T> incrementalUpdate,
+                                                    ReloadOn reloadOn) {
         if ( !hibernateListenersRegistered ) {
             throw new IllegalStateException(
                     "The hibernate listeners has not been registered. There is some configuration problem.");
         }
 
         final NotBlockingAutoUpdatedSnapshot<T> result;
-        result = new NotBlockingAutoUpdatedSnapshot<>(name, callable);
+        result = new NotBlockingAutoUpdatedSnapshot<>(name, priority, callable, incrementalUpdate);
+        snapshots.add(result);
 
         for (Class<?> each : reloadOn.getClassesOnWhichToReload()) {
             interested.putIfAbsent(each, emptyQueue());
@@ -246,7 +362,22 @@ public class HibernateDatabaseModificationsListener implements
             boolean success = queue.add(result);
             assert success : "the type of queue used must not have restricted capacity";
         }
-        result.ensureFirstLoad(executor);
+        for (Map.Entry<Class<?>, IModificationKeyExtractor> each : reloadOn.getClassesOnWhichToUpdate().entrySet()) {
+            interestedOnUpdate.putIfAbsent(each.getKey(), new LinkedBlockingQueue<>());
+            boolean success = interestedOnUpdate.get(each.getKey()).add(new UpdateInterest(result, each.getValue()));
+            assert success : "the type of queue used must not have restricted capacity";
+        }
+        result.ensureFirstLoad(executorFor(result));
+
+        return result;
+    }
+
+    @Override
+    public List<SnapshotMetrics> getSnapshotsMetrics() {
+        List<SnapshotMetrics> result = new ArrayList<>();
+        for (NotBlockingAutoUpdatedSnapshot<?> each : snapshots) {
+            result.add(each.getMetrics());
+        }
 
         return result;
     }
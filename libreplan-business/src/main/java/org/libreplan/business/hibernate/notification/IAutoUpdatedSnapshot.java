@@ -27,4 +27,12 @@ package org.libreplan.business.hibernate.notification;
 public interface IAutoUpdatedSnapshot<T> {
 
     T getValue();
+
+    /**
+     * @return the value if it reflects all the modifications done by
+     *         transactions that have already completed and there are no
+     *         transactions modifying it in progress, <code>null</code>
+     *         otherwise
+     */
+    T getValueIfUpToDate();
 }
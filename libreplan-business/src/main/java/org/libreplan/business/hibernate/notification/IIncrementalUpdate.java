@@ -0,0 +1,33 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.libreplan.business.hibernate.notification;
+
+import java.util.Set;
+
+/**
+ * Calculates the new value of a snapshot from its previous value and the keys
+ * of the modified entities, instead of calculating it from scratch.
+ *
+ * @see ReloadOn#andUpdateOnChangeOf(IModificationKeyExtractor, Class...)
+ */
+public interface IIncrementalUpdate<T> {
+
+    T update(T previousValue, Set<Object> modifiedKeys) throws Exception;
+
+}
@@ -0,0 +1,36 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.libreplan.business.hibernate.notification;
+
+/**
+ * Extracts from a modified entity the key identifying the part of a snapshot
+ * that must be updated. It's called while the entity is still attached to the
+ * session that modified it.
+ *
+ * @see IIncrementalUpdate
+ */
+public interface IModificationKeyExtractor {
+
+    /**
+     * @return the key or <code>null</code> if the modification doesn't affect
+     *         the snapshot
+     */
+    Object extractKeyFrom(Object entity);
+
+}
@@ -20,6 +20,7 @@
  */
 package org.libreplan.business.hibernate.notification;
 
+import java.util.List;
 import java.util.concurrent.Callable;
 
 /**
@@ -30,4 +31,26 @@ public interface ISnapshotRefresherService {
 
     public <T> IAutoUpdatedSnapshot<T> takeSnapshot(String name, Callable<T> callable, ReloadOn reloadOn);
 
+    /**
+     * Like {@link #takeSnapshot(String, Callable, ReloadOn)} but the snapshot
+     * is updated with <code>incrementalUpdate</code> when the modified
+     * entities are on {@link ReloadOn#getClassesOnWhichToUpdate()}.
+     */
+    public <T> IAutoUpdatedSnapshot<T> takeSnapshot(String name, Callable<T> callable,
+            IIncrementalUpdate<T> incrementalUpdate, ReloadOn reloadOn);
+
+    /**
+     * Like {@link #takeSnapshot(String, Callable, IIncrementalUpdate, ReloadOn)}
+     * but the snapshot is calculated on the executor of the provided
+     * <code>priority</code> instead of on the {@link SnapshotPriority#HIGH}
+     * one. <code>incrementalUpdate</code> can be <code>null</code>.
+     */
+    public <T> IAutoUpdatedSnapshot<T> takeSnapshot(String name, SnapshotPriority priority, Callable<T> callable,
+            IIncrementalUpdate<T> incrementalUpdate, ReloadOn reloadOn);
+
+    /**
+     * @return the current statistics of all the snapshots taken
+     */
+    public List<SnapshotMetrics> getSnapshotsMetrics();
+
 }
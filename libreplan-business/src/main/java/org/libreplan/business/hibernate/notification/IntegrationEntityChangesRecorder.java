@@ -0,0 +1,219 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.business.hibernate.notification;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.annotation.PostConstruct;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.internal.SessionFactoryImpl;
+import org.hibernate.jdbc.Work;
+import org.hibernate.persister.entity.EntityPersister;
+import org.libreplan.business.common.entities.IntegrationEntityChange;
+import org.libreplan.business.common.entities.IntegrationEntityChange.Type;
+import org.libreplan.business.orders.entities.InfoComponentWithCode;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Records in the change feed the modifications of the entities exported by the
+ * REST services. The changes of a transaction are written just before it
+ * commits, in the same transaction, so they are lost if it is rolled back.
+ *
+ * The single row of <code>integration_entity_change_head</code> is locked
+ * before the changes are written and holds the highest id written. As the lock
+ * is kept until commit, ids are given in commit order and the committed value
+ * of the row tells up to which id the feed can be read without skipping a
+ * change that is not committed yet.
+ *
+ * @see IntegrationEntityChange
+ */
+@Component
+public class IntegrationEntityChangesRecorder implements
+        PostInsertEventListener,
+        PostUpdateEventListener,
+        PostDeleteEventListener {
+
+    private static final String INSERT_CHANGE =
+            "INSERT INTO integration_entity_change (entity_type, code, deleted, recorded_at) " +
+                    "VALUES (?, ?, ?, CURRENT_TIMESTAMP)";
+
+    private static final String LOCK_HEAD = "UPDATE integration_entity_change_head SET last_id = last_id";
+
+    private static final String UPDATE_HEAD =
+            "UPDATE integration_entity_change_head SET last_id = (SELECT MAX(id) FROM integration_entity_change)";
+
+    private final ConcurrentMap<SessionImplementor, PendingChanges> pending = new ConcurrentHashMap<>();
+
+    @Autowired
+    private SessionFactory sessionFactory;
+
+    /**
+     * The changes of an entity are merged, so at most one is written per entity
+     * and transaction. A deletion is never overwritten.
+     *
+     * They are written by the last process run before completion, so the lock
+     * of the head row is not held while the other processes wait for locks.
+     */
+    private final class PendingChanges implements BeforeTransactionCompletionProcess,
+            AfterTransactionCompletionProcess {
+
+        private final Map<Pair<Type, String>, Boolean> deletedByEntity = new LinkedHashMap<>();
+
+        private boolean runLast = false;
+
+        void add(IntegrationEntityChange change) {
+            Pair<Type, String> key = Pair.of(change.getType(), change.getCode());
+            deletedByEntity.put(key, change.isDeleted() || Boolean.TRUE.equals(deletedByEntity.get(key)));
+        }
+
+        @Override
+        public void doBeforeTransactionCompletion(SessionImplementor session) {
+            if (!runLast) {
+                /* Registered again, it runs after the processes already queued */
+                runLast = true;
+                ((EventSource) session).getActionQueue().registerProcess((BeforeTransactionCompletionProcess) this);
+                return;
+            }
+            pending.remove(session);
+            ((Session) session).doWork(new Work() {
+                @Override
+                public void execute(Connection connection) throws SQLException {
+                    insert(connection);
+                }
+            });
+        }
+
+        private void insert(Connection connection) throws SQLException {
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate(LOCK_HEAD);
+            }
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_CHANGE)) {
+                for (Map.Entry<Pair<Type, String>, Boolean> each : deletedByEntity.entrySet()) {
+                    statement.setString(1, each.getKey().getLeft().name());
+                    statement.setString(2, each.getKey().getRight());
+                    statement.setBoolean(3, each.getValue());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate(UPDATE_HEAD);
+            }
+        }
+
+        @Override
+        public void doAfterTransactionCompletion(boolean success, SessionImplementor session) {
+            pending.remove(session);
+        }
+
+    }
+
+    @PostConstruct
+    private void registerHibernateListeners() {
+        SessionFactoryImpl impl = (SessionFactoryImpl) sessionFactory;
+        EventListenerRegistry registry = impl.getServiceRegistry().getService(EventListenerRegistry.class);
+
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return false;
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        record(event.getSession(), IntegrationEntityChange.of(event.getEntity(), false));
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        record(event.getSession(), IntegrationEntityChange.ofCodeChange(event.getEntity(), getOldCode(event)));
+        record(event.getSession(), IntegrationEntityChange.of(event.getEntity(), false));
+    }
+
+    /**
+     * The code of orders is mapped inside their <code>infoComponent</code>.
+     * The old state is not known, and so neither a change of code, when a
+     * detached entity is updated without selecting it first.
+     */
+    private static String getOldCode(PostUpdateEvent event) {
+        Object[] oldState = event.getOldState();
+        if (oldState == null) {
+            return null;
+        }
+        String[] propertyNames = event.getPersister().getPropertyNames();
+        for (int i = 0; i < propertyNames.length; i++) {
+            if ("code".equals(propertyNames[i])) {
+                return (String) oldState[i];
+            }
+            if ("infoComponent".equals(propertyNames[i]) && oldState[i] instanceof InfoComponentWithCode) {
+                return ((InfoComponentWithCode) oldState[i]).getCode();
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        record(event.getSession(), IntegrationEntityChange.of(event.getEntity(), true));
+    }
+
+    private void record(EventSource session, IntegrationEntityChange change) {
+        if (change == null) {
+            return;
+        }
+
+        PendingChanges changes = pending.get(session);
+        if (changes == null) {
+            changes = new PendingChanges();
+            pending.put(session, changes);
+            session.getActionQueue().registerProcess((BeforeTransactionCompletionProcess) changes);
+            session.getActionQueue().registerProcess((AfterTransactionCompletionProcess) changes);
+        }
+        changes.add(change);
+    }
+
+}
@@ -20,9 +20,12 @@
  */
 package org.libreplan.business.hibernate.notification;
 
+import java.util.HashSet;
+import java.util.Set;
 import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Future;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.commons.lang3.Validate;
@@ -30,6 +33,23 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 /**
+ * <p>
+ * The value is calculated in the background and, while a new value is being
+ * calculated, the previous one is returned.
+ * </p>
+ * <p>
+ * There is at most one calculation executing at a time: a new calculation is
+ * handed to the executor when the previous one finishes, so no thread is kept
+ * waiting for it. Requests that arrive while a calculation has been submitted
+ * but has not started yet are coalesced into it, so a burst of modifications
+ * causes at most two calculations.
+ * </p>
+ * <p>
+ * The transactions that have modified entities the snapshot depends on and
+ * have not completed yet are counted, so it can be known if the value
+ * reflects all the modifications: see {@link #getValueIfUpToDate()}.
+ * </p>
+ *
  * @author Óscar González Fernández
  *
  */
@@ -40,20 +60,63 @@ class NotBlockingAutoUpdatedSnapshot<T> implements IAutoUpdatedSnapshot<T> {
 
     private final Callable<T> callable;
 
+    private final IIncrementalUpdate<T> incrementalUpdate;
+
+    private final SnapshotPriority priority;
+
     private final AtomicReference<State> currentState;
 
     private final String name;
 
     private final ExecutionsReport executionsReport;
 
+    private final AtomicInteger pendingModifications = new AtomicInteger();
+
     private abstract class State {
         abstract T getValue();
 
-        void cancel() {
+        /**
+         * @return the value if no calculation is pending on it,
+         *         <code>null</code> otherwise
+         */
+        T getValueIfUpToDate() {
+            return null;
+        }
+
+        /**
+         * Unlike {@link #getValue()} it waits for the ongoing calculation if
+         * there is one.
+         */
+        abstract T getLatestValue();
+
+        /**
+         * Runs <code>action</code> when the ongoing calculation finishes, or
+         * right now if there isn't one.
+         */
+        void afterCalculation(Runnable action) {
+            action.run();
+        }
+
+        /**
+         * @return the calculation of this state, or <code>null</code> if there
+         *         isn't one. It may have already started.
+         */
+        Calculation getCalculation() {
+            return null;
+        }
+
+        /**
+         * @return an equivalent state that doesn't keep references to
+         *         finished calculations, neither its own nor the ones of the
+         *         states it was calculated from
+         */
+        State compacted() {
+            return this;
         }
 
-        State nextState(Future<T> future) {
-            return new PreviousValueAndOngoingCalculation(this, future);
+        State nextState(Calculation calculation, CalculationTask future) {
+            return new PreviousValueAndOngoingCalculation(this, calculation,
+                    future);
         }
 
         boolean hasBeenInitialized() {
@@ -69,8 +132,13 @@ class NotBlockingAutoUpdatedSnapshot<T> implements IAutoUpdatedSnapshot<T> {
         }
 
         @Override
-        State nextState(Future<T> future) {
-            return new FirstCalculation(future);
+        T getLatestValue() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        State nextState(Calculation calculation, CalculationTask future) {
+            return new FirstCalculation(calculation, future);
         }
 
         @Override
@@ -83,26 +151,51 @@ class NotBlockingAutoUpdatedSnapshot<T> implements IAutoUpdatedSnapshot<T> {
     private class NoOngoingCalculation extends State {
         private final T value;
 
+        /**
+         * <code>false</code> if the last calculation failed and the value is
+         * the one previous to it
+         */
+        private final boolean upToDate;
+
         NoOngoingCalculation(T value) {
+            this(value, true);
+        }
+
+        NoOngoingCalculation(T value, boolean upToDate) {
             this.value = value;
+            this.upToDate = upToDate;
         }
 
         @Override
         T getValue() {
             return value;
         }
+
+        @Override
+        T getValueIfUpToDate() {
+            return upToDate ? value : null;
+        }
+
+        @Override
+        T getLatestValue() {
+            return value;
+        }
     }
 
     private class PreviousValueAndOngoingCalculation extends State {
         private final State previousValue;
 
-        private final Future<T> ongoingCalculation;
+        private final Calculation calculation;
+
+        private final CalculationTask ongoingCalculation;
 
         private PreviousValueAndOngoingCalculation(State value,
-                Future<T> ongoingCalculation) {
+                Calculation calculation, CalculationTask ongoingCalculation) {
             Validate.notNull(value);
+            Validate.notNull(calculation);
             Validate.notNull(ongoingCalculation);
             this.previousValue = value;
+            this.calculation = calculation;
             this.ongoingCalculation = ongoingCalculation;
         }
 
@@ -110,44 +203,78 @@ class NotBlockingAutoUpdatedSnapshot<T> implements IAutoUpdatedSnapshot<T> {
         T getValue() {
             if (!ongoingCalculation.isCancelled()
                     && ongoingCalculation.isDone()) {
-                T newValue = getValueFromFuture();
-                currentState.compareAndSet(this, new NoOngoingCalculation(
-                        newValue));
-                return newValue;
+                State finished = finished();
+                currentState.compareAndSet(this, finished);
+                return finished.getValue();
             }
             LOG.debug(name + " the ongoing calculation has not been completed. "
                     + "Returning previous value");
             return previousValue.getValue();
         }
 
-        private T getValueFromFuture() {
+        @Override
+        T getValueIfUpToDate() {
+            if (!ongoingCalculation.isCancelled()
+                    && ongoingCalculation.isDone()) {
+                State finished = finished();
+                currentState.compareAndSet(this, finished);
+                return finished.getValueIfUpToDate();
+            }
+            return null;
+        }
+
+        private State finished() {
             try {
-                return ongoingCalculation.get();
+                return new NoOngoingCalculation(ongoingCalculation.get());
             } catch (Exception e) {
                 LOG.error("error creating new value for " + name
                         + ", keeping old value", e);
-                return previousValue.getValue();
+                return new NoOngoingCalculation(previousValue.getValue(),
+                        false);
             }
         }
 
         @Override
-        void cancel() {
-            if (ongoingCalculation.isDone() || ongoingCalculation.isCancelled()) {
-                return;
-            }
-            LOG.debug(name + " cancelling ongoing future");
+        T getLatestValue() {
             try {
-                ongoingCalculation.cancel(true);
+                return ongoingCalculation.get();
             } catch (Exception e) {
-                LOG.error("error cancelling future for " + name, e);
+                return previousValue.getLatestValue();
+            }
+        }
+
+        @Override
+        void afterCalculation(Runnable action) {
+            ongoingCalculation.whenDone(action);
+        }
+
+        @Override
+        Calculation getCalculation() {
+            return calculation;
+        }
+
+        @Override
+        State compacted() {
+            if (ongoingCalculation.isDone()) {
+                return finished();
+            }
+            State previousCompacted = previousValue.compacted();
+            if (previousCompacted == previousValue) {
+                return this;
             }
+            return new PreviousValueAndOngoingCalculation(previousCompacted,
+                    calculation, ongoingCalculation);
         }
     }
 
     private class FirstCalculation extends State {
-        private final Future<T> ongoingCalculation;
+        private final Calculation calculation;
 
-        private FirstCalculation(Future<T> ongoingCalculation) {
+        private final CalculationTask ongoingCalculation;
+
+        private FirstCalculation(Calculation calculation,
+                CalculationTask ongoingCalculation) {
+            this.calculation = calculation;
             this.ongoingCalculation = ongoingCalculation;
         }
 
@@ -161,19 +288,180 @@ class NotBlockingAutoUpdatedSnapshot<T> implements IAutoUpdatedSnapshot<T> {
         }
 
         @Override
-        void cancel() {
-            ongoingCalculation.cancel(true);
+        T getLatestValue() {
+            return getValue();
+        }
+
+        @Override
+        T getValueIfUpToDate() {
+            if (!ongoingCalculation.isDone()) {
+                return null;
+            }
+            try {
+                return ongoingCalculation.get();
+            } catch (Exception e) {
+                return null;
+            }
+        }
+
+        @Override
+        void afterCalculation(Runnable action) {
+            ongoingCalculation.whenDone(action);
+        }
+
+        @Override
+        Calculation getCalculation() {
+            return calculation;
+        }
+
+        @Override
+        State compacted() {
+            if (!ongoingCalculation.isDone()) {
+                return this;
+            }
+            try {
+                return new NoOngoingCalculation(ongoingCalculation.get());
+            } catch (Exception e) {
+                return this;
+            }
         }
 
     }
 
+    /**
+     * A calculation of a new value. Until it starts, new requests can be
+     * coalesced into it: a reload request turns it into a complete reload and
+     * an update request adds its modified keys.
+     */
+    private class Calculation implements Callable<T> {
+
+        /**
+         * It's released once the calculation has started, so a finished
+         * calculation doesn't keep the previous values.
+         */
+        private State previousState;
+
+        /**
+         * The keys to update incrementally, <code>null</code> if the value is
+         * completely recalculated.
+         */
+        private Set<Object> modifiedKeys;
+
+        private boolean started = false;
+
+        private Calculation(State previousState, Set<Object> modifiedKeys) {
+            this.previousState = previousState;
+            this.modifiedKeys = modifiedKeys == null ? null
+                    : new HashSet<Object>(modifiedKeys);
+        }
+
+        synchronized boolean coalesceReload() {
+            if (started) {
+                return false;
+            }
+            modifiedKeys = null;
+            return true;
+        }
+
+        synchronized boolean coalesceUpdate(Set<Object> keys) {
+            if (started) {
+                return false;
+            }
+            if (modifiedKeys != null) {
+                modifiedKeys.addAll(keys);
+            }
+            return true;
+        }
+
+        private synchronized Set<Object> start() {
+            started = true;
+            return modifiedKeys;
+        }
+
+        private synchronized State releasePreviousState() {
+            State result = previousState;
+            previousState = null;
+            return result;
+        }
+
+        /**
+         * It is only executed once the calculation of the previous state has
+         * finished.
+         */
+        @Override
+        public T call() throws Exception {
+            Set<Object> keys = start();
+            State previous = releasePreviousState();
+            if (keys == null) {
+                return callable.call();
+            }
+            try {
+                return incrementalUpdate.update(previous.getLatestValue(),
+                        keys);
+            } catch (Exception e) {
+                LOG.warn(name + " incremental update failed, "
+                        + "recalculating it completely", e);
+                return callable.call();
+            }
+        }
+    }
+
+    /**
+     * A {@link FutureTask} that can run an action when it finishes, used to
+     * hand the next calculation to the executor.
+     */
+    private class CalculationTask extends FutureTask<T> {
+
+        private Runnable whenDone;
+
+        private boolean finished = false;
+
+        CalculationTask(Callable<T> callable) {
+            super(callable);
+        }
+
+        void whenDone(Runnable action) {
+            synchronized (this) {
+                if (!finished) {
+                    Validate.isTrue(whenDone == null,
+                            "only one calculation can follow another");
+                    whenDone = action;
+                    return;
+                }
+            }
+            action.run();
+        }
+
+        @Override
+        protected void done() {
+            Runnable action;
+            synchronized (this) {
+                finished = true;
+                action = whenDone;
+                whenDone = null;
+            }
+            if (action != null) {
+                action.run();
+            }
+        }
+    }
+
     public NotBlockingAutoUpdatedSnapshot(String name, Callable<T> callable) {
+        this(name, SnapshotPriority.HIGH, callable, null);
+    }
+
+    public NotBlockingAutoUpdatedSnapshot(String name,
+            SnapshotPriority priority, Callable<T> callable,
+            IIncrementalUpdate<T> incrementalUpdate) {
         Validate.notNull(callable);
         Validate.notNull(name);
+        Validate.notNull(priority);
         this.name = "*" + name + "*";
+        this.priority = priority;
         this.callable = callable;
+        this.incrementalUpdate = incrementalUpdate;
         this.currentState = new AtomicReference<State>(new NotLaunchState());
-        this.executionsReport = new ExecutionsReport();
+        this.executionsReport = new ExecutionsReport(name, priority);
     }
 
     @Override
@@ -181,33 +469,106 @@ class NotBlockingAutoUpdatedSnapshot<T> implements IAutoUpdatedSnapshot<T> {
         return currentState.get().getValue();
     }
 
-    public void reloadNeeded(ExecutorService executorService) {
-        Future<T> future = executorService
-                .submit(callableDecoratedWithStatistics());
+    @Override
+    public T getValueIfUpToDate() {
+        if (pendingModifications.get() > 0) {
+            return null;
+        }
+        return currentState.get().getValueIfUpToDate();
+    }
+
+    /**
+     * A transaction has modified entities this snapshot depends on. Until
+     * {@link #modificationCompleted()} is called the value isn't up to date.
+     */
+    void modificationPending() {
+        pendingModifications.incrementAndGet();
+    }
+
+    /**
+     * The transaction has completed. It must be called once the calculation
+     * it causes, if any, has been requested.
+     */
+    void modificationCompleted() {
+        pendingModifications.decrementAndGet();
+    }
+
+    public SnapshotPriority getPriority() {
+        return priority;
+    }
+
+    public SnapshotMetrics getMetrics() {
+        return executionsReport.getMetrics();
+    }
+
+    /**
+     * Recalculates the value completely. If there is a calculation that has
+     * not started yet, the request is coalesced into it.
+     */
+    public void reloadNeeded(Executor executor) {
         State previousState;
-        State newState = null;
         do {
-            if (newState != null) {
-                newState.cancel();
-            }
             previousState = currentState.get();
-            newState = previousState.nextState(future);
-        } while (!currentState.compareAndSet(previousState, newState));
-        previousState.cancel();
+            Calculation calculation = previousState.getCalculation();
+            if (calculation != null && calculation.coalesceReload()) {
+                executionsReport.coalescedRequest();
+                return;
+            }
+        } while (!submit(executor, previousState, null));
     }
 
-    public void ensureFirstLoad(ExecutorService executorService) {
+    public void ensureFirstLoad(Executor executor) {
         if (hasBeenInitialized()) {
             return;
         }
-        Future<T> future = executorService
-                .submit(callableDecoratedWithStatistics());
-        State previous = currentState.get();
-        State newState = previous.nextState(future);
-        boolean compareAndSet = currentState.compareAndSet(previous, newState);
-        if (!compareAndSet) {
-            newState.cancel();
+        reloadNeeded(executor);
+    }
+
+    /**
+     * Updates the value using the {@link IIncrementalUpdate} over the latest
+     * value. If there is a calculation that has not started yet, the modified
+     * keys are added to it. If there is no incremental update or it fails the
+     * value is completely recalculated.
+     */
+    public void updateNeeded(Executor executor, Set<Object> modifiedKeys) {
+        if (incrementalUpdate == null || !hasBeenInitialized()) {
+            reloadNeeded(executor);
+            return;
         }
+        State previousState;
+        do {
+            previousState = currentState.get();
+            Calculation calculation = previousState.getCalculation();
+            if (calculation != null
+                    && calculation.coalesceUpdate(modifiedKeys)) {
+                executionsReport.coalescedRequest();
+                return;
+            }
+        } while (!submit(executor, previousState, modifiedKeys));
+    }
+
+    /**
+     * @return <code>false</code> if the state has changed meanwhile, so
+     *         nothing has been submitted
+     */
+    private boolean submit(final Executor executor, State previousState,
+            Set<Object> modifiedKeys) {
+        State base = previousState.compacted();
+        Calculation calculation = new Calculation(base, modifiedKeys);
+        final CalculationTask task = new CalculationTask(
+                callableDecoratedWithStatistics(calculation));
+        if (!currentState.compareAndSet(previousState,
+                base.nextState(calculation, task))) {
+            return false;
+        }
+        base.afterCalculation(new Runnable() {
+
+            @Override
+            public void run() {
+                executor.execute(task);
+            }
+        });
+        return true;
     }
 
     @Override
@@ -219,7 +580,8 @@ class NotBlockingAutoUpdatedSnapshot<T> implements IAutoUpdatedSnapshot<T> {
         return currentState.get().hasBeenInitialized();
     }
 
-    private Callable<T> callableDecoratedWithStatistics() {
+    private Callable<T> callableDecoratedWithStatistics(
+            final Callable<T> callable) {
         final long requestTime = System.currentTimeMillis();
         return new Callable<T>() {
 
@@ -242,47 +604,42 @@ class NotBlockingAutoUpdatedSnapshot<T> implements IAutoUpdatedSnapshot<T> {
         };
     }
 
-    private static class Data {
-        final int executionTimes;
-        final int errors;
-        long totalMsWaiting;
-        long totalMsExecuting;
+    private class ExecutionsReport {
 
-        private Data(int executionTimes, int errors, long totalMsWaiting,
-                long totalMsExecuting) {
-            this.executionTimes = executionTimes;
-            this.totalMsWaiting = totalMsWaiting;
-            this.totalMsExecuting = totalMsExecuting;
-            this.errors = errors;
-        }
+        private final AtomicReference<SnapshotMetrics> data;
 
-        public Data newData(long timeWaiting, long timeExcuting, Exception e) {
-            return new Data(executionTimes + 1, errors + (e != null ? 1 : 0),
-                    totalMsWaiting + timeWaiting,
-                    totalMsExecuting + timeExcuting);
+        ExecutionsReport(String name, SnapshotPriority priority) {
+            data = new AtomicReference<SnapshotMetrics>(
+                    SnapshotMetrics.initial(name, priority));
         }
 
-    }
-
-    private class ExecutionsReport {
-
-        private AtomicReference<Data> data = new AtomicReference<Data>(
-                new Data(0, 0, 0, 0));
+        public SnapshotMetrics getMetrics() {
+            return data.get();
+        }
 
         public void newData(long timeWaiting, long timeExecuting,
                 Exception possibleError) {
-            Data previousData;
-            Data newData;
+            SnapshotMetrics previousData;
+            SnapshotMetrics newData;
             do {
                 previousData = data.get();
-                newData = previousData.newData(timeWaiting, timeExecuting,
-                        possibleError);
+                newData = previousData.newExecution(timeWaiting,
+                        timeExecuting, possibleError);
             } while (!data.compareAndSet(previousData, newData));
             report(timeWaiting, timeExecuting, newData, possibleError);
         }
 
-        private void report(long timeWaiting, long timeExecuting, Data data,
-                Exception possibleError) {
+        public void coalescedRequest() {
+            SnapshotMetrics previousData;
+            do {
+                previousData = data.get();
+            } while (!data.compareAndSet(previousData,
+                    previousData.newCoalescedRequest()));
+            LOG.debug(name + " request coalesced into a not started calculation");
+        }
+
+        private void report(long timeWaiting, long timeExecuting,
+                SnapshotMetrics data, Exception possibleError) {
             LOG.debug(name + " took " + timeExecuting + " ms executing");
             if (possibleError != null) {
                 LOG.error("error loading " + name, possibleError);
@@ -290,12 +647,13 @@ class NotBlockingAutoUpdatedSnapshot<T> implements IAutoUpdatedSnapshot<T> {
             LOG.debug(name + " waited for " + timeWaiting
                     + " ms until executing");
             LOG.debug(name + " mean time waiting for execution: "
-                    + data.totalMsWaiting / data.executionTimes + " ms");
+                    + data.getMeanMsWaiting() + " ms");
             LOG.debug(name + " mean time  executing: "
-                    + data.totalMsExecuting / data.executionTimes + " ms");
-            LOG.debug(name + " has been executed " + data.executionTimes
+                    + data.getMeanMsExecuting() + " ms");
+            LOG.debug(name + " has been executed " + data.getExecutionTimes()
+                    + " times");
+            LOG.debug(name + " has produced errors " + data.getErrors()
                     + " times");
-            LOG.debug(name + " has produced errors " + data.errors + " times");
         }
     }
 
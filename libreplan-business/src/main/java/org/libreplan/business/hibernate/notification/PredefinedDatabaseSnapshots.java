@@ -39,8 +39,12 @@ import org.libreplan.business.calendars.entities.CalendarData;
 import org.libreplan.business.calendars.entities.CalendarException;
 import org.libreplan.business.common.AdHocTransactionService;
 import org.libreplan.business.common.IAdHocTransactionService;
+import org.libreplan.business.common.exceptions.InstanceNotFoundException;
 import org.libreplan.business.costcategories.daos.ICostCategoryDAO;
 import org.libreplan.business.costcategories.entities.CostCategory;
+import org.libreplan.business.costcategories.entities.HourCost;
+import org.libreplan.business.costcategories.entities.ResourcesCostCategoryAssignment;
+import org.libreplan.business.costcategories.entities.TypeOfWorkHours;
 import org.libreplan.business.externalcompanies.daos.IExternalCompanyDAO;
 import org.libreplan.business.externalcompanies.entities.ExternalCompany;
 import org.libreplan.business.labels.daos.ILabelDAO;
@@ -49,28 +53,36 @@ import org.libreplan.business.labels.entities.Label;
 import org.libreplan.business.labels.entities.LabelType;
 import org.libreplan.business.orders.daos.IOrderDAO;
 import org.libreplan.business.orders.entities.Order;
+import org.libreplan.business.planner.chart.AssignedEffortByResource;
+import org.libreplan.business.planner.chart.IncrementalResourceLoadChartData;
 import org.libreplan.business.planner.chart.ResourceLoadChartData;
 import org.libreplan.business.planner.daos.IDayAssignmentDAO;
+import org.libreplan.business.planner.daos.ITaskDayAggregateDAO;
 import org.libreplan.business.planner.daos.ITaskElementDAO;
 import org.libreplan.business.planner.entities.DayAssignment;
-import org.libreplan.business.planner.entities.GenericResourceAllocation;
+import org.libreplan.business.planner.entities.DerivedDayAssignment;
+import org.libreplan.business.planner.entities.GenericDayAssignment;
 import org.libreplan.business.planner.entities.ICostCalculator;
-import org.libreplan.business.planner.entities.ResourceAllocation;
-import org.libreplan.business.planner.entities.SpecificResourceAllocation;
+import org.libreplan.business.planner.entities.SpecificDayAssignment;
 import org.libreplan.business.planner.entities.Task;
+import org.libreplan.business.planner.entities.TaskDayAggregate;
 import org.libreplan.business.planner.entities.TaskElement;
 import org.libreplan.business.planner.entities.TaskGroup;
+import org.libreplan.business.resources.daos.CriterionSatisfactionsIndex;
 import org.libreplan.business.resources.daos.ICriterionDAO;
+import org.libreplan.business.resources.daos.ICriterionSatisfactionDAO;
 import org.libreplan.business.resources.daos.ICriterionTypeDAO;
 import org.libreplan.business.resources.daos.IResourceDAO;
 import org.libreplan.business.resources.daos.IWorkerDAO;
 import org.libreplan.business.resources.entities.Criterion;
+import org.libreplan.business.resources.entities.CriterionSatisfaction;
 import org.libreplan.business.resources.entities.CriterionType;
 import org.libreplan.business.resources.entities.Machine;
 import org.libreplan.business.resources.entities.Resource;
 import org.libreplan.business.resources.entities.VirtualWorker;
 import org.libreplan.business.resources.entities.Worker;
 import org.libreplan.business.scenarios.IScenarioManager;
+import org.libreplan.business.scenarios.entities.Scenario;
 import org.libreplan.business.workreports.daos.IWorkReportLineDAO;
 import org.libreplan.business.workreports.entities.WorkReportLine;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -124,6 +136,9 @@ public class PredefinedDatabaseSnapshots {
     @Autowired
     private IDayAssignmentDAO dayAssignmentDAO;
 
+    @Autowired
+    private ICriterionSatisfactionDAO criterionSatisfactionDAO;
+
     @Autowired
     private IScenarioManager scenarioManager;
 
@@ -136,6 +151,9 @@ public class PredefinedDatabaseSnapshots {
     @Autowired
     private ITaskElementDAO taskElementDAO;
 
+    @Autowired
+    private ITaskDayAggregateDAO taskDayAggregateDAO;
+
     private IAutoUpdatedSnapshot<SortedMap<CriterionType, List<Criterion>>> criterionsMap;
 
     private IAutoUpdatedSnapshot<Map<LabelType, List<Label>>> labelsMap;
@@ -154,7 +172,9 @@ public class PredefinedDatabaseSnapshots {
 
     private IAutoUpdatedSnapshot<List<String>> ordersCodes;
 
-    private IAutoUpdatedSnapshot<ResourceLoadChartData> resourceLoadChartData;
+    private IAutoUpdatedSnapshot<IncrementalResourceLoadChartData> resourceLoadChartData;
+
+    private IAutoUpdatedSnapshot<CriterionSatisfactionsIndex> criterionSatisfactionsIndex;
 
     private IAutoUpdatedSnapshot<List<WorkReportLine>> workReportLines;
 
@@ -204,6 +224,14 @@ public class PredefinedDatabaseSnapshots {
         return resourceLoadChartData.getValue();
     }
 
+    /**
+     * @return <code>null</code> if the snapshots haven't been registered or the index doesn't reflect all the
+     *         modifications of criterion satisfactions and resources yet
+     */
+    public CriterionSatisfactionsIndex snapshotCriterionSatisfactionsIndex() {
+        return criterionSatisfactionsIndex != null ? criterionSatisfactionsIndex.getValueIfUpToDate() : null;
+    }
+
     public List<WorkReportLine> snapshotWorkReportLines() {
         return workReportLines.getValue();
     }
@@ -241,29 +269,53 @@ public class PredefinedDatabaseSnapshots {
         customerReferences = snapshot("customer references", calculateCustomerReferences(), Order.class);
         ordersCodes = snapshot("order codes", calculateOrdersCodes(), Order.class);
 
+        /*
+         * Changes on day assignments and resources only recalculate the load of the affected resources, changes on
+         * calendars recalculate everything.
+         */
         resourceLoadChartData = snapshot(
                 "resource load grouped by date",
+                SnapshotPriority.LOW,
                 calculateResourceLoadChartData(),
-                CalendarAvailability.class,
-                CalendarException.class,
-                CalendarData.class,
-                TaskElement.class,
-                SpecificResourceAllocation.class,
-                GenericResourceAllocation.class,
-                ResourceAllocation.class);
+                updateResourceLoadChartData(),
+                ReloadOn.onChangeOf(CalendarAvailability.class, CalendarException.class, CalendarData.class)
+                        .andUpdateOnChangeOf(
+                                resourceIdOfModification(),
+                                SpecificDayAssignment.class,
+                                GenericDayAssignment.class,
+                                DerivedDayAssignment.class,
+                                Worker.class,
+                                Machine.class,
+                                VirtualWorker.class));
+
+        criterionSatisfactionsIndex = snapshot(
+                "criterion satisfactions index",
+                calculateCriterionSatisfactionsIndex(),
+                CriterionSatisfaction.class,
+                Worker.class,
+                Machine.class,
+                VirtualWorker.class);
 
-        workReportLines = snapshot("work report lines", calculateWorkReportLines(), WorkReportLine.class);
+        workReportLines = snapshot(
+                "work report lines", SnapshotPriority.LOW, calculateWorkReportLines(), WorkReportLine.class);
 
         estimatedCostPerTask = snapshot(
                 "estimated cost per task",
+                SnapshotPriority.LOW,
                 calculateEstimatedCostPerTask(),
                 TaskElement.class,
                 Task.class,
                 TaskGroup.class,
-                DayAssignment.class);
+                DayAssignment.class,
+                TaskDayAggregate.class,
+                TypeOfWorkHours.class,
+                CostCategory.class,
+                HourCost.class,
+                ResourcesCostCategoryAssignment.class);
 
         advanceCostPerTask = snapshot(
                 "advance cost per task",
+                SnapshotPriority.LOW,
                 calculateAdvanceCostPerTask(),
                 TaskElement.class,
                 Task.class,
@@ -272,8 +324,37 @@ public class PredefinedDatabaseSnapshots {
     }
 
     private <T> IAutoUpdatedSnapshot<T> snapshot(String name, Callable<T> callable, Class<?>... reloadOnChangesOf) {
-        return snapshotRefresherService
-                .takeSnapshot(name, callableOnReadOnlyTransaction(callable), ReloadOn.onChangeOf(reloadOnChangesOf));
+        return snapshot(name, SnapshotPriority.HIGH, callable, reloadOnChangesOf);
+    }
+
+    private <T> IAutoUpdatedSnapshot<T> snapshot(String name,
+                                                 SnapshotPriority priority,
+                                                 Callable<T> callable,
+                                                 Class<?>... reloadOnChangesOf) {
+        return snapshotRefresherService.takeSnapshot(
+                name,
+                priority,
+                callableOnReadOnlyTransaction(callable),
+                null,
+                ReloadOn.onChangeOf(reloadOnChangesOf));
+    }
+
+    private <T> IAutoUpdatedSnapshot<T> snapshot(String name,
+                                                 SnapshotPriority priority,
+                                                 Callable<T> callable,
+                                                 IIncrementalUpdate<T> incrementalUpdate,
+                                                 ReloadOn reloadOn) {
+        return snapshotRefresherService.takeSnapshot(
+                name,
+                priority,
+                callableOnReadOnlyTransaction(callable),
+                incrementalUpdateOnReadOnlyTransaction(incrementalUpdate),
+                reloadOn);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> IIncrementalUpdate<T> incrementalUpdateOnReadOnlyTransaction(IIncrementalUpdate<T> incrementalUpdate) {
+        return AdHocTransactionService.readOnlyProxy(transactionService, IIncrementalUpdate.class, incrementalUpdate);
     }
 
     @SuppressWarnings("unchecked")
@@ -360,15 +441,56 @@ public class PredefinedDatabaseSnapshots {
         };
     }
 
-    private Callable<ResourceLoadChartData> calculateResourceLoadChartData() {
+    private Callable<IncrementalResourceLoadChartData> calculateResourceLoadChartData() {
         return () -> {
-            List<DayAssignment> dayAssignments = dayAssignmentDAO.getAllFor(scenarioManager.getCurrent(), null, null);
+            AssignedEffortByResource assigned = new AssignedEffortByResource();
+            dayAssignmentDAO.visitAssignedEffort(scenarioManager.getCurrent(), null, assigned);
             List<Resource> resources = resourceDAO.list(Resource.class);
-            return new ResourceLoadChartData(dayAssignments, resources);
+            return IncrementalResourceLoadChartData.create(assigned, resources);
+        };
+    }
+
+    private IModificationKeyExtractor resourceIdOfModification() {
+        return entity -> {
+            if ( entity instanceof DayAssignment ) {
+                return ((DayAssignment) entity).getResource().getId();
+            }
+            if ( entity instanceof Resource ) {
+                return ((Resource) entity).getId();
+            }
+            return null;
+        };
+    }
 
+    /**
+     * The keys are the ids of the resources whose day assignments or calendars have changed.
+     * Only their load is recalculated, the ones no longer existing are removed from the chart.
+     */
+    private IIncrementalUpdate<IncrementalResourceLoadChartData> updateResourceLoadChartData() {
+        return (previous, modifiedKeys) -> {
+            Scenario current = scenarioManager.getCurrent();
+            List<Resource> changed = new ArrayList<>();
+            AssignedEffortByResource assignedToChanged = new AssignedEffortByResource();
+            List<Long> removed = new ArrayList<>();
+
+            for (Object each : modifiedKeys) {
+                Long resourceId = (Long) each;
+                try {
+                    Resource resource = resourceDAO.find(resourceId);
+                    changed.add(resource);
+                    dayAssignmentDAO.visitAssignedEffort(current, resource, assignedToChanged);
+                } catch (InstanceNotFoundException e) {
+                    removed.add(resourceId);
+                }
+            }
+            return previous.withChangesOn(changed, assignedToChanged, removed);
         };
     }
 
+    private Callable<CriterionSatisfactionsIndex> calculateCriterionSatisfactionsIndex() {
+        return () -> criterionSatisfactionDAO.createSatisfactionsIndex();
+    }
+
     private Callable<List<WorkReportLine>> calculateWorkReportLines() {
         return () -> workReportLineDAO.list(WorkReportLine.class);
     }
@@ -378,12 +500,20 @@ public class PredefinedDatabaseSnapshots {
     private Callable<Map<TaskElement, SortedMap<LocalDate, BigDecimal>>> calculateEstimatedCostPerTask() {
         return () -> {
             Map<TaskElement, SortedMap<LocalDate, BigDecimal>> map = new HashMap<>();
+            Map<Long, SortedMap<LocalDate, BigDecimal>> aggregated =
+                    taskDayAggregateDAO.getEstimatedCostPerTask(scenarioManager.getCurrent());
 
+            /*
+             * Tasks saved from the planning have their estimated cost precalculated. The rest, like the ones not
+             * saved yet since the aggregates exist, are calculated from their day assignments.
+             */
             taskElementDAO.
                     list(TaskElement.class)
                     .stream()
                     .filter(task -> task instanceof Task)
-                    .forEach(task -> map.put(task, hoursCostCalculator.getEstimatedCost((Task) task)));
+                    .forEach(task -> map.put(task, aggregated.containsKey(task.getId())
+                            ? aggregated.get(task.getId())
+                            : hoursCostCalculator.getEstimatedCost((Task) task)));
 
             return map;
         };
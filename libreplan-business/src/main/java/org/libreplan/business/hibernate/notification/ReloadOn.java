@@ -23,7 +23,10 @@ package org.libreplan.business.hibernate.notification;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * @author Óscar González Fernández
@@ -36,16 +39,41 @@ public class ReloadOn {
     }
 
     public static ReloadOn onChangeOf(Collection<Class<?>> klasses) {
-        return new ReloadOn(klasses);
+        return new ReloadOn(klasses, Collections.<Class<?>, IModificationKeyExtractor> emptyMap());
     }
 
     private final List<Class<?>> classes;
 
-    private ReloadOn(Collection<? extends Class<?>> classes) {
+    private final Map<Class<?>, IModificationKeyExtractor> updateOn;
+
+    private ReloadOn(Collection<? extends Class<?>> classes,
+            Map<Class<?>, IModificationKeyExtractor> updateOn) {
         this.classes = new ArrayList<Class<?>>(classes);
+        this.updateOn = new HashMap<Class<?>, IModificationKeyExtractor>(
+                updateOn);
+    }
+
+    /**
+     * The modifications of the provided classes don't cause a complete reload
+     * of the snapshot but an {@link IIncrementalUpdate incremental update}
+     * with the keys extracted from the modified entities. If the snapshot has
+     * not an incremental update it's completely reloaded.
+     */
+    public ReloadOn andUpdateOnChangeOf(IModificationKeyExtractor extractor,
+            Class<?>... klasses) {
+        Map<Class<?>, IModificationKeyExtractor> newUpdateOn = new HashMap<Class<?>, IModificationKeyExtractor>(
+                updateOn);
+        for (Class<?> each : klasses) {
+            newUpdateOn.put(each, extractor);
+        }
+        return new ReloadOn(classes, newUpdateOn);
     }
 
     public List<Class<?>> getClassesOnWhichToReload() {
         return classes;
     }
+
+    public Map<Class<?>, IModificationKeyExtractor> getClassesOnWhichToUpdate() {
+        return Collections.unmodifiableMap(updateOn);
+    }
 }
@@ -0,0 +1,137 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.libreplan.business.hibernate.notification;
+
+/**
+ * Statistics about the calculations of a snapshot since it was taken. It's
+ * immutable, each new execution creates a new instance.
+ *
+ * @see ISnapshotRefresherService#getSnapshotsMetrics()
+ */
+public class SnapshotMetrics {
+
+    static SnapshotMetrics initial(String name, SnapshotPriority priority) {
+        return new SnapshotMetrics(name, priority, 0, 0, 0, 0, 0, 0, 0);
+    }
+
+    private final String name;
+
+    private final SnapshotPriority priority;
+
+    private final int executionTimes;
+
+    private final int errors;
+
+    private final int coalescedRequests;
+
+    private final long totalMsWaiting;
+
+    private final long totalMsExecuting;
+
+    private final long lastMsWaiting;
+
+    private final long lastMsExecuting;
+
+    private SnapshotMetrics(String name, SnapshotPriority priority,
+            int executionTimes, int errors, int coalescedRequests,
+            long totalMsWaiting, long totalMsExecuting, long lastMsWaiting,
+            long lastMsExecuting) {
+        this.name = name;
+        this.priority = priority;
+        this.executionTimes = executionTimes;
+        this.errors = errors;
+        this.coalescedRequests = coalescedRequests;
+        this.totalMsWaiting = totalMsWaiting;
+        this.totalMsExecuting = totalMsExecuting;
+        this.lastMsWaiting = lastMsWaiting;
+        this.lastMsExecuting = lastMsExecuting;
+    }
+
+    SnapshotMetrics newExecution(long msWaiting, long msExecuting,
+            Exception possibleError) {
+        return new SnapshotMetrics(name, priority, executionTimes + 1,
+                errors + (possibleError != null ? 1 : 0), coalescedRequests,
+                totalMsWaiting + msWaiting, totalMsExecuting + msExecuting,
+                msWaiting, msExecuting);
+    }
+
+    SnapshotMetrics newCoalescedRequest() {
+        return new SnapshotMetrics(name, priority, executionTimes, errors,
+                coalescedRequests + 1, totalMsWaiting, totalMsExecuting,
+                lastMsWaiting, lastMsExecuting);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public SnapshotPriority getPriority() {
+        return priority;
+    }
+
+    public int getExecutionTimes() {
+        return executionTimes;
+    }
+
+    public int getErrors() {
+        return errors;
+    }
+
+    /**
+     * @return the number of reload or update requests that didn't cause a new
+     *         calculation because they were merged into one not started yet
+     */
+    public int getCoalescedRequests() {
+        return coalescedRequests;
+    }
+
+    public long getTotalMsWaiting() {
+        return totalMsWaiting;
+    }
+
+    public long getTotalMsExecuting() {
+        return totalMsExecuting;
+    }
+
+    public long getMeanMsWaiting() {
+        return executionTimes == 0 ? 0 : totalMsWaiting / executionTimes;
+    }
+
+    public long getMeanMsExecuting() {
+        return executionTimes == 0 ? 0 : totalMsExecuting / executionTimes;
+    }
+
+    public long getLastMsWaiting() {
+        return lastMsWaiting;
+    }
+
+    public long getLastMsExecuting() {
+        return lastMsExecuting;
+    }
+
+    @Override
+    public String toString() {
+        return name + " [" + priority + "] executed " + executionTimes
+                + " times (" + errors + " errors, " + coalescedRequests
+                + " coalesced requests), mean time waiting: "
+                + getMeanMsWaiting() + " ms, mean time executing: "
+                + getMeanMsExecuting() + " ms";
+    }
+
+}
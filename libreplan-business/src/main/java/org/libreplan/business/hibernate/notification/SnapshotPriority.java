@@ -0,0 +1,61 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.libreplan.business.hibernate.notification;
+
+/**
+ * The class of executor a snapshot is calculated on. Each priority has its own
+ * threads, so a burst of modifications affecting slow snapshots doesn't delay
+ * the recalculation of the cheap ones.
+ * <br />
+ * The number of threads of each priority can be changed with the system
+ * properties <code>libreplan.snapshots.high.threads</code> and
+ * <code>libreplan.snapshots.low.threads</code>.
+ *
+ * @see ISnapshotRefresherService#takeSnapshot(String, SnapshotPriority,
+ *      java.util.concurrent.Callable, IIncrementalUpdate, ReloadOn)
+ */
+public enum SnapshotPriority {
+
+    /**
+     * Snapshots that are cheap to calculate and are used often from the UI,
+     * like the lists of criteria or labels.
+     */
+    HIGH(2),
+
+    /**
+     * Snapshots that load a lot of data from the database, like the ones used
+     * by the company charts.
+     */
+    LOW(2);
+
+    private final int defaultThreads;
+
+    SnapshotPriority(int defaultThreads) {
+        this.defaultThreads = defaultThreads;
+    }
+
+    public String getThreadsProperty() {
+        return "libreplan.snapshots." + name().toLowerCase() + ".threads";
+    }
+
+    public int getThreads() {
+        return Math.max(1, Integer.getInteger(getThreadsProperty(), defaultThreads));
+    }
+
+}
@@ -0,0 +1,259 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.business.hibernate.notification;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.annotation.PostConstruct;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.internal.SessionFactoryImpl;
+import org.hibernate.jdbc.Work;
+import org.hibernate.persister.entity.EntityPersister;
+import org.libreplan.business.common.BaseEntity;
+import org.libreplan.business.costcategories.entities.CostCategory;
+import org.libreplan.business.costcategories.entities.HourCost;
+import org.libreplan.business.costcategories.entities.ResourcesCostCategoryAssignment;
+import org.libreplan.business.costcategories.entities.TypeOfWorkHours;
+import org.libreplan.business.planner.entities.Task;
+import org.libreplan.business.planner.entities.TaskDayAggregate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Removes the {@link TaskDayAggregate TaskDayAggregates} that are no longer
+ * valid, in the same transaction that invalidates them and just before it
+ * commits:
+ * <ul>
+ * <li>The ones of the deleted tasks, whatever the way they are deleted, so no
+ * aggregate is left for a task id that could be used again.</li>
+ * <li>The ones of the tasks with day assignments of the resources whose cost
+ * could change: the resources of the changed cost category assignments, and
+ * the resources assigned to the changed cost categories, to the categories of
+ * the changed hour costs or to the categories with costs of the changed hour
+ * types. The estimated cost of those tasks is calculated from the day
+ * assignments until they are saved again from the planning.</li>
+ * </ul>
+ */
+@Component
+public class TaskDayAggregatesInvalidator implements
+        PostInsertEventListener,
+        PostUpdateEventListener,
+        PostDeleteEventListener {
+
+    private static final String DELETE_FOR_TASK = "DELETE FROM task_day_aggregate WHERE task_id = ?";
+
+    /**
+     * Deletes the aggregates of the tasks with day assignments in the
+     * containers of kind <code>%1$s</code> of the resources selected by
+     * <code>%2$s</code>.
+     */
+    private static final String DELETE_FOR_RESOURCES = "DELETE FROM task_day_aggregate WHERE task_id IN ("
+            + "SELECT ra.task FROM resource_allocation ra"
+            + " JOIN %1$s_day_assignments_container c ON c.resource_allocation_id = ra.id"
+            + " JOIN day_assignment da ON da.%1$s_container_id = c.id"
+            + " WHERE da.resource_id IN (%2$s))";
+
+    private static final String[] CONTAINER_KINDS = { "specific", "generic" };
+
+    private static final String RESOURCE = "?";
+
+    private static final String RESOURCES_OF_COST_CATEGORY =
+            "SELECT resource_id FROM resources_cost_category_assignment WHERE cost_category_id = ?";
+
+    private static final String RESOURCES_OF_TYPE_OF_WORK_HOURS =
+            "SELECT a.resource_id FROM resources_cost_category_assignment a"
+                    + " JOIN hour_cost h ON h.cost_category_id = a.cost_category_id"
+                    + " WHERE h.type_of_work_hours_id = ?";
+
+    private final ConcurrentMap<SessionImplementor, PendingInvalidation> pending = new ConcurrentHashMap<>();
+
+    @Autowired
+    private SessionFactory sessionFactory;
+
+    private final class PendingInvalidation implements BeforeTransactionCompletionProcess,
+            AfterTransactionCompletionProcess {
+
+        private final Set<Long> removedTaskIds = new HashSet<>();
+
+        private final Set<Long> resourceIds = new HashSet<>();
+
+        private final Set<Long> costCategoryIds = new HashSet<>();
+
+        private final Set<Long> typeOfWorkHoursIds = new HashSet<>();
+
+        @Override
+        public void doBeforeTransactionCompletion(SessionImplementor session) {
+            pending.remove(session);
+            ((Session) session).doWork(new Work() {
+                @Override
+                public void execute(Connection connection) throws SQLException {
+                    delete(connection);
+                }
+            });
+        }
+
+        private void delete(Connection connection) throws SQLException {
+            for (String each : CONTAINER_KINDS) {
+                delete(connection, String.format(DELETE_FOR_RESOURCES, each, RESOURCE), resourceIds);
+                delete(connection, String.format(DELETE_FOR_RESOURCES, each, RESOURCES_OF_COST_CATEGORY),
+                        costCategoryIds);
+                delete(connection, String.format(DELETE_FOR_RESOURCES, each, RESOURCES_OF_TYPE_OF_WORK_HOURS),
+                        typeOfWorkHoursIds);
+            }
+            delete(connection, DELETE_FOR_TASK, removedTaskIds);
+        }
+
+        private void delete(Connection connection, String sql, Set<Long> ids) throws SQLException {
+            if (ids.isEmpty()) {
+                return;
+            }
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                for (Long each : ids) {
+                    statement.setLong(1, each);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+        }
+
+        @Override
+        public void doAfterTransactionCompletion(boolean success, SessionImplementor session) {
+            pending.remove(session);
+        }
+
+    }
+
+    @PostConstruct
+    private void registerHibernateListeners() {
+        SessionFactoryImpl impl = (SessionFactoryImpl) sessionFactory;
+        EventListenerRegistry registry = impl.getServiceRegistry().getService(EventListenerRegistry.class);
+
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return false;
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (affectsEstimatedCost(event.getEntity())) {
+            addAffected(pendingFor(event.getSession()), event.getEntity(), null, null);
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (affectsEstimatedCost(event.getEntity())) {
+            addAffected(pendingFor(event.getSession()), event.getEntity(),
+                    event.getPersister().getPropertyNames(), event.getOldState());
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (affectsEstimatedCost(event.getEntity())) {
+            addAffected(pendingFor(event.getSession()), event.getEntity(), null, null);
+        } else if (event.getEntity() instanceof Task) {
+            pendingFor(event.getSession()).removedTaskIds.add((Long) event.getId());
+        }
+    }
+
+    private static boolean affectsEstimatedCost(Object entity) {
+        return entity instanceof TypeOfWorkHours
+                || entity instanceof CostCategory
+                || entity instanceof HourCost
+                || entity instanceof ResourcesCostCategoryAssignment;
+    }
+
+    /**
+     * The resource of an updated assignment and the category of an updated
+     * hour cost are taken both from the new and the old state, as the costs
+     * of both could change.
+     */
+    private static void addAffected(PendingInvalidation invalidation, Object entity,
+                                    String[] propertyNames, Object[] oldState) {
+
+        if (entity instanceof ResourcesCostCategoryAssignment) {
+            addIdOf(invalidation.resourceIds, ((ResourcesCostCategoryAssignment) entity).getResource());
+            addIdOf(invalidation.resourceIds, oldValue("resource", propertyNames, oldState));
+        } else if (entity instanceof HourCost) {
+            addIdOf(invalidation.costCategoryIds, ((HourCost) entity).getCategory());
+            addIdOf(invalidation.costCategoryIds, oldValue("category", propertyNames, oldState));
+        } else if (entity instanceof CostCategory) {
+            addIdOf(invalidation.costCategoryIds, entity);
+        } else if (entity instanceof TypeOfWorkHours) {
+            addIdOf(invalidation.typeOfWorkHoursIds, entity);
+        }
+    }
+
+    private static Object oldValue(String propertyName, String[] propertyNames, Object[] oldState) {
+        if (propertyNames == null || oldState == null) {
+            return null;
+        }
+        for (int i = 0; i < propertyNames.length; i++) {
+            if (propertyName.equals(propertyNames[i])) {
+                return oldState[i];
+            }
+        }
+        return null;
+    }
+
+    private static void addIdOf(Set<Long> ids, Object entity) {
+        if (entity instanceof BaseEntity && ((BaseEntity) entity).getId() != null) {
+            ids.add(((BaseEntity) entity).getId());
+        }
+    }
+
+    private PendingInvalidation pendingFor(EventSource session) {
+        PendingInvalidation result = pending.get(session);
+        if (result == null) {
+            result = new PendingInvalidation();
+            pending.put(session, result);
+            session.getActionQueue().registerProcess((BeforeTransactionCompletionProcess) result);
+            session.getActionQueue().registerProcess((AfterTransactionCompletionProcess) result);
+        }
+        return result;
+    }
+
+}
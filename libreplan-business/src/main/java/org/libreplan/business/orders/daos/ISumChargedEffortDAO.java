@@ -96,4 +96,16 @@ public interface ISumChargedEffortDAO extends
      */
     void recalculateTimesheetData(Set<OrderElement> orderElements);
 
+    /**
+     * Returns the ids of the {@link Order Orders} of the {@link OrderElement
+     * OrderElements} of the lines, both the current ones and the ones saved in
+     * the database, so the orders the lines are moved from are included too.
+     *
+     * Usually you call this method after saving the work reports, in the same
+     * transaction, and once it is committed you call
+     * {@link ISumChargedEffortDAO#recalculateSumChargedEfforts(Long)} for each
+     * of them.
+     */
+    Set<Long> getOrderIdsToRecalculate(Set<WorkReportLine> workReportLines);
+
 }
@@ -511,6 +511,11 @@ public class OrderDAO extends IntegrationEntityDAO<Order> implements IOrderDAO {
         }
     }
 
+    @Override
+    protected String getCodeProperty() {
+        return "infoComponent.code";
+    }
+
     @Override
     public List<Order> findAll() {
         return getSession()
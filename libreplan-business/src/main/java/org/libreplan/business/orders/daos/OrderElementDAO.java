@@ -198,6 +198,11 @@ public class OrderElementDAO extends IntegrationEntityDAO<OrderElement> implemen
         return result;
     }
 
+    @Override
+    protected String getCodeProperty() {
+        return "infoComponent.code";
+    }
+
     @Override
     public List<OrderElement> findAll() {
         return getSession()
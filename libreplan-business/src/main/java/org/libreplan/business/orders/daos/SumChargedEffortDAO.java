@@ -19,16 +19,27 @@
 
 package org.libreplan.business.orders.daos;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
 
 import org.hibernate.SessionFactory;
 import org.hibernate.criterion.Restrictions;
+import org.hibernate.engine.spi.PersistenceContext;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.jdbc.Work;
+import org.hibernate.persister.entity.EntityPersister;
 import org.libreplan.business.common.IAdHocTransactionService;
 import org.libreplan.business.common.IOnTransaction;
 import org.libreplan.business.common.daos.GenericDAOHibernate;
@@ -37,6 +48,7 @@ import org.libreplan.business.orders.entities.Order;
 import org.libreplan.business.orders.entities.OrderElement;
 import org.libreplan.business.orders.entities.OrderLineGroup;
 import org.libreplan.business.orders.entities.SumChargedEffort;
+import org.libreplan.business.orders.entities.TimesheetTotals;
 import org.libreplan.business.util.Pair;
 import org.libreplan.business.workingday.EffortDuration;
 import org.libreplan.business.workreports.daos.IWorkReportLineDAO;
@@ -44,6 +56,7 @@ import org.libreplan.business.workreports.entities.WorkReportLine;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.context.annotation.Scope;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -75,6 +88,20 @@ public class SumChargedEffortDAO extends
 
     private Map<OrderElement, SumChargedEffort> mapSumChargedEfforts;
 
+    /**
+     * Keeps the number of parameters of each query far from the limits of the
+     * databases.
+     */
+    private static final int MAX_IDS_PER_QUERY = 1000;
+
+    private static final int JDBC_BATCH_SIZE = 500;
+
+    private static final String UPDATE_SUM_CHARGED_EFFORT = "UPDATE sum_charged_effort SET "
+            + "direct_charged_effort = ?, indirect_charged_effort = ?, "
+            + "first_timesheet_date = ?, last_timesheet_date = ?, "
+            + "finished_timesheets = ?, version = version + 1 "
+            + "WHERE id = ? AND version = ?";
+
     @Override
     public void updateRelatedSumChargedEffortWithWorkReportLineSet(
             Set<WorkReportLine> workReportLineSet) {
@@ -253,69 +280,181 @@ public class SumChargedEffortDAO extends
     public void recalculateSumChargedEfforts(Long orderId) {
         try {
             Order order = orderDAO.find(orderId);
-            resetMapSumChargedEfforts();
-            resetSumChargedEffort(order);
-            calculateDirectChargedEffort(order);
-            calculateTimesheetData(order);
+            Map<Long, OrderElement> elementsById = byId(order);
+
+            Map<OrderElement, TimesheetTotals> totals =
+                    TimesheetTotals.rollUp(order, findOwnTimesheetTotals(elementsById));
+
+            saveTotals(totals, elementsById);
         } catch (InstanceNotFoundException e) {
             throw new RuntimeException(e);
         }
     }
 
-    private void resetSumChargedEffort(OrderElement orderElement) {
-        SumChargedEffort sumChargedEffort = getByOrderElement(orderElement);
-        sumChargedEffort.reset();
-
-        for (OrderElement each : orderElement.getChildren()) {
-            resetSumChargedEffort(each);
+    private static Map<Long, OrderElement> byId(Order order) {
+        Map<Long, OrderElement> result = new HashMap<Long, OrderElement>();
+        result.put(order.getId(), order);
+        for (OrderElement each : order.getAllChildren()) {
+            result.put(each.getId(), each);
         }
+        return result;
     }
 
-    private void calculateDirectChargedEffort(OrderElement orderElement) {
-        for (OrderElement each : orderElement.getChildren()) {
-            calculateDirectChargedEffort(each);
+    /**
+     * Gets the effort, dates and finished flag of the lines charged directly to
+     * each element with a grouped query per chunk of elements.
+     */
+    @SuppressWarnings("unchecked")
+    private Map<OrderElement, TimesheetTotals> findOwnTimesheetTotals(
+            Map<Long, OrderElement> elementsById) {
+        Map<OrderElement, TimesheetTotals> result = new HashMap<OrderElement, TimesheetTotals>();
+
+        String strQuery = "SELECT wrl.orderElement.id, SUM(wrl.effort), MIN(wrl.date), MAX(wrl.date), "
+                + "SUM(CASE WHEN wrl.finished = true THEN 1 ELSE 0 END) "
+                + "FROM WorkReportLine wrl "
+                + "WHERE wrl.orderElement.id IN (:ids) "
+                + "GROUP BY wrl.orderElement.id";
+
+        for (List<Long> ids : chunks(elementsById.keySet())) {
+            List<Object[]> rows = getSession().createQuery(strQuery)
+                    .setParameterList("ids", ids).list();
+
+            for (Object[] row : rows) {
+                OrderElement orderElement = elementsById.get(row[0]);
+                result.put(orderElement, new TimesheetTotals(
+                        EffortDuration.seconds(((Number) row[1]).intValue()),
+                        (Date) row[2], (Date) row[3],
+                        ((Number) row[4]).longValue() > 0));
+            }
         }
+        return result;
+    }
 
-        EffortDuration effort = EffortDuration.zero();
-        for (WorkReportLine line : workReportLineDAO
-                .findByOrderElement(orderElement)) {
-            effort = effort.plus(line.getEffort());
+    private static List<List<Long>> chunks(Collection<Long> ids) {
+        List<Long> all = new ArrayList<Long>(ids);
+        List<List<Long>> result = new ArrayList<List<Long>>();
+        for (int i = 0; i < all.size(); i += MAX_IDS_PER_QUERY) {
+            result.add(all.subList(i, Math.min(all.size(), i + MAX_IDS_PER_QUERY)));
         }
-        addDirectChargedEffort(orderElement, effort);
+        return result;
     }
 
-    private void calculateTimesheetData(OrderElement orderElement) {
-        calculateTimesheetDatesAndChildren(orderElement);
-        calculateFinishedTimesheetsAndChildren(orderElement);
-    }
+    /**
+     * Updates the existing {@link SumChargedEffort} rows in JDBC batches,
+     * checking their version like Hibernate would do, and saves the missing
+     * ones. The instances already loaded in the session are updated
+     * afterwards, so they don't keep the previous values and version.
+     */
+    @SuppressWarnings("unchecked")
+    private void saveTotals(Map<OrderElement, TimesheetTotals> totals,
+            Map<Long, OrderElement> elementsById) {
+        final List<Object[]> existing = new ArrayList<Object[]>();
+        for (List<Long> ids : chunks(elementsById.keySet())) {
+            existing.addAll(getSession()
+                    .createQuery("SELECT s.id, s.version, s.orderElement.id "
+                            + "FROM SumChargedEffort s "
+                            + "WHERE s.orderElement.id IN (:ids)")
+                    .setParameterList("ids", ids).list());
+        }
 
-    private Pair<Date, Date> calculateTimesheetDatesAndChildren(
-            OrderElement orderElement) {
-        Pair<Date, Date> minMax = workReportLineDAO
-                .findMinAndMaxDatesByOrderElement(orderElement);
+        final Map<Long, TimesheetTotals> toUpdate = new HashMap<Long, TimesheetTotals>();
+        final Map<Long, Long> versions = new HashMap<Long, Long>();
+        Map<OrderElement, TimesheetTotals> toCreate = new HashMap<OrderElement, TimesheetTotals>(totals);
+        for (Object[] row : existing) {
+            OrderElement orderElement = elementsById.get(row[2]);
+            toUpdate.put((Long) row[0], toCreate.remove(orderElement));
+            versions.put((Long) row[0], (Long) row[1]);
+        }
 
-        Set<Date> minDates = new HashSet<Date>();
-        Set<Date> maxDates = new HashSet<Date>();
+        for (Entry<OrderElement, TimesheetTotals> each : toCreate.entrySet()) {
+            SumChargedEffort sumChargedEffort = SumChargedEffort.create(each.getKey());
+            setTotals(sumChargedEffort, each.getValue());
+            save(sumChargedEffort);
+        }
 
-        addIfNotNull(minDates, minMax.getFirst());
-        addIfNotNull(maxDates, minMax.getSecond());
+        getSession().doWork(new Work() {
+            @Override
+            public void execute(Connection connection) throws SQLException {
+                updateInBatches(connection, toUpdate, versions);
+            }
+        });
+        updateLoadedInstances(toUpdate, versions);
+    }
 
-        for (OrderElement child : orderElement.getChildren()) {
-            Pair<Date, Date> minMaxChild = calculateTimesheetDatesAndChildren(child);
-            addIfNotNull(minDates, minMaxChild.getFirst());
-            addIfNotNull(maxDates, minMaxChild.getSecond());
+    private static void setTotals(SumChargedEffort sumChargedEffort, TimesheetTotals values) {
+        sumChargedEffort.reset();
+        sumChargedEffort.addDirectChargedEffort(values.getDirectChargedEffort());
+        sumChargedEffort.addIndirectChargedEffort(values.getIndirectChargedEffort());
+        sumChargedEffort.setTimesheetDates(values.getFirstTimesheetDate(),
+                values.getLastTimesheetDate());
+        sumChargedEffort.setFinishedTimesheets(values.isFinishedTimesheets());
+    }
+
+    /**
+     * Sets the values written by {@link #updateInBatches} and the new version
+     * on the instances loaded in the session, for example through the
+     * one-to-one association of {@link OrderElement}, and marks them as
+     * updated like Hibernate does after its own updates. Otherwise they would
+     * show the previous values and flushing them would fail the version check.
+     */
+    private void updateLoadedInstances(Map<Long, TimesheetTotals> updated,
+            Map<Long, Long> previousVersions) {
+        SessionImplementor session = (SessionImplementor) getSession();
+        EntityPersister persister = session.getFactory().getEntityPersister(
+                SumChargedEffort.class.getName());
+        PersistenceContext context = session.getPersistenceContext();
+        for (Entry<Long, TimesheetTotals> each : updated.entrySet()) {
+            Object loaded = context.getEntity(session.generateEntityKey(
+                    each.getKey(), persister));
+            if (loaded == null) {
+                continue;
+            }
+            setTotals((SumChargedEffort) loaded, each.getValue());
+            context.getEntry(loaded).postUpdate(loaded,
+                    persister.getPropertyValues(loaded),
+                    previousVersions.get(each.getKey()) + 1);
         }
+    }
 
-        Pair<Date, Date> result = Pair.create(
-                minDates.isEmpty() ? null : Collections.min(minDates),
-                maxDates.isEmpty() ? null : Collections.max(maxDates));
+    private static void updateInBatches(Connection connection,
+            Map<Long, TimesheetTotals> toUpdate, Map<Long, Long> versions)
+            throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(UPDATE_SUM_CHARGED_EFFORT)) {
+            List<Long> batch = new ArrayList<Long>();
+            for (Entry<Long, TimesheetTotals> each : toUpdate.entrySet()) {
+                TimesheetTotals values = each.getValue();
+                statement.setInt(1, values.getDirectChargedEffort().getSeconds());
+                statement.setInt(2, values.getIndirectChargedEffort().getSeconds());
+                statement.setTimestamp(3, toTimestamp(values.getFirstTimesheetDate()));
+                statement.setTimestamp(4, toTimestamp(values.getLastTimesheetDate()));
+                statement.setBoolean(5, values.isFinishedTimesheets());
+                statement.setLong(6, each.getKey());
+                statement.setLong(7, versions.get(each.getKey()));
+                statement.addBatch();
+                batch.add(each.getKey());
+
+                if (batch.size() == JDBC_BATCH_SIZE) {
+                    checkUpdated(statement.executeBatch(), batch);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                checkUpdated(statement.executeBatch(), batch);
+            }
+        }
+    }
 
-        SumChargedEffort sumChargedEffort = getByOrderElement(orderElement);
-        sumChargedEffort.setTimesheetDates(result.getFirst(),
-                result.getSecond());
-        save(sumChargedEffort);
+    private static Timestamp toTimestamp(Date date) {
+        return date != null ? new Timestamp(date.getTime()) : null;
+    }
 
-        return result;
+    private static void checkUpdated(int[] updateCounts, List<Long> ids) {
+        for (int i = 0; i < updateCounts.length; i++) {
+            if (updateCounts[i] == 0) {
+                throw new ObjectOptimisticLockingFailureException(
+                        SumChargedEffort.class, ids.get(i));
+            }
+        }
     }
 
     private void addIfNotNull(Collection<Date> list, Date date) {
@@ -405,6 +544,51 @@ public class SumChargedEffortDAO extends
         }
     }
 
+    @Override
+    public Set<Long> getOrderIdsToRecalculate(Set<WorkReportLine> workReportLines) {
+        Set<OrderElement> orderElements = new HashSet<OrderElement>();
+        final List<Long> savedLineIds = new ArrayList<Long>();
+        for (WorkReportLine each : workReportLines) {
+            orderElements.add(each.getOrderElement());
+            if (!each.isNewObject()) {
+                savedLineIds.add(each.getId());
+            }
+        }
+
+        Set<Long> savedOrderElementIds = transactionService
+                .runOnAnotherTransaction(new IOnTransaction<Set<Long>>() {
+                    @Override
+                    public Set<Long> execute() {
+                        return findOrderElementIdsOfLines(savedLineIds);
+                    }
+                });
+
+        Set<Long> result = new HashSet<Long>();
+        try {
+            for (Long each : savedOrderElementIds) {
+                orderElements.add(orderElementDAO.find(each));
+            }
+        } catch (InstanceNotFoundException e) {
+            throw new RuntimeException(e);
+        }
+        for (OrderElement each : orderElements) {
+            result.add(each.getOrder().getId());
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Set<Long> findOrderElementIdsOfLines(List<Long> lineIds) {
+        Set<Long> result = new HashSet<Long>();
+        for (List<Long> ids : chunks(lineIds)) {
+            result.addAll(getSession()
+                    .createQuery("SELECT DISTINCT wrl.orderElement.id "
+                            + "FROM WorkReportLine wrl WHERE wrl.id IN (:ids)")
+                    .setParameterList("ids", ids).list());
+        }
+        return result;
+    }
+
     private void saveTimesheetDatesRecursively(OrderElement orderElement) {
         if (orderElement != null) {
             saveTimesheetDates(orderElement);
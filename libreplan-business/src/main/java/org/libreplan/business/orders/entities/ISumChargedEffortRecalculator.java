@@ -37,4 +37,17 @@ public interface ISumChargedEffortRecalculator {
      */
     void recalculate(Long orderId);
 
+    /**
+     * @return number of orders waiting to be recalculated
+     */
+    int getPendingRecalculations();
+
+    long getCompletedRecalculations();
+
+    /**
+     * @return average time in milliseconds since an order is marked till its
+     *         recalculation finishes
+     */
+    long getAverageLatencyMillis();
+
 }
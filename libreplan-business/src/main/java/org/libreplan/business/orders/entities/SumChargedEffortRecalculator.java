@@ -19,11 +19,9 @@
 
 package org.libreplan.business.orders.entities;
 
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.libreplan.business.common.CoalescingExecutor;
 import org.libreplan.business.orders.daos.ISumChargedEffortDAO;
 import org.libreplan.business.workreports.entities.WorkReport;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -38,9 +36,11 @@ import org.springframework.stereotype.Component;
  * This is needed to be called when some elements are moved in the {@link Order}
  * .<br />
  *
- * This class uses a thread, in order to call one by one all the requests
- * received. Moreover, if there's any concurrency issue (because of some reports
- * were saving in the meanwhile) the recalculation is repeated again (with
+ * This class uses a pool of threads. The recalculations of different orders
+ * are done in parallel, the ones of the same order one by one, and the
+ * requests received for an order still waiting to be recalculated are merged.
+ * Moreover, if there's any concurrency issue (because of some reports were
+ * saving in the meanwhile) the recalculation is repeated again (with
  * <code>MAX_ATTEMPS_BECAUSE_CONCURRENCY</code> as maximum) till it's performed
  * without concurrency problems.
  *
@@ -64,60 +64,71 @@ public class SumChargedEffortRecalculator implements
      */
     protected static final int MAX_ATTEMPS_BECAUSE_CONCURRENCY = 100;
 
+    private static final long MILLIS_BEFORE_TRYING_AGAIN = 1000;
+
+    private static final int THREADS = 4;
+
     @Autowired
     private ISumChargedEffortDAO sumChargedEffortDAO;
 
-    /**
-     * Single thread executor in order to perform the recalculations one by one.
-     */
-    private ExecutorService executor = Executors.newSingleThreadExecutor();
+    private CoalescingExecutor<Long> executor = new CoalescingExecutor<Long>(
+            THREADS);
 
     @Override
     public void recalculate(Long orderId) {
         LOG.info("Mark order (id=" + orderId + ") to be recalculated");
-        executor.execute(getRecalculationThread(orderId));
+        if (!executor.execute(orderId, getRecalculationThread(orderId, 0))) {
+            LOG.info("Order (id=" + orderId
+                    + ") was already waiting to be recalculated");
+        }
     }
 
-    private Runnable getRecalculationThread(final Long orderId) {
+    private Runnable getRecalculationThread(final Long orderId,
+            final int counter) {
         return new Runnable() {
 
             @Override
             public void run() {
                 try {
-                    recalculateSumChargedEfforts(orderId);
-                } catch (InterruptedException e) {
-                    throw new RuntimeException(e);
+                    LOG.info("Recalculate order (id=" + orderId + ")");
+                    sumChargedEffortDAO.recalculateSumChargedEfforts(orderId);
+                } catch (OptimisticLockingFailureException e) {
+                    tryAgainLater();
                 }
             }
 
-            private void recalculateSumChargedEfforts(Long orderId)
-                    throws InterruptedException {
-                recalculateSumChargedEfforts(orderId, 0);
-            }
-
-            private void recalculateSumChargedEfforts(Long orderId, int counter)
-                    throws InterruptedException {
-                if (counter > MAX_ATTEMPS_BECAUSE_CONCURRENCY) {
+            private void tryAgainLater() {
+                if (counter >= MAX_ATTEMPS_BECAUSE_CONCURRENCY) {
                     LOG.error("Impossible to recalculate order (id=" + orderId
                             + ") due to concurrency problems");
                     return;
                 }
 
-                try {
-                    LOG.info("Recalculate order (id=" + orderId + ")");
-                    sumChargedEffortDAO.recalculateSumChargedEfforts(orderId);
-                } catch (OptimisticLockingFailureException e) {
-                    // Wait 1 second and try again
-                    LOG.info("Concurrency problem recalculating order (id="
-                            + orderId + ") trying again in 1 second (attempt "
-                            + counter + ")");
-                    Thread.sleep(1000);
-
-                    counter++;
-                    recalculateSumChargedEfforts(orderId, counter);
-                }
+                // Without blocking the thread, other orders can be recalculated
+                // in the meanwhile
+                LOG.info("Concurrency problem recalculating order (id="
+                        + orderId + ") trying again in 1 second (attempt "
+                        + counter + ")");
+                executor.schedule(orderId,
+                        getRecalculationThread(orderId, counter + 1),
+                        MILLIS_BEFORE_TRYING_AGAIN);
             }
         };
     }
 
+    @Override
+    public int getPendingRecalculations() {
+        return executor.getPending();
+    }
+
+    @Override
+    public long getCompletedRecalculations() {
+        return executor.getCompleted();
+    }
+
+    @Override
+    public long getAverageLatencyMillis() {
+        return executor.getAverageLatencyMillis();
+    }
+
 }
@@ -0,0 +1,132 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.business.orders.entities;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.libreplan.business.workingday.EffortDuration;
+import org.libreplan.business.workreports.entities.WorkReportLine;
+
+/**
+ * Values of the {@link WorkReportLine WorkReportLines} of an {@link OrderElement} needed to fill its
+ * {@link SumChargedEffort}.
+ * <p>
+ * The ones of each element on its own are obtained from the database and then {@link #rollUp(OrderElement, Map)}
+ * adds them up the tree in memory.
+ */
+public class TimesheetTotals {
+
+    private static final TimesheetTotals EMPTY = new TimesheetTotals(EffortDuration.zero(), null, null, false);
+
+    private final EffortDuration directChargedEffort;
+
+    private EffortDuration indirectChargedEffort = EffortDuration.zero();
+
+    private Date firstTimesheetDate;
+
+    private Date lastTimesheetDate;
+
+    private final boolean finishedTimesheets;
+
+    public TimesheetTotals(EffortDuration directChargedEffort, Date firstTimesheetDate, Date lastTimesheetDate,
+                           boolean finishedTimesheets) {
+        this.directChargedEffort = directChargedEffort;
+        this.firstTimesheetDate = firstTimesheetDate;
+        this.lastTimesheetDate = lastTimesheetDate;
+        this.finishedTimesheets = finishedTimesheets;
+    }
+
+    /**
+     * @param own
+     *            the totals of the lines charged directly to each element. The elements without lines can be missing
+     * @return the totals of <code>root</code> and all its descendants. The charged effort and the timesheet dates of
+     *         each element include the ones of its descendants. It's only finished if it has its own finished lines
+     */
+    public static Map<OrderElement, TimesheetTotals> rollUp(OrderElement root, Map<OrderElement, TimesheetTotals> own) {
+        Map<OrderElement, TimesheetTotals> result = new HashMap<>();
+        rollUp(root, own, result);
+        return result;
+    }
+
+    private static TimesheetTotals rollUp(OrderElement element, Map<OrderElement, TimesheetTotals> own,
+                                          Map<OrderElement, TimesheetTotals> result) {
+
+        TimesheetTotals ownTotals = own.containsKey(element) ? own.get(element) : EMPTY;
+        TimesheetTotals totals = new TimesheetTotals(
+                ownTotals.directChargedEffort,
+                ownTotals.firstTimesheetDate,
+                ownTotals.lastTimesheetDate,
+                ownTotals.finishedTimesheets);
+
+        for (OrderElement each : element.getChildren()) {
+            totals.addChild(rollUp(each, own, result));
+        }
+        result.put(element, totals);
+
+        return totals;
+    }
+
+    private void addChild(TimesheetTotals child) {
+        indirectChargedEffort = indirectChargedEffort.plus(child.getTotalChargedEffort());
+        firstTimesheetDate = min(firstTimesheetDate, child.firstTimesheetDate);
+        lastTimesheetDate = max(lastTimesheetDate, child.lastTimesheetDate);
+    }
+
+    private static Date min(Date a, Date b) {
+        if ( a == null || b == null ) {
+            return a != null ? a : b;
+        }
+        return a.before(b) ? a : b;
+    }
+
+    private static Date max(Date a, Date b) {
+        if ( a == null || b == null ) {
+            return a != null ? a : b;
+        }
+        return a.after(b) ? a : b;
+    }
+
+    public EffortDuration getDirectChargedEffort() {
+        return directChargedEffort;
+    }
+
+    public EffortDuration getIndirectChargedEffort() {
+        return indirectChargedEffort;
+    }
+
+    public EffortDuration getTotalChargedEffort() {
+        return directChargedEffort.plus(indirectChargedEffort);
+    }
+
+    public Date getFirstTimesheetDate() {
+        return firstTimesheetDate;
+    }
+
+    public Date getLastTimesheetDate() {
+        return lastTimesheetDate;
+    }
+
+    public boolean isFinishedTimesheets() {
+        return finishedTimesheets;
+    }
+
+}
@@ -0,0 +1,169 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.business.planner.chart;
+
+import static org.libreplan.business.planner.chart.DailyEffortSeries.toEpochDay;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.joda.time.LocalDate;
+import org.libreplan.business.planner.daos.IAssignedEffortVisitor;
+import org.libreplan.business.planner.entities.DayAssignment;
+
+/**
+ * <p>
+ * The effort assigned to each resource day by day, accumulated from the rows
+ * streamed by
+ * {@link org.libreplan.business.planner.daos.IDayAssignmentDAO#visitAssignedEffort}
+ * or from already loaded {@link DayAssignment day assignments}.
+ * </p>
+ * <p>
+ * For each resource it only keeps two <code>int[]</code> covering from its
+ * first to its last assigned day: the assigned seconds and the number of day
+ * assignments on each day. So its size depends on the number of resources and
+ * days, not on the number of day assignments.
+ * </p>
+ */
+public class AssignedEffortByResource implements IAssignedEffortVisitor {
+
+    private static final int INITIAL_DAYS = 32;
+
+    public static AssignedEffortByResource from(Collection<? extends DayAssignment> dayAssignments) {
+        AssignedEffortByResource result = new AssignedEffortByResource();
+        for (DayAssignment each : dayAssignments) {
+            result.add(each.getResource().getId(), each.getDay(), each.getDuration().getSeconds());
+        }
+        return result;
+    }
+
+    private final Map<Long, DailyAssigned> byResource = new HashMap<>();
+
+    @Override
+    public void visit(long resourceId, LocalDate day, int seconds) {
+        add(resourceId, day, seconds);
+    }
+
+    public void add(Long resourceId, LocalDate day, int seconds) {
+        DailyAssigned daily = byResource.get(resourceId);
+        if (daily == null) {
+            daily = new DailyAssigned();
+            byResource.put(resourceId, daily);
+        }
+        daily.add(toEpochDay(day), seconds);
+    }
+
+    public boolean isEmpty() {
+        return byResource.isEmpty();
+    }
+
+    public Set<Long> getResourceIds() {
+        return Collections.unmodifiableSet(byResource.keySet());
+    }
+
+    DailyAssigned of(Long resourceId) {
+        return byResource.get(resourceId);
+    }
+
+    /**
+     * @return the first epoch day with assignments or
+     *         {@link Integer#MAX_VALUE} if there are none
+     */
+    int getFirstDay() {
+        int result = Integer.MAX_VALUE;
+        for (DailyAssigned each : byResource.values()) {
+            result = Math.min(result, each.first);
+        }
+        return result;
+    }
+
+    /**
+     * @return the last epoch day with assignments or
+     *         {@link Integer#MIN_VALUE} if there are none
+     */
+    int getLastDay() {
+        int result = Integer.MIN_VALUE;
+        for (DailyAssigned each : byResource.values()) {
+            result = Math.max(result, each.last);
+        }
+        return result;
+    }
+
+    /**
+     * The assigned seconds and number of assignments of a resource. The arrays
+     * grow as needed while adding, so they can have unused days at both sides
+     * of [{@link #first}, {@link #last}].
+     */
+    static class DailyAssigned {
+
+        private int start;
+
+        private int[] seconds;
+
+        private int[] count;
+
+        int first = Integer.MAX_VALUE;
+
+        int last = Integer.MIN_VALUE;
+
+        void add(int epochDay, int value) {
+            if (seconds == null) {
+                start = epochDay - INITIAL_DAYS / 2;
+                seconds = new int[INITIAL_DAYS];
+                count = new int[INITIAL_DAYS];
+            } else if (epochDay < start || epochDay >= start + seconds.length) {
+                growToInclude(epochDay);
+            }
+            seconds[epochDay - start] += value;
+            count[epochDay - start]++;
+            first = Math.min(first, epochDay);
+            last = Math.max(last, epochDay);
+        }
+
+        private void growToInclude(int epochDay) {
+            int newStart = Math.min(start, epochDay);
+            int newEnd = Math.max(start + seconds.length, epochDay + 1);
+            int length = Math.max(newEnd - newStart, seconds.length * 2);
+            if (epochDay < start) {
+                newStart = newEnd - length;
+            }
+            int[] newSeconds = new int[length];
+            int[] newCount = new int[length];
+            System.arraycopy(seconds, 0, newSeconds, start - newStart, seconds.length);
+            System.arraycopy(count, 0, newCount, start - newStart, count.length);
+            start = newStart;
+            seconds = newSeconds;
+            count = newCount;
+        }
+
+        int[] secondsFromFirstToLast() {
+            return Arrays.copyOfRange(seconds, first - start, last - start + 1);
+        }
+
+        int[] countFromFirstToLast() {
+            return Arrays.copyOfRange(count, first - start, last - start + 1);
+        }
+    }
+
+}
@@ -0,0 +1,301 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.libreplan.business.planner.chart;
+
+import java.util.Arrays;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.apache.commons.lang3.Validate;
+import org.joda.time.LocalDate;
+import org.libreplan.business.calendars.entities.CalendarCapacityIndex;
+import org.libreplan.business.planner.chart.ContiguousDaysLine.OnDay;
+import org.libreplan.business.workingday.EffortDuration;
+
+/**
+ * <p>
+ * Some contiguous days from a start date to a not included end date, each one
+ * with an associated amount of effort stored as seconds.
+ * </p>
+ * <p>
+ * It's the primitive counterpart of a
+ * <code>ContiguousDaysLine&lt;EffortDuration&gt;</code>: instead of holding one
+ * {@link LocalDate} and one {@link EffortDuration} per day it only keeps the
+ * epoch day of the first day and an <code>int[]</code> of seconds, so long
+ * series (several years of company load) are cheap to keep in memory and the
+ * element wise operations are simple loops over arrays.
+ * </p>
+ * <p>
+ * Days without effort have zero seconds, there are no <code>null</code>
+ * values. Additions saturate at {@link Integer#MAX_VALUE} seconds instead of
+ * overflowing.
+ * </p>
+ *
+ * @see ContiguousDaysLine
+ */
+public class DailyEffortSeries {
+
+    private static final LocalDate EPOCH = new LocalDate(1970, 1, 1);
+
+    private static final DailyEffortSeries EMPTY = new DailyEffortSeries(0, new int[0]);
+
+    public static int toEpochDay(LocalDate day) {
+        Validate.notNull(day);
+        return CalendarCapacityIndex.toEpochDay(day);
+    }
+
+    public static LocalDate fromEpochDay(int epochDay) {
+        return EPOCH.plusDays(epochDay);
+    }
+
+    public static DailyEffortSeries empty() {
+        return EMPTY;
+    }
+
+    public static DailyEffortSeries create(LocalDate fromInclusive, LocalDate endExclusive) {
+        if (fromInclusive.isAfter(endExclusive)) {
+            throw new IllegalArgumentException("fromInclusive (" + fromInclusive + ") is after endExclusive ("
+                    + endExclusive + ")");
+        }
+        int start = toEpochDay(fromInclusive);
+        return new DailyEffortSeries(start, new int[toEpochDay(endExclusive) - start]);
+    }
+
+    /**
+     * Converts a {@link ContiguousDaysLine} into a {@link DailyEffortSeries}.
+     * <code>null</code> values are considered zero.
+     */
+    public static DailyEffortSeries from(ContiguousDaysLine<EffortDuration> line) {
+        if (line.isNotValid()) {
+            return empty();
+        }
+        DailyEffortSeries result = create(line.getStart(), line.getEndExclusive());
+        int i = 0;
+        for (OnDay<EffortDuration> each : line) {
+            EffortDuration value = each.getValue();
+            result.seconds[i++] = value == null ? 0 : value.getSeconds();
+        }
+        return result;
+    }
+
+    /**
+     * Wraps the provided array without copying it, so it must not be modified
+     * afterwards.
+     */
+    static DailyEffortSeries wrap(int startEpochDay, int[] seconds) {
+        return seconds.length == 0 ? empty() : new DailyEffortSeries(startEpochDay, seconds);
+    }
+
+    private final int startEpochDay;
+
+    private final int[] seconds;
+
+    private DailyEffortSeries(int startEpochDay, int[] seconds) {
+        this.startEpochDay = startEpochDay;
+        this.seconds = seconds;
+    }
+
+    public boolean isEmpty() {
+        return seconds.length == 0;
+    }
+
+    public int size() {
+        return seconds.length;
+    }
+
+    public int getStartEpochDay() {
+        return startEpochDay;
+    }
+
+    public int getEndEpochDayExclusive() {
+        return startEpochDay + seconds.length;
+    }
+
+    public LocalDate getStart() {
+        return fromEpochDay(startEpochDay);
+    }
+
+    public LocalDate getEndExclusive() {
+        return fromEpochDay(getEndEpochDayExclusive());
+    }
+
+    public boolean contains(LocalDate day) {
+        int epochDay = toEpochDay(day);
+        return epochDay >= startEpochDay && epochDay < getEndEpochDayExclusive();
+    }
+
+    /**
+     * @param index
+     *            the position of the day counting from the start of the series
+     */
+    public int getSecondsAt(int index) {
+        return seconds[index];
+    }
+
+    public int getSeconds(LocalDate day) throws IndexOutOfBoundsException {
+        return seconds[indexOf(day)];
+    }
+
+    public EffortDuration get(LocalDate day) throws IndexOutOfBoundsException {
+        return EffortDuration.seconds(getSeconds(day));
+    }
+
+    public void setSecondsAt(int index, int value) {
+        Validate.isTrue(value >= 0, "seconds cannot be negative");
+        seconds[index] = value;
+    }
+
+    public void set(LocalDate day, EffortDuration value) throws IndexOutOfBoundsException {
+        setSecondsAt(indexOf(day), value.getSeconds());
+    }
+
+    public void addSecondsAt(int index, int value) {
+        seconds[index] = saturatedSum(seconds[index], value);
+    }
+
+    public void add(LocalDate day, EffortDuration value) throws IndexOutOfBoundsException {
+        addSecondsAt(indexOf(day), value.getSeconds());
+    }
+
+    public int indexOf(LocalDate day) throws IndexOutOfBoundsException {
+        int index = toEpochDay(day) - startEpochDay;
+        if (index < 0 || index >= seconds.length) {
+            throw new IndexOutOfBoundsException(day + " is not in [" + getStart() + ", " + getEndExclusive() + ")");
+        }
+        return index;
+    }
+
+    public EffortDuration getTotal() {
+        long total = 0;
+        for (int each : seconds) {
+            total += each;
+        }
+        return EffortDuration.seconds(saturate(total));
+    }
+
+    /**
+     * @return a new series containing only the days of this one that are
+     *         inside the interval. Any of the limits can be <code>null</code>,
+     *         meaning that the series isn't limited on that side
+     */
+    public DailyEffortSeries subInterval(LocalDate startInclusive, LocalDate endExclusive) {
+        if (isEmpty()) {
+            return this;
+        }
+        int from = startInclusive == null ? startEpochDay : Math.max(startEpochDay, toEpochDay(startInclusive));
+        int to = endExclusive == null
+                ? getEndEpochDayExclusive()
+                : Math.min(getEndEpochDayExclusive(), toEpochDay(endExclusive));
+        if (from >= to) {
+            return empty();
+        }
+        if (from == startEpochDay && to == getEndEpochDayExclusive()) {
+            return this;
+        }
+        return new DailyEffortSeries(from, Arrays.copyOfRange(seconds, from - startEpochDay, to - startEpochDay));
+    }
+
+    public DailyEffortSeries copy() {
+        return new DailyEffortSeries(startEpochDay, seconds.clone());
+    }
+
+    public static DailyEffortSeries min(DailyEffortSeries a, DailyEffortSeries b) {
+        checkSameRange(a, b);
+        int[] result = new int[a.seconds.length];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = Math.min(a.seconds[i], b.seconds[i]);
+        }
+        return new DailyEffortSeries(a.startEpochDay, result);
+    }
+
+    public static DailyEffortSeries sum(DailyEffortSeries summandA, DailyEffortSeries summandB) {
+        checkSameRange(summandA, summandB);
+        int[] result = new int[summandA.seconds.length];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = saturatedSum(summandA.seconds[i], summandB.seconds[i]);
+        }
+        return new DailyEffortSeries(summandA.startEpochDay, result);
+    }
+
+    /**
+     * Substracts subtrahend from minuend day by day. An effort can't be
+     * negative so, if subtrahend is at some point bigger than minuend, zero is
+     * returned at that point.
+     *
+     * @see ContiguousDaysLine#substract(ContiguousDaysLine, ContiguousDaysLine)
+     */
+    public static DailyEffortSeries substract(DailyEffortSeries minuend, DailyEffortSeries subtrahend) {
+        checkSameRange(minuend, subtrahend);
+        int[] result = new int[minuend.seconds.length];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = Math.max(minuend.seconds[i] - subtrahend.seconds[i], 0);
+        }
+        return new DailyEffortSeries(minuend.startEpochDay, result);
+    }
+
+    private static int saturatedSum(int a, int b) {
+        return saturate((long) a + b);
+    }
+
+    private static int saturate(long value) {
+        return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, value));
+    }
+
+    private static void checkSameRange(DailyEffortSeries a, DailyEffortSeries b) {
+        Validate.isTrue(a.startEpochDay == b.startEpochDay || a.isEmpty() && b.isEmpty(),
+                "the start of both series must be the same date");
+        Validate.isTrue(a.seconds.length == b.seconds.length, "the end of both series must be the same date");
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof DailyEffortSeries)) {
+            return false;
+        }
+        DailyEffortSeries other = (DailyEffortSeries) obj;
+        if (isEmpty() || other.isEmpty()) {
+            return isEmpty() && other.isEmpty();
+        }
+        return startEpochDay == other.startEpochDay && Arrays.equals(seconds, other.seconds);
+    }
+
+    @Override
+    public int hashCode() {
+        return isEmpty() ? 0 : 31 * startEpochDay + Arrays.hashCode(seconds);
+    }
+
+    @Override
+    public String toString() {
+        return "[" + getStart() + ", " + getEndExclusive() + "): " + Arrays.toString(seconds);
+    }
+
+    public SortedMap<LocalDate, EffortDuration> toSortedMap() {
+        SortedMap<LocalDate, EffortDuration> result = new TreeMap<>();
+        LocalDate current = getStart();
+        for (int each : seconds) {
+            result.put(current, EffortDuration.seconds(each));
+            current = current.plusDays(1);
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,441 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.business.planner.chart;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.apache.commons.lang3.Validate;
+import org.joda.time.LocalDate;
+import org.libreplan.business.hibernate.notification.PredefinedDatabaseSnapshots;
+import org.libreplan.business.planner.chart.AssignedEffortByResource.DailyAssigned;
+import org.libreplan.business.planner.entities.DayAssignment;
+import org.libreplan.business.resources.entities.Resource;
+import org.libreplan.business.workingday.IntraDayDate.PartialDay;
+
+/**
+ * <p>
+ * {@link ResourceLoadChartData} that can be updated when the day assignments of
+ * some resources change, without recalculating the load of all the other
+ * resources.
+ * </p>
+ * <p>
+ * It keeps the contribution of each resource to the chart: its capacity along
+ * a window of days containing all the day assignments and the assigned effort
+ * and overload on the days it has assignments. The chart values are the sum of
+ * the contributions, so an update subtracts the old contributions of the
+ * changed resources and adds the new ones. Instances are immutable, an update
+ * returns a new instance sharing the contributions of the not changed
+ * resources.
+ * </p>
+ * <p>
+ * The values are the same ones that {@link ResourceLoadChartData} calculates
+ * from all the day assignments, which can be checked with
+ * {@link #hasSameValuesAs(ILoadChartData)}.
+ * </p>
+ *
+ * @see PredefinedDatabaseSnapshots
+ */
+public class IncrementalResourceLoadChartData extends ResourceLoadChartData {
+
+    /**
+     * Extra days added to the window when it must grow, so assignments
+     * slightly outside the current window don't force to recalculate the
+     * capacity of all resources each time.
+     */
+    private static final int WINDOW_MARGIN_DAYS = 90;
+
+    /**
+     * The resources of the day assignments not included in the provided
+     * resources are considered too.
+     */
+    public static IncrementalResourceLoadChartData create(List<DayAssignment> dayAssignments,
+                                                          List<Resource> resources) {
+        List<Resource> all = new ArrayList<>(resources);
+        Set<Long> ids = new HashSet<>();
+        for (Resource each : resources) {
+            ids.add(each.getId());
+        }
+        for (DayAssignment each : dayAssignments) {
+            if (ids.add(each.getResource().getId())) {
+                all.add(each.getResource());
+            }
+        }
+        return create(AssignedEffortByResource.from(dayAssignments), all);
+    }
+
+    /**
+     * Creates the data from the effort streamed from the database, so the day
+     * assignments don't need to be loaded. The effort assigned to resources
+     * not included in the provided ones is ignored, since their capacity is
+     * unknown.
+     */
+    public static IncrementalResourceLoadChartData create(AssignedEffortByResource assigned,
+                                                          Collection<? extends Resource> resources) {
+        Window window = Window.empty().including(assigned);
+        Map<Long, ResourceContribution> contributions = new HashMap<>();
+        for (Resource each : resources) {
+            contributions.put(each.getId(), ResourceContribution.calculate(window, each,
+                    assigned.of(each.getId())));
+        }
+        return new IncrementalResourceLoadChartData(window, contributions, Totals.sum(window, contributions.values()));
+    }
+
+    private final Window window;
+
+    private final Map<Long, ResourceContribution> contributions;
+
+    private final Totals totals;
+
+    private IncrementalResourceLoadChartData(Window window, Map<Long, ResourceContribution> contributions,
+                                             Totals totals) {
+        super(totals.load(window), totals.overload(window), totals.availability(window));
+        this.window = window;
+        this.contributions = contributions;
+        this.totals = totals;
+    }
+
+    /**
+     * Returns the data resulting of replacing the contributions of some
+     * resources.
+     *
+     * @param changedResources
+     *            the resources that have been added or modified
+     * @param assignmentsOfChangedResources
+     *            all the day assignments of the changed resources, the ones
+     *            belonging to other resources are ignored
+     * @param removedResourceIds
+     *            the ids of the resources that no longer exist
+     */
+    public IncrementalResourceLoadChartData withChangesOn(
+            Collection<? extends Resource> changedResources,
+            Collection<? extends DayAssignment> assignmentsOfChangedResources,
+            Collection<Long> removedResourceIds) {
+        return withChangesOn(changedResources, AssignedEffortByResource.from(assignmentsOfChangedResources),
+                removedResourceIds);
+    }
+
+    /**
+     * The same as {@link #withChangesOn(Collection, Collection, Collection)}
+     * but receiving the effort assigned to the changed resources instead of
+     * their day assignments.
+     */
+    public IncrementalResourceLoadChartData withChangesOn(
+            Collection<? extends Resource> changedResources,
+            AssignedEffortByResource assignedToChangedResources,
+            Collection<Long> removedResourceIds) {
+
+        Window newWindow = window.including(assignedToChangedResources);
+
+        Map<Long, ResourceContribution> newContributions = new HashMap<>();
+        Totals newTotals;
+        if (newWindow.equals(window)) {
+            newContributions.putAll(contributions);
+            newTotals = totals.copy();
+        } else {
+            for (Entry<Long, ResourceContribution> each : contributions.entrySet()) {
+                newContributions.put(each.getKey(), each.getValue().extendedTo(newWindow));
+            }
+            newTotals = Totals.sum(newWindow, newContributions.values());
+        }
+
+        for (Long each : removedResourceIds) {
+            ResourceContribution removed = newContributions.remove(each);
+            if (removed != null) {
+                newTotals.subtract(removed);
+            }
+        }
+        for (Resource each : changedResources) {
+            ResourceContribution replaced = newContributions.get(each.getId());
+            if (replaced != null) {
+                newTotals.subtract(replaced);
+            }
+            ResourceContribution contribution = ResourceContribution.calculate(newWindow, each,
+                    assignedToChangedResources.of(each.getId()));
+            newContributions.put(each.getId(), contribution);
+            newTotals.add(contribution);
+        }
+        return new IncrementalResourceLoadChartData(newWindow, newContributions, newTotals);
+    }
+
+    /**
+     * The days, as epoch days, for which the capacity of the resources is
+     * kept. It contains all the days with day assignments.
+     */
+    private static class Window {
+
+        static Window empty() {
+            return new Window(0, 0);
+        }
+
+        final int start;
+
+        final int endExclusive;
+
+        private Window(int start, int endExclusive) {
+            this.start = start;
+            this.endExclusive = endExclusive;
+        }
+
+        int size() {
+            return endExclusive - start;
+        }
+
+        boolean isEmpty() {
+            return size() == 0;
+        }
+
+        LocalDate dayAt(int index) {
+            return DailyEffortSeries.fromEpochDay(start + index);
+        }
+
+        Window including(AssignedEffortByResource assigned) {
+            if (assigned.isEmpty()) {
+                return this;
+            }
+            int min = assigned.getFirstDay();
+            int max = assigned.getLastDay();
+            if (isEmpty()) {
+                return new Window(min, max + 1);
+            }
+            if (min >= start && max < endExclusive) {
+                return this;
+            }
+            return new Window(min < start ? min - WINDOW_MARGIN_DAYS : start,
+                    max >= endExclusive ? max + 1 + WINDOW_MARGIN_DAYS : endExclusive);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Window)) {
+                return false;
+            }
+            Window other = (Window) obj;
+            return start == other.start && endExclusive == other.endExclusive;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * start + endExclusive;
+        }
+    }
+
+    /**
+     * What a resource adds to the chart. The capacity covers the whole window
+     * while the other arrays only cover the days from the first to the last
+     * day with assignments of the resource.
+     */
+    private static class ResourceContribution {
+
+        /**
+         * @param assigned
+         *            <code>null</code> if the resource has no assignments
+         */
+        static ResourceContribution calculate(Window window, Resource resource, DailyAssigned assigned) {
+            int[] capacity = new int[window.size()];
+            for (int i = 0; i < capacity.length; i++) {
+                capacity[i] = capacityOn(resource, window.dayAt(i));
+            }
+            if (assigned == null) {
+                return new ResourceContribution(resource, window, capacity, 0, new int[0], new int[0], new int[0]);
+            }
+            int first = assigned.first;
+            Validate.isTrue(first >= window.start && assigned.last < window.endExclusive,
+                    "the assignments must be inside the window");
+
+            int[] seconds = assigned.secondsFromFirstToLast();
+            int[] count = assigned.countFromFirstToLast();
+            int[] overload = new int[seconds.length];
+            for (int i = 0; i < seconds.length; i++) {
+                if (count[i] > 0) {
+                    overload[i] = Math.max(seconds[i] - capacity[first + i - window.start], 0);
+                }
+            }
+            return new ResourceContribution(resource, window, capacity, first, seconds, overload, count);
+        }
+
+        private static int capacityOn(Resource resource, LocalDate day) {
+            return calendarCapacityFor(resource, PartialDay.wholeDay(day)).getSeconds();
+        }
+
+        final Resource resource;
+
+        final Window window;
+
+        final int[] capacity;
+
+        final int firstAssignedDay;
+
+        final int[] assigned;
+
+        final int[] overload;
+
+        final int[] assignmentsCount;
+
+        private ResourceContribution(Resource resource, Window window, int[] capacity, int firstAssignedDay,
+                                     int[] assigned, int[] overload, int[] assignmentsCount) {
+            this.resource = resource;
+            this.window = window;
+            this.capacity = capacity;
+            this.firstAssignedDay = firstAssignedDay;
+            this.assigned = assigned;
+            this.overload = overload;
+            this.assignmentsCount = assignmentsCount;
+        }
+
+        /**
+         * Only the capacity of the days not previously in the window is
+         * calculated.
+         */
+        ResourceContribution extendedTo(Window newWindow) {
+            int[] newCapacity = new int[newWindow.size()];
+            for (int i = 0; i < newCapacity.length; i++) {
+                int day = newWindow.start + i;
+                newCapacity[i] = day >= window.start && day < window.endExclusive
+                        ? capacity[day - window.start]
+                        : capacityOn(resource, newWindow.dayAt(i));
+            }
+            return new ResourceContribution(resource, newWindow, newCapacity, firstAssignedDay, assigned, overload,
+                    assignmentsCount);
+        }
+    }
+
+    /**
+     * The sum of all the contributions along the window.
+     */
+    private static class Totals {
+
+        static Totals sum(Window window, Collection<ResourceContribution> contributions) {
+            Totals result = new Totals(window, new int[window.size()], new int[window.size()],
+                    new int[window.size()], new int[window.size()]);
+            for (ResourceContribution each : contributions) {
+                result.add(each);
+            }
+            return result;
+        }
+
+        private final Window window;
+
+        private final int[] assigned;
+
+        private final int[] overload;
+
+        private final int[] capacity;
+
+        private final int[] assignmentsCount;
+
+        private Totals(Window window, int[] assigned, int[] overload, int[] capacity, int[] assignmentsCount) {
+            this.window = window;
+            this.assigned = assigned;
+            this.overload = overload;
+            this.capacity = capacity;
+            this.assignmentsCount = assignmentsCount;
+        }
+
+        Totals copy() {
+            return new Totals(window, assigned.clone(), overload.clone(), capacity.clone(),
+                    assignmentsCount.clone());
+        }
+
+        void add(ResourceContribution contribution) {
+            apply(contribution, 1);
+        }
+
+        void subtract(ResourceContribution contribution) {
+            apply(contribution, -1);
+        }
+
+        private void apply(ResourceContribution contribution, int sign) {
+            Validate.isTrue(contribution.window.equals(window), "the contribution must have the same window");
+            for (int i = 0; i < capacity.length; i++) {
+                capacity[i] += sign * contribution.capacity[i];
+            }
+            int offset = contribution.firstAssignedDay - window.start;
+            for (int i = 0; i < contribution.assigned.length; i++) {
+                assigned[offset + i] += sign * contribution.assigned[i];
+                overload[offset + i] += sign * contribution.overload[i];
+                assignmentsCount[offset + i] += sign * contribution.assignmentsCount[i];
+            }
+        }
+
+        /**
+         * The chart only covers from the first to the last day with
+         * assignments, as {@link ResourceLoadChartData} does.
+         */
+        private int firstIndexWithAssignments() {
+            for (int i = 0; i < assignmentsCount.length; i++) {
+                if (assignmentsCount[i] > 0) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private int lastIndexWithAssignments() {
+            for (int i = assignmentsCount.length - 1; i >= 0; i--) {
+                if (assignmentsCount[i] > 0) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        DailyEffortSeries load(Window window) {
+            int first = firstIndexWithAssignments();
+            if (first < 0) {
+                return DailyEffortSeries.empty();
+            }
+            int[] result = new int[lastIndexWithAssignments() - first + 1];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = Math.min(assigned[first + i], capacity[first + i]);
+            }
+            return DailyEffortSeries.wrap(window.start + first, result);
+        }
+
+        DailyEffortSeries overload(Window window) {
+            int first = firstIndexWithAssignments();
+            if (first < 0) {
+                return DailyEffortSeries.empty();
+            }
+            int[] result = new int[lastIndexWithAssignments() - first + 1];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = overload[first + i] + capacity[first + i];
+            }
+            return DailyEffortSeries.wrap(window.start + first, result);
+        }
+
+        DailyEffortSeries availability(Window window) {
+            int first = firstIndexWithAssignments();
+            if (first < 0) {
+                return DailyEffortSeries.empty();
+            }
+            int[] result = new int[lastIndexWithAssignments() - first + 1];
+            System.arraycopy(capacity, first, result, 0, result.length);
+            return DailyEffortSeries.wrap(window.start + first, result);
+        }
+    }
+
+}
@@ -22,18 +22,16 @@
 package org.libreplan.business.planner.chart;
 
 import static org.libreplan.business.planner.chart.ContiguousDaysLine.compound;
-import static org.libreplan.business.planner.chart.ContiguousDaysLine.sum;
-import static org.libreplan.business.planner.chart.ContiguousDaysLine.toSortedMap;
 import static org.libreplan.business.workingday.EffortDuration.min;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
-import java.util.SortedMap;
 
 import org.joda.time.LocalDate;
 import org.libreplan.business.hibernate.notification.PredefinedDatabaseSnapshots;
@@ -48,6 +46,8 @@ import org.libreplan.business.workingday.IntraDayDate.PartialDay;
  * This class groups the calculation of the three values needed for the chart of the company global resource load.
  * The purpose of the class is having these data pre-calculated to prevent heavy algorithms being
  * run each time the chart is shown.
+ * The values are kept as {@link DailyEffortSeries} so the data for several years of the whole company takes a few
+ * arrays of seconds instead of one {@link EffortDuration} per day.
  *
  * @see PredefinedDatabaseSnapshots
  *
@@ -55,11 +55,18 @@ import org.libreplan.business.workingday.IntraDayDate.PartialDay;
  */
 public class ResourceLoadChartData implements ILoadChartData {
 
-    private SortedMap<LocalDate, EffortDuration> load;
+    private DailyEffortSeries load;
 
-    private SortedMap<LocalDate, EffortDuration> overload;
+    private DailyEffortSeries overload;
 
-    private SortedMap<LocalDate, EffortDuration> availability;
+    private DailyEffortSeries availability;
+
+    protected ResourceLoadChartData(DailyEffortSeries load, DailyEffortSeries overload,
+                                    DailyEffortSeries availability) {
+        this.load = load;
+        this.overload = overload;
+        this.availability = availability;
+    }
 
     public ResourceLoadChartData(List<DayAssignment> dayAssignments, List<Resource> resources) {
         this(dayAssignments, resources, null, null);
@@ -70,22 +77,83 @@ public class ResourceLoadChartData implements ILoadChartData {
                                  LocalDate startInclusive,
                                  LocalDate endExclusive) {
 
-        ContiguousDaysLine<List<DayAssignment>> assignments = ContiguousDaysLine.byDay(dayAssignments);
+        DailyEffortSeries days = daysCovered(dayAssignments);
 
         if (startInclusive != null && endExclusive != null) {
-            assignments = assignments.subInterval(startInclusive, endExclusive);
+            days = days.subInterval(startInclusive, endExclusive);
         }
 
-        ContiguousDaysLine<EffortDuration> load = assignments.transform(extractLoad());
+        DailyEffortSeries load = days.copy();
+        DailyEffortSeries overload = days.copy();
+        DailyEffortSeries availabilityOnAllResources = days.copy();
+
+        addLoad(load, dayAssignments);
+        addOverload(overload, dayAssignments);
+        addAvailability(availabilityOnAllResources, resources);
+
+        this.load = DailyEffortSeries.min(load, availabilityOnAllResources);
+        this.overload = DailyEffortSeries.sum(overload, availabilityOnAllResources);
+        this.availability = availabilityOnAllResources;
+    }
+
+    private static DailyEffortSeries daysCovered(Collection<? extends DayAssignment> dayAssignments) {
+        if (dayAssignments.isEmpty()) {
+            return DailyEffortSeries.empty();
+        }
+        DayAssignment min = Collections.min(dayAssignments, DayAssignment.byDayComparator());
+        DayAssignment max = Collections.max(dayAssignments, DayAssignment.byDayComparator());
 
-        ContiguousDaysLine<EffortDuration> overload = assignments.transform(extractOverload());
+        return DailyEffortSeries.create(min.getDay(), max.getDay().plusDays(1));
+    }
 
-        ContiguousDaysLine<EffortDuration> availabilityOnAllResources =
-                assignments.transform(extractAvailabilityOnAllResources(resources));
+    private static void addLoad(DailyEffortSeries series, Collection<? extends DayAssignment> dayAssignments) {
+        if (series.isEmpty()) {
+            return;
+        }
+        for (DayAssignment each : dayAssignments) {
+            int index = DailyEffortSeries.toEpochDay(each.getDay()) - series.getStartEpochDay();
+            if (index >= 0 && index < series.size()) {
+                series.addSecondsAt(index, each.getDuration().getSeconds());
+            }
+        }
+    }
+
+    /**
+     * The overload of a resource on a day is the effort assigned over its calendar capacity. Day assignments are
+     * walked ordered by resource and day, so the capacity is asked only once for each resource and day with
+     * assignments.
+     */
+    private static void addOverload(DailyEffortSeries series, Collection<? extends DayAssignment> dayAssignments) {
+        if (series.isEmpty()) {
+            return;
+        }
+        for (Entry<Resource, List<DayAssignment>> each : DayAssignment
+                .<DayAssignment> byResourceAndOrdered(dayAssignments).entrySet()) {
+
+            Resource resource = each.getKey();
+            List<DayAssignment> assignments = each.getValue();
+            int i = 0;
+            while (i < assignments.size()) {
+                LocalDate day = assignments.get(i).getDay();
+                int assigned = 0;
+                for (; i < assignments.size() && assignments.get(i).getDay().equals(day); i++) {
+                    assigned += assignments.get(i).getDuration().getSeconds();
+                }
+                int index = DailyEffortSeries.toEpochDay(day) - series.getStartEpochDay();
+                if (index >= 0 && index < series.size()) {
+                    int capacity = calendarCapacityFor(resource, PartialDay.wholeDay(day)).getSeconds();
+                    series.addSecondsAt(index, Math.max(assigned - capacity, 0));
+                }
+            }
+        }
+    }
 
-        this.load = toSortedMap(ContiguousDaysLine.min(load, availabilityOnAllResources));
-        this.overload = toSortedMap(sum(overload, availabilityOnAllResources));
-        this.availability = toSortedMap(availabilityOnAllResources);
+    private static void addAvailability(DailyEffortSeries series, Collection<? extends Resource> resources) {
+        LocalDate day = series.isEmpty() ? null : series.getStart();
+        for (int i = 0; i < series.size(); i++) {
+            series.addSecondsAt(i, sumCalendarCapacitiesForDay(resources, day).getSeconds());
+            day = day.plusDays(1);
+        }
     }
 
     public static IValueTransformer<List<DayAssignment>, EffortDuration> extractOverload() {
@@ -157,30 +225,32 @@ public class ResourceLoadChartData implements ILoadChartData {
         };
     }
 
-    private IValueTransformer<List<DayAssignment>, EffortDuration> extractAvailabilityOnAllResources(
-            final List<Resource> resources) {
-
-        return new IValueTransformer<List<DayAssignment>, EffortDuration>() {
-
-            @Override
-            public EffortDuration transform(LocalDate day, List<DayAssignment> previousValue) {
-                return sumCalendarCapacitiesForDay(resources, day);
-            }
-        };
-    }
-
-    public SortedMap<LocalDate, EffortDuration> getLoad() {
+    @Override
+    public DailyEffortSeries getLoad() {
         return load;
     }
 
-    public SortedMap<LocalDate, EffortDuration> getOverload() {
+    @Override
+    public DailyEffortSeries getOverload() {
         return overload;
     }
 
-    public SortedMap<LocalDate, EffortDuration> getAvailability() {
+    @Override
+    public DailyEffortSeries getAvailability() {
         return availability;
     }
 
+    /**
+     * Checks that the values of both data are the same. It's useful to compare
+     * data calculated in different ways, e.g. {@link IncrementalResourceLoadChartData} updated
+     * incrementally against a full rebuild.
+     */
+    public boolean hasSameValuesAs(ILoadChartData other) {
+        return getLoad().equals(other.getLoad())
+                && getOverload().equals(other.getOverload())
+                && getAvailability().equals(other.getAvailability());
+    }
+
     public ILoadChartData on(final LocalDate startInclusive, final LocalDate endExclusive) {
 
         final ResourceLoadChartData original = ResourceLoadChartData.this;
@@ -192,30 +262,18 @@ public class ResourceLoadChartData implements ILoadChartData {
         return new ILoadChartData() {
 
             @Override
-            public SortedMap<LocalDate, EffortDuration> getOverload() {
-                return filter(original.getOverload());
+            public DailyEffortSeries getOverload() {
+                return original.getOverload().subInterval(startInclusive, endExclusive);
             }
 
             @Override
-            public SortedMap<LocalDate, EffortDuration> getLoad() {
-                return filter(original.getLoad());
+            public DailyEffortSeries getLoad() {
+                return original.getLoad().subInterval(startInclusive, endExclusive);
             }
 
             @Override
-            public SortedMap<LocalDate, EffortDuration> getAvailability() {
-                return filter(original.getAvailability());
-            }
-
-            private SortedMap<LocalDate, EffortDuration> filter(SortedMap<LocalDate, EffortDuration> map) {
-                if (startInclusive != null) {
-                    return map.tailMap(startInclusive);
-                }
-
-                if (endExclusive != null) {
-                    return map.headMap(endExclusive);
-                }
-
-                return map.subMap(startInclusive, endExclusive);
+            public DailyEffortSeries getAvailability() {
+                return original.getAvailability().subInterval(startInclusive, endExclusive);
             }
         };
     }
@@ -28,6 +28,8 @@ import java.util.List;
 
 import org.hibernate.Criteria;
 import org.hibernate.Query;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
 import org.hibernate.criterion.Restrictions;
 import org.joda.time.LocalDate;
 import org.libreplan.business.common.daos.GenericDAOHibernate;
@@ -37,6 +39,7 @@ import org.libreplan.business.planner.entities.GenericDayAssignment;
 import org.libreplan.business.planner.entities.SpecificDayAssignment;
 import org.libreplan.business.resources.entities.Resource;
 import org.libreplan.business.scenarios.entities.Scenario;
+import org.libreplan.business.workingday.EffortDuration;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Repository;
@@ -54,6 +57,13 @@ public class DayAssignmentDAO extends GenericDAOHibernate<DayAssignment, Long> i
 
     private final String SCENARIO = "scenario";
 
+    private static final int ASSIGNED_EFFORT_FETCH_SIZE = 1000;
+
+    private static final String[] CONTAINERS = {
+            "SpecificDayAssignmentsContainer",
+            "GenericDayAssignmentsContainer",
+            "DerivedDayAssignmentsContainer" };
+
     @Override
     public void removeDerived(Collection<? extends DerivedDayAssignment> assignments) {
         for (DerivedDayAssignment each : assignments) {
@@ -161,6 +171,35 @@ public class DayAssignmentDAO extends GenericDAOHibernate<DayAssignment, Long> i
         return query.list();
     }
 
+    @Override
+    public void visitAssignedEffort(Scenario scenario, Resource resource, IAssignedEffortVisitor visitor) {
+        for (String each : CONTAINERS) {
+            visitAssignedEffort(each, scenario, resource, visitor);
+        }
+    }
+
+    private void visitAssignedEffort(
+            String container, Scenario scenario, Resource resource, IAssignedEffortVisitor visitor) {
+
+        String queryString = "select d.resource.id, d.day, d.duration from " + container + " c " +
+                "JOIN c.dayAssignments d where c.scenario = :scenario" + addQueryConditionsForResource(resource);
+
+        Query query = getSession().createQuery(queryString)
+                .setParameter(SCENARIO, scenario)
+                .setReadOnly(true)
+                .setFetchSize(ASSIGNED_EFFORT_FETCH_SIZE);
+        addResourceParameter(query, resource);
+
+        ScrollableResults rows = query.scroll(ScrollMode.FORWARD_ONLY);
+        try {
+            while (rows.next()) {
+                visitor.visit(rows.getLong(0), (LocalDate) rows.get(1), ((EffortDuration) rows.get(2)).getSeconds());
+            }
+        } finally {
+            rows.close();
+        }
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     public List<DayAssignment> listFilteredByDate(LocalDate init, LocalDate end) {
@@ -0,0 +1,36 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.business.planner.daos;
+
+import org.joda.time.LocalDate;
+import org.libreplan.business.planner.entities.DayAssignment;
+
+/**
+ * Receives the effort of the {@link DayAssignment day assignments} one by one
+ * as they are read from the database, without loading the entities.
+ *
+ * @see IDayAssignmentDAO#visitAssignedEffort(org.libreplan.business.scenarios.entities.Scenario,
+ *      org.libreplan.business.resources.entities.Resource, IAssignedEffortVisitor)
+ */
+public interface IAssignedEffortVisitor {
+
+    void visit(long resourceId, LocalDate day, int seconds);
+
+}
@@ -52,6 +52,19 @@ public interface IDayAssignmentDAO extends IGenericDAO<DayAssignment, Long> {
             LocalDate startDateInclusive, LocalDate endDateInclusive,
             Resource resource);
 
+    /**
+     * Reads the resource, day and effort of all the day assignments of the
+     * scenario without loading them as entities, so company wide views don't
+     * need to keep all of them in memory. The rows are read with a forward
+     * only cursor and passed to the visitor as soon as they arrive.
+     *
+     * @param resource
+     *            if not <code>null</code> only the day assignments of this
+     *            resource are visited
+     */
+    public void visitAssignedEffort(Scenario scenario, Resource resource,
+            IAssignedEffortVisitor visitor);
+
     List<DayAssignment> listFilteredByDate(LocalDate init, LocalDate end);
 
     public List<DayAssignment> findByResources(Scenario scenario, List<Resource> resources);
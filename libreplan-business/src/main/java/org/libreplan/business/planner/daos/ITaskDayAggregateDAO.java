@@ -0,0 +1,55 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.business.planner.daos;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Map;
+import java.util.SortedMap;
+
+import org.joda.time.LocalDate;
+import org.libreplan.business.common.daos.IGenericDAO;
+import org.libreplan.business.planner.entities.TaskDayAggregate;
+import org.libreplan.business.planner.entities.TaskElement;
+import org.libreplan.business.scenarios.entities.Scenario;
+
+/**
+ * DAO interface for the {@link TaskDayAggregate} entity.
+ */
+public interface ITaskDayAggregateDAO extends IGenericDAO<TaskDayAggregate, Long> {
+
+    /**
+     * Replaces the aggregates of the tasks contained in <code>taskElements</code> for <code>scenario</code> with the
+     * ones calculated from their current day assignments.
+     */
+    void updateFor(Collection<? extends TaskElement> taskElements, Scenario scenario);
+
+    /**
+     * Removes the aggregates of the tasks contained in <code>taskElements</code> for all the scenarios.
+     */
+    void removeFor(Collection<? extends TaskElement> taskElements);
+
+    /**
+     * @return the estimated cost per day of the tasks with aggregates in <code>scenario</code>, indexed by task id.
+     *         The tasks without aggregates are not included
+     */
+    Map<Long, SortedMap<LocalDate, BigDecimal>> getEstimatedCostPerTask(Scenario scenario);
+
+}
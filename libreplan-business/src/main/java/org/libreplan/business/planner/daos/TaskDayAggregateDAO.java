@@ -0,0 +1,141 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.business.planner.daos;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.hibernate.criterion.Restrictions;
+import org.joda.time.LocalDate;
+import org.libreplan.business.common.daos.GenericDAOHibernate;
+import org.libreplan.business.planner.entities.HoursCostCalculator;
+import org.libreplan.business.planner.entities.Task;
+import org.libreplan.business.planner.entities.TaskDayAggregate;
+import org.libreplan.business.planner.entities.TaskElement;
+import org.libreplan.business.scenarios.entities.Scenario;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.Scope;
+import org.springframework.stereotype.Repository;
+
+/**
+ * DAO for the {@link TaskDayAggregate} entity.
+ */
+@Repository
+@Scope(BeanDefinition.SCOPE_SINGLETON)
+public class TaskDayAggregateDAO
+        extends GenericDAOHibernate<TaskDayAggregate, Long>
+        implements ITaskDayAggregateDAO {
+
+    @Autowired
+    private HoursCostCalculator hoursCostCalculator;
+
+    @Override
+    public void updateFor(Collection<? extends TaskElement> taskElements, Scenario scenario) {
+        List<Task> tasks = tasksIn(taskElements);
+        if ( tasks.isEmpty() ) {
+            return;
+        }
+
+        getSession()
+                .createQuery("delete from TaskDayAggregate where taskId in (:taskIds) and scenarioId = :scenarioId")
+                .setParameterList("taskIds", idsOf(tasks))
+                .setParameter("scenarioId", scenario.getId())
+                .executeUpdate();
+
+        for (Task each : tasks) {
+            for (TaskDayAggregate aggregate : hoursCostCalculator.calculateDayAggregates(each, scenario)) {
+                getSession().save(aggregate);
+            }
+        }
+    }
+
+    @Override
+    public void removeFor(Collection<? extends TaskElement> taskElements) {
+        List<Task> tasks = tasksIn(taskElements);
+        if ( tasks.isEmpty() ) {
+            return;
+        }
+
+        getSession()
+                .createQuery("delete from TaskDayAggregate where taskId in (:taskIds)")
+                .setParameterList("taskIds", idsOf(tasks))
+                .executeUpdate();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Map<Long, SortedMap<LocalDate, BigDecimal>> getEstimatedCostPerTask(Scenario scenario) {
+        List<TaskDayAggregate> aggregates = getSession()
+                .createCriteria(TaskDayAggregate.class)
+                .add(Restrictions.eq("scenarioId", scenario.getId()))
+                .list();
+
+        Map<Long, SortedMap<LocalDate, BigDecimal>> result = new HashMap<>();
+        for (TaskDayAggregate each : aggregates) {
+            SortedMap<LocalDate, BigDecimal> costPerDay = result.get(each.getTaskId());
+
+            if ( costPerDay == null ) {
+                costPerDay = new TreeMap<>();
+                result.put(each.getTaskId(), costPerDay);
+            }
+            costPerDay.put(each.getDay(), each.getEstimatedCost());
+        }
+
+        return result;
+    }
+
+    private static List<Task> tasksIn(Collection<? extends TaskElement> taskElements) {
+        List<Task> result = new ArrayList<>();
+        for (TaskElement each : taskElements) {
+            addTasks(result, each);
+        }
+
+        return result;
+    }
+
+    private static void addTasks(List<Task> result, TaskElement taskElement) {
+        if ( taskElement instanceof Task ) {
+            if ( taskElement.getId() != null ) {
+                result.add((Task) taskElement);
+            }
+        } else if ( !taskElement.isLeaf() ) {
+            for (TaskElement each : taskElement.getChildren()) {
+                addTasks(result, each);
+            }
+        }
+    }
+
+    private static List<Long> idsOf(List<Task> tasks) {
+        List<Long> result = new ArrayList<>();
+        for (Task each : tasks) {
+            result.add(each.getId());
+        }
+
+        return result;
+    }
+
+}
@@ -306,18 +306,35 @@ public abstract class DayAssignment extends BaseEntity {
     protected abstract void detachFromAllocation();
 
     public final boolean belongsToSomeOf(Map<Long, Set<BaseEntity>> allocations) {
-        BaseEntity parent = getParent();
-        if (parent.getId() == null) {
+        return isSomeOf(getParent(), allocations);
+    }
+
+    /**
+     * @param allocations
+     *            the allocations grouped by id as returned by
+     *            {@link BaseEntity#byId(Collection)}
+     */
+    public static boolean isSomeOf(BaseEntity allocation, Map<Long, Set<BaseEntity>> allocations) {
+        if (allocation.getId() == null) {
             Set<BaseEntity> entitiesWithNullId = allocations.get(null);
             return entitiesWithNullId != null
-                    && entitiesWithNullId.contains(parent);
+                    && entitiesWithNullId.contains(allocation);
         }
-        Set<BaseEntity> set = allocations.get(parent.getId());
+        Set<BaseEntity> set = allocations.get(allocation.getId());
         return set != null;
     }
 
     protected abstract BaseEntity getParent();
 
+    /**
+     * @return the allocation this day assignment belongs to, the one checked
+     *         by {@link #belongsToSomeOf(Map)}. It can be <code>null</code>
+     *         while the day assignment is being created
+     */
+    public final BaseEntity getParentAllocation() {
+        return getParent();
+    }
+
     public final boolean belongsTo(BaseEntity allocation) {
         if (allocation == null) {
             return false;
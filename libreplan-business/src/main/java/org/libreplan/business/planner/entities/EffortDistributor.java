@@ -350,12 +350,12 @@ public class EffortDistributor {
     private List<ResourceWithAssignedDuration> assignAllPossibleWithoutOvertime(
             PartialDay day, EffortDuration totalDuration, List<ResourceWithDerivedData> resourcesAssignable) {
 
-        List<ResourceWithAvailableCapacity> fromMoreToLessCapacity =
-                resourcesFromMoreDesirableToLess(resourcesAssignable, day);
+        MoreDesirableFirst candidates = resourcesFromMoreDesirableToLess(resourcesAssignable, day);
 
         EffortDuration remaining = totalDuration;
         List<ResourceWithAssignedDuration> result = new ArrayList<>();
-        for (ResourceWithAvailableCapacity each : fromMoreToLessCapacity) {
+        while (!remaining.isZero() && candidates.hasNext()) {
+            ResourceWithAvailableCapacity each = candidates.next();
             if (!each.available.isZero()) {
                 ResourceWithAssignedDuration r = each.doBiggestAssignationPossible(remaining);
                 remaining = remaining.minus(r.duration);
@@ -367,18 +367,97 @@ public class EffortDistributor {
         return result;
     }
 
-    private List<ResourceWithAvailableCapacity> resourcesFromMoreDesirableToLess(
+    private MoreDesirableFirst resourcesFromMoreDesirableToLess(
             List<ResourceWithDerivedData> resourcesAssignable, PartialDay day) {
 
         List<ResourceWithAvailableCapacity> result = new ArrayList<>();
         for (ResourceWithDerivedData each : resourcesAssignable) {
             result.add(each.withAvailableCapacityOn(day, assignedEffortForResource));
         }
-        Collections.sort(
-                result,
+        return new MoreDesirableFirst(result,
                 Collections.reverseOrder(ResourceWithAvailableCapacity.getComparatorConsidering(resourcesAlreadyPicked)));
+    }
 
-        return result;
+    /**
+     * <p>
+     * Returns the resources in the order given by the comparator, the ones
+     * being equal in the order they were provided, like a stable sort would.
+     * </p>
+     * <p>
+     * It's a binary heap built in linear time, so when only the first few
+     * resources are needed to distribute the effort of a day, as it's usual,
+     * the cost is linear on the number of resources instead of sorting all of
+     * them.
+     * </p>
+     */
+    private static class MoreDesirableFirst {
+
+        private final ResourceWithAvailableCapacity[] heap;
+
+        private final int[] originalIndexes;
+
+        private final Comparator<ResourceWithAvailableCapacity> comparator;
+
+        private int size;
+
+        MoreDesirableFirst(List<ResourceWithAvailableCapacity> resources,
+                           Comparator<ResourceWithAvailableCapacity> comparator) {
+            this.heap = resources.toArray(new ResourceWithAvailableCapacity[resources.size()]);
+            this.originalIndexes = new int[heap.length];
+            for (int i = 0; i < originalIndexes.length; i++) {
+                originalIndexes[i] = i;
+            }
+            this.comparator = comparator;
+            this.size = heap.length;
+            for (int i = size / 2 - 1; i >= 0; i--) {
+                siftDown(i);
+            }
+        }
+
+        boolean hasNext() {
+            return size > 0;
+        }
+
+        ResourceWithAvailableCapacity next() {
+            ResourceWithAvailableCapacity result = heap[0];
+            size--;
+            swap(0, size);
+            siftDown(0);
+            return result;
+        }
+
+        private boolean before(int i, int j) {
+            int compare = comparator.compare(heap[i], heap[j]);
+            return compare < 0 || compare == 0 && originalIndexes[i] < originalIndexes[j];
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int first = i;
+                int left = 2 * i + 1;
+                int right = left + 1;
+                if (left < size && before(left, first)) {
+                    first = left;
+                }
+                if (right < size && before(right, first)) {
+                    first = right;
+                }
+                if (first == i) {
+                    return;
+                }
+                swap(i, first);
+                i = first;
+            }
+        }
+
+        private void swap(int i, int j) {
+            ResourceWithAvailableCapacity resource = heap[i];
+            heap[i] = heap[j];
+            heap[j] = resource;
+            int index = originalIndexes[i];
+            originalIndexes[i] = originalIndexes[j];
+            originalIndexes[j] = index;
+        }
     }
 
     private List<ResourceWithAssignedDuration> distributeInOvertimeForDayRemainingEffort(
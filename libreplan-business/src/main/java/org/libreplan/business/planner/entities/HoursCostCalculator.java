@@ -27,6 +27,7 @@ import java.math.RoundingMode;
 import java.sql.Time;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.SortedMap;
 import java.util.List;
 import java.util.SortedSet;
@@ -38,6 +39,7 @@ import org.joda.time.LocalTime;
 import org.libreplan.business.advance.entities.AdvanceMeasurement;
 import org.libreplan.business.advance.entities.DirectAdvanceAssignment;
 import org.libreplan.business.planner.entities.DayAssignment.FilterType;
+import org.libreplan.business.scenarios.entities.Scenario;
 import org.libreplan.business.workreports.daos.IWorkReportLineDAO;
 import org.libreplan.business.workreports.entities.WorkReportLine;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -182,6 +184,38 @@ public class HoursCostCalculator implements ICostCalculator {
         return result;
     }
 
+    /**
+     * Calculates the {@link TaskDayAggregate TaskDayAggregates} of <code>task</code> for <code>scenario</code>, with
+     * the same estimated cost than {@link #getEstimatedCost(Task)}. Subcontracted tasks don't have aggregates, as their
+     * estimated cost depends on their progress.
+     */
+    public List<TaskDayAggregate> calculateDayAggregates(Task task, Scenario scenario) {
+        List<TaskDayAggregate> result = new ArrayList<>();
+        if ( task.isSubcontracted() ) {
+            return result;
+        }
+
+        SortedMap<LocalDate, TaskDayAggregate> byDay = new TreeMap<>();
+        for (DayAssignment each : task.getDayAssignments(FilterType.WITHOUT_DERIVED)) {
+            TaskDayAggregate aggregate = byDay.get(each.getDay());
+
+            if ( aggregate == null ) {
+                aggregate = TaskDayAggregate.create(task.getId(), scenario.getId(), each.getDay());
+                byDay.put(each.getDay(), aggregate);
+            }
+            aggregate.addEffort(each.getDuration());
+        }
+
+        SortedMap<LocalDate, BigDecimal> estimatedCost = getEstimatedCost(task);
+        for (TaskDayAggregate each : byDay.values()) {
+            BigDecimal cost = estimatedCost.get(each.getDay());
+            each.setEstimatedCost(cost != null ? cost : BigDecimal.ZERO);
+            result.add(each);
+        }
+
+        return result;
+    }
+
     private boolean isParsableWithFormat1(String input){
         boolean parsable = true;
         try {
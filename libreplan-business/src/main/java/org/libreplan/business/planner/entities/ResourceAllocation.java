@@ -547,6 +547,18 @@ public abstract class ResourceAllocation<T extends DayAssignment>
         switchDerivedAllocationsTo(scenario);
     }
 
+    /**
+     * If the assignments are retrieved for the current scenario of the
+     * {@link IScenarioManager}, they are retrieved for <code>scenario</code>
+     * from now on. So they can be read from threads without the current
+     * scenario available.
+     */
+    public void useScenarioIfNotSpecified(Scenario scenario) {
+        if ( assignmentsState instanceof ResourceAllocation.NoExplicitlySpecifiedScenario ) {
+            switchToScenario(scenario);
+        }
+    }
+
     private void switchDerivedAllocationsTo(Scenario scenario) {
         for (DerivedAllocation each : derivedAllocations) {
             each.useScenario(scenario);
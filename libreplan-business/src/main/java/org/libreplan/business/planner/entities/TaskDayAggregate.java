@@ -0,0 +1,89 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.business.planner.entities;
+
+import java.math.BigDecimal;
+
+import org.joda.time.LocalDate;
+import org.libreplan.business.common.BaseEntity;
+import org.libreplan.business.scenarios.entities.Scenario;
+import org.libreplan.business.workingday.EffortDuration;
+
+/**
+ * Precalculated effort and estimated cost of a {@link Task} in a day for a {@link Scenario}, avoiding the need to
+ * iterate over all the {@link DayAssignment DayAssignments} of the task to get this information.
+ * <p>
+ * The task and the scenario are kept as identifiers, so removing a task doesn't depend on its aggregates. They are
+ * replaced every time the task is saved from the planning, and removed when the task is deleted or the costs of the
+ * resources assigned to it change (see {@link org.libreplan.business.hibernate.notification.TaskDayAggregatesInvalidator}).
+ */
+public class TaskDayAggregate extends BaseEntity {
+
+    private Long taskId;
+
+    private Long scenarioId;
+
+    private LocalDate day;
+
+    private EffortDuration effort = EffortDuration.zero();
+
+    private BigDecimal estimatedCost = BigDecimal.ZERO;
+
+    protected TaskDayAggregate() {}
+
+    private TaskDayAggregate(Long taskId, Long scenarioId, LocalDate day) {
+        this.taskId = taskId;
+        this.scenarioId = scenarioId;
+        this.day = day;
+    }
+
+    public static TaskDayAggregate create(Long taskId, Long scenarioId, LocalDate day) {
+        return create(new TaskDayAggregate(taskId, scenarioId, day));
+    }
+
+    public Long getTaskId() {
+        return taskId;
+    }
+
+    public Long getScenarioId() {
+        return scenarioId;
+    }
+
+    public LocalDate getDay() {
+        return day;
+    }
+
+    public EffortDuration getEffort() {
+        return effort;
+    }
+
+    public void addEffort(EffortDuration effort) {
+        this.effort = this.effort.plus(effort);
+    }
+
+    public BigDecimal getEstimatedCost() {
+        return estimatedCost;
+    }
+
+    public void setEstimatedCost(BigDecimal estimatedCost) {
+        this.estimatedCost = estimatedCost;
+    }
+
+}
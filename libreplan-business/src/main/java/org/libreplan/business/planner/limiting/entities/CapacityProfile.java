@@ -0,0 +1,167 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.business.planner.limiting.entities;
+
+import org.joda.time.LocalDate;
+import org.libreplan.business.calendars.entities.BaseCalendar;
+import org.libreplan.business.calendars.entities.CalendarCapacityIndex;
+import org.libreplan.business.workingday.IntraDayDate.PartialDay;
+
+/**
+ * <p>
+ * Accumulated hours of capacity of the calendar of a queue, one entry per
+ * day. The hours that fit in some whole days are a subtraction and the day
+ * in which some amount of hours is reached is a binary search, instead of
+ * asking the calendar day by day for each {@link Gap} tried.
+ * </p>
+ * <p>
+ * The hours of each day are rounded as done when allocating an element in a
+ * {@link Gap}. The profile grows on demand in blocks of a year and it's
+ * outdated once the {@link BaseCalendar#getCapacityStamp() capacity stamp}
+ * of the calendar changes.
+ * </p>
+ */
+public class CapacityProfile {
+
+    private static final int BLOCK_DAYS = 366;
+
+    private static final LocalDate EPOCH = new LocalDate(1970, 1, 1);
+
+    public static CapacityProfile create(BaseCalendar calendar) {
+        return new CapacityProfile(calendar);
+    }
+
+    private final BaseCalendar calendar;
+
+    private final long stamp;
+
+    private int startEpochDay = 0;
+
+    /**
+     * The hours of the days before each one covered, so it has one more
+     * element than days covered.
+     */
+    private int[] hoursBefore = new int[] { 0 };
+
+    private CapacityProfile(BaseCalendar calendar) {
+        this.calendar = calendar;
+        this.stamp = calendar.getCapacityStamp();
+    }
+
+    public boolean isUpToDateFor(BaseCalendar calendar) {
+        return this.calendar == calendar && stamp == calendar.getCapacityStamp();
+    }
+
+    private int getEndEpochDayExclusive() {
+        return startEpochDay + hoursBefore.length - 1;
+    }
+
+    /**
+     * Extends the profile so it includes the days provided.
+     *
+     * @return <code>false</code> if that would mean covering more days than
+     *         {@link CalendarCapacityIndex#getMaxIndexedDays()}
+     */
+    public boolean cover(LocalDate startInclusive, LocalDate endExclusive) {
+        int from = CalendarCapacityIndex.toEpochDay(startInclusive);
+        int end = CalendarCapacityIndex.toEpochDay(endExclusive);
+        if (from >= end || (from >= startEpochDay && end <= getEndEpochDayExclusive())) {
+            return true;
+        }
+        int newStart = Math.floorDiv(from, BLOCK_DAYS) * BLOCK_DAYS;
+        int newEnd = Math.floorDiv(end - 1, BLOCK_DAYS) * BLOCK_DAYS + BLOCK_DAYS;
+        if (getEndEpochDayExclusive() > startEpochDay) {
+            newStart = Math.min(newStart, startEpochDay);
+            newEnd = Math.max(newEnd, getEndEpochDayExclusive());
+        }
+        if ((long) newEnd - newStart > CalendarCapacityIndex.getMaxIndexedDays()) {
+            return false;
+        }
+
+        int[] result = new int[newEnd - newStart + 1];
+        for (int day = newStart; day < newEnd; day++) {
+            int i = day - newStart;
+            result[i + 1] = result[i] + (isCovered(day) ? getHoursOn(day) : calculateHoursOn(day));
+        }
+        startEpochDay = newStart;
+        hoursBefore = result;
+        return true;
+    }
+
+    private boolean isCovered(int epochDay) {
+        return epochDay >= startEpochDay && epochDay < getEndEpochDayExclusive();
+    }
+
+    private int calculateHoursOn(int epochDay) {
+        return calendar.getCapacityOn(PartialDay.wholeDay(EPOCH.plusDays(epochDay))).roundToHours();
+    }
+
+    private int getHoursOn(int epochDay) {
+        int i = epochDay - startEpochDay;
+        return hoursBefore[i + 1] - hoursBefore[i];
+    }
+
+    /**
+     * The day must have been {@link #cover(LocalDate, LocalDate) covered}.
+     */
+    public int getHoursOn(LocalDate day) {
+        return getHoursOn(CalendarCapacityIndex.toEpochDay(day));
+    }
+
+    /**
+     * The days must have been {@link #cover(LocalDate, LocalDate) covered}.
+     */
+    public int getHoursBetween(LocalDate startInclusive, LocalDate endExclusive) {
+        int from = CalendarCapacityIndex.toEpochDay(startInclusive);
+        int end = CalendarCapacityIndex.toEpochDay(endExclusive);
+        if (from >= end) {
+            return 0;
+        }
+        return hoursBefore[end - startEpochDay] - hoursBefore[from - startEpochDay];
+    }
+
+    /**
+     * The days must have been {@link #cover(LocalDate, LocalDate) covered}.
+     *
+     * @return the first day since <code>startInclusive</code> in which the
+     *         hours accumulated reach <code>hours</code> or <code>null</code>
+     *         if that doesn't happen before <code>endExclusive</code>
+     */
+    public LocalDate getDayReaching(LocalDate startInclusive, int hours, LocalDate endExclusive) {
+        int from = CalendarCapacityIndex.toEpochDay(startInclusive) - startEpochDay;
+        int end = CalendarCapacityIndex.toEpochDay(endExclusive) - startEpochDay;
+        if (from >= end || hoursBefore[end] - hoursBefore[from] < hours) {
+            return null;
+        }
+        int wanted = hoursBefore[from] + hours;
+        int low = from + 1;
+        int high = end;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (hoursBefore[middle] < wanted) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return EPOCH.plusDays(startEpochDay + low - 1);
+    }
+
+}
@@ -22,7 +22,6 @@
 package org.libreplan.business.planner.limiting.entities;
 
 import static org.libreplan.business.workingday.EffortDuration.hours;
-import static org.libreplan.business.workingday.EffortDuration.zero;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -107,6 +106,12 @@ public class Gap implements Comparable<Gap> {
             return GapOnQueue.onQueue(originQueue, gap.splitIntoGapsSatisfyingCriteria(originQueue.getResource(), criteria));
         }
 
+        public List<GapOnQueue> splitIntoGapsSatisfyingCriteria(AvailabilityTimeLine criterionsAvailability) {
+            return GapOnQueue.onQueue(
+                    originQueue,
+                    gap.splitIntoGapsSatisfyingCriteria(originQueue.getResource(), criterionsAvailability));
+        }
+
         @Override
         public String toString() {
             return "queue: " + originQueue + "; gap: " + gap;
@@ -197,12 +202,7 @@ public class Gap implements Comparable<Gap> {
 
     private Integer calculateHoursInGap(Resource resource, IntraDayDate start, IntraDayDate end) {
         final ResourceCalendar calendar = resource.getCalendar();
-        Iterable<PartialDay> days = start.daysUntil(end);
-        EffortDuration result = zero();
-        for (PartialDay each : days) {
-            result = result.plus(calendar.getCapacityOn(each));
-        }
-        return result.roundToHours();
+        return calendar.getCapacityBetween(start, end).roundToHours();
     }
 
     public List<Integer> getHoursInGapUntilAllocatingAndGoingToTheEnd(
@@ -236,6 +236,80 @@ public class Gap implements Comparable<Gap> {
         return result;
     }
 
+    /**
+     * Same as
+     * {@link #getHoursInGapUntilAllocatingAndGoingToTheEnd(BaseCalendar, DateAndHour, DateAndHour, int)}
+     * but the whole days are taken from the {@link CapacityProfile} of the
+     * queue. So if the gap can't hold <code>total</code> hours it's known
+     * without walking it and an empty list is returned. Otherwise only the
+     * days until <code>total</code> is reached are generated.
+     */
+    public List<Integer> getHoursInGapUntilAllocatingAndGoingToTheEnd(
+            BaseCalendar calendar, CapacityProfile profile, DateAndHour realStart, DateAndHour allocationEnd,
+            int total) {
+
+        Validate.isTrue(endTime == null || allocationEnd.compareTo(endTime) <= 0);
+        Validate.isTrue(startTime == null || realStart.compareTo(startTime) >= 0);
+        Validate.isTrue(total >= 0);
+
+        DateAndHour endDate = getEndTime();
+        if (endDate == null) {
+            endDate = DateAndHour.TEN_YEARS_FROM(realStart);
+        }
+        IntraDayDate start = realStart.toIntraDayDate();
+        IntraDayDate end = endDate.toIntraDayDate();
+        LocalDate firstWholeDay = start.getEffortDuration().isZero()
+                ? start.getDate()
+                : start.getDate().plusDays(1);
+        LocalDate endOfWholeDays = end.getDate();
+
+        if (total == 0 || !firstWholeDay.isBefore(endOfWholeDays)
+                || !profile.cover(firstWholeDay, endOfWholeDays)) {
+            List<Integer> result =
+                    getHoursInGapUntilAllocatingAndGoingToTheEnd(calendar, realStart, allocationEnd, total);
+            return sum(result) < total ? Collections.<Integer> emptyList() : result;
+        }
+
+        int hoursAtStart = start.getEffortDuration().isZero()
+                ? 0
+                : calendar.getCapacityOn(new PartialDay(start, IntraDayDate.startOfDay(firstWholeDay))).roundToHours();
+        int hoursAtEnd = end.getEffortDuration().isZero()
+                ? 0
+                : calendar.getCapacityOn(new PartialDay(IntraDayDate.startOfDay(endOfWholeDays), end)).roundToHours();
+        if ((long) hoursAtStart + profile.getHoursBetween(firstWholeDay, endOfWholeDays) + hoursAtEnd < total) {
+            return Collections.emptyList();
+        }
+
+        List<Integer> result = new ArrayList<>();
+        if (!start.getEffortDuration().isZero()) {
+            int hours = Math.min(hoursAtStart, total);
+            total -= hours;
+            result.add(hours);
+        }
+        if (total == 0) {
+            return result;
+        }
+        LocalDate lastDay = profile.getDayReaching(firstWholeDay, total, endOfWholeDays);
+        LocalDate endOfDays = lastDay != null ? lastDay.plusDays(1) : endOfWholeDays;
+        for (LocalDate day = firstWholeDay; day.isBefore(endOfDays); day = day.plusDays(1)) {
+            int hours = Math.min(profile.getHoursOn(day), total);
+            total -= hours;
+            result.add(hours);
+        }
+        if (total > 0) {
+            result.add(Math.min(hoursAtEnd, total));
+        }
+        return result;
+    }
+
+    private static int sum(List<Integer> hours) {
+        int result = 0;
+        for (int each : hours) {
+            result += each;
+        }
+        return result;
+    }
+
     public static Gap create(Resource resource, DateAndHour startTime, DateAndHour endTime) {
         return new Gap(resource, startTime, endTime);
     }
@@ -307,7 +381,18 @@ public class Gap implements Comparable<Gap> {
     }
 
     public List<Gap> splitIntoGapsSatisfyingCriteria(Resource resource, Set<Criterion> criteria) {
-        return splitIntoGapsSatisfyingCriteria(resource, criteria, getStartTime(), getEndTime());
+        return splitIntoGapsSatisfyingCriteria(
+                resource, AvailabilityCalculator.getCriterionsAvailabilityFor(criteria, resource));
+    }
+
+    /**
+     * Like {@link #splitIntoGapsSatisfyingCriteria(Resource, Set)} but using an already calculated availability of the
+     * criteria for the resource. The received {@link AvailabilityTimeLine} is not modified, so it can be reused for
+     * the rest of the gaps of the same resource.
+     */
+    public List<Gap> splitIntoGapsSatisfyingCriteria(Resource resource, AvailabilityTimeLine criterionsAvailability) {
+        return splitIntoGapsSatisfyingCriteria(
+                resource, criterionsAvailability.and(AvailabilityTimeLine.allValid()), getStartTime(), getEndTime());
     }
 
     /**
@@ -315,8 +400,8 @@ public class Gap implements Comparable<Gap> {
      * <em>gapStartTime</em> till <em>gapEndTime</em>.
      *
      * @param resource
-     * @param criteria
-     *            criteria to be satisfied by resource
+     * @param criterionsAvailability
+     *            availability of the criteria to be satisfied by resource. It's modified
      * @param gapStartTime
      *            start time of gap
      * @param gapEndTime
@@ -324,10 +409,8 @@ public class Gap implements Comparable<Gap> {
      * @return {@link List<Gap>}
      */
     private static List<Gap> splitIntoGapsSatisfyingCriteria(
-            Resource resource, Set<Criterion> criteria, DateAndHour gapStartTime, DateAndHour gapEndTime) {
-
-        AvailabilityTimeLine criterionsAvailability =
-                AvailabilityCalculator.getCriterionsAvailabilityFor(criteria, resource);
+            Resource resource, AvailabilityTimeLine criterionsAvailability,
+            DateAndHour gapStartTime, DateAndHour gapEndTime) {
 
         if (gapStartTime != null) {
             criterionsAvailability.invalidUntil(gapStartTime.getDate());
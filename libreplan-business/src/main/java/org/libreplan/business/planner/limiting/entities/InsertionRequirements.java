@@ -31,7 +31,7 @@ import org.libreplan.business.planner.entities.Dependency;
 import org.libreplan.business.planner.entities.Task;
 import org.libreplan.business.planner.entities.TaskElement;
 import org.libreplan.business.planner.limiting.entities.Gap.GapOnQueue;
-import org.libreplan.business.resources.entities.Resource;
+import org.libreplan.business.resources.entities.LimitingResourceQueue;
 import org.libreplan.business.workingday.IntraDayDate;
 
 
@@ -161,9 +161,9 @@ public class InsertionRequirements {
         }
         DateAndHour realStart = DateAndHour.max(earliestPossibleStart, gap
                 .getStartTime());
-        Resource resource = gapOnQueue.getOriginQueue().getResource();
+        LimitingResourceQueue queue = gapOnQueue.getOriginQueue();
         List<Integer> hours = gap.getHoursInGapUntilAllocatingAndGoingToTheEnd(
-                resource.getCalendar(), realStart,
+                queue.getResource().getCalendar(), queue.getCapacityProfile(), realStart,
                 earliestPossibleEnd, element.getIntentedTotalHours());
         int total = sum(hours);
         if (total < element.getIntentedTotalHours()) {
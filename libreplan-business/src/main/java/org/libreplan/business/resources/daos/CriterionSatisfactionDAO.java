@@ -21,6 +21,9 @@
 
 package org.libreplan.business.resources.daos;
 
+import java.util.List;
+
+import org.joda.time.LocalDate;
 import org.libreplan.business.common.daos.IntegrationEntityDAO;
 import org.libreplan.business.resources.entities.CriterionSatisfaction;
 import org.springframework.beans.factory.config.BeanDefinition;
@@ -37,4 +40,20 @@ import org.springframework.stereotype.Repository;
 public class CriterionSatisfactionDAO
     extends IntegrationEntityDAO<CriterionSatisfaction>
     implements ICriterionSatisfactionDAO {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public CriterionSatisfactionsIndex createSatisfactionsIndex() {
+        List<Object[]> rows = getSession()
+                .createQuery("select s.resource.id, s.criterion.id, s.startDate, s.finishDate " +
+                        "from CriterionSatisfaction s where s.isDeleted is null or s.isDeleted = false")
+                .setReadOnly(true)
+                .list();
+
+        CriterionSatisfactionsIndex.Builder builder = CriterionSatisfactionsIndex.builder();
+        for (Object[] each : rows) {
+            builder.add((Long) each[0], (Long) each[1], (LocalDate) each[2], (LocalDate) each[3]);
+        }
+        return builder.build();
+    }
 }
@@ -0,0 +1,251 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.business.resources.daos;
+
+import static org.libreplan.business.calendars.entities.CalendarCapacityIndex.toEpochDay;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.joda.time.LocalDate;
+import org.libreplan.business.hibernate.notification.PredefinedDatabaseSnapshots;
+import org.libreplan.business.resources.entities.Criterion;
+import org.libreplan.business.resources.entities.CriterionSatisfaction;
+import org.libreplan.business.resources.entities.Resource;
+
+/**
+ * <p>
+ * In memory index of the {@link CriterionSatisfaction criterion satisfactions}
+ * not deleted, used to know which resources satisfy several criteria at the
+ * same time at some point without loading them.
+ * </p>
+ * <p>
+ * Each criterion has a {@link BitSet} with the resources having some
+ * satisfaction of it, so the resources having satisfactions of all the
+ * criteria are found intersecting them. Only for those ones the periods of
+ * the satisfactions, kept as epoch days, are intersected to check that there
+ * is some day in which all the criteria are satisfied. As it happens with
+ * {@link Resource#satisfiesCriterionsAtSomePoint(Collection)}, a criterion is
+ * satisfied by the satisfactions of it or of any of its descendants.
+ * </p>
+ * <p>
+ * Instances are immutable. It's kept up to date by
+ * {@link PredefinedDatabaseSnapshots}.
+ * </p>
+ *
+ * @see ResourcesSearcher
+ */
+public class CriterionSatisfactionsIndex {
+
+    private static final int NO_END = Integer.MAX_VALUE;
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+
+        private final Map<Long, Integer> resourcePositions = new HashMap<>();
+
+        private final List<Long> resourceIds = new ArrayList<>();
+
+        private final Map<Long, CriterionEntry> byCriterion = new HashMap<>();
+
+        private Builder() {
+        }
+
+        /**
+         * @param finishDate
+         *            not included. It can be <code>null</code>, meaning that
+         *            the satisfaction doesn't end
+         */
+        public Builder add(long resourceId, long criterionId, LocalDate startDate, LocalDate finishDate) {
+            int start = toEpochDay(startDate);
+            int end = finishDate == null ? NO_END : toEpochDay(finishDate);
+            if (start >= end) {
+                return this;
+            }
+            Integer position = resourcePositions.get(resourceId);
+            if (position == null) {
+                position = resourceIds.size();
+                resourcePositions.put(resourceId, position);
+                resourceIds.add(resourceId);
+            }
+            CriterionEntry entry = byCriterion.get(criterionId);
+            if (entry == null) {
+                entry = new CriterionEntry();
+                byCriterion.put(criterionId, entry);
+            }
+            entry.add(position, start, end);
+            return this;
+        }
+
+        public CriterionSatisfactionsIndex build() {
+            long[] ids = new long[resourceIds.size()];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = resourceIds.get(i);
+            }
+            return new CriterionSatisfactionsIndex(ids, byCriterion);
+        }
+    }
+
+    /**
+     * The resources with satisfactions of a criterion and the periods of
+     * them, stored as consecutive start and end epoch days.
+     */
+    private static class CriterionEntry {
+
+        private final BitSet resources = new BitSet();
+
+        private final Map<Integer, int[]> periods = new HashMap<>();
+
+        void add(int resource, int start, int end) {
+            resources.set(resource);
+            int[] previous = periods.get(resource);
+            int[] newPeriods = previous == null ? new int[2] : Arrays.copyOf(previous, previous.length + 2);
+            newPeriods[newPeriods.length - 2] = start;
+            newPeriods[newPeriods.length - 1] = end;
+            periods.put(resource, newPeriods);
+        }
+    }
+
+    private final long[] resourceIds;
+
+    private final Map<Long, CriterionEntry> byCriterion;
+
+    private CriterionSatisfactionsIndex(long[] resourceIds, Map<Long, CriterionEntry> byCriterion) {
+        this.resourceIds = resourceIds;
+        this.byCriterion = byCriterion;
+    }
+
+    /**
+     * @return the ids of the resources that at some day satisfy all the
+     *         criteria. If no criteria are provided no resources are returned
+     */
+    public Set<Long> findSatisfyingAllAtSomePoint(Collection<? extends Criterion> criteria) {
+        if (criteria.isEmpty()) {
+            return Collections.emptySet();
+        }
+        List<List<CriterionEntry>> entries = new ArrayList<>();
+        BitSet candidates = null;
+        for (Criterion each : criteria) {
+            List<CriterionEntry> entriesForCriterion = entriesIncludingDescendants(each);
+            BitSet withSome = new BitSet();
+            for (CriterionEntry entry : entriesForCriterion) {
+                withSome.or(entry.resources);
+            }
+            if (candidates == null) {
+                candidates = withSome;
+            } else {
+                candidates.and(withSome);
+            }
+            entries.add(entriesForCriterion);
+        }
+
+        Set<Long> result = new LinkedHashSet<>();
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            if (entries.size() == 1 || satisfiesAllAtSomePoint(i, entries)) {
+                result.add(resourceIds[i]);
+            }
+        }
+        return result;
+    }
+
+    private List<CriterionEntry> entriesIncludingDescendants(Criterion criterion) {
+        List<CriterionEntry> result = new ArrayList<>();
+        for (Criterion each : Criterion.withAllDescendants(Collections.singleton(criterion))) {
+            CriterionEntry entry = each.getId() != null ? byCriterion.get(each.getId()) : null;
+            if (entry != null) {
+                result.add(entry);
+            }
+        }
+        return result;
+    }
+
+    private static boolean satisfiesAllAtSomePoint(int resource, List<List<CriterionEntry>> entries) {
+        int[] intersection = null;
+        for (List<CriterionEntry> each : entries) {
+            int[] satisfied = union(resource, each);
+            intersection = intersection == null ? satisfied : intersection(intersection, satisfied);
+            if (intersection.length == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the sorted and not overlapping periods in which some of the
+     *         entries is satisfied by the resource
+     */
+    private static int[] union(int resource, List<CriterionEntry> entries) {
+        List<int[]> periods = new ArrayList<>();
+        for (CriterionEntry each : entries) {
+            int[] ofResource = each.periods.get(resource);
+            if (ofResource != null) {
+                for (int i = 0; i < ofResource.length; i += 2) {
+                    periods.add(new int[] { ofResource[i], ofResource[i + 1] });
+                }
+            }
+        }
+        Collections.sort(periods, (a, b) -> Integer.compare(a[0], b[0]));
+        int[] result = new int[periods.size() * 2];
+        int size = 0;
+        for (int[] each : periods) {
+            if (size > 0 && each[0] <= result[size - 1]) {
+                result[size - 1] = Math.max(result[size - 1], each[1]);
+            } else {
+                result[size++] = each[0];
+                result[size++] = each[1];
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    private static int[] intersection(int[] a, int[] b) {
+        int[] result = new int[a.length + b.length];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.length && j < b.length) {
+            int start = Math.max(a[i], b[j]);
+            int end = Math.min(a[i + 1], b[j + 1]);
+            if (start < end) {
+                result[size++] = start;
+                result[size++] = end;
+            }
+            if (a[i + 1] < b[j + 1]) {
+                i += 2;
+            } else {
+                j += 2;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+}
@@ -31,4 +31,10 @@ import org.libreplan.business.resources.entities.CriterionSatisfaction;
 public interface ICriterionSatisfactionDAO
     extends IIntegrationEntityDAO<CriterionSatisfaction> {
 
+    /**
+     * Creates the index of the satisfactions not deleted reading only their
+     * resource, criterion and dates.
+     */
+    CriterionSatisfactionsIndex createSatisfactionsIndex();
+
 }
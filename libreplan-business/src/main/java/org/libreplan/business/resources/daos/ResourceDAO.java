@@ -29,6 +29,7 @@ import java.util.List;
 import org.hibernate.Query;
 import org.hibernate.criterion.Projections;
 import org.hibernate.criterion.Restrictions;
+import org.libreplan.business.common.daos.IIntegrationEntityVisitor;
 import org.libreplan.business.common.daos.IntegrationEntityDAO;
 import org.libreplan.business.labels.entities.Label;
 import org.libreplan.business.reports.dtos.HoursWorkedPerResourceDTO;
@@ -92,6 +93,16 @@ public class ResourceDAO extends IntegrationEntityDAO<Resource> implements IReso
         return list(Resource.class);
     }
 
+    /**
+     * Virtual workers are not visited.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void visitAll(int firstResult, int maxResults, IIntegrationEntityVisitor<Resource> visitor) {
+        visit(getSession().createQuery("FROM Resource r WHERE r NOT IN (FROM VirtualWorker) ORDER BY r.code"),
+                firstResult, maxResults, visitor);
+    }
+
     @SuppressWarnings("unchecked")
     @Override
     public List<Resource> getAllLimitingResources() {
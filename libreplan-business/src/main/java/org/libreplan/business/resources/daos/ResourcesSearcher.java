@@ -43,6 +43,7 @@ import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 import org.libreplan.business.common.IAdHocTransactionService;
 import org.libreplan.business.common.IOnTransaction;
+import org.libreplan.business.hibernate.notification.PredefinedDatabaseSnapshots;
 import org.libreplan.business.resources.entities.Criterion;
 import org.libreplan.business.resources.entities.CriterionType;
 import org.libreplan.business.resources.entities.Machine;
@@ -64,12 +65,17 @@ public class ResourcesSearcher implements IResourcesSearcher {
 
     private static final Log LOG = LogFactory.getLog(ResourcesSearcher.class);
 
+    private static final int MAX_IDS_PER_QUERY = 1000;
+
     @Autowired
     private IAdHocTransactionService adHocTransactionService;
 
     @Autowired
     private SessionFactory sessionFactory;
 
+    @Autowired
+    private PredefinedDatabaseSnapshots databaseSnapshots;
+
     @Override
     public IResourcesQuery<Machine> searchMachines() {
         return new Query<>(Machine.class);
@@ -118,12 +124,52 @@ public class ResourcesSearcher implements IResourcesSearcher {
         public List<T> execute() {
             return adHocTransactionService.runOnReadOnlyTransaction(() -> {
                 Session session = sessionFactory.getCurrentSession();
+                CriterionSatisfactionsIndex index = criteriaSpecified()
+                        ? upToDateIndex(session)
+                        : null;
+                if ( index != null ) {
+                    return findByIds(session, index.findSatisfyingAllAtSomePoint(criteria));
+                }
                 List<T> resources = buildCriteria(session).list();
 
                 return restrictToSatisfyAllCriteria(resources);
             });
         }
 
+        /**
+         * The index is only used if it reflects all the committed modifications and the session has no changes
+         * pending to be flushed, since they wouldn't be seen by it.
+         *
+         * @return <code>null</code> if the query must be used instead
+         */
+        private CriterionSatisfactionsIndex upToDateIndex(Session session) {
+            if ( session.isDirty() ) {
+                return null;
+            }
+
+            return databaseSnapshots.snapshotCriterionSatisfactionsIndex();
+        }
+
+        /**
+         * The resources satisfying the criteria are already known from the
+         * {@link CriterionSatisfactionsIndex}, so only the name and the type
+         * are checked by the database.
+         */
+        @SuppressWarnings("unchecked")
+        private List<T> findByIds(Session session, Collection<Long> ids) {
+            List<T> result = new ArrayList<>();
+            List<Long> pending = new ArrayList<>(ids);
+            for (int i = 0; i < pending.size(); i += MAX_IDS_PER_QUERY) {
+                Criteria byIds = session.createCriteria(klass);
+                byIds.add(eq("resourceType", type));
+                addQueryByName(byIds);
+                byIds.add(in("id", pending.subList(i, Math.min(i + MAX_IDS_PER_QUERY, pending.size()))));
+                result.addAll(byIds.list());
+            }
+
+            return result;
+        }
+
         private Criteria buildCriteria(Session session) {
             Criteria result = session.createCriteria(klass);
             result.add(eq("resourceType", type));
@@ -27,8 +27,11 @@ import static org.libreplan.business.planner.limiting.entities.LimitingResourceQ
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Objects;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
@@ -36,11 +39,11 @@ import java.util.TreeSet;
 import org.libreplan.business.calendars.entities.CalendarAvailability;
 import org.libreplan.business.calendars.entities.ResourceCalendar;
 import org.libreplan.business.common.BaseEntity;
+import org.libreplan.business.planner.limiting.entities.CapacityProfile;
 import org.libreplan.business.planner.limiting.entities.DateAndHour;
 import org.libreplan.business.planner.limiting.entities.Gap;
 import org.libreplan.business.planner.limiting.entities.Gap.GapOnQueue;
 import org.libreplan.business.planner.limiting.entities.GapInterval;
-import org.libreplan.business.planner.limiting.entities.InsertionRequirements;
 import org.libreplan.business.planner.limiting.entities.LimitingResourceQueueElement;
 /**
  *
@@ -56,6 +59,8 @@ public class LimitingResourceQueue extends BaseEntity {
 
     private List<GapOnQueue> cachedGaps;
 
+    private CapacityProfile capacityProfile;
+
     public static Collection<LimitingResourceQueue> queuesOf(
             Collection<LimitingResourceQueueElement> queueElements) {
         Set<LimitingResourceQueue> result = new HashSet<LimitingResourceQueue>();
@@ -84,7 +89,9 @@ public class LimitingResourceQueue extends BaseEntity {
     public void addLimitingResourceQueueElement(LimitingResourceQueueElement element) {
         element.setLimitingResourceQueue(this);
         limitingResourceQueueElements.add(element);
-        invalidCachedGaps();
+        if (cachedGaps != null && !splitCachedGapsBy(element)) {
+            invalidCachedGaps();
+        }
     }
 
     public void removeLimitingResourceQueueElement(LimitingResourceQueueElement element) {
@@ -97,6 +104,18 @@ public class LimitingResourceQueue extends BaseEntity {
         cachedGaps = null;
     }
 
+    /**
+     * @return the accumulated capacity of the calendar of the resource, kept
+     *         while the calendar isn't modified
+     */
+    public CapacityProfile getCapacityProfile() {
+        ResourceCalendar calendar = resource.getCalendar();
+        if (capacityProfile == null || !capacityProfile.isUpToDateFor(calendar)) {
+            capacityProfile = CapacityProfile.create(calendar);
+        }
+        return capacityProfile;
+    }
+
     public List<GapOnQueue> getGaps() {
         if (cachedGaps == null) {
             cachedGaps = calculateGaps();
@@ -107,42 +126,102 @@ public class LimitingResourceQueue extends BaseEntity {
     private List<GapOnQueue> calculateGaps() {
         List<Gap> result = new ArrayList<Gap>();
         DateAndHour previousEnd = null;
-        ResourceCalendar calendar = resource.getCalendar();
-        List<CalendarAvailability> activationPeriods = calendar.getCalendarAvailabilities();
+        List<CalendarAvailability> activationPeriods = resource.getCalendar().getCalendarAvailabilities();
 
         for (LimitingResourceQueueElement each : limitingResourceQueueElements) {
-            DateAndHour startTime = each.getStartTime();
-            if (previousEnd == null || startTime.isAfter(previousEnd)) {
-                List<GapInterval> gapIntervals = GapInterval.
-                        create(previousEnd, startTime).
-                        delimitByActivationPeriods(activationPeriods);
-                if (!gapIntervals.isEmpty()) {
-                    result.addAll(GapInterval.gapsOn(gapIntervals, resource));
-                }
-            }
+            result.addAll(gapsBetween(previousEnd, each.getStartTime(), activationPeriods));
             previousEnd = each.getEndTime();
         }
         result.add(Gap.create(resource, previousEnd, null));
         return GapOnQueue.onQueue(this, result);
     }
 
-    public SortedSet<LimitingResourceQueueElement> getLimitingResourceQueueElements() {
-        return Collections.unmodifiableSortedSet(limitingResourceQueueElements);
+    private List<Gap> gapsBetween(DateAndHour previousEnd, DateAndHour startTime,
+            List<CalendarAvailability> activationPeriods) {
+        List<Gap> result = new ArrayList<Gap>();
+        if (startTime == null) {
+            result.add(Gap.create(resource, previousEnd, null));
+        } else if (previousEnd == null || startTime.isAfter(previousEnd)) {
+            List<GapInterval> gapIntervals = GapInterval.
+                    create(previousEnd, startTime).
+                    delimitByActivationPeriods(activationPeriods);
+            result.addAll(GapInterval.gapsOn(gapIntervals, resource));
+        }
+        return result;
     }
 
     /**
-     * @return the gaps that could potentially be valid for
-     *         <code>requirements</code> ordered by start date
+     * An element added in the free time between its neighbours only splits
+     * the gaps between them, so they are replaced instead of calculating
+     * again all the gaps of the queue. This keeps assigning many elements in
+     * a row linear.
+     *
+     * @return <code>false</code> if the element overlaps its neighbours or the
+     *         gaps between them aren't found, so all of them must be
+     *         calculated again
      */
-    public List<GapOnQueue> getGapsPotentiallyValidFor(
-            InsertionRequirements requirements) {
-        List<GapOnQueue> result = new ArrayList<GapOnQueue>();
-        for (GapOnQueue each : getGaps()) {
-            if (requirements.isPotentiallyValid(each.getGap())) {
-                result.add(each);
+    private boolean splitCachedGapsBy(LimitingResourceQueueElement element) {
+        SortedSet<LimitingResourceQueueElement> before = limitingResourceQueueElements.headSet(element);
+        Iterator<LimitingResourceQueueElement> since = limitingResourceQueueElements.tailSet(element).iterator();
+        if (!since.hasNext() || since.next() != element) {
+            return false;
+        }
+        LimitingResourceQueueElement previous = before.isEmpty() ? null : before.last();
+        LimitingResourceQueueElement next = since.hasNext() ? since.next() : null;
+        DateAndHour previousEnd = previous != null ? previous.getEndTime() : null;
+        DateAndHour nextStart = next != null ? next.getStartTime() : null;
+        if ((previousEnd != null && previousEnd.isAfter(element.getStartTime()))
+                || (nextStart != null && element.getEndTime().isAfter(nextStart))) {
+            return false;
+        }
+
+        List<CalendarAvailability> activationPeriods = resource.getCalendar().getCalendarAvailabilities();
+        List<Gap> replaced = gapsBetween(previousEnd, nextStart, activationPeriods);
+        List<Gap> replacement = gapsBetween(previousEnd, element.getStartTime(), activationPeriods);
+        replacement.addAll(gapsBetween(element.getEndTime(), nextStart, activationPeriods));
+        if (replaced.isEmpty()) {
+            return replacement.isEmpty();
+        }
+
+        int position = positionOf(replaced);
+        if (position < 0) {
+            return false;
+        }
+        cachedGaps.subList(position, position + replaced.size()).clear();
+        cachedGaps.addAll(position, GapOnQueue.onQueue(this, replacement));
+        return true;
+    }
+
+    private int positionOf(List<Gap> gaps) {
+        int position = Collections.binarySearch(cachedGaps, gaps.get(0).onQueue(this), BY_GAP);
+        if (position < 0) {
+            return -1;
+        }
+        while (position > 0 && BY_GAP.compare(cachedGaps.get(position - 1), cachedGaps.get(position)) == 0) {
+            position--;
+        }
+        for (int i = 0; i < gaps.size(); i++) {
+            if (position + i >= cachedGaps.size() || !sameInterval(cachedGaps.get(position + i).getGap(), gaps.get(i))) {
+                return -1;
             }
         }
-        return result;
+        return position;
+    }
+
+    private static final Comparator<GapOnQueue> BY_GAP = new Comparator<GapOnQueue>() {
+
+        @Override
+        public int compare(GapOnQueue a, GapOnQueue b) {
+            return a.getGap().compareTo(b.getGap());
+        }
+    };
+
+    private static boolean sameInterval(Gap a, Gap b) {
+        return Objects.equals(a.getStartTime(), b.getStartTime()) && Objects.equals(a.getEndTime(), b.getEndTime());
+    }
+
+    public SortedSet<LimitingResourceQueueElement> getLimitingResourceQueueElements() {
+        return Collections.unmodifiableSortedSet(limitingResourceQueueElements);
     }
 
     public List<LimitingResourceQueueElement> getElementsAfter(
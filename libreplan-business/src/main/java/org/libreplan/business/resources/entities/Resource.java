@@ -133,7 +133,9 @@ public abstract class Resource extends IntegrationEntity implements IHumanIdenti
 
     private Set<DayAssignment> dayAssignments = new HashSet<DayAssignment>();
 
-    private Map<LocalDate, List<DayAssignment>> assignmentsByDayCached = null;
+    private ResourceLoadLedger loadLedger = null;
+
+    private Scenario loadLedgerScenario = null;
 
     private Set<ResourcesCostCategoryAssignment> resourcesCostCategoryAssignments =
             new HashSet<ResourcesCostCategoryAssignment>();
@@ -142,27 +144,57 @@ public abstract class Resource extends IntegrationEntity implements IHumanIdenti
 
     private LimitingResourceQueue limitingResourceQueue;
 
-    private void clearCachedData() {
-        assignmentsByDayCached = null;
+    private void clearCachedData(Collection<? extends DayAssignment> changed) {
         dayAssignmentsState.clearCachedData();
+        if ( loadLedger != null ) {
+            loadLedger.touched(changed);
+        }
     }
 
-    private List<DayAssignment> getAssignmentsForDay(LocalDate date) {
-        if ( assignmentsByDayCached == null ) {
-            assignmentsByDayCached = DayAssignment.byDay(getAssignments());
+    /**
+     * The ledger is kept for the scenario used when it was created. If the
+     * scenario has changed it's created again, otherwise only the changed day
+     * assignments are checked.
+     */
+    private ResourceLoadLedger getLoadLedger() {
+        if ( loadLedger != null && !loadLedger.hasPendingChanges() ) {
+            return loadLedger;
         }
-        List<DayAssignment> list = assignmentsByDayCached.get(date);
-        if ( list == null ){
-            return Collections.emptyList();
+        final Scenario scenario = dayAssignmentsState.getScenario();
+        ResourceLoadLedger.IAssignmentsFilter filter = new ResourceLoadLedger.IAssignmentsFilter() {
+
+            @Override
+            public boolean accepts(DayAssignment dayAssignment) {
+                return dayAssignmentsState.accepts(dayAssignment, scenario);
+            }
+        };
+        if ( loadLedger == null || loadLedgerScenario != scenario ) {
+            loadLedger = ResourceLoadLedger.create(dayAssignments, filter);
+            loadLedgerScenario = scenario;
+        } else {
+            loadLedger.applyPendingChanges(dayAssignments, filter);
         }
-        return list;
+        return loadLedger;
     }
 
     private abstract class DayAssignmentsState {
 
         private List<DayAssignment> cachedAssignments;
 
-        abstract List<DayAssignment> calculateAssignments();
+        abstract Scenario getScenario();
+
+        abstract boolean accepts(DayAssignment dayAssignment, Scenario scenario);
+
+        List<DayAssignment> calculateAssignments() {
+            List<DayAssignment> result = new ArrayList<DayAssignment>();
+            Scenario scenario = getScenario();
+            for (DayAssignment each : dayAssignments) {
+                if ( accepts(each, scenario) ) {
+                    result.add(each);
+                }
+            }
+            return result;
+        }
 
         List<DayAssignment> getAssignments() {
             if ( cachedAssignments != null ) {
@@ -179,15 +211,13 @@ public abstract class Resource extends IntegrationEntity implements IHumanIdenti
     private class UsingScenarioManager extends DayAssignmentsState {
 
         @Override
-        List<DayAssignment> calculateAssignments() {
-            List<DayAssignment> result = new ArrayList<DayAssignment>();
-            Scenario current = Registry.getScenarioManager().getCurrent();
-            for (DayAssignment each : dayAssignments) {
-                if ( each.getScenario() != null && each.getScenario().equals(current) ) {
-                    result.add(each);
-                }
-            }
-            return result;
+        Scenario getScenario() {
+            return Registry.getScenarioManager().getCurrent();
+        }
+
+        @Override
+        boolean accepts(DayAssignment dayAssignment, Scenario current) {
+            return dayAssignment.getScenario() != null && dayAssignment.getScenario().equals(current);
         }
     }
 
@@ -200,14 +230,13 @@ public abstract class Resource extends IntegrationEntity implements IHumanIdenti
         }
 
         @Override
-        List<DayAssignment> calculateAssignments() {
-            List<DayAssignment> result = new ArrayList<DayAssignment>();
-            for (DayAssignment each : dayAssignments) {
-                if ( isTransient(each) || each.getScenario().equals(currentScenario) ) {
-                    result.add(each);
-                }
-            }
-            return result;
+        Scenario getScenario() {
+            return currentScenario;
+        }
+
+        @Override
+        boolean accepts(DayAssignment dayAssignment, Scenario scenario) {
+            return isTransient(dayAssignment) || dayAssignment.getScenario().equals(scenario);
         }
 
         private boolean isTransient(DayAssignment each) {
@@ -844,33 +873,26 @@ public abstract class Resource extends IntegrationEntity implements IHumanIdenti
     }
 
     public EffortDuration getAssignedEffort(LocalDate localDate) {
-        return DayAssignment.sum(getAssignmentsForDay(localDate));
+        return getLoadLedger().getAssignedEffort(localDate);
     }
 
     public EffortDuration getAssignedDurationDiscounting(
             Map<Long, Set<BaseEntity>> allocationsFromWhichDiscountHours,
             LocalDate day) {
 
-        EffortDuration result = zero();
-        for (DayAssignment dayAssignment : getAssignmentsForDay(day)) {
-
-            if ( !dayAssignment.belongsToSomeOf(allocationsFromWhichDiscountHours) ) {
-                result = result.plus(dayAssignment.getDuration());
-            }
-        }
-        return result;
+        return getLoadLedger().getAssignedEffortDiscounting(allocationsFromWhichDiscountHours, day);
     }
 
     public void addNewAssignments(Collection<? extends DayAssignment> assignments) {
         Validate.notNull(assignments);
         Validate.noNullElements(assignments);
-        clearCachedData();
+        clearCachedData(assignments);
         this.dayAssignments.addAll(assignments);
     }
 
     public void removeAssignments(Collection<? extends DayAssignment> assignments) {
         Validate.noNullElements(assignments);
-        clearCachedData();
+        clearCachedData(assignments);
         this.dayAssignments.removeAll(assignments);
     }
 
@@ -880,6 +902,27 @@ public abstract class Resource extends IntegrationEntity implements IHumanIdenti
 
     public void useScenario(Scenario scenario) {
         dayAssignmentsState = new OnSpecifiedScenario(scenario);
+        loadLedger = null;
+    }
+
+    /**
+     * Like {@link #useScenario(Scenario)} if the current scenario of the
+     * scenario manager is being used.
+     */
+    public void useScenarioIfNotSpecified(Scenario scenario) {
+        if ( dayAssignmentsState instanceof UsingScenarioManager ) {
+            useScenario(scenario);
+        }
+    }
+
+    /**
+     * Calculates the assignments and the load ledger now instead of when they
+     * are first needed. Then, while the resource isn't modified, they can be
+     * read from several threads.
+     */
+    public void prepareAssignedEffort() {
+        getAssignments();
+        getLoadLedger();
     }
 
     public int getTotalWorkHours(LocalDate start, LocalDate end) {
@@ -913,6 +956,10 @@ public abstract class Resource extends IntegrationEntity implements IHumanIdenti
                                              IntraDayDate startInclusive, IntraDayDate endExclusive,
                                              final ICriterion criterionToSatisfy) {
 
+        if (criterionToSatisfy == null) {
+            return calendar.getCapacityBetween(startInclusive, endExclusive);
+        }
+
         Iterable<PartialDay> daysBetween = startInclusive
                 .daysUntil(endExclusive);
 
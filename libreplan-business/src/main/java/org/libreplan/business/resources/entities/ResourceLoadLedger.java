@@ -0,0 +1,285 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.business.resources.entities;
+
+import static org.libreplan.business.calendars.entities.CalendarCapacityIndex.toEpochDay;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.joda.time.LocalDate;
+import org.libreplan.business.common.BaseEntity;
+import org.libreplan.business.planner.entities.DayAssignment;
+import org.libreplan.business.workingday.EffortDuration;
+
+/**
+ * <p>
+ * The effort assigned to a {@link Resource} day by day, kept in primitive
+ * arrays indexed by day: one with the total and one for each allocation with
+ * its contribution. So the effort assigned on a day, discounting some
+ * allocations or not, is known without traversing the day assignments.
+ * </p>
+ * <p>
+ * It's updated incrementally: the resource notifies the day assignments added
+ * or removed and, before the next query, only those are checked again against
+ * its current day assignments. The day assignments without scenario when they
+ * were checked are checked again too, since they could be excluded or
+ * included once they are put on a container, as it happens when rebuilding
+ * the list of day assignments of the resource.
+ * </p>
+ */
+class ResourceLoadLedger {
+
+    interface IAssignmentsFilter {
+
+        boolean accepts(DayAssignment dayAssignment);
+
+    }
+
+    static ResourceLoadLedger create(Collection<? extends DayAssignment> dayAssignments,
+                                     IAssignmentsFilter filter) {
+        ResourceLoadLedger result = new ResourceLoadLedger();
+        for (DayAssignment each : dayAssignments) {
+            result.track(each, filter);
+        }
+        return result;
+    }
+
+    private final DailySeconds total = new DailySeconds();
+
+    private final Map<DayAssignment, Tracked> tracked = new IdentityHashMap<>();
+
+    private final Map<BaseEntity, DailySeconds> byAllocation = new IdentityHashMap<>();
+
+    /**
+     * Included day assignments whose allocation wasn't known when they were
+     * tracked.
+     */
+    private final Set<DayAssignment> withoutAllocation = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /**
+     * Tracked day assignments that had no scenario when they were checked.
+     */
+    private final Set<DayAssignment> withoutScenario = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    private final Set<DayAssignment> touched = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    private Map<Long, Set<BaseEntity>> lastDiscounted;
+
+    private List<DailySeconds> lastDiscountedContributions;
+
+    private ResourceLoadLedger() {
+    }
+
+    void touched(Collection<? extends DayAssignment> dayAssignments) {
+        touched.addAll(dayAssignments);
+    }
+
+    boolean hasPendingChanges() {
+        return !touched.isEmpty();
+    }
+
+    /**
+     * @param current
+     *            all the day assignments of the resource, the touched ones
+     *            not contained are no longer tracked
+     */
+    void applyPendingChanges(Set<? extends DayAssignment> current, IAssignmentsFilter filter) {
+        List<DayAssignment> toCheck = new ArrayList<>(touched);
+        for (DayAssignment each : withoutScenario) {
+            if (each.getScenario() != null && !touched.contains(each)) {
+                toCheck.add(each);
+            }
+        }
+        touched.clear();
+        for (DayAssignment each : toCheck) {
+            untrack(each);
+            if (current.contains(each)) {
+                track(each, filter);
+            }
+        }
+    }
+
+    private void track(DayAssignment dayAssignment, IAssignmentsFilter filter) {
+        if (tracked.containsKey(dayAssignment)) {
+            return;
+        }
+        if (dayAssignment.getScenario() == null) {
+            withoutScenario.add(dayAssignment);
+        }
+        if (!filter.accepts(dayAssignment)) {
+            tracked.put(dayAssignment, Tracked.EXCLUDED);
+            return;
+        }
+        Tracked entry = new Tracked(toEpochDay(dayAssignment.getDay()), dayAssignment.getDuration().getSeconds(),
+                dayAssignment.getParentAllocation());
+        tracked.put(dayAssignment, entry);
+        total.add(entry.day, entry.seconds);
+        if (entry.allocation == null) {
+            withoutAllocation.add(dayAssignment);
+        } else {
+            contributionOf(entry.allocation).add(entry.day, entry.seconds);
+        }
+    }
+
+    private void untrack(DayAssignment dayAssignment) {
+        withoutScenario.remove(dayAssignment);
+        Tracked entry = tracked.remove(dayAssignment);
+        if (entry == null || entry == Tracked.EXCLUDED) {
+            return;
+        }
+        total.add(entry.day, -entry.seconds);
+        if (entry.allocation == null) {
+            withoutAllocation.remove(dayAssignment);
+        } else {
+            contributionOf(entry.allocation).add(entry.day, -entry.seconds);
+        }
+    }
+
+    private DailySeconds contributionOf(BaseEntity allocation) {
+        DailySeconds result = byAllocation.get(allocation);
+        if (result == null) {
+            result = new DailySeconds();
+            byAllocation.put(allocation, result);
+            lastDiscounted = null;
+        }
+        return result;
+    }
+
+    EffortDuration getAssignedEffort(LocalDate day) {
+        return EffortDuration.seconds(total.get(toEpochDay(day)));
+    }
+
+    /**
+     * It's synchronized since it updates the contributions kept for the last
+     * allocations asked for.
+     *
+     * @param allocationsFromWhichDiscount
+     *            the allocations grouped by id as returned by
+     *            {@link BaseEntity#byId(Collection)}
+     */
+    synchronized EffortDuration getAssignedEffortDiscounting(Map<Long, Set<BaseEntity>> allocationsFromWhichDiscount,
+                                                LocalDate day) {
+        int epochDay = toEpochDay(day);
+        int result = total.get(epochDay);
+        for (DailySeconds each : contributionsOf(allocationsFromWhichDiscount)) {
+            result -= each.get(epochDay);
+        }
+        return EffortDuration.seconds(result);
+    }
+
+    /**
+     * The same map is usually asked for each day of an allocation, so the
+     * contributions found for the last one are kept while no allocation is
+     * added to the ledger.
+     */
+    private List<DailySeconds> contributionsOf(Map<Long, Set<BaseEntity>> allocations) {
+        resolveAllocations();
+        if (allocations == lastDiscounted) {
+            return lastDiscountedContributions;
+        }
+        List<DailySeconds> result = new ArrayList<>();
+        for (Entry<BaseEntity, DailySeconds> each : byAllocation.entrySet()) {
+            if (DayAssignment.isSomeOf(each.getKey(), allocations)) {
+                result.add(each.getValue());
+            }
+        }
+        lastDiscounted = allocations;
+        lastDiscountedContributions = result;
+        return result;
+    }
+
+    private void resolveAllocations() {
+        for (Iterator<DayAssignment> iterator = withoutAllocation.iterator(); iterator.hasNext();) {
+            DayAssignment each = iterator.next();
+            BaseEntity allocation = each.getParentAllocation();
+            if (allocation != null) {
+                Tracked previous = tracked.get(each);
+                Tracked entry = new Tracked(previous.day, previous.seconds, allocation);
+                tracked.put(each, entry);
+                contributionOf(allocation).add(entry.day, entry.seconds);
+                iterator.remove();
+            }
+        }
+    }
+
+    private static class Tracked {
+
+        static final Tracked EXCLUDED = new Tracked(0, 0, null);
+
+        final int day;
+
+        final int seconds;
+
+        final BaseEntity allocation;
+
+        Tracked(int day, int seconds, BaseEntity allocation) {
+            this.day = day;
+            this.seconds = seconds;
+            this.allocation = allocation;
+        }
+    }
+
+    /**
+     * Seconds by epoch day. The array grows as needed to include the days
+     * added.
+     */
+    private static class DailySeconds {
+
+        private static final int INITIAL_DAYS = 64;
+
+        private int start;
+
+        private int[] seconds;
+
+        int get(int day) {
+            int index = day - start;
+            return seconds == null || index < 0 || index >= seconds.length ? 0 : seconds[index];
+        }
+
+        void add(int day, int value) {
+            if (seconds == null) {
+                start = day - INITIAL_DAYS / 2;
+                seconds = new int[INITIAL_DAYS];
+            } else if (day < start || day >= start + seconds.length) {
+                growToInclude(day);
+            }
+            seconds[day - start] += value;
+        }
+
+        private void growToInclude(int day) {
+            int end = Math.max(start + seconds.length, day + 1);
+            int length = Math.max(end - Math.min(start, day), seconds.length * 2);
+            int newStart = day < start ? end - length : start;
+            int[] newSeconds = new int[length];
+            System.arraycopy(seconds, 0, newSeconds, start - newStart, seconds.length);
+            start = newStart;
+            seconds = newSeconds;
+        }
+    }
+
+}
@@ -0,0 +1,171 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.business.common;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link CoalescingExecutor}.
+ */
+public class CoalescingExecutorTest {
+
+    private static final long TIMEOUT_SECONDS = 10;
+
+    private static Runnable waitingFor(final CountDownLatch started, final CountDownLatch release) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                started.countDown();
+                await(release);
+            }
+        };
+    }
+
+    private static Runnable counting(final AtomicInteger counter, final CountDownLatch done) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                counter.incrementAndGet();
+                done.countDown();
+            }
+        };
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Test
+    public void theTasksOfAKeyWaitingToStartAreMerged() {
+        CoalescingExecutor<String> executor = new CoalescingExecutor<>(1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.execute("busy", waitingFor(started, release));
+        await(started);
+
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(1);
+        assertTrue(executor.execute("order", counting(runs, done)));
+        assertFalse(executor.execute("order", counting(runs, done)));
+        assertFalse(executor.execute("order", counting(runs, done)));
+        assertEquals(1, executor.getPending());
+
+        release.countDown();
+        await(done);
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    public void aTaskRequestedWhileTheKeyIsRunningStartsAfterIt() throws Exception {
+        CoalescingExecutor<String> executor = new CoalescingExecutor<>(2);
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+
+        executor.execute("order", new Runnable() {
+            @Override
+            public void run() {
+                maxRunning.set(Math.max(maxRunning.get(), running.incrementAndGet()));
+                started.countDown();
+                await(release);
+                running.decrementAndGet();
+            }
+        });
+        await(started);
+
+        final CountDownLatch done = new CountDownLatch(1);
+        assertTrue(executor.execute("order", new Runnable() {
+            @Override
+            public void run() {
+                maxRunning.set(Math.max(maxRunning.get(), running.incrementAndGet()));
+                running.decrementAndGet();
+                done.countDown();
+            }
+        }));
+        assertEquals(1, executor.getPending());
+
+        Thread.sleep(100);
+        assertEquals(1, done.getCount());
+
+        release.countDown();
+        await(done);
+        assertEquals(1, maxRunning.get());
+    }
+
+    @Test
+    public void theTasksOfDifferentKeysRunInParallel() {
+        CoalescingExecutor<String> executor = new CoalescingExecutor<>(2);
+        final CyclicBarrier barrier = new CyclicBarrier(2);
+        final CountDownLatch done = new CountDownLatch(2);
+        Runnable waitingForTheOther = new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    barrier.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                    done.countDown();
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        };
+
+        executor.execute("order1", waitingForTheOther);
+        executor.execute("order2", waitingForTheOther);
+
+        await(done);
+        assertEquals(0, executor.getPending());
+    }
+
+    @Test
+    public void aTaskCanScheduleAnotherOneForItsKey() {
+        final CoalescingExecutor<String> executor = new CoalescingExecutor<>(1);
+        final AtomicInteger runs = new AtomicInteger();
+        final CountDownLatch done = new CountDownLatch(2);
+
+        executor.execute("order", new Runnable() {
+            @Override
+            public void run() {
+                runs.incrementAndGet();
+                done.countDown();
+                if ( runs.get() < 2 ) {
+                    executor.schedule("order", this, 10);
+                }
+            }
+        });
+
+        await(done);
+        assertEquals(2, runs.get());
+    }
+
+}
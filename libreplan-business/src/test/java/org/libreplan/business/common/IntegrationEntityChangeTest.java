@@ -0,0 +1,120 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.business.common;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.libreplan.business.common.entities.IntegrationEntityChange;
+import org.libreplan.business.common.entities.IntegrationEntityChange.Type;
+import org.libreplan.business.orders.entities.Order;
+import org.libreplan.business.orders.entities.OrderLine;
+import org.libreplan.business.resources.entities.VirtualWorker;
+import org.libreplan.business.test.planner.entities.TaskTest;
+import org.libreplan.business.resources.entities.Worker;
+import org.libreplan.business.workreports.entities.WorkReport;
+import org.libreplan.business.workreports.entities.WorkReportLine;
+
+/**
+ * Tests for {@link IntegrationEntityChange}.
+ */
+public class IntegrationEntityChangeTest {
+
+    @Test
+    public void anOrderIsRecordedWithItsCode() {
+        IntegrationEntityChange change = IntegrationEntityChange.of(Order.createUnvalidated("order"), true);
+
+        assertEquals(Type.ORDER, change.getType());
+        assertEquals("order", change.getCode());
+        assertTrue(change.isDeleted());
+        assertNull(change.getId());
+    }
+
+    @Test
+    public void aModifiedOrderLineIsRecordedAsAModificationOfItsOrder() {
+        Order order = Order.createUnvalidated("order");
+        order.useSchedulingDataFor(TaskTest.mockOrderVersion());
+        OrderLine line = OrderLine.createUnvalidated("line");
+        order.add(line);
+
+        IntegrationEntityChange change = IntegrationEntityChange.of(line, true);
+
+        assertEquals(Type.ORDER, change.getType());
+        assertEquals("order", change.getCode());
+        assertFalse(change.isDeleted());
+    }
+
+    @Test
+    public void anOrderLineWithoutOrderIsNotRecorded() {
+        assertNull(IntegrationEntityChange.of(OrderLine.createUnvalidated("line"), false));
+    }
+
+    @Test
+    public void virtualWorkersAreNotRecorded() {
+        assertNull(IntegrationEntityChange.of(VirtualWorker.create("virtual"), false));
+        assertEquals(Type.RESOURCE, IntegrationEntityChange.of(Worker.create("worker"), false).getType());
+    }
+
+    @Test
+    public void aWorkReportLineIsRecordedAsAModificationOfItsWorkReport() {
+        WorkReport workReport = WorkReport.create();
+        workReport.setCode("report");
+
+        IntegrationEntityChange change = IntegrationEntityChange.of(WorkReportLine.create(workReport), false);
+
+        assertEquals(Type.WORK_REPORT, change.getType());
+        assertEquals("report", change.getCode());
+    }
+
+    @Test
+    public void aChangedCodeIsRecordedAsADeletionOfTheOldCode() {
+        IntegrationEntityChange change = IntegrationEntityChange.ofCodeChange(Worker.create("new"), "old");
+
+        assertEquals(Type.RESOURCE, change.getType());
+        assertEquals("old", change.getCode());
+        assertTrue(change.isDeleted());
+    }
+
+    @Test
+    public void anUnchangedCodeIsNotRecordedAsADeletion() {
+        assertNull(IntegrationEntityChange.ofCodeChange(Order.createUnvalidated("order"), "order"));
+        assertNull(IntegrationEntityChange.ofCodeChange(Order.createUnvalidated("order"), null));
+    }
+
+    @Test
+    public void aChangedCodeOfAWorkReportLineIsNotRecordedAsADeletion() {
+        WorkReport workReport = WorkReport.create();
+        workReport.setCode("report");
+        WorkReportLine line = WorkReportLine.create(workReport);
+        line.setCode("new");
+
+        assertNull(IntegrationEntityChange.ofCodeChange(line, "old"));
+    }
+
+    @Test
+    public void otherEntitiesAreNotRecorded() {
+        assertNull(IntegrationEntityChange.of(new Object(), false));
+        assertNull(IntegrationEntityChange.ofCodeChange(new Object(), "old"));
+    }
+
+}
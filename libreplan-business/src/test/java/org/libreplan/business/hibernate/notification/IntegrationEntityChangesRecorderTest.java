@@ -0,0 +1,186 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.business.hibernate.notification;
+
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.expectLastCall;
+import static org.easymock.EasyMock.replay;
+import static org.junit.Assert.assertEquals;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.easymock.EasyMock;
+import org.easymock.IAnswer;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.ActionQueue;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.jdbc.Work;
+import org.hibernate.persister.entity.EntityPersister;
+import org.junit.Before;
+import org.junit.Test;
+import org.libreplan.business.orders.entities.InfoComponentWithCode;
+import org.libreplan.business.orders.entities.Order;
+import org.libreplan.business.resources.entities.Worker;
+
+/**
+ * Tests for {@link IntegrationEntityChangesRecorder}. The Hibernate events are
+ * built by hand and the statements run before completion are recorded
+ * instead of being sent to a database.
+ */
+public class IntegrationEntityChangesRecorderTest {
+
+    private interface SessionEventSource extends EventSource, Session {
+    }
+
+    private final IntegrationEntityChangesRecorder recorder = new IntegrationEntityChangesRecorder();
+
+    private final List<String> executed = new ArrayList<>();
+
+    private SessionEventSource session;
+
+    private ActionQueue actionQueue;
+
+    @Before
+    public void createSession() {
+        session = createNiceMock(SessionEventSource.class);
+        actionQueue = new ActionQueue(session);
+        expect(session.getActionQueue()).andReturn(actionQueue).anyTimes();
+        session.doWork(anyObject(Work.class));
+        expectLastCall().andAnswer(new IAnswer<Object>() {
+            @Override
+            public Object answer() throws Throwable {
+                ((Work) EasyMock.getCurrentArguments()[0]).execute(connection());
+                return null;
+            }
+        }).anyTimes();
+        replay(session);
+    }
+
+    private Connection connection() {
+        return proxy(Connection.class, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                if ( method.getName().equals("createStatement") ) {
+                    return statement();
+                }
+                if ( method.getName().equals("prepareStatement") ) {
+                    return insertStatement();
+                }
+                return null;
+            }
+        });
+    }
+
+    private Statement statement() {
+        return proxy(Statement.class, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                if ( method.getName().equals("executeUpdate") ) {
+                    executed.add(((String) args[0]).endsWith("SET last_id = last_id")
+                            ? "lock head" : "update head");
+                    return 1;
+                }
+                return null;
+            }
+        });
+    }
+
+    private PreparedStatement insertStatement() {
+        final Object[] row = new Object[3];
+        return proxy(PreparedStatement.class, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                if ( method.getName().equals("setString") || method.getName().equals("setBoolean") ) {
+                    row[(Integer) args[0] - 1] = args[1];
+                } else if ( method.getName().equals("addBatch") ) {
+                    executed.add(row[0] + " " + row[1] + (Boolean.TRUE.equals(row[2]) ? " deleted" : ""));
+                } else if ( method.getName().equals("executeBatch") ) {
+                    return new int[0];
+                }
+                return null;
+            }
+        });
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(IntegrationEntityChangesRecorderTest.class.getClassLoader(),
+                new Class<?>[] { type }, handler));
+    }
+
+    private void update(Object entity, String[] propertyNames, Object[] oldState) {
+        EntityPersister persister = createNiceMock(EntityPersister.class);
+        expect(persister.getPropertyNames()).andReturn(propertyNames).anyTimes();
+        replay(persister);
+        recorder.onPostUpdate(new PostUpdateEvent(entity, 1L, null, oldState, null, persister, session));
+    }
+
+    private static InfoComponentWithCode infoComponentWithCode(String code) {
+        InfoComponentWithCode result = new InfoComponentWithCode();
+        result.setCode(code);
+        return result;
+    }
+
+    private List<String> commit() {
+        actionQueue.beforeTransactionCompletion();
+        return executed;
+    }
+
+    @Test
+    public void theOldCodeOfARenamedOrderIsRecordedAsDeleted() {
+        update(Order.createUnvalidated("new"), new String[] { "infoComponent", "initDate" },
+                new Object[] { infoComponentWithCode("old"), null });
+
+        assertEquals(Arrays.asList("lock head", "ORDER old deleted", "ORDER new", "update head"), commit());
+    }
+
+    @Test
+    public void theOldCodeOfARenamedResourceIsRecordedAsDeleted() {
+        update(Worker.create("new"), new String[] { "code" }, new Object[] { "old" });
+
+        assertEquals(Arrays.asList("lock head", "RESOURCE old deleted", "RESOURCE new", "update head"), commit());
+    }
+
+    @Test
+    public void anOrderKeepingItsCodeIsRecordedAsModified() {
+        update(Order.createUnvalidated("order"), new String[] { "infoComponent" },
+                new Object[] { infoComponentWithCode("order") });
+
+        assertEquals(Arrays.asList("lock head", "ORDER order", "update head"), commit());
+    }
+
+    @Test
+    public void withoutOldStateTheEntityIsRecordedAsModified() {
+        update(Worker.create("worker"), new String[] { "code" }, null);
+
+        assertEquals(Arrays.asList("lock head", "RESOURCE worker", "update head"), commit());
+    }
+
+}
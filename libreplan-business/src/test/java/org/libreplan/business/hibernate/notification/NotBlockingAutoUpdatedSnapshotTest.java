@@ -0,0 +1,235 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.business.hibernate.notification;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.ref.WeakReference;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Tests for {@link NotBlockingAutoUpdatedSnapshot}.
+ */
+public class NotBlockingAutoUpdatedSnapshotTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    @After
+    public void shutdownExecutor() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void aQueuedCalculationDoesNotKeepAThreadWaiting() throws Exception {
+        final CountDownLatch slowStarted = new CountDownLatch(1);
+        final CountDownLatch releaseSlow = new CountDownLatch(1);
+        final AtomicInteger slowCalculations = new AtomicInteger();
+        NotBlockingAutoUpdatedSnapshot<Integer> slow = new NotBlockingAutoUpdatedSnapshot<Integer>("slow",
+                SnapshotPriority.LOW, new Callable<Integer>() {
+
+                    @Override
+                    public Integer call() throws Exception {
+                        slowStarted.countDown();
+                        releaseSlow.await();
+                        return slowCalculations.incrementAndGet();
+                    }
+                }, null);
+
+        slow.reloadNeeded(executor);
+        assertTrue(slowStarted.await(5, TimeUnit.SECONDS));
+        slow.reloadNeeded(executor);
+
+        final CountDownLatch fastDone = new CountDownLatch(1);
+        NotBlockingAutoUpdatedSnapshot<Integer> fast = new NotBlockingAutoUpdatedSnapshot<Integer>("fast",
+                SnapshotPriority.LOW, new Callable<Integer>() {
+
+                    @Override
+                    public Integer call() {
+                        fastDone.countDown();
+                        return 1;
+                    }
+                }, null);
+        fast.reloadNeeded(executor);
+
+        assertTrue(fastDone.await(5, TimeUnit.SECONDS));
+        assertEquals(Integer.valueOf(1), fast.getValue());
+
+        releaseSlow.countDown();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (slow.getValue() != 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(Integer.valueOf(2), slow.getValue());
+        assertEquals(2, slowCalculations.get());
+    }
+
+    @Test
+    public void theValueIsNotUpToDateWhileItIsBeingRecalculated() throws Exception {
+        final CountDownLatch releaseSecond = new CountDownLatch(1);
+        final AtomicInteger calculations = new AtomicInteger();
+        NotBlockingAutoUpdatedSnapshot<Integer> snapshot = new NotBlockingAutoUpdatedSnapshot<Integer>("snapshot",
+                SnapshotPriority.LOW, new Callable<Integer>() {
+
+                    @Override
+                    public Integer call() throws Exception {
+                        int result = calculations.incrementAndGet();
+                        if (result > 1) {
+                            releaseSecond.await();
+                        }
+                        return result;
+                    }
+                }, null);
+
+        assertNull(snapshot.getValueIfUpToDate());
+        snapshot.reloadNeeded(executor);
+        assertEquals(Integer.valueOf(1), snapshot.getValue());
+        assertEquals(Integer.valueOf(1), snapshot.getValueIfUpToDate());
+
+        snapshot.reloadNeeded(executor);
+        assertEquals(Integer.valueOf(1), snapshot.getValue());
+        assertNull(snapshot.getValueIfUpToDate());
+
+        releaseSecond.countDown();
+        assertEquals(Integer.valueOf(2), waitUpToDateValue(snapshot));
+    }
+
+    @Test
+    public void theValueIsNotUpToDateWhileAModificationIsPending() throws Exception {
+        final AtomicInteger calculations = new AtomicInteger();
+        NotBlockingAutoUpdatedSnapshot<Integer> snapshot = new NotBlockingAutoUpdatedSnapshot<Integer>("snapshot",
+                SnapshotPriority.LOW, new Callable<Integer>() {
+
+                    @Override
+                    public Integer call() {
+                        return calculations.incrementAndGet();
+                    }
+                }, null);
+        snapshot.reloadNeeded(executor);
+        assertEquals(Integer.valueOf(1), waitUpToDateValue(snapshot));
+
+        snapshot.modificationPending();
+        assertNull(snapshot.getValueIfUpToDate());
+        assertEquals(Integer.valueOf(1), snapshot.getValue());
+
+        snapshot.reloadNeeded(executor);
+        snapshot.modificationCompleted();
+        assertEquals(Integer.valueOf(2), waitUpToDateValue(snapshot));
+    }
+
+    @Test
+    public void theValueIsNotUpToDateIfItsCalculationFailed() throws Exception {
+        final AtomicInteger calculations = new AtomicInteger();
+        NotBlockingAutoUpdatedSnapshot<Integer> snapshot = new NotBlockingAutoUpdatedSnapshot<Integer>("snapshot",
+                SnapshotPriority.LOW, new Callable<Integer>() {
+
+                    @Override
+                    public Integer call() {
+                        if (calculations.incrementAndGet() > 1) {
+                            throw new IllegalStateException();
+                        }
+                        return 1;
+                    }
+                }, null);
+        snapshot.reloadNeeded(executor);
+        assertEquals(Integer.valueOf(1), waitUpToDateValue(snapshot));
+
+        snapshot.reloadNeeded(executor);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (calculations.get() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(50);
+        assertNull(snapshot.getValueIfUpToDate());
+        assertEquals(Integer.valueOf(1), snapshot.getValue());
+        assertNull(snapshot.getValueIfUpToDate());
+    }
+
+    @Test
+    public void aBurstOfCalculationsDoesNotKeepThePreviousValues() throws Exception {
+        final int burst = 200;
+        final Semaphore started = new Semaphore(0);
+        final Semaphore finish = new Semaphore(0);
+        final List<WeakReference<Object>> values = new CopyOnWriteArrayList<WeakReference<Object>>();
+        NotBlockingAutoUpdatedSnapshot<Object> snapshot = new NotBlockingAutoUpdatedSnapshot<Object>("snapshot",
+                SnapshotPriority.LOW, new Callable<Object>() {
+
+                    @Override
+                    public Object call() throws Exception {
+                        started.release();
+                        finish.acquire();
+                        Object result = new Object();
+                        values.add(new WeakReference<Object>(result));
+                        return result;
+                    }
+                }, null);
+
+        // Each calculation is requested while the previous one is running
+        snapshot.reloadNeeded(executor);
+        for (int i = 1; i < burst; i++) {
+            assertTrue(started.tryAcquire(5, TimeUnit.SECONDS));
+            snapshot.reloadNeeded(executor);
+            finish.release();
+        }
+        assertTrue(started.tryAcquire(5, TimeUnit.SECONDS));
+        finish.release();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (values.size() < burst && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(burst, values.size());
+
+        // Until the value is read, the last state keeps the two previous ones
+        int kept = burst;
+        for (int i = 0; i < 10 && kept > 3; i++) {
+            System.gc();
+            Thread.sleep(10);
+            kept = 0;
+            for (WeakReference<Object> each : values) {
+                kept += each.get() != null ? 1 : 0;
+            }
+        }
+        assertTrue("values kept: " + kept, kept <= 3);
+    }
+
+    private static Integer waitUpToDateValue(NotBlockingAutoUpdatedSnapshot<Integer> snapshot)
+            throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        Integer result = snapshot.getValueIfUpToDate();
+        while (result == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            result = snapshot.getValueIfUpToDate();
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,232 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.business.hibernate.notification;
+
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.expectLastCall;
+import static org.easymock.EasyMock.replay;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.easymock.EasyMock;
+import org.easymock.IAnswer;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.ActionQueue;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.jdbc.Work;
+import org.hibernate.persister.entity.EntityPersister;
+import org.junit.Before;
+import org.junit.Test;
+import org.libreplan.business.common.BaseEntity;
+import org.libreplan.business.costcategories.entities.CostCategory;
+import org.libreplan.business.costcategories.entities.HourCost;
+import org.libreplan.business.costcategories.entities.ResourcesCostCategoryAssignment;
+import org.libreplan.business.costcategories.entities.TypeOfWorkHours;
+import org.libreplan.business.planner.entities.Task;
+import org.libreplan.business.resources.entities.Worker;
+
+/**
+ * Tests for {@link TaskDayAggregatesInvalidator}. The Hibernate events are
+ * built by hand and the deletions run before completion are recorded instead
+ * of being sent to a database.
+ */
+public class TaskDayAggregatesInvalidatorTest {
+
+    private interface SessionEventSource extends EventSource, Session {
+    }
+
+    private final TaskDayAggregatesInvalidator invalidator = new TaskDayAggregatesInvalidator();
+
+    private final List<String> executed = new ArrayList<>();
+
+    private SessionEventSource session;
+
+    private ActionQueue actionQueue;
+
+    @Before
+    public void createSession() {
+        session = createNiceMock(SessionEventSource.class);
+        actionQueue = new ActionQueue(session);
+        expect(session.getActionQueue()).andReturn(actionQueue).anyTimes();
+        session.doWork(anyObject(Work.class));
+        expectLastCall().andAnswer(new IAnswer<Object>() {
+            @Override
+            public Object answer() throws Throwable {
+                ((Work) EasyMock.getCurrentArguments()[0]).execute(connection());
+                return null;
+            }
+        }).anyTimes();
+        replay(session);
+    }
+
+    private Connection connection() {
+        return proxy(Connection.class, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                if ( method.getName().equals("prepareStatement") ) {
+                    return deleteStatement(describe((String) args[0]));
+                }
+                return null;
+            }
+        });
+    }
+
+    /**
+     * @return the kind of container and the id the tasks are selected by
+     */
+    private static String describe(String sql) {
+        if ( sql.endsWith("WHERE task_id = ?") ) {
+            return "task";
+        }
+        String container = sql.contains("specific_day_assignments_container") ? "specific" : "generic";
+        if ( sql.contains("type_of_work_hours_id = ?") ) {
+            return container + " type";
+        }
+        if ( sql.contains("cost_category_id = ?") ) {
+            return container + " category";
+        }
+        assertTrue(sql.endsWith("da.resource_id IN (?))"));
+        return container + " resource";
+    }
+
+    private PreparedStatement deleteStatement(final String description) {
+        final Object[] id = new Object[1];
+        return proxy(PreparedStatement.class, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                if ( method.getName().equals("setLong") ) {
+                    id[0] = args[1];
+                } else if ( method.getName().equals("addBatch") ) {
+                    executed.add(description + " " + id[0]);
+                } else if ( method.getName().equals("executeBatch") ) {
+                    return new int[0];
+                }
+                return null;
+            }
+        });
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(TaskDayAggregatesInvalidatorTest.class.getClassLoader(),
+                new Class<?>[] { type }, handler));
+    }
+
+    private static <T extends BaseEntity> T withId(Class<T> type, long id) {
+        T result = createNiceMock(type);
+        expect(result.getId()).andReturn(id).anyTimes();
+        replay(result);
+        return result;
+    }
+
+    private static ResourcesCostCategoryAssignment assignmentOf(Worker resource) {
+        ResourcesCostCategoryAssignment result = createNiceMock(ResourcesCostCategoryAssignment.class);
+        expect(result.getResource()).andReturn(resource).anyTimes();
+        replay(result);
+        return result;
+    }
+
+    private static HourCost hourCostOf(CostCategory category) {
+        HourCost result = createNiceMock(HourCost.class);
+        expect(result.getCategory()).andReturn(category).anyTimes();
+        replay(result);
+        return result;
+    }
+
+    private void insert(Object entity) {
+        invalidator.onPostInsert(new PostInsertEvent(entity, 1L, null, null, session));
+    }
+
+    private void update(Object entity, String[] propertyNames, Object[] oldState) {
+        EntityPersister persister = createNiceMock(EntityPersister.class);
+        expect(persister.getPropertyNames()).andReturn(propertyNames).anyTimes();
+        replay(persister);
+        invalidator.onPostUpdate(new PostUpdateEvent(entity, 1L, null, oldState, null, persister, session));
+    }
+
+    private void delete(Object entity, Long id) {
+        invalidator.onPostDelete(new PostDeleteEvent(entity, id, null, null, session));
+    }
+
+    private List<String> commit() {
+        actionQueue.beforeTransactionCompletion();
+        return executed;
+    }
+
+    @Test
+    public void theTasksOfTheOldAndNewResourceOfAnAssignmentAreInvalidated() {
+        update(assignmentOf(withId(Worker.class, 2L)), new String[] { "resource" },
+                new Object[] { withId(Worker.class, 3L) });
+
+        assertEquals(Arrays.asList(
+                "specific resource 2", "specific resource 3",
+                "generic resource 2", "generic resource 3"), commit());
+    }
+
+    @Test
+    public void theTasksOfTheResourcesOfTheCategoryOfAnHourCostAreInvalidated() {
+        insert(hourCostOf(withId(CostCategory.class, 4L)));
+
+        assertEquals(Arrays.asList("specific category 4", "generic category 4"), commit());
+    }
+
+    @Test
+    public void theTasksOfTheResourcesOfAChangedCategoryAreInvalidated() {
+        update(withId(CostCategory.class, 5L), new String[] { "name" }, null);
+
+        assertEquals(Arrays.asList("specific category 5", "generic category 5"), commit());
+    }
+
+    @Test
+    public void theTasksOfTheResourcesWithCostsOfAChangedHourTypeAreInvalidated() {
+        update(withId(TypeOfWorkHours.class, 6L), new String[] { "defaultPrice" }, null);
+
+        assertEquals(Arrays.asList("specific type 6", "generic type 6"), commit());
+    }
+
+    @Test
+    public void theAggregatesOfADeletedTaskAreRemoved() {
+        delete(createNiceMock(Task.class), 7L);
+        delete(assignmentOf(withId(Worker.class, 8L)), 9L);
+
+        assertEquals(Arrays.asList("specific resource 8", "generic resource 8", "task 7"), commit());
+    }
+
+    @Test
+    public void otherChangesDontInvalidateAnything() {
+        update(withId(Worker.class, 10L), new String[] { "code" }, null);
+
+        assertEquals(Arrays.asList(), commit());
+    }
+
+}
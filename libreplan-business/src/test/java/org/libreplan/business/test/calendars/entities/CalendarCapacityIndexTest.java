@@ -0,0 +1,290 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.business.test.calendars.entities;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.libreplan.business.test.calendars.entities.BaseCalendarTest.createBasicCalendar;
+import static org.libreplan.business.test.calendars.entities.BaseCalendarTest.createCalendarExceptionType;
+import static org.libreplan.business.workingday.EffortDuration.hours;
+import static org.libreplan.business.workingday.EffortDuration.minutes;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.joda.time.Days;
+import org.joda.time.LocalDate;
+import org.junit.After;
+import org.junit.Test;
+import org.libreplan.business.calendars.entities.AvailabilityTimeLine;
+import org.libreplan.business.calendars.entities.BaseCalendar;
+import org.libreplan.business.calendars.entities.CalendarAvailability;
+import org.libreplan.business.calendars.entities.CalendarCapacityIndex;
+import org.libreplan.business.calendars.entities.CalendarData;
+import org.libreplan.business.calendars.entities.CalendarException;
+import org.libreplan.business.calendars.entities.Capacity;
+import org.libreplan.business.calendars.entities.ResourceCalendar;
+import org.libreplan.business.workingday.EffortDuration;
+import org.libreplan.business.workingday.IntraDayDate;
+import org.libreplan.business.workingday.IntraDayDate.PartialDay;
+import org.libreplan.business.workingday.ResourcesPerDay;
+
+/**
+ * Checks that the capacities of a {@link BaseCalendar} are the same with and
+ * without {@link CalendarCapacityIndex} and that the index follows the
+ * changes of the calendars.
+ */
+public class CalendarCapacityIndexTest {
+
+    private static final LocalDate start = new LocalDate(2012, 1, 2);
+
+    private static final int DAYS = 900;
+
+    @After
+    public void restoreHorizon() {
+        CalendarCapacityIndex.setMaxIndexedDays(CalendarCapacityIndex.DEFAULT_MAX_INDEXED_DAYS);
+    }
+
+    @Test
+    public void epochDaysAreTheDaysSince1970() {
+        LocalDate epoch = new LocalDate(1970, 1, 1);
+        for (LocalDate each : asList(epoch, new LocalDate(1969, 12, 31), new LocalDate(1600, 2, 29),
+                new LocalDate(2000, 3, 1), new LocalDate(2012, 2, 29), new LocalDate(2400, 12, 31))) {
+            assertThat(CalendarCapacityIndex.toEpochDay(each), equalTo(Days.daysBetween(epoch, each).getDays()));
+        }
+    }
+
+    @Test
+    public void theCapacitiesAreTheSameWithTheIndex() {
+        for (long seed = 1; seed <= 5; seed++) {
+            List<Capacity> withoutIndex = capacities(randomCalendar(new Random(seed)), 0);
+            List<Capacity> withIndex = capacities(randomCalendar(new Random(seed)),
+                    CalendarCapacityIndex.DEFAULT_MAX_INDEXED_DAYS);
+            assertThat(withIndex, equalTo(withoutIndex));
+        }
+    }
+
+    @Test
+    public void theWorkableDurationIsTheSameWithTheIndex() {
+        for (long seed = 1; seed <= 5; seed++) {
+            List<EffortDuration> withoutIndex = workableDurations(randomCalendar(new Random(seed)), 0);
+            List<EffortDuration> withIndex = workableDurations(randomCalendar(new Random(seed)),
+                    CalendarCapacityIndex.DEFAULT_MAX_INDEXED_DAYS);
+            assertThat(withIndex, equalTo(withoutIndex));
+        }
+    }
+
+    @Test
+    public void theCapacityBetweenTwoDatesIsTheSumOfTheCapacityOfEachDay() {
+        Random random = new Random(3);
+        BaseCalendar calendar = randomCalendar(random);
+        for (int i = 0; i < 50; i++) {
+            IntraDayDate from = IntraDayDate.create(start.plusDays(random.nextInt(DAYS)),
+                    hours(random.nextInt(3)).plus(minutes(random.nextInt(60))));
+            IntraDayDate to = IntraDayDate.create(from.getDate().plusDays(random.nextInt(60)),
+                    hours(random.nextInt(10)));
+            if (to.compareTo(from) < 0) {
+                continue;
+            }
+            assertThat(calendar.getCapacityBetween(from, to), equalTo(dayByDay(calendar, from, to)));
+        }
+    }
+
+    private static EffortDuration dayByDay(BaseCalendar calendar, IntraDayDate from, IntraDayDate to) {
+        EffortDuration result = EffortDuration.zero();
+        for (PartialDay each : from.daysUntil(to)) {
+            result = result.plus(calendar.getCapacityOn(each));
+        }
+        return result;
+    }
+
+    @Test
+    public void theCapacityOfAResourceCalendarIsMultipliedByItsUnits() {
+        ResourceCalendar calendar = createBasicCalendar().newDerivedResourceCalendar();
+        calendar.setCapacity(3);
+        LocalDate monday = start.plusYears(20).dayOfWeek().withMinimumValue();
+
+        assertThat(calendar.getCapacityWithOvertime(monday).getStandardEffort(), equalTo(hours(24)));
+        assertThat(calendar.getWorkableDuration(monday, monday.plusDays(6)), equalTo(hours(120)));
+
+        calendar.setCapacity(1);
+        assertThat(calendar.getWorkableDuration(monday, monday.plusDays(6)), equalTo(hours(40)));
+    }
+
+    @Test
+    public void changesOnTheCalendarAreSeen() {
+        BaseCalendar calendar = createBasicCalendar();
+        LocalDate monday = start.dayOfWeek().withMinimumValue();
+        assertThat(standardEffort(calendar, monday), equalTo(hours(8)));
+
+        calendar.setCapacityAt(CalendarData.Days.MONDAY, Capacity.create(hours(6)));
+        assertThat(standardEffort(calendar, monday), equalTo(hours(6)));
+
+        calendar.addExceptionDay(CalendarException.create(monday, hours(2), createCalendarExceptionType()));
+        assertThat(standardEffort(calendar, monday), equalTo(hours(2)));
+
+        calendar.removeExceptionDay(monday);
+        assertThat(standardEffort(calendar, monday), equalTo(hours(6)));
+
+        calendar.newVersion(monday.plusDays(7));
+        calendar.setCapacityAt(CalendarData.Days.MONDAY, Capacity.create(hours(4)), monday.plusDays(7));
+        assertThat(standardEffort(calendar, monday), equalTo(hours(6)));
+        assertThat(standardEffort(calendar, monday.plusDays(7)), equalTo(hours(4)));
+
+        calendar.getCalendarData(monday).setExpiringDate(monday.plusDays(1));
+        assertThat(standardEffort(calendar, monday.plusDays(7)), equalTo(hours(4)));
+        calendar.getCalendarData(monday).setExpiringDate(monday.plusDays(14));
+        assertThat(standardEffort(calendar, monday.plusDays(7)), equalTo(hours(6)));
+    }
+
+    @Test
+    public void changesOnTheParentsAreSeen() {
+        BaseCalendar grandParent = createBasicCalendar();
+        BaseCalendar parent = grandParent.newDerivedCalendar();
+        BaseCalendar calendar = parent.newDerivedCalendar();
+        LocalDate monday = start.dayOfWeek().withMinimumValue();
+        assertThat(standardEffort(calendar, monday), equalTo(hours(8)));
+
+        grandParent.setCapacityAt(CalendarData.Days.MONDAY, Capacity.create(hours(7)));
+        assertThat(standardEffort(calendar, monday), equalTo(hours(7)));
+
+        grandParent.addExceptionDay(CalendarException.create(monday, hours(1), createCalendarExceptionType()));
+        assertThat(standardEffort(calendar, monday), equalTo(hours(1)));
+
+        parent.addExceptionDay(CalendarException.create(monday, hours(3), createCalendarExceptionType()));
+        assertThat(standardEffort(calendar, monday), equalTo(hours(3)));
+
+        BaseCalendar otherParent = createBasicCalendar();
+        calendar.setParent(otherParent);
+        assertThat(standardEffort(calendar, monday), equalTo(hours(8)));
+    }
+
+    @Test
+    public void changesOnTheAvailabilitiesAreSeen() {
+        ResourceCalendar calendar = createBasicCalendar().newDerivedResourceCalendar();
+        LocalDate monday = new LocalDate().plusYears(1).dayOfWeek().withMinimumValue();
+        assertThat(standardEffort(calendar, monday), equalTo(hours(8)));
+
+        calendar.setEndDate(calendar.getLastCalendarAvailability(), monday.minusDays(1));
+        assertThat(standardEffort(calendar, monday), equalTo(hours(0)));
+
+        calendar.addNewCalendarAvailability(CalendarAvailability.create(monday, null));
+        assertThat(standardEffort(calendar, monday), equalTo(hours(8)));
+    }
+
+    @Test
+    public void theDaysOutOfTheHorizonAreCalculatedWithoutTheIndex() {
+        CalendarCapacityIndex.setMaxIndexedDays(400);
+        BaseCalendar calendar = createBasicCalendar();
+        LocalDate monday = start.dayOfWeek().withMinimumValue();
+        LocalDate farMonday = monday.plusYears(10).dayOfWeek().withMinimumValue();
+
+        assertThat(standardEffort(calendar, monday), equalTo(hours(8)));
+        assertThat(standardEffort(calendar, farMonday), equalTo(hours(8)));
+        assertThat(calendar.getWorkableDuration(monday, farMonday.minusDays(1)),
+                equalTo(calendarWithoutIndex().getWorkableDuration(monday, farMonday.minusDays(1))));
+    }
+
+    @Test
+    public void thereAreCapacityForIsTheSameWithTheIndex() {
+        for (long seed = 1; seed <= 5; seed++) {
+            for (int hours : new int[] { 100, 1000, 4000 }) {
+                for (ResourcesPerDay resourcesPerDay : asList(ResourcesPerDay.amount(1), ResourcesPerDay.amount(2))) {
+                    boolean withoutIndex = thereAreCapacityFor(seed, hours, resourcesPerDay, 0);
+                    assertThat(thereAreCapacityFor(seed, hours, resourcesPerDay,
+                            CalendarCapacityIndex.DEFAULT_MAX_INDEXED_DAYS), equalTo(withoutIndex));
+                }
+            }
+        }
+    }
+
+    private boolean thereAreCapacityFor(long seed, int hours, ResourcesPerDay resourcesPerDay, int maxIndexedDays) {
+        CalendarCapacityIndex.setMaxIndexedDays(maxIndexedDays);
+        AvailabilityTimeLine availability = AvailabilityTimeLine.allValid();
+        availability.invalidUntil(start);
+        availability.invalidFrom(start.plusDays(DAYS));
+        return randomCalendar(new Random(seed)).thereAreCapacityFor(availability, resourcesPerDay, hours(hours));
+    }
+
+    private BaseCalendar calendarWithoutIndex() {
+        CalendarCapacityIndex.setMaxIndexedDays(0);
+        return createBasicCalendar();
+    }
+
+    private EffortDuration standardEffort(BaseCalendar calendar, LocalDate day) {
+        return calendar.getCapacityWithOvertime(day).getStandardEffort();
+    }
+
+    private List<Capacity> capacities(BaseCalendar calendar, int maxIndexedDays) {
+        CalendarCapacityIndex.setMaxIndexedDays(maxIndexedDays);
+        List<Capacity> result = new ArrayList<>();
+        for (int i = 0; i < DAYS; i++) {
+            result.add(calendar.getCapacityWithOvertime(start.plusDays(i)));
+        }
+        return result;
+    }
+
+    private List<EffortDuration> workableDurations(BaseCalendar calendar, int maxIndexedDays) {
+        CalendarCapacityIndex.setMaxIndexedDays(maxIndexedDays);
+        List<EffortDuration> result = new ArrayList<>();
+        for (int i = 0; i < DAYS; i += 17) {
+            result.add(calendar.getWorkableDuration(start.plusDays(i), start.plusDays(i + 45)));
+        }
+        return result;
+    }
+
+    /**
+     * A resource calendar derived from a calendar that has a parent, with
+     * several versions and exceptions on the three of them.
+     */
+    private BaseCalendar randomCalendar(Random random) {
+        BaseCalendar grandParent = createBasicCalendar();
+        addRandomExceptions(random, grandParent);
+
+        BaseCalendar parent = grandParent.newDerivedCalendar();
+        parent.setCapacityAt(CalendarData.Days.FRIDAY, Capacity.create(hours(6)).notOverAssignableWithoutLimit());
+        parent.newVersion(start.plusDays(random.nextInt(DAYS)));
+        parent.setCapacityAt(CalendarData.Days.MONDAY, Capacity.create(minutes(7 * 60 + 30)));
+        addRandomExceptions(random, parent);
+
+        ResourceCalendar result = parent.newDerivedResourceCalendar();
+        result.setCapacity(1 + random.nextInt(2));
+        result.getLastCalendarAvailability().setStartDate(start.plusDays(random.nextInt(30)));
+        result.newVersion(start.plusDays(random.nextInt(DAYS)));
+        result.setCapacityAt(CalendarData.Days.TUESDAY,
+                Capacity.create(hours(random.nextInt(9))).withAllowedExtraEffort(hours(2)));
+        result.setParent(grandParent);
+        addRandomExceptions(random, result);
+        return result;
+    }
+
+    private void addRandomExceptions(Random random, BaseCalendar calendar) {
+        for (int i = 0; i < 40; i++) {
+            LocalDate day = start.plusDays(random.nextInt(DAYS));
+            if (calendar.getOwnExceptionDay(day) == null) {
+                EffortDuration duration = minutes(random.nextInt(10 * 60));
+                calendar.addExceptionDay(CalendarException.create(day, duration, createCalendarExceptionType()));
+            }
+        }
+    }
+
+}
@@ -0,0 +1,61 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.business.test.calendars.entities;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.libreplan.business.workingday.EffortDuration.hours;
+import static org.libreplan.business.workingday.EffortDuration.minutes;
+import static org.libreplan.business.workingday.EffortDuration.zero;
+
+import org.joda.time.LocalDate;
+import org.junit.Test;
+import org.libreplan.business.calendars.entities.SameWorkHoursEveryDay;
+import org.libreplan.business.workingday.IntraDayDate;
+
+public class SameWorkHoursEveryDayTest {
+
+    private static final LocalDate day = new LocalDate(2010, 5, 3);
+
+    private final SameWorkHoursEveryDay calendar = new SameWorkHoursEveryDay(8);
+
+    @Test
+    public void theCapacityOfWholeDaysIsTheHoursForEachDay() {
+        assertThat(calendar.getCapacityBetween(IntraDayDate.startOfDay(day), IntraDayDate.startOfDay(day.plusDays(10))),
+                equalTo(hours(80)));
+    }
+
+    @Test
+    public void theFirstAndTheLastDaysCanBePartial() {
+        IntraDayDate start = IntraDayDate.create(day, hours(6));
+        IntraDayDate end = IntraDayDate.create(day.plusDays(3), minutes(90));
+
+        assertThat(calendar.getCapacityBetween(start, end), equalTo(hours(2 + 16).plus(minutes(90))));
+    }
+
+    @Test
+    public void anIntervalInsideADayOnlyHasThePartOfTheDay() {
+        IntraDayDate start = IntraDayDate.create(day, hours(2));
+
+        assertThat(calendar.getCapacityBetween(start, IntraDayDate.create(day, hours(5))), equalTo(hours(3)));
+        assertThat(calendar.getCapacityBetween(start, start), equalTo(zero()));
+    }
+
+}
@@ -0,0 +1,128 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.business.test.orders.entities;
+
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.libreplan.business.workingday.EffortDuration.hours;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.joda.time.LocalDate;
+import org.junit.Test;
+import org.libreplan.business.orders.entities.OrderElement;
+import org.libreplan.business.orders.entities.TimesheetTotals;
+import org.libreplan.business.workingday.EffortDuration;
+
+/**
+ * Tests for {@link TimesheetTotals}.
+ */
+public class TimesheetTotalsTest {
+
+    private final Map<OrderElement, TimesheetTotals> own = new HashMap<>();
+
+    private static OrderElement element(OrderElement... children) {
+        OrderElement result = createNiceMock(OrderElement.class);
+        expect(result.getChildren()).andReturn(Arrays.asList(children)).anyTimes();
+        replay(result);
+        return result;
+    }
+
+    private static Date day(int dayOfMonth) {
+        return new LocalDate(2012, 3, dayOfMonth).toDateTimeAtStartOfDay().toDate();
+    }
+
+    private void givenOwn(OrderElement element, EffortDuration effort, Date first, Date last, boolean finished) {
+        own.put(element, new TimesheetTotals(effort, first, last, finished));
+    }
+
+    @Test
+    public void theEffortOfTheDescendantsIsIndirect() {
+        OrderElement line1 = element();
+        OrderElement line2 = element();
+        OrderElement group = element(line1, line2);
+        OrderElement root = element(group);
+
+        givenOwn(line1, hours(3), day(5), day(6), false);
+        givenOwn(line2, hours(4), day(7), day(7), false);
+        givenOwn(root, hours(1), day(9), day(9), false);
+
+        Map<OrderElement, TimesheetTotals> totals = TimesheetTotals.rollUp(root, own);
+
+        assertEquals(4, totals.size());
+        assertEquals(hours(3), totals.get(line1).getDirectChargedEffort());
+        assertEquals(EffortDuration.zero(), totals.get(line1).getIndirectChargedEffort());
+        assertEquals(EffortDuration.zero(), totals.get(group).getDirectChargedEffort());
+        assertEquals(hours(7), totals.get(group).getIndirectChargedEffort());
+        assertEquals(hours(1), totals.get(root).getDirectChargedEffort());
+        assertEquals(hours(7), totals.get(root).getIndirectChargedEffort());
+        assertEquals(hours(8), totals.get(root).getTotalChargedEffort());
+    }
+
+    @Test
+    public void theTimesheetDatesIncludeTheOnesOfTheDescendants() {
+        OrderElement line1 = element();
+        OrderElement line2 = element();
+        OrderElement group = element(line1, line2);
+
+        givenOwn(line1, hours(3), day(5), day(6), false);
+        givenOwn(line2, hours(4), day(7), day(8), false);
+
+        Map<OrderElement, TimesheetTotals> totals = TimesheetTotals.rollUp(group, own);
+
+        assertEquals(day(5), totals.get(group).getFirstTimesheetDate());
+        assertEquals(day(8), totals.get(group).getLastTimesheetDate());
+        assertEquals(day(7), totals.get(line2).getFirstTimesheetDate());
+    }
+
+    @Test
+    public void theElementsWithoutLinesAreEmpty() {
+        OrderElement line = element();
+        OrderElement group = element(line);
+
+        Map<OrderElement, TimesheetTotals> totals = TimesheetTotals.rollUp(group, own);
+
+        assertTrue(totals.get(group).getTotalChargedEffort().isZero());
+        assertNull(totals.get(group).getFirstTimesheetDate());
+        assertNull(totals.get(line).getLastTimesheetDate());
+    }
+
+    @Test
+    public void onlyTheOwnLinesMarkAnElementAsFinished() {
+        OrderElement line = element();
+        OrderElement group = element(line);
+
+        givenOwn(line, hours(3), day(5), day(6), true);
+
+        Map<OrderElement, TimesheetTotals> totals = TimesheetTotals.rollUp(group, own);
+
+        assertTrue(totals.get(line).isFinishedTimesheets());
+        assertFalse(totals.get(group).isFinishedTimesheets());
+    }
+
+}
@@ -0,0 +1,170 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.libreplan.business.test.planner.chart;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.libreplan.business.workingday.EffortDuration.hours;
+
+import java.util.Arrays;
+import java.util.SortedMap;
+
+import org.hamcrest.BaseMatcher;
+import org.hamcrest.Description;
+import org.hamcrest.Matcher;
+import org.joda.time.LocalDate;
+import org.junit.Test;
+import org.libreplan.business.planner.chart.ContiguousDaysLine;
+import org.libreplan.business.planner.chart.DailyEffortSeries;
+import org.libreplan.business.workingday.EffortDuration;
+
+public class DailyEffortSeriesTest {
+
+    private static final LocalDate someDate = new LocalDate(2002, 2, 10);
+
+    @Test
+    public void epochDaysAreConvertedBackAndForth() {
+        assertThat(DailyEffortSeries.toEpochDay(new LocalDate(1970, 1, 1)), equalTo(0));
+        assertThat(DailyEffortSeries.fromEpochDay(DailyEffortSeries.toEpochDay(someDate)), equalTo(someDate));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void aSeriesCannotBeCreatedWithAStartAfterTheEnd() {
+        DailyEffortSeries.create(someDate, someDate.minusDays(1));
+    }
+
+    @Test
+    public void initiallyAllDaysAreZero() {
+        DailyEffortSeries series = DailyEffortSeries.create(someDate, someDate.plusDays(3));
+        assertThat(series.size(), equalTo(3));
+        assertThat(series.getEndExclusive(), equalTo(someDate.plusDays(3)));
+        for (int i = 0; i < series.size(); i++) {
+            assertThat(series.getSecondsAt(i), equalTo(0));
+        }
+    }
+
+    @Test
+    public void effortCanBeAddedToADay() {
+        DailyEffortSeries series = DailyEffortSeries.create(someDate, someDate.plusDays(3));
+        series.add(someDate.plusDays(1), hours(2));
+        series.add(someDate.plusDays(1), hours(3));
+        assertThat(series.get(someDate.plusDays(1)), equalTo(hours(5)));
+        assertThat(series.getTotal(), equalTo(hours(5)));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void daysOutsideTheSeriesCannotBeAccessed() {
+        DailyEffortSeries.create(someDate, someDate.plusDays(3)).get(someDate.plusDays(3));
+    }
+
+    @Test
+    public void minSumAndSubstractWorkDayByDay() {
+        DailyEffortSeries a = seriesOf(hours(8), hours(2), hours(0));
+        DailyEffortSeries b = seriesOf(hours(4), hours(6), hours(1));
+
+        assertThat(DailyEffortSeries.min(a, b), hasValues(hours(4), hours(2), hours(0)));
+        assertThat(DailyEffortSeries.sum(a, b), hasValues(hours(12), hours(8), hours(1)));
+        assertThat(DailyEffortSeries.substract(a, b), hasValues(hours(4), hours(0), hours(0)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void seriesWithDifferentRangesCannotBeJoined() {
+        DailyEffortSeries.sum(seriesOf(hours(1)), DailyEffortSeries.create(someDate, someDate.plusDays(2)));
+    }
+
+    @Test
+    public void aSubIntervalKeepsOnlyTheDaysInside() {
+        DailyEffortSeries series = seriesOf(hours(1), hours(2), hours(3), hours(4));
+
+        DailyEffortSeries sub = series.subInterval(someDate.plusDays(1), someDate.plusDays(3));
+        assertThat(sub.getStart(), equalTo(someDate.plusDays(1)));
+        assertThat(sub, hasValues(hours(2), hours(3)));
+
+        assertThat(series.subInterval(null, someDate.plusDays(1)), hasValues(hours(1)));
+        assertThat(series.subInterval(someDate.plusDays(3), null), hasValues(hours(4)));
+        assertTrue(series.subInterval(someDate.plusDays(10), null).isEmpty());
+    }
+
+    @Test
+    public void canBeCreatedFromAContiguousDaysLine() {
+        ContiguousDaysLine<EffortDuration> line = ContiguousDaysLine.create(someDate, someDate.plusDays(2));
+        line.set(someDate, hours(3));
+
+        DailyEffortSeries series = DailyEffortSeries.from(line);
+        assertThat(series.getStart(), equalTo(someDate));
+        assertThat(series, hasValues(hours(3), hours(0)));
+    }
+
+    @Test
+    public void canBeConvertedToASortedMap() {
+        SortedMap<LocalDate, EffortDuration> map = seriesOf(hours(1), hours(2)).toSortedMap();
+        assertThat(map.size(), equalTo(2));
+        assertThat(map.get(someDate), equalTo(hours(1)));
+        assertThat(map.get(someDate.plusDays(1)), equalTo(hours(2)));
+    }
+
+    @Test
+    public void addingEffortToADaySaturatesInsteadOfOverflowing() {
+        DailyEffortSeries series = DailyEffortSeries.create(someDate, someDate.plusDays(2));
+        series.setSecondsAt(0, Integer.MAX_VALUE - 1);
+        series.addSecondsAt(0, 10);
+        series.setSecondsAt(1, Integer.MAX_VALUE);
+
+        assertThat(series.getSecondsAt(0), equalTo(Integer.MAX_VALUE));
+        assertThat(DailyEffortSeries.sum(series, series).getSecondsAt(1), equalTo(Integer.MAX_VALUE));
+        assertThat(series.getTotal().getSeconds(), equalTo(Integer.MAX_VALUE));
+    }
+
+    private DailyEffortSeries seriesOf(EffortDuration... values) {
+        DailyEffortSeries result = DailyEffortSeries.create(someDate, someDate.plusDays(values.length));
+        for (int i = 0; i < values.length; i++) {
+            result.set(someDate.plusDays(i), values[i]);
+        }
+        return result;
+    }
+
+    private static Matcher<DailyEffortSeries> hasValues(final EffortDuration... values) {
+        return new BaseMatcher<DailyEffortSeries>() {
+
+            @Override
+            public boolean matches(Object object) {
+                if (!(object instanceof DailyEffortSeries)) {
+                    return false;
+                }
+                DailyEffortSeries series = (DailyEffortSeries) object;
+                if (series.size() != values.length) {
+                    return false;
+                }
+                for (int i = 0; i < values.length; i++) {
+                    if (series.getSecondsAt(i) != values[i].getSeconds()) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+
+            @Override
+            public void describeTo(Description description) {
+                description.appendText("a series with values " + Arrays.toString(values));
+            }
+        };
+    }
+
+}
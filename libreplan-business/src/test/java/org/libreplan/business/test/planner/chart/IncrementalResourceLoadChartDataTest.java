@@ -0,0 +1,206 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.libreplan.business.test.planner.chart;
+
+import static java.util.Arrays.asList;
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.junit.Assert.assertTrue;
+import static org.libreplan.business.test.calendars.entities.BaseCalendarTest.createBasicCalendar;
+import static org.libreplan.business.workingday.EffortDuration.hours;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.joda.time.LocalDate;
+import org.junit.Before;
+import org.junit.Test;
+import org.libreplan.business.calendars.entities.BaseCalendar;
+import org.libreplan.business.planner.chart.AssignedEffortByResource;
+import org.libreplan.business.planner.chart.IncrementalResourceLoadChartData;
+import org.libreplan.business.planner.chart.ResourceLoadChartData;
+import org.libreplan.business.planner.entities.DayAssignment;
+import org.libreplan.business.planner.entities.SpecificDayAssignment;
+import org.libreplan.business.resources.entities.Resource;
+import org.libreplan.business.resources.entities.Worker;
+
+/**
+ * Checks that {@link IncrementalResourceLoadChartData} updated incrementally
+ * has the same values as a full rebuild with {@link ResourceLoadChartData}.
+ */
+public class IncrementalResourceLoadChartDataTest {
+
+    private static final LocalDate start = new LocalDate(2012, 3, 5);
+
+    private BaseCalendar calendar;
+
+    private Worker worker1;
+
+    private Worker worker2;
+
+    private Worker worker3;
+
+    @Before
+    public void setUp() {
+        calendar = createBasicCalendar();
+        worker1 = createWorker(1L);
+        worker2 = createWorker(2L);
+        worker3 = createWorker(3L);
+    }
+
+    private Worker createWorker(Long id) {
+        Worker result = createNiceMock(Worker.class);
+        expect(result.getId()).andReturn(id).anyTimes();
+        expect(result.getCalendarOrDefault()).andReturn(calendar).anyTimes();
+        replay(result);
+        return result;
+    }
+
+    private List<DayAssignment> assignments(Resource resource, LocalDate from, int days, int hoursPerDay) {
+        List<DayAssignment> result = new ArrayList<>();
+        for (int i = 0; i < days; i++) {
+            result.add(SpecificDayAssignment.create(from.plusDays(i), hours(hoursPerDay), resource));
+        }
+        return result;
+    }
+
+    private List<DayAssignment> join(List<DayAssignment>... lists) {
+        List<DayAssignment> result = new ArrayList<>();
+        for (List<DayAssignment> each : lists) {
+            result.addAll(each);
+        }
+        return result;
+    }
+
+    private List<Resource> resources(Resource... resources) {
+        return new ArrayList<>(asList(resources));
+    }
+
+    @Test
+    public void theCreatedDataHasTheSameValuesAsAFullRebuild() {
+        List<DayAssignment> all = join(
+                assignments(worker1, start, 10, 6),
+                assignments(worker2, start.plusDays(3), 10, 10),
+                assignments(worker1, start.plusDays(2), 3, 4));
+        List<Resource> resources = resources(worker1, worker2, worker3);
+
+        assertTrue(IncrementalResourceLoadChartData.create(all, resources)
+                .hasSameValuesAs(new ResourceLoadChartData(all, resources)));
+    }
+
+    @Test
+    public void theDataCreatedFromTheStreamedEffortHasTheSameValuesAsAFullRebuild() {
+        List<DayAssignment> all = join(
+                assignments(worker1, start.plusDays(40), 10, 6),
+                assignments(worker2, start.plusDays(3), 10, 10),
+                assignments(worker1, start.minusDays(60), 3, 4),
+                assignments(worker1, start.plusDays(2), 3, 4));
+        List<Resource> resources = resources(worker1, worker2, worker3);
+
+        AssignedEffortByResource assigned = new AssignedEffortByResource();
+        for (DayAssignment each : all) {
+            assigned.visit(each.getResource().getId(), each.getDay(), each.getDuration().getSeconds());
+        }
+
+        assertTrue(IncrementalResourceLoadChartData.create(assigned, resources)
+                .hasSameValuesAs(new ResourceLoadChartData(all, resources)));
+    }
+
+    @Test
+    public void theDataUpdatedWithTheStreamedEffortHasTheSameValuesAsAFullRebuild() {
+        List<DayAssignment> ofWorker1 = assignments(worker1, start, 10, 6);
+        List<DayAssignment> ofWorker2 = assignments(worker2, start.plusDays(3), 10, 10);
+        List<Resource> resources = resources(worker1, worker2, worker3);
+        IncrementalResourceLoadChartData data = IncrementalResourceLoadChartData.create(join(ofWorker1, ofWorker2),
+                resources);
+
+        List<DayAssignment> newOfWorker1 = join(
+                assignments(worker1, start.plusDays(5), 4, 12),
+                assignments(worker1, start.plusDays(400), 2, 3));
+        IncrementalResourceLoadChartData updated = data.withChangesOn(asList(worker1),
+                AssignedEffortByResource.from(newOfWorker1), Collections.<Long> emptyList());
+
+        assertTrue(updated.hasSameValuesAs(new ResourceLoadChartData(join(newOfWorker1, ofWorker2), resources)));
+    }
+
+    @Test
+    public void theDataUpdatedForSomeResourcesHasTheSameValuesAsAFullRebuild() {
+        List<DayAssignment> ofWorker1 = assignments(worker1, start, 10, 6);
+        List<DayAssignment> ofWorker2 = assignments(worker2, start.plusDays(3), 10, 10);
+        List<Resource> resources = resources(worker1, worker2, worker3);
+        IncrementalResourceLoadChartData data = IncrementalResourceLoadChartData.create(join(ofWorker1, ofWorker2),
+                resources);
+
+        List<DayAssignment> newOfWorker1 = assignments(worker1, start.plusDays(5), 4, 12);
+        IncrementalResourceLoadChartData updated = data.withChangesOn(asList(worker1), newOfWorker1,
+                Collections.<Long> emptyList());
+
+        assertTrue(updated.hasSameValuesAs(new ResourceLoadChartData(join(newOfWorker1, ofWorker2), resources)));
+    }
+
+    @Test
+    public void theDataCanGrowOutsideTheInitialDays() {
+        List<DayAssignment> ofWorker1 = assignments(worker1, start, 5, 8);
+        List<Resource> resources = resources(worker1, worker2, worker3);
+        IncrementalResourceLoadChartData data = IncrementalResourceLoadChartData.create(ofWorker1, resources);
+
+        List<DayAssignment> ofWorker3 = join(
+                assignments(worker3, start.minusDays(200), 3, 9),
+                assignments(worker3, start.plusDays(300), 3, 2));
+        IncrementalResourceLoadChartData updated = data.withChangesOn(asList(worker3), ofWorker3,
+                Collections.<Long> emptyList());
+
+        assertTrue(updated.hasSameValuesAs(new ResourceLoadChartData(join(ofWorker1, ofWorker3), resources)));
+
+        IncrementalResourceLoadChartData reverted = updated.withChangesOn(asList(worker3),
+                Collections.<DayAssignment> emptyList(), Collections.<Long> emptyList());
+
+        assertTrue(reverted.hasSameValuesAs(new ResourceLoadChartData(ofWorker1, resources)));
+    }
+
+    @Test
+    public void removedResourcesNoLongerContribute() {
+        List<DayAssignment> ofWorker1 = assignments(worker1, start, 10, 6);
+        List<DayAssignment> ofWorker2 = assignments(worker2, start.plusDays(3), 10, 10);
+        IncrementalResourceLoadChartData data = IncrementalResourceLoadChartData.create(join(ofWorker1, ofWorker2),
+                resources(worker1, worker2, worker3));
+
+        IncrementalResourceLoadChartData updated = data.withChangesOn(Collections.<Resource> emptyList(),
+                Collections.<DayAssignment> emptyList(), asList(2L, 3L));
+
+        assertTrue(updated.hasSameValuesAs(new ResourceLoadChartData(ofWorker1, resources(worker1))));
+    }
+
+    @Test
+    public void withoutAssignmentsTheDataIsEmpty() {
+        List<DayAssignment> ofWorker1 = assignments(worker1, start, 10, 6);
+        IncrementalResourceLoadChartData data = IncrementalResourceLoadChartData.create(ofWorker1,
+                resources(worker1, worker2));
+
+        IncrementalResourceLoadChartData updated = data.withChangesOn(asList(worker1),
+                Collections.<DayAssignment> emptyList(), Collections.<Long> emptyList());
+
+        assertTrue(updated.getLoad().isEmpty());
+        assertTrue(updated.hasSameValuesAs(new ResourceLoadChartData(Collections.<DayAssignment> emptyList(),
+                resources(worker1, worker2))));
+    }
+
+}
@@ -0,0 +1,186 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.business.test.planner.entities;
+
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.replay;
+import static org.junit.Assert.assertEquals;
+import static org.libreplan.business.workingday.EffortDuration.hours;
+import static org.libreplan.business.workingday.EffortDuration.zero;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.joda.time.LocalDate;
+import org.junit.Test;
+import org.libreplan.business.planner.entities.AssignedEffortForResource.IAssignedEffortForResource;
+import org.libreplan.business.planner.entities.EffortDistributor;
+import org.libreplan.business.planner.entities.EffortDistributor.ResourceWithAssignedDuration;
+import org.libreplan.business.resources.entities.Resource;
+import org.libreplan.business.resources.entities.Worker;
+import org.libreplan.business.workingday.EffortDuration;
+import org.libreplan.business.workingday.IntraDayDate.PartialDay;
+
+/**
+ * Tests for {@link EffortDistributor}. The resources have no calendar, so they
+ * have the default eight hours a day.
+ */
+public class EffortDistributorTest {
+
+    private static final LocalDate start = new LocalDate(2012, 3, 5);
+
+    private static final EffortDuration DEFAULT_CAPACITY = hours(8);
+
+    private final Map<Resource, Map<LocalDate, EffortDuration>> load = new HashMap<>();
+
+    private final IAssignedEffortForResource assignedEffort = new IAssignedEffortForResource() {
+
+        @Override
+        public EffortDuration getAssignedDurationAt(Resource resource, LocalDate day) {
+            Map<LocalDate, EffortDuration> byDay = load.get(resource);
+            EffortDuration result = byDay != null ? byDay.get(day) : null;
+            return result != null ? result : zero();
+        }
+    };
+
+    private List<Resource> workers(int number) {
+        List<Resource> result = new ArrayList<>();
+        for (int i = 0; i < number; i++) {
+            Worker worker = createNiceMock(Worker.class);
+            replay(worker);
+            result.add(worker);
+        }
+        return result;
+    }
+
+    private void givenLoad(Resource resource, LocalDate day, EffortDuration effort) {
+        Map<LocalDate, EffortDuration> byDay = load.get(resource);
+        if (byDay == null) {
+            byDay = new HashMap<>();
+            load.put(resource, byDay);
+        }
+        byDay.put(day, effort);
+    }
+
+    private static void assertDistribution(List<ResourceWithAssignedDuration> distribution, Object... expected) {
+        assertEquals(expected.length / 2, distribution.size());
+        for (int i = 0; i < distribution.size(); i++) {
+            assertEquals(expected[2 * i], distribution.get(i).resource);
+            assertEquals(expected[2 * i + 1], distribution.get(i).duration);
+        }
+    }
+
+    @Test
+    public void theEffortGoesFirstToTheResourcesWithMoreAvailableCapacity() {
+        List<Resource> workers = workers(3);
+        givenLoad(workers.get(0), start, hours(6));
+        givenLoad(workers.get(1), start, hours(2));
+        givenLoad(workers.get(2), start, hours(4));
+        EffortDistributor distributor = new EffortDistributor(workers, assignedEffort);
+
+        assertDistribution(distributor.distributeForDay(PartialDay.wholeDay(start), hours(8)),
+                workers.get(1), hours(6), workers.get(2), hours(2));
+    }
+
+    @Test
+    public void theResourcesAlreadyPickedArePreferred() {
+        List<Resource> workers = workers(3);
+        givenLoad(workers.get(0), start.plusDays(2), hours(6));
+        EffortDistributor distributor = new EffortDistributor(workers, assignedEffort);
+
+        assertDistribution(distributor.distributeForDay(PartialDay.wholeDay(start), hours(4)),
+                workers.get(0), hours(4));
+        assertDistribution(distributor.distributeForDay(PartialDay.wholeDay(start.plusDays(1)), hours(10)),
+                workers.get(0), hours(8), workers.get(1), hours(2));
+        assertDistribution(distributor.distributeForDay(PartialDay.wholeDay(start.plusDays(2)), hours(3)),
+                workers.get(1), hours(3));
+    }
+
+    @Test
+    public void theDistributionIsTheSameAsSortingAllTheResources() {
+        Random random = new Random(7);
+        List<Resource> workers = workers(60);
+        int days = 30;
+        for (Resource each : workers) {
+            for (int i = 0; i < days; i++) {
+                givenLoad(each, start.plusDays(i), hours(random.nextInt(11)));
+            }
+        }
+        EffortDistributor distributor = new EffortDistributor(workers, assignedEffort);
+        Set<Resource> picked = new HashSet<>();
+
+        for (int i = 0; i < days; i++) {
+            LocalDate day = start.plusDays(i);
+            List<Resource> sorted = sortedFromMoreDesirableToLess(workers, day, picked);
+            EffortDuration total = hours(random.nextInt(40));
+
+            List<ResourceWithAssignedDuration> distribution = distributor.distributeForDay(PartialDay.wholeDay(day),
+                    total);
+
+            List<Object> expected = new ArrayList<>();
+            EffortDuration remaining = total;
+            for (Resource each : sorted) {
+                EffortDuration assigned = EffortDuration.min(remaining, available(each, day));
+                if (!assigned.isZero()) {
+                    expected.addAll(Arrays.asList(each, assigned));
+                    picked.add(each);
+                    remaining = remaining.minus(assigned);
+                }
+            }
+            if (remaining.isZero()) {
+                assertDistribution(distribution, expected.toArray());
+            }
+            for (ResourceWithAssignedDuration each : distribution) {
+                picked.add(each.resource);
+            }
+        }
+    }
+
+    private EffortDuration available(Resource resource, LocalDate day) {
+        EffortDuration assigned = assignedEffort.getAssignedDurationAt(resource, day);
+        return DEFAULT_CAPACITY.minus(EffortDuration.min(assigned, DEFAULT_CAPACITY));
+    }
+
+    private List<Resource> sortedFromMoreDesirableToLess(List<Resource> workers, final LocalDate day,
+                                                         final Set<Resource> picked) {
+        List<Resource> result = new ArrayList<>(workers);
+        Collections.sort(result, new Comparator<Resource>() {
+
+            @Override
+            public int compare(Resource o1, Resource o2) {
+                int usedFirst = Boolean.compare(picked.contains(o2), picked.contains(o1));
+                if (usedFirst != 0) {
+                    return usedFirst;
+                }
+                return available(o2, day).compareTo(available(o1, day));
+            }
+        });
+        return result;
+    }
+
+}
@@ -0,0 +1,126 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.business.test.planner.entities;
+
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.libreplan.business.workingday.EffortDuration.hours;
+import static org.libreplan.business.workingday.EffortDuration.minutes;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SortedMap;
+
+import org.joda.time.LocalDate;
+import org.junit.Test;
+import org.libreplan.business.planner.entities.DayAssignment;
+import org.libreplan.business.planner.entities.DayAssignment.FilterType;
+import org.libreplan.business.planner.entities.HoursCostCalculator;
+import org.libreplan.business.planner.entities.Task;
+import org.libreplan.business.planner.entities.TaskDayAggregate;
+import org.libreplan.business.scenarios.entities.Scenario;
+import org.libreplan.business.workingday.EffortDuration;
+
+/**
+ * Tests for the {@link TaskDayAggregate TaskDayAggregates} calculated by {@link HoursCostCalculator}.
+ */
+public class TaskDayAggregateTest {
+
+    private static final LocalDate day = new LocalDate(2012, 3, 5);
+
+    private final HoursCostCalculator calculator = new HoursCostCalculator();
+
+    private final Scenario scenario = scenario();
+
+    private static Scenario scenario() {
+        Scenario result = createNiceMock(Scenario.class);
+        expect(result.getId()).andReturn(2L).anyTimes();
+        replay(result);
+        return result;
+    }
+
+    private static DayAssignment assignment(LocalDate day, EffortDuration duration) {
+        DayAssignment result = createNiceMock(DayAssignment.class);
+        expect(result.getDay()).andReturn(day).anyTimes();
+        expect(result.getDuration()).andReturn(duration).anyTimes();
+        replay(result);
+        return result;
+    }
+
+    private static Task task(boolean subcontracted, DayAssignment... assignments) {
+        Task result = createNiceMock(Task.class);
+        expect(result.getId()).andReturn(1L).anyTimes();
+        expect(result.isSubcontracted()).andReturn(subcontracted).anyTimes();
+        expect(result.getDayAssignments(FilterType.WITHOUT_DERIVED))
+                .andReturn(new ArrayList<>(Arrays.asList(assignments))).anyTimes();
+        replay(result);
+        return result;
+    }
+
+    @Test
+    public void theEffortOfEachDayIsAdded() {
+        Task task = task(false,
+                assignment(day, hours(3)),
+                assignment(day, hours(2)),
+                assignment(day.plusDays(1), hours(4)));
+
+        List<TaskDayAggregate> aggregates = calculator.calculateDayAggregates(task, scenario);
+
+        assertEquals(2, aggregates.size());
+        assertEquals(day, aggregates.get(0).getDay());
+        assertEquals(hours(5), aggregates.get(0).getEffort());
+        assertEquals(day.plusDays(1), aggregates.get(1).getDay());
+        assertEquals(hours(4), aggregates.get(1).getEffort());
+
+        for (TaskDayAggregate each : aggregates) {
+            assertEquals(Long.valueOf(1), each.getTaskId());
+            assertEquals(Long.valueOf(2), each.getScenarioId());
+        }
+    }
+
+    @Test
+    public void theEstimatedCostIsTheOneOfTheCalculator() {
+        Task task = task(false,
+                assignment(day, hours(3).plus(minutes(20))),
+                assignment(day.plusDays(1), hours(2)),
+                assignment(day.plusDays(2), hours(1).plus(minutes(40))));
+
+        SortedMap<LocalDate, BigDecimal> expected = calculator.getEstimatedCost(task);
+        List<TaskDayAggregate> aggregates = calculator.calculateDayAggregates(task, scenario);
+
+        assertEquals(expected.size(), aggregates.size());
+        for (TaskDayAggregate each : aggregates) {
+            assertEquals(expected.get(each.getDay()), each.getEstimatedCost());
+        }
+    }
+
+    @Test
+    public void subcontractedTasksHaveNoAggregates() {
+        Task task = task(true, assignment(day, hours(3)));
+
+        assertTrue(calculator.calculateDayAggregates(task, scenario).isEmpty());
+    }
+
+}
@@ -0,0 +1,173 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.business.test.planner.limiting.entities;
+
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.libreplan.business.test.calendars.entities.BaseCalendarTest.createBasicCalendar;
+import static org.libreplan.business.test.calendars.entities.BaseCalendarTest.createCalendarExceptionType;
+import static org.libreplan.business.workingday.EffortDuration.hours;
+import static org.libreplan.business.workingday.EffortDuration.minutes;
+
+import java.util.List;
+import java.util.Random;
+
+import org.joda.time.LocalDate;
+import org.junit.Test;
+import org.libreplan.business.calendars.entities.BaseCalendar;
+import org.libreplan.business.calendars.entities.CalendarData;
+import org.libreplan.business.calendars.entities.CalendarException;
+import org.libreplan.business.calendars.entities.Capacity;
+import org.libreplan.business.calendars.entities.ResourceCalendar;
+import org.libreplan.business.planner.limiting.entities.CapacityProfile;
+import org.libreplan.business.planner.limiting.entities.DateAndHour;
+import org.libreplan.business.planner.limiting.entities.Gap;
+import org.libreplan.business.resources.entities.Resource;
+import org.libreplan.business.workingday.IntraDayDate.PartialDay;
+
+/**
+ * Checks that the hours allocated in a {@link Gap} are the same using the
+ * {@link CapacityProfile} than asking the calendar day by day.
+ */
+public class CapacityProfileTest {
+
+    private static final LocalDate start = new LocalDate(2012, 1, 2);
+
+    private static final int DAYS = 700;
+
+    @Test
+    public void theHoursBetweenDaysAreTheSumOfTheHoursOfEachDay() {
+        Random random = new Random(7);
+        ResourceCalendar calendar = randomCalendar(random);
+        CapacityProfile profile = CapacityProfile.create(calendar);
+        assertTrue(profile.cover(start, start.plusDays(DAYS)));
+
+        for (int i = 0; i < 100; i++) {
+            LocalDate from = start.plusDays(random.nextInt(DAYS / 2));
+            LocalDate to = from.plusDays(random.nextInt(DAYS / 2));
+            int sum = 0;
+            for (LocalDate day = from; day.isBefore(to); day = day.plusDays(1)) {
+                sum += calendar.getCapacityOn(PartialDay.wholeDay(day)).roundToHours();
+            }
+            assertThat(profile.getHoursBetween(from, to), equalTo(sum));
+        }
+    }
+
+    @Test
+    public void theDayReachingSomeHoursIsTheFirstOneAccumulatingThem() {
+        Random random = new Random(11);
+        ResourceCalendar calendar = randomCalendar(random);
+        CapacityProfile profile = CapacityProfile.create(calendar);
+        assertTrue(profile.cover(start, start.plusDays(DAYS)));
+
+        for (int i = 0; i < 100; i++) {
+            LocalDate from = start.plusDays(random.nextInt(DAYS / 2));
+            LocalDate end = from.plusDays(random.nextInt(DAYS / 2));
+            int hours = 1 + random.nextInt(400);
+            LocalDate expected = null;
+            int accumulated = 0;
+            for (LocalDate day = from; day.isBefore(end) && expected == null; day = day.plusDays(1)) {
+                accumulated += profile.getHoursOn(day);
+                if (accumulated >= hours) {
+                    expected = day;
+                }
+            }
+            assertThat(profile.getDayReaching(from, hours, end), equalTo(expected));
+        }
+    }
+
+    @Test
+    public void theHoursInGapAreTheSameWithTheProfile() {
+        Random random = new Random(5);
+        ResourceCalendar calendar = randomCalendar(random);
+        Resource resource = createNiceMock(Resource.class);
+        expect(resource.getCalendar()).andReturn(calendar).anyTimes();
+        replay(resource);
+        CapacityProfile profile = CapacityProfile.create(calendar);
+
+        for (int i = 0; i < 200; i++) {
+            DateAndHour gapStart = new DateAndHour(start.plusDays(random.nextInt(DAYS)), random.nextInt(9));
+            DateAndHour gapEnd = random.nextInt(5) == 0
+                    ? null
+                    : new DateAndHour(gapStart.getDate().plusDays(1 + random.nextInt(90)), random.nextInt(9));
+            Gap gap = Gap.create(resource, gapStart, gapEnd);
+            DateAndHour realStart = new DateAndHour(gapStart.getDate().plusDays(random.nextInt(3)), gapStart.getHour());
+            DateAndHour allocationEnd = gapEnd != null ? gapEnd : realStart;
+            int total = random.nextInt(300);
+
+            List<Integer> dayByDay =
+                    gap.getHoursInGapUntilAllocatingAndGoingToTheEnd(calendar, realStart, allocationEnd, total);
+            List<Integer> withProfile = gap.getHoursInGapUntilAllocatingAndGoingToTheEnd(
+                    calendar, profile, realStart, allocationEnd, total);
+
+            if (sum(dayByDay) < total) {
+                assertTrue(withProfile.isEmpty());
+            } else {
+                assertThat(withProfile, equalTo(dayByDay));
+            }
+        }
+    }
+
+    @Test
+    public void theProfileIsOutdatedWhenTheCalendarChanges() {
+        ResourceCalendar calendar = randomCalendar(new Random(3));
+        CapacityProfile profile = CapacityProfile.create(calendar);
+        assertTrue(profile.isUpToDateFor(calendar));
+
+        calendar.addExceptionDay(CalendarException.create(start.plusDays(DAYS + 1), hours(1),
+                createCalendarExceptionType()));
+        assertTrue(!profile.isUpToDateFor(calendar));
+    }
+
+    private static int sum(List<Integer> hours) {
+        int result = 0;
+        for (int each : hours) {
+            result += each;
+        }
+        return result;
+    }
+
+    private ResourceCalendar randomCalendar(Random random) {
+        BaseCalendar parent = createBasicCalendar();
+        addRandomExceptions(random, parent);
+        parent.newVersion(start.plusDays(random.nextInt(DAYS)));
+        parent.setCapacityAt(CalendarData.Days.MONDAY, Capacity.create(minutes(7 * 60 + 30)));
+
+        ResourceCalendar result = parent.newDerivedResourceCalendar();
+        result.setCapacity(1 + random.nextInt(2));
+        addRandomExceptions(random, result);
+        return result;
+    }
+
+    private void addRandomExceptions(Random random, BaseCalendar calendar) {
+        for (int i = 0; i < 40; i++) {
+            LocalDate day = start.plusDays(random.nextInt(DAYS));
+            if (calendar.getOwnExceptionDay(day) == null) {
+                calendar.addExceptionDay(CalendarException.create(day, minutes(random.nextInt(10 * 60)),
+                        createCalendarExceptionType()));
+            }
+        }
+    }
+
+}
@@ -0,0 +1,130 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.business.test.resources.daos;
+
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.joda.time.LocalDate;
+import org.junit.Test;
+import org.libreplan.business.resources.daos.CriterionSatisfactionsIndex;
+import org.libreplan.business.resources.entities.Criterion;
+
+/**
+ * Tests for {@link CriterionSatisfactionsIndex}.
+ */
+public class CriterionSatisfactionsIndexTest {
+
+    private static final LocalDate START = new LocalDate(2026, 1, 1);
+
+    private Criterion createCriterion(long id, Criterion... children) {
+        Criterion result = createNiceMock(Criterion.class);
+        expect(result.getId()).andReturn(id).anyTimes();
+        expect(result.getChildren()).andReturn(new HashSet<>(Arrays.asList(children))).anyTimes();
+        replay(result);
+
+        return result;
+    }
+
+    private static Set<Long> ids(Long... ids) {
+        return new HashSet<>(Arrays.asList(ids));
+    }
+
+    @Test
+    public void findsTheResourcesWithSomeSatisfactionOfTheCriterion() {
+        Criterion criterion = createCriterion(10);
+        CriterionSatisfactionsIndex index = CriterionSatisfactionsIndex.builder()
+                .add(1, 10, START, START.plusDays(5))
+                .add(2, 11, START, START.plusDays(5))
+                .add(3, 10, START.plusDays(20), null)
+                .build();
+
+        assertThat(index.findSatisfyingAllAtSomePoint(Collections.singletonList(criterion)),
+                equalTo(ids(1L, 3L)));
+    }
+
+    @Test
+    public void theSatisfactionsOfTheDescendantsAreConsidered() {
+        Criterion grandChild = createCriterion(12);
+        Criterion child = createCriterion(11, grandChild);
+        Criterion parent = createCriterion(10, child);
+        CriterionSatisfactionsIndex index = CriterionSatisfactionsIndex.builder()
+                .add(1, 12, START, START.plusDays(5))
+                .add(2, 11, START, START.plusDays(5))
+                .add(3, 13, START, START.plusDays(5))
+                .build();
+
+        assertThat(index.findSatisfyingAllAtSomePoint(Collections.singletonList(parent)),
+                equalTo(ids(1L, 2L)));
+    }
+
+    @Test
+    public void allTheCriteriaMustBeSatisfiedAtTheSameTime() {
+        Criterion first = createCriterion(10);
+        Criterion second = createCriterion(20);
+        CriterionSatisfactionsIndex index = CriterionSatisfactionsIndex.builder()
+                .add(1, 10, START, START.plusDays(5))
+                .add(1, 20, START.plusDays(4), START.plusDays(10))
+                .add(2, 10, START, START.plusDays(5))
+                .add(2, 20, START.plusDays(5), START.plusDays(10))
+                .add(3, 10, START.plusDays(30), null)
+                .add(3, 20, START, START.plusDays(31))
+                .add(4, 10, START, null)
+                .build();
+
+        assertThat(index.findSatisfyingAllAtSomePoint(Arrays.asList(first, second)),
+                equalTo(ids(1L, 3L)));
+    }
+
+    @Test
+    public void theSatisfactionsOfDifferentDescendantsAreJoined() {
+        Criterion firstChild = createCriterion(11);
+        Criterion secondChild = createCriterion(12);
+        Criterion parent = createCriterion(10, firstChild, secondChild);
+        Criterion other = createCriterion(20);
+        CriterionSatisfactionsIndex index = CriterionSatisfactionsIndex.builder()
+                .add(1, 11, START, START.plusDays(5))
+                .add(1, 12, START.plusDays(5), START.plusDays(10))
+                .add(1, 20, START.plusDays(7), START.plusDays(8))
+                .build();
+
+        assertThat(index.findSatisfyingAllAtSomePoint(Arrays.asList(parent, other)),
+                equalTo(ids(1L)));
+    }
+
+    @Test
+    public void noResourcesAreReturnedIfNoCriteriaAreProvided() {
+        CriterionSatisfactionsIndex index = CriterionSatisfactionsIndex.builder()
+                .add(1, 10, START, null)
+                .build();
+
+        assertTrue(index.findSatisfyingAllAtSomePoint(Collections.<Criterion> emptyList()).isEmpty());
+    }
+
+}
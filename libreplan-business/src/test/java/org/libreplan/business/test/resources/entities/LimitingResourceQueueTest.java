@@ -0,0 +1,130 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.business.test.resources.entities;
+
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThat;
+import static org.libreplan.business.test.calendars.entities.BaseCalendarTest.createBasicCalendar;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.joda.time.LocalDate;
+import org.junit.Test;
+import org.libreplan.business.calendars.entities.ResourceCalendar;
+import org.libreplan.business.planner.limiting.entities.DateAndHour;
+import org.libreplan.business.planner.limiting.entities.Gap;
+import org.libreplan.business.planner.limiting.entities.Gap.GapOnQueue;
+import org.libreplan.business.planner.limiting.entities.LimitingResourceQueueElement;
+import org.libreplan.business.resources.entities.LimitingResourceQueue;
+import org.libreplan.business.resources.entities.Resource;
+
+/**
+ * Checks that the gaps of a {@link LimitingResourceQueue} kept while adding
+ * elements are the same than calculating them again.
+ */
+public class LimitingResourceQueueTest {
+
+    private static final LocalDate start = new LocalDate(2012, 1, 2);
+
+    @Test
+    public void theGapsAreTheSameAfterAddingElementsInFreeTime() {
+        Random random = new Random(17);
+        LimitingResourceQueue queue = createQueue();
+        queue.addLimitingResourceQueueElement(createElement(at(0, 0), at(1, 0)));
+        for (int i = 0; i < 200; i++) {
+            DateAndHour elementStart = new DateAndHour(start.plusDays(1 + random.nextInt(400)), random.nextInt(8));
+            DateAndHour elementEnd = new DateAndHour(
+                    elementStart.getDate().plusDays(random.nextInt(5)), elementStart.getHour() + random.nextInt(8));
+            if (!elementEnd.isAfter(elementStart) || overlapsSomeElement(queue, elementStart, elementEnd)) {
+                continue;
+            }
+            List<GapOnQueue> gaps = queue.getGaps();
+            queue.addLimitingResourceQueueElement(createElement(elementStart, elementEnd));
+            assertSame(gaps, queue.getGaps());
+            List<String> kept = describe(gaps);
+
+            queue.queueElementMoved(null);
+            assertThat(kept, equalTo(describe(queue.getGaps())));
+        }
+    }
+
+    @Test
+    public void theGapsAreTheSameAfterAddingOverlappingElements() {
+        LimitingResourceQueue queue = createQueue();
+        queue.addLimitingResourceQueueElement(createElement(at(0, 0), at(4, 0)));
+        queue.getGaps();
+        queue.addLimitingResourceQueueElement(createElement(at(2, 4), at(6, 0)));
+        List<String> kept = describe(queue.getGaps());
+
+        queue.queueElementMoved(null);
+        assertThat(kept, equalTo(describe(queue.getGaps())));
+    }
+
+    private static DateAndHour at(int day, int hour) {
+        return new DateAndHour(start.plusDays(day), hour);
+    }
+
+    private static boolean overlapsSomeElement(LimitingResourceQueue queue, DateAndHour start, DateAndHour end) {
+        for (LimitingResourceQueueElement each : queue.getLimitingResourceQueueElements()) {
+            if (each.getStartTime().isBefore(end) && start.isBefore(each.getEndTime())
+                    || each.getStartTime().isEquals(start)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<String> describe(List<GapOnQueue> gaps) {
+        List<String> result = new ArrayList<>();
+        for (GapOnQueue each : gaps) {
+            Gap gap = each.getGap();
+            result.add(gap.getStartTime() + " - " + gap.getEndTime());
+        }
+        return result;
+    }
+
+    private static LimitingResourceQueue createQueue() {
+        ResourceCalendar calendar = createBasicCalendar().newDerivedResourceCalendar();
+        calendar.getLastCalendarAvailability().setStartDate(start.minusDays(1));
+        Resource resource = createNiceMock(Resource.class);
+        expect(resource.getCalendar()).andReturn(calendar).anyTimes();
+        replay(resource);
+
+        LimitingResourceQueue result = LimitingResourceQueue.create();
+        result.setResource(resource);
+        return result;
+    }
+
+    private static LimitingResourceQueueElement createElement(DateAndHour start, DateAndHour end) {
+        LimitingResourceQueueElement result = LimitingResourceQueueElement.create();
+        result.setStartDate(start.getDate());
+        result.setStartHour(start.getHour());
+        result.setEndDate(end.getDate());
+        result.setEndHour(end.getHour());
+        return result;
+    }
+
+}
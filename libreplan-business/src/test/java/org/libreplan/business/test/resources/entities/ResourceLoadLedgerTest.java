@@ -0,0 +1,197 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.business.test.resources.entities;
+
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.replay;
+import static org.junit.Assert.assertEquals;
+import static org.libreplan.business.workingday.EffortDuration.hours;
+import static org.libreplan.business.workingday.EffortDuration.zero;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.joda.time.LocalDate;
+import org.junit.Before;
+import org.junit.Test;
+import org.libreplan.business.common.BaseEntity;
+import org.libreplan.business.planner.entities.DayAssignment;
+import org.libreplan.business.planner.entities.SpecificDayAssignment;
+import org.libreplan.business.planner.entities.SpecificResourceAllocation;
+import org.libreplan.business.planner.entities.Task;
+import org.libreplan.business.resources.entities.Resource;
+import org.libreplan.business.resources.entities.Worker;
+import org.libreplan.business.scenarios.entities.Scenario;
+import org.libreplan.business.workingday.EffortDuration;
+
+/**
+ * Checks that the assigned effort of a {@link Resource}, kept incrementally
+ * while day assignments are added and removed, is the same one obtained adding
+ * up its day assignments.
+ */
+public class ResourceLoadLedgerTest {
+
+    private static final LocalDate start = new LocalDate(2012, 3, 5);
+
+    private Worker worker;
+
+    private List<SpecificResourceAllocation> allocations;
+
+    @Before
+    public void setUp() {
+        worker = Worker.create();
+        worker.useScenario(Scenario.create("test"));
+        allocations = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Task task = createNiceMock(Task.class);
+            replay(task);
+            allocations.add(SpecificResourceAllocation.create(task));
+        }
+    }
+
+    private SpecificDayAssignment assign(LocalDate day, EffortDuration effort, SpecificResourceAllocation allocation) {
+        SpecificDayAssignment result = SpecificDayAssignment.create(day, effort, worker);
+        result.setSpecificResourceAllocation(allocation);
+        worker.addNewAssignments(Collections.singletonList(result));
+        return result;
+    }
+
+    private EffortDuration expectedAssignedEffort(LocalDate day, Map<Long, Set<BaseEntity>> discounting) {
+        EffortDuration result = zero();
+        for (DayAssignment each : worker.getAssignments()) {
+            if (each.getDay().equals(day) && (discounting == null || !each.belongsToSomeOf(discounting))) {
+                result = result.plus(each.getDuration());
+            }
+        }
+        return result;
+    }
+
+    private void checkAllDays(int days) {
+        Map<Long, Set<BaseEntity>> discounting = BaseEntity.byId(allocations.subList(0, 1));
+        for (int i = -1; i <= days; i++) {
+            LocalDate day = start.plusDays(i);
+            assertEquals(expectedAssignedEffort(day, null), worker.getAssignedEffort(day));
+            assertEquals(expectedAssignedEffort(day, discounting),
+                    worker.getAssignedDurationDiscounting(discounting, day));
+        }
+    }
+
+    @Test
+    public void theAssignedEffortIsTheSumOfTheDayAssignmentsOfTheDay() {
+        assign(start, hours(3), allocations.get(0));
+        assign(start, hours(5), allocations.get(1));
+        assign(start.plusDays(1), hours(2), allocations.get(0));
+
+        assertEquals(hours(8), worker.getAssignedEffort(start));
+        assertEquals(hours(5), worker.getAssignedDurationDiscounting(BaseEntity.byId(allocations.subList(0, 1)),
+                start));
+        assertEquals(hours(2), worker.getAssignedEffort(start.plusDays(1)));
+        assertEquals(zero(), worker.getAssignedEffort(start.plusDays(2)));
+    }
+
+    @Test
+    public void theAssignedEffortIsUpdatedWhenAddingAndRemovingDayAssignments() {
+        Random random = new Random(3);
+        int days = 200;
+        List<DayAssignment> added = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            for (int j = 0; j < 10; j++) {
+                added.add(assign(start.plusDays(random.nextInt(days)), hours(1 + random.nextInt(8)),
+                        allocations.get(random.nextInt(allocations.size()))));
+            }
+            for (int j = 0; j < 3 && !added.isEmpty(); j++) {
+                worker.removeAssignments(Arrays.asList(added.remove(random.nextInt(added.size()))));
+            }
+            if (i % 5 == 0) {
+                checkAllDays(days);
+            }
+        }
+        checkAllDays(days);
+    }
+
+    @Test
+    public void theAllocationCanBeSetAfterAddingTheDayAssignment() {
+        SpecificDayAssignment assignment = SpecificDayAssignment.create(start, hours(4), worker);
+        worker.addNewAssignments(Collections.singletonList(assignment));
+        assertEquals(hours(4), worker.getAssignedEffort(start));
+
+        assignment.setSpecificResourceAllocation(allocations.get(0));
+        assertEquals(zero(), worker.getAssignedDurationDiscounting(BaseEntity.byId(allocations.subList(0, 1)),
+                start));
+        assertEquals(hours(4), worker.getAssignedDurationDiscounting(BaseEntity.byId(allocations.subList(1, 2)),
+                start));
+    }
+
+    @Test
+    public void aDayAssignmentAddedTwiceIsCountedOnce() {
+        SpecificDayAssignment assignment = assign(start, hours(4), allocations.get(0));
+        assertEquals(hours(4), worker.getAssignedEffort(start));
+
+        worker.addNewAssignments(Collections.singletonList(assignment));
+        assertEquals(hours(4), worker.getAssignedEffort(start));
+
+        worker.removeAssignments(Collections.singletonList(assignment));
+        assertEquals(zero(), worker.getAssignedEffort(start));
+    }
+
+    @Test
+    public void aPreparedResourceCanBeReadFromSeveralThreadsAtTheSameTime() throws Exception {
+        Random random = new Random(5);
+        final int days = 100;
+        for (int i = 0; i < 300; i++) {
+            assign(start.plusDays(random.nextInt(days)), hours(1 + random.nextInt(8)),
+                    allocations.get(random.nextInt(allocations.size())));
+        }
+        worker.prepareAssignedEffort();
+
+        List<Callable<Void>> checks = new ArrayList<>();
+        for (int i = 0; i < allocations.size(); i++) {
+            final Map<Long, Set<BaseEntity>> discounting = BaseEntity.byId(allocations.subList(i, i + 1));
+            checks.add(() -> {
+                for (int round = 0; round < 20; round++) {
+                    for (int day = 0; day < days; day++) {
+                        LocalDate each = start.plusDays(day);
+                        assertEquals(expectedAssignedEffort(each, discounting),
+                                worker.getAssignedDurationDiscounting(discounting, each));
+                    }
+                }
+                return null;
+            });
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(checks.size());
+        try {
+            for (Future<Void> each : executor.invokeAll(checks)) {
+                each.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+}
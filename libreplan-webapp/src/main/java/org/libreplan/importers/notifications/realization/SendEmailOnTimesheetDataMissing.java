@@ -247,11 +247,8 @@ public class SendEmailOnTimesheetDataMissing implements IEmailNotificationJob {
         LocalDate start = periodicity.getStart(date);
         LocalDate end = periodicity.getEnd(date);
 
-        EffortDuration capacity = EffortDuration.zero();
-        for (LocalDate day = start; day.compareTo(end) <= 0; day = day.plusDays(1)) {
-            capacity = capacity.plus(resource.getCalendar().getCapacityOn(IntraDayDate.PartialDay.wholeDay(day)));
-        }
-        return capacity;
+        return resource.getCalendar().getCapacityBetween(IntraDayDate.startOfDay(start),
+                IntraDayDate.startOfDay(end).nextDayAtStart());
     }
 
 }
@@ -0,0 +1,101 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.web.limitingresources;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.libreplan.business.planner.limiting.entities.LimitingResourceQueueElement;
+
+/**
+ * What happened assigning several {@link LimitingResourceQueueElement} at
+ * once: the elements placed in some queue, the ones that couldn't be placed
+ * and the time it took.
+ */
+public class BulkAssignmentReport {
+
+    private final List<LimitingResourceQueueElement> assigned = new ArrayList<>();
+
+    private final List<LimitingResourceQueueElement> notAssigned = new ArrayList<>();
+
+    private final Set<LimitingResourceQueueElement> modified = new HashSet<>();
+
+    private int movingOthers = 0;
+
+    private long orderingMillis = 0;
+
+    private long placingMillis = 0;
+
+    void assigned(LimitingResourceQueueElement element, Collection<? extends LimitingResourceQueueElement> modified) {
+        assigned.add(element);
+        this.modified.addAll(modified);
+        if (modified.size() > 1) {
+            movingOthers++;
+        }
+    }
+
+    void notAssigned(LimitingResourceQueueElement element) {
+        notAssigned.add(element);
+    }
+
+    void orderingTook(long millis) {
+        orderingMillis = millis;
+    }
+
+    void placingTook(long millis) {
+        placingMillis = millis;
+    }
+
+    public List<LimitingResourceQueueElement> getAssigned() {
+        return Collections.unmodifiableList(assigned);
+    }
+
+    public List<LimitingResourceQueueElement> getNotAssigned() {
+        return Collections.unmodifiableList(notAssigned);
+    }
+
+    /**
+     * @return the elements assigned plus the ones moved to keep the
+     *         dependencies
+     */
+    public Set<LimitingResourceQueueElement> getModified() {
+        return Collections.unmodifiableSet(modified);
+    }
+
+    public long getOrderingMillis() {
+        return orderingMillis;
+    }
+
+    public long getPlacingMillis() {
+        return placingMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "assigned " + assigned.size() + " of " + (assigned.size() + notAssigned.size())
+                + " elements, " + movingOthers + " of them moving others; ordering took: " + orderingMillis
+                + " ms, placing took: " + placingMillis + " ms";
+    }
+
+}
@@ -142,6 +142,10 @@ public interface ILimitingResourceQueueModel {
             LimitingResourceQueueElement oldElement,
             LimitingResourceQueueElement newElement);
 
-    Set<LimitingResourceQueueElement> assignLimitingResourceQueueElements(List<LimitingResourceQueueElement> elements);
+    /**
+     * Assigns the elements in a single pass, ordered by their dependencies.
+     * Nothing is stored until {@link #confirm()}.
+     */
+    BulkAssignmentReport assignLimitingResourceQueueElements(List<LimitingResourceQueueElement> elements);
 
 }
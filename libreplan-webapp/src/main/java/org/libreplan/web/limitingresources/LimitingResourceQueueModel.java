@@ -37,6 +37,7 @@ import java.util.Set;
 import java.util.SortedSet;
 
 import org.apache.commons.lang3.Validate;
+import org.apache.commons.logging.Log;
 import org.hibernate.Hibernate;
 import org.hibernate.proxy.HibernateProxy;
 import org.jgrapht.DirectedGraph;
@@ -53,6 +54,7 @@ import org.libreplan.business.orders.entities.Order;
 import org.libreplan.business.orders.entities.OrderElement;
 import org.libreplan.business.orders.entities.TaskSource;
 import org.libreplan.business.planner.daos.IDependencyDAO;
+import org.libreplan.business.planner.daos.ITaskDayAggregateDAO;
 import org.libreplan.business.planner.daos.ITaskElementDAO;
 import org.libreplan.business.planner.entities.DayAssignment;
 import org.libreplan.business.planner.entities.Dependency;
@@ -98,12 +100,15 @@ import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 import org.zkoss.ganttz.timetracker.zoom.ZoomLevel;
 import org.zkoss.ganttz.util.Interval;
+import org.zkoss.ganttz.util.ProfilingLogFactory;
 
 @Component
 @Scope(BeanDefinition.SCOPE_PROTOTYPE)
 @OnConcurrentModification(goToPage = "/planner/index.zul;limiting_resources")
 public class LimitingResourceQueueModel implements ILimitingResourceQueueModel {
 
+    private static final Log PROFILING_LOG = ProfilingLogFactory.getLog(LimitingResourceQueueModel.class);
+
     @Autowired
     private IOrderDAO orderDAO;
 
@@ -128,6 +133,9 @@ public class LimitingResourceQueueModel implements ILimitingResourceQueueModel {
     @Autowired
     private IDependencyDAO dependencyDAO;
 
+    @Autowired
+    private ITaskDayAggregateDAO taskDayAggregateDAO;
+
     private QueuesState queuesState;
 
     private Interval viewInterval;
@@ -446,6 +454,11 @@ public class LimitingResourceQueueModel implements ILimitingResourceQueueModel {
         List<LimitingResourceQueueElement> result = new ArrayList<>();
         result.add(requirements.getElement());
 
+        // Only the elements already in some queue that depend on it can be moved
+        if ( !allocation.isAppropriative() && !queuesState.hasSuccessorsInQueues(externalQueueElement) ) {
+            return result;
+        }
+
         List<LimitingResourceQueueElement> moved = shift(
                 queuesState.getPotentiallyAffectedByInsertion(externalQueueElement),
                 requirements.getElement(),
@@ -645,7 +658,7 @@ public class LimitingResourceQueueModel implements ILimitingResourceQueueModel {
         return findAllocationSpecFor(queuesState.getPotentiallyValidGapsFor(requirements), requirements);
     }
 
-    private AllocationSpec findAllocationSpecFor(List<GapOnQueue> gapsOnQueue, InsertionRequirements requirements) {
+    private AllocationSpec findAllocationSpecFor(Iterable<GapOnQueue> gapsOnQueue, InsertionRequirements requirements) {
         boolean generic = requirements.getElement().isGeneric();
         for (GapOnQueue each : gapsOnQueue) {
 
@@ -677,16 +690,7 @@ public class LimitingResourceQueueModel implements ILimitingResourceQueueModel {
     }
 
     private AllocationSpec findAllocationSpecForInQueue(InsertionRequirements requirements, LimitingResourceQueue queue) {
-
-        List<GapOnQueue> potentiallyValidGapsFor = new ArrayList<>();
-
-        for (GapOnQueue each : queuesState.getPotentiallyValidGapsFor(requirements)) {
-            if ( each.getOriginQueue().equals(queue) ) {
-                potentiallyValidGapsFor.add(each);
-            }
-        }
-
-        return findAllocationSpecFor(potentiallyValidGapsFor, requirements);
+        return findAllocationSpecFor(queuesState.getPotentiallyValidGapsFor(requirements, queue), requirements);
     }
 
     private AllocationSpec doAppropriativeAllocation(InsertionRequirements requirements) {
@@ -743,7 +747,7 @@ public class LimitingResourceQueueModel implements ILimitingResourceQueueModel {
 
     private List<GapOnQueue> getSubGaps(GapOnQueue each, LimitingResourceQueueElement element, boolean generic) {
         return generic
-                ? each.splitIntoGapsSatisfyingCriteria(element.getCriteria())
+                ? queuesState.splitIntoGapsSatisfyingCriteria(each, element.getCriteria())
                 : Collections.singletonList(each);
     }
 
@@ -900,11 +904,15 @@ public class LimitingResourceQueueModel implements ILimitingResourceQueueModel {
     }
 
     private void saveQueueElements() {
+        List<Task> savedTasks = new ArrayList<>();
         for (LimitingResourceQueueElement each: toBeSaved) {
             if ( each != null ) {
                 saveQueueElement(each);
+                savedTasks.add(getAssociatedTask(each));
             }
         }
+        // Their estimated cost is calculated from the day assignments again until they are saved from the planning
+        taskDayAggregateDAO.removeFor(savedTasks);
         updateEndDateForParentTasks();
         SaveCommandBuilder.dontPoseAsTransientAndChildrenObjects(getAllocations(toBeSaved));
         toBeSaved.clear();
@@ -1232,13 +1240,25 @@ public class LimitingResourceQueueModel implements ILimitingResourceQueueModel {
 
 
     @Override
-    public Set<LimitingResourceQueueElement> assignLimitingResourceQueueElements(
-            List<LimitingResourceQueueElement> queueElements) {
-
-        Set<LimitingResourceQueueElement> result = new HashSet<>();
-        for (LimitingResourceQueueElement each: queuesState.inTopologicalOrder(queueElements)) {
-            result.addAll(assignLimitingResourceQueueElement(each));
+    public BulkAssignmentReport assignLimitingResourceQueueElements(List<LimitingResourceQueueElement> queueElements) {
+        BulkAssignmentReport result = new BulkAssignmentReport();
+
+        long time = System.currentTimeMillis();
+        List<LimitingResourceQueueElement> ordered = queuesState.inTopologicalOrder(queueElements);
+        result.orderingTook(System.currentTimeMillis() - time);
+
+        time = System.currentTimeMillis();
+        for (LimitingResourceQueueElement each : ordered) {
+            List<LimitingResourceQueueElement> modified = assignLimitingResourceQueueElement(each);
+            if ( modified.isEmpty() ) {
+                result.notAssigned(each);
+            } else {
+                result.assigned(each, modified);
+            }
         }
+        result.placingTook(System.currentTimeMillis() - time);
+
+        PROFILING_LOG.debug("bulk assignment of limiting resource queue elements: " + result);
 
         return result;
     }
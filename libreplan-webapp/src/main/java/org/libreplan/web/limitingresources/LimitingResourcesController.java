@@ -569,7 +569,7 @@ public class LimitingResourcesController extends GenericForwardComposer<org.zkos
         if ( !elements.isEmpty() ) {
 
             Set<LimitingResourceQueueElement> inserted =
-                    limitingResourceQueueModel.assignLimitingResourceQueueElements(elements);
+                    limitingResourceQueueModel.assignLimitingResourceQueueElements(elements).getModified();
 
             clearSelectAllCheckbox();
 
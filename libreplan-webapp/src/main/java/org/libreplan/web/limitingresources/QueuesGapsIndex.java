@@ -0,0 +1,232 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.web.limitingresources;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.apache.commons.lang3.builder.HashCodeBuilder;
+import org.libreplan.business.calendars.entities.AvailabilityTimeLine;
+import org.libreplan.business.planner.entities.AvailabilityCalculator;
+import org.libreplan.business.planner.limiting.entities.Gap.GapOnQueue;
+import org.libreplan.business.planner.limiting.entities.InsertionRequirements;
+import org.libreplan.business.resources.entities.Criterion;
+import org.libreplan.business.resources.entities.LimitingResourceQueue;
+import org.libreplan.business.resources.entities.Resource;
+import org.libreplan.business.resources.entities.ResourceEnum;
+
+/**
+ * Index of the gaps of all the {@link LimitingResourceQueue} of a {@link QueuesState}.
+ * <p>
+ * Each queue already keeps its own ordered list of gaps, updated when elements are added or moved. This index lives as
+ * long as the {@link QueuesState} and keeps the queues matching each combination of resource type and criteria and
+ * the availability of those criteria for each resource. The earliest gaps across several queues are obtained merging
+ * lazily the lists of the queues, so the search stops generating gaps as soon as a suitable one is found.
+ * <p>
+ * The order is the one of {@link GapOnQueue#getGap()}, and gaps starting at the same time follow the order of the
+ * queues.
+ */
+class QueuesGapsIndex {
+
+    private final List<LimitingResourceQueue> queues;
+
+    private final Map<CriteriaKey, List<LimitingResourceQueue>> queuesMatching = new HashMap<>();
+
+    private final Map<Resource, Map<Set<Criterion>, AvailabilityTimeLine>> criteriaAvailabilities = new HashMap<>();
+
+    QueuesGapsIndex(List<LimitingResourceQueue> queues) {
+        this.queues = queues;
+    }
+
+    List<LimitingResourceQueue> getQueuesMatching(ResourceEnum resourceType, Set<Criterion> criteria) {
+        CriteriaKey key = new CriteriaKey(resourceType, criteria);
+        List<LimitingResourceQueue> result = queuesMatching.get(key);
+
+        if ( result == null ) {
+            result = new ArrayList<>();
+            for (LimitingResourceQueue each : queues) {
+                Resource resource = each.getResource();
+                if ( resource.getType().equals(resourceType) && resource.satisfiesCriterionsAtSomePoint(criteria) ) {
+                    result.add(each);
+                }
+            }
+            result = Collections.unmodifiableList(result);
+            queuesMatching.put(key, result);
+        }
+
+        return result;
+    }
+
+    /**
+     * The returned {@link AvailabilityTimeLine} is shared, it must not be modified.
+     */
+    AvailabilityTimeLine getCriteriaAvailability(Resource resource, Set<Criterion> criteria) {
+        Map<Set<Criterion>, AvailabilityTimeLine> byCriteria = criteriaAvailabilities.get(resource);
+
+        if ( byCriteria == null ) {
+            byCriteria = new HashMap<>();
+            criteriaAvailabilities.put(resource, byCriteria);
+        }
+        AvailabilityTimeLine result = byCriteria.get(criteria);
+
+        if ( result == null ) {
+            result = AvailabilityCalculator.getCriterionsAvailabilityFor(criteria, resource);
+            byCriteria.put(new HashSet<>(criteria), result);
+        }
+
+        return result;
+    }
+
+    List<GapOnQueue> splitIntoGapsSatisfyingCriteria(GapOnQueue gapOnQueue, Set<Criterion> criteria) {
+        Resource resource = gapOnQueue.getOriginQueue().getResource();
+        return gapOnQueue.splitIntoGapsSatisfyingCriteria(getCriteriaAvailability(resource, criteria));
+    }
+
+    /**
+     * @return the gaps of <code>assignableQueues</code> that could potentially fit the element of
+     *         <code>requirements</code> ordered by start date. They are calculated while iterating, so the queues must
+     *         not be modified meanwhile
+     */
+    Iterable<GapOnQueue> getPotentiallyValidGaps(final List<LimitingResourceQueue> assignableQueues,
+                                                 final InsertionRequirements requirements) {
+        return new Iterable<GapOnQueue>() {
+            @Override
+            public Iterator<GapOnQueue> iterator() {
+                return new MergingIterator(assignableQueues, requirements);
+            }
+        };
+    }
+
+    private static class CriteriaKey {
+
+        private final ResourceEnum resourceType;
+
+        private final Set<Criterion> criteria;
+
+        CriteriaKey(ResourceEnum resourceType, Set<Criterion> criteria) {
+            this.resourceType = resourceType;
+            this.criteria = new HashSet<>(criteria);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if ( obj instanceof CriteriaKey ) {
+                CriteriaKey other = (CriteriaKey) obj;
+                return new EqualsBuilder()
+                        .append(resourceType, other.resourceType)
+                        .append(criteria, other.criteria)
+                        .isEquals();
+            }
+            return false;
+        }
+
+        @Override
+        public int hashCode() {
+            return new HashCodeBuilder().append(resourceType).append(criteria).toHashCode();
+        }
+    }
+
+    /**
+     * Current gap of one of the queues being merged. Note: this class has a natural ordering that is inconsistent
+     * with equals.
+     */
+    private static class QueueHead implements Comparable<QueueHead> {
+
+        private final int queuePosition;
+
+        private final Iterator<GapOnQueue> iterator;
+
+        private GapOnQueue current;
+
+        QueueHead(int queuePosition, Iterator<GapOnQueue> iterator) {
+            this.queuePosition = queuePosition;
+            this.iterator = iterator;
+        }
+
+        boolean advance(InsertionRequirements requirements) {
+            while (iterator.hasNext()) {
+                GapOnQueue each = iterator.next();
+                if ( requirements.isPotentiallyValid(each.getGap()) ) {
+                    current = each;
+                    return true;
+                }
+            }
+            current = null;
+            return false;
+        }
+
+        @Override
+        public int compareTo(QueueHead other) {
+            int result = current.getGap().compareTo(other.current.getGap());
+            return result != 0 ? result : Integer.compare(queuePosition, other.queuePosition);
+        }
+    }
+
+    private static class MergingIterator implements Iterator<GapOnQueue> {
+
+        private final InsertionRequirements requirements;
+
+        private final PriorityQueue<QueueHead> heads = new PriorityQueue<>();
+
+        MergingIterator(List<LimitingResourceQueue> queues, InsertionRequirements requirements) {
+            this.requirements = requirements;
+            int position = 0;
+            for (LimitingResourceQueue each : queues) {
+                QueueHead head = new QueueHead(position++, each.getGaps().iterator());
+                if ( head.advance(requirements) ) {
+                    heads.add(head);
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !heads.isEmpty();
+        }
+
+        @Override
+        public GapOnQueue next() {
+            QueueHead min = heads.poll();
+            if ( min == null ) {
+                throw new NoSuchElementException();
+            }
+            GapOnQueue result = min.current;
+            if ( min.advance(requirements) ) {
+                heads.add(min);
+            }
+            return result;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+}
@@ -54,7 +54,6 @@ import org.libreplan.business.planner.limiting.entities.LimitingResourceQueueEle
 import org.libreplan.business.resources.entities.Criterion;
 import org.libreplan.business.resources.entities.LimitingResourceQueue;
 import org.libreplan.business.resources.entities.Resource;
-import org.libreplan.business.resources.entities.ResourceEnum;
 
 /**
  * @author Óscar González Fernández <ogonzalez@igalia.com>
@@ -73,6 +72,8 @@ public class QueuesState {
 
     private final Map<Long, LimitingResourceQueue> queuesByResourceId;
 
+    private final QueuesGapsIndex gapsIndex;
+
     private static <T extends BaseEntity> Map<Long, T> byId(Collection<? extends T> entities) {
         Map<Long, T> result = new HashMap<>();
         for (T each : entities) {
@@ -102,6 +103,7 @@ public class QueuesState {
         this.queuesById = byId(queues);
         this.elementsById = byId(allElements(limitingResourceQueues, unassignedLimitingResourceQueueElements));
         this.queuesByResourceId = byResourceId(limitingResourceQueues);
+        this.gapsIndex = new QueuesGapsIndex(queues);
         this.graph = buildGraph(getAllElements(unassignedElements, queues));
     }
 
@@ -306,37 +308,34 @@ public class QueuesState {
      * @return all the gaps that could potentially fit <code>element</code>
      *         ordered by start date
      */
-    public List<GapOnQueue> getPotentiallyValidGapsFor(InsertionRequirements requirements) {
-        List<LimitingResourceQueue> assignableQueues = getAssignableQueues(requirements.getElement());
-        List<List<GapOnQueue>> allGaps = gapsFor(assignableQueues, requirements);
-
-        return GapsMergeSort.sort(allGaps);
+    public Iterable<GapOnQueue> getPotentiallyValidGapsFor(InsertionRequirements requirements) {
+        return gapsIndex.getPotentiallyValidGaps(getAssignableQueues(requirements.getElement()), requirements);
     }
 
-    private List<List<GapOnQueue>> gapsFor(List<LimitingResourceQueue> assignableQueues,
-                                           InsertionRequirements requirements) {
+    /**
+     * @return the gaps of <code>queue</code> that could potentially fit <code>element</code> ordered by start date.
+     *         None if <code>element</code> cannot be assigned to <code>queue</code>
+     */
+    public Iterable<GapOnQueue> getPotentiallyValidGapsFor(InsertionRequirements requirements,
+                                                           LimitingResourceQueue queue) {
 
-        List<List<GapOnQueue>> result = new ArrayList<>();
-        for (LimitingResourceQueue each : assignableQueues) {
-            result.add(each.getGapsPotentiallyValidFor(requirements));
-        }
+        List<LimitingResourceQueue> assignableQueues = getAssignableQueues(requirements.getElement()).contains(queue)
+                ? Collections.singletonList(queue)
+                : Collections.<LimitingResourceQueue> emptyList();
 
-        return result;
+        return gapsIndex.getPotentiallyValidGaps(assignableQueues, requirements);
     }
 
-    private List<LimitingResourceQueue> findQueuesMatchingCriteria(GenericResourceAllocation generic) {
-        List<LimitingResourceQueue> result = new ArrayList<>();
-        ResourceEnum resourceType = generic.getResourceType();
-        Set<Criterion> criteria = generic.getCriterions();
-
-        for (LimitingResourceQueue each : queues) {
-            Resource resource = each.getResource();
-            if ( resource.getType().equals(resourceType) && resource.satisfiesCriterionsAtSomePoint(criteria) ) {
-                result.add(each);
-            }
-        }
+    /**
+     * Splits <code>gapOnQueue</code> in the parts where its resource satisfies <code>criteria</code>. The availability
+     * of the criteria is calculated once per resource.
+     */
+    public List<GapOnQueue> splitIntoGapsSatisfyingCriteria(GapOnQueue gapOnQueue, Set<Criterion> criteria) {
+        return gapsIndex.splitIntoGapsSatisfyingCriteria(gapOnQueue, criteria);
+    }
 
-        return result;
+    private List<LimitingResourceQueue> findQueuesMatchingCriteria(GenericResourceAllocation generic) {
+        return gapsIndex.getQueuesMatching(generic.getResourceType(), generic.getCriterions());
     }
 
     public static class Edge {
@@ -389,6 +388,21 @@ public class QueuesState {
 
     }
 
+    /**
+     * If there are none, {@link #getPotentiallyAffectedByInsertion(LimitingResourceQueueElement)}
+     * has no dependencies and nothing has to be moved after inserting
+     * <code>element</code>.
+     */
+    public boolean hasSuccessorsInQueues(LimitingResourceQueueElement element) {
+        for (LimitingResourceQueueDependency each : graph.outgoingEdgesOf(getEquivalent(element))) {
+            if ( !each.getHasAsDestiny().isDetached() ) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
     public DirectedGraph<LimitingResourceQueueElement, Edge> getPotentiallyAffectedByInsertion(
             LimitingResourceQueueElement element) {
 
@@ -21,11 +21,8 @@
 
 package org.libreplan.web.montecarlo;
 
-import java.math.BigDecimal;
 import java.util.List;
-import java.util.Map;
 
-import org.joda.time.LocalDate;
 import org.libreplan.business.planner.entities.TaskElement;
 import org.zkoss.ganttz.util.LongOperationFeedback.IDesktopUpdatesEmitter;
 
@@ -35,7 +32,15 @@ import org.zkoss.ganttz.util.LongOperationFeedback.IDesktopUpdatesEmitter;
  */
 public interface IMonteCarloModel {
 
-    Map<LocalDate, BigDecimal> calculateMonteCarlo(List<MonteCarloTask> tasks,
+    MonteCarloResult calculateMonteCarlo(List<MonteCarloTask> tasks,
+            int times, IDesktopUpdatesEmitter<Integer> iterationProgress);
+
+    /**
+     * Simulates all the tasks of the order following their dependencies,
+     * instead of only the tasks of a critical path. The provided tasks
+     * override the default estimations.
+     */
+    MonteCarloResult calculateMonteCarloForAllTasks(List<MonteCarloTask> estimatedTasks,
             int times, IDesktopUpdatesEmitter<Integer> iterationProgress);
 
     void setCriticalPath(List<TaskElement> criticalPath);
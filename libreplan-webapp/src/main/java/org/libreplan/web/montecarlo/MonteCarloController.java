@@ -23,12 +23,9 @@ package org.libreplan.web.montecarlo;
 
 import static org.libreplan.web.I18nHelper._;
 
-import java.math.BigDecimal;
 import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
-import org.joda.time.LocalDate;
 import org.libreplan.business.planner.entities.TaskElement;
 import org.libreplan.web.common.Util;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -75,7 +72,7 @@ public class MonteCarloController extends GenericForwardComposer {
 
     private static final Integer DEFAULT_ITERATIONS = 10000;
 
-    private static final Integer MAX_NUMBER_ITERATIONS = 100000;
+    private static final Integer MAX_NUMBER_ITERATIONS = 1000000;
 
     private final RowRenderer gridCriticalPathTasksRender = new CriticalPathTasksRender();
 
@@ -87,6 +84,8 @@ public class MonteCarloController extends GenericForwardComposer {
 
     private Checkbox cbGroupByWeeks;
 
+    private Checkbox cbAllTasks;
+
     private Listbox lbCriticalPaths;
 
     private Progressmeter progressMonteCarloCalculation;
@@ -118,10 +117,8 @@ public class MonteCarloController extends GenericForwardComposer {
                     updatesEmitter.doUpdate(disableButton(true));
                     int iterations = getIterations();
 
-                    final Map<LocalDate, BigDecimal> monteCarloData = monteCarloModel
-                            .calculateMonteCarlo(getSelectedCriticalPath(),
-                                    iterations,
-                                    percentageCompletedNotifier(updatesEmitter));
+                    final MonteCarloResult monteCarloData = calculateMonteCarlo(iterations,
+                            percentageCompletedNotifier(updatesEmitter));
 
                     updatesEmitter.doUpdate(showCalculatedData(monteCarloData));
                 } finally {
@@ -129,6 +126,16 @@ public class MonteCarloController extends GenericForwardComposer {
                 }
             }
 
+            private MonteCarloResult calculateMonteCarlo(int iterations,
+                                                         IDesktopUpdatesEmitter<Integer> iterationProgress) {
+                if ( cbAllTasks.isChecked() ) {
+                    return monteCarloModel.calculateMonteCarloForAllTasks(
+                            getSelectedCriticalPath(), iterations, iterationProgress);
+                }
+
+                return monteCarloModel.calculateMonteCarlo(getSelectedCriticalPath(), iterations, iterationProgress);
+            }
+
             private IDesktopUpdate disableButton(final boolean disable) {
                 return () -> btnRunMonteCarlo.setDisabled(disable);
             }
@@ -194,16 +201,16 @@ public class MonteCarloController extends GenericForwardComposer {
                 };
             }
 
-            private IDesktopUpdate showCalculatedData(final Map<LocalDate, BigDecimal> monteCarloData) {
+            private IDesktopUpdate showCalculatedData(final MonteCarloResult monteCarloData) {
                 return () -> showMonteCarloGraph(monteCarloData);
             }
 
-            private void showMonteCarloGraph(Map<LocalDate, BigDecimal> data) {
+            private void showMonteCarloGraph(MonteCarloResult data) {
                 monteCarloChartWindow = createMonteCarloGraphWindow(data);
                 monteCarloChartWindow.setMode("modal");
             }
 
-            private Window createMonteCarloGraphWindow(Map<LocalDate, BigDecimal> data) {
+            private Window createMonteCarloGraphWindow(MonteCarloResult data) {
                 HashMap<String, Object> args = new HashMap<>();
                 args.put("monteCarloGraphController", new MonteCarloGraphController());
                 Window result = (Window) Executions.createComponents("/planner/montecarlo_function.zul", self, args);
@@ -269,7 +276,7 @@ public class MonteCarloController extends GenericForwardComposer {
 
             if (iterationNumber == -1) {
                 throw new WrongValueException(comp, _("cannot be empty"));
-            } else if (iterationNumber < 1 || iterationNumber > 100_000) {
+            } else if (iterationNumber < 1 || iterationNumber > MAX_NUMBER_ITERATIONS) {
                 throw new WrongValueException(comp, _("Number of iterations should be between 1 and {0}",
                         MAX_NUMBER_ITERATIONS));
             }
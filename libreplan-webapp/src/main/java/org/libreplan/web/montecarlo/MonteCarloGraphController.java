@@ -19,6 +19,7 @@
 package org.libreplan.web.montecarlo;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
@@ -27,6 +28,7 @@ import java.util.List;
 import java.util.Map;
 
 import org.joda.time.LocalDate;
+import org.libreplan.business.planner.entities.TaskElement;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Component;
@@ -35,7 +37,12 @@ import org.zkoss.zul.CategoryModel;
 import org.zkoss.zul.Chart;
 import org.zkoss.zul.Datebox;
 import org.zkoss.zul.Decimalbox;
+import org.zkoss.zul.Grid;
+import org.zkoss.zul.Label;
+import org.zkoss.zul.Row;
+import org.zkoss.zul.RowRenderer;
 import org.zkoss.zul.SimpleCategoryModel;
+import org.zkoss.zul.SimpleListModel;
 
 /**
  * Generates a BarChart 3D with the results of a MonteCarlo computation.
@@ -56,6 +63,14 @@ public class MonteCarloGraphController extends GenericForwardComposer {
 
     private Decimalbox dbIntervalProbability;
 
+    private Label labelP50;
+
+    private Label labelP80;
+
+    private Label labelP95;
+
+    private Grid gridCriticalityIndexes;
+
     private List<LocalDate> dates;
 
     private Map<LocalDate, BigDecimal> monteCarloValues;
@@ -77,7 +92,7 @@ public class MonteCarloGraphController extends GenericForwardComposer {
     private IOnClose onClose = null;
 
     public void generateMonteCarloGraph(String orderName,
-                                        Map<LocalDate, BigDecimal> data,
+                                        MonteCarloResult result,
                                         boolean byWeek,
                                         IOnClose onClose) {
 
@@ -85,6 +100,7 @@ public class MonteCarloGraphController extends GenericForwardComposer {
 
         CategoryModel xyModel;
 
+        Map<LocalDate, BigDecimal> data = result.getProbabilities();
         initializeMonteCarloValues(data);
 
         // Generate MonteCarlo chart
@@ -101,6 +117,35 @@ public class MonteCarloGraphController extends GenericForwardComposer {
         dateboxStartDateProbability.setValue(toDate(first));
         dateboxEndDateProbability.setValue(toDate(last));
         dbIntervalProbability.setValue(calculateProbabilityDensity(first, last));
+
+        labelP50.setValue(result.getP50().toString());
+        labelP80.setValue(result.getP80().toString());
+        labelP95.setValue(result.getP95().toString());
+
+        showCriticalityIndexes(result.getCriticalityIndexes());
+    }
+
+    private void showCriticalityIndexes(Map<TaskElement, BigDecimal> criticalityIndexes) {
+        List<Map.Entry<TaskElement, BigDecimal>> critical = new ArrayList<>();
+        for (Map.Entry<TaskElement, BigDecimal> each : criticalityIndexes.entrySet()) {
+            if (each.getValue().signum() > 0) {
+                critical.add(each);
+            }
+        }
+        gridCriticalityIndexes.setVisible(!critical.isEmpty());
+        gridCriticalityIndexes.setRowRenderer(new CriticalityIndexRenderer());
+        gridCriticalityIndexes.setModel(new SimpleListModel<>(critical));
+    }
+
+    private static class CriticalityIndexRenderer implements RowRenderer {
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void render(Row row, Object o, int i) throws Exception {
+            Map.Entry<TaskElement, BigDecimal> entry = (Map.Entry<TaskElement, BigDecimal>) o;
+            row.appendChild(new Label(entry.getKey().getName()));
+            row.appendChild(new Label(entry.getValue().movePointRight(2).setScale(2, RoundingMode.HALF_UP) + " %"));
+        }
     }
 
     private void initializeMonteCarloValues(Map<LocalDate, BigDecimal> data) {
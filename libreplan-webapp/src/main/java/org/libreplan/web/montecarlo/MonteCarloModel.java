@@ -23,21 +23,15 @@ package org.libreplan.web.montecarlo;
 
 import static org.libreplan.web.I18nHelper._;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
-import java.util.Date;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Random;
 import java.util.Set;
 
-import org.apache.commons.lang3.Validate;
 import org.hibernate.Hibernate;
-import org.joda.time.LocalDate;
 import org.libreplan.business.orders.entities.Order;
 import org.libreplan.business.orders.entities.OrderElement;
 import org.libreplan.business.planner.daos.ITaskElementDAO;
@@ -75,6 +69,8 @@ public class MonteCarloModel implements IMonteCarloModel {
 
     private List<Task> tasksInCriticalPath;
 
+    private List<TaskElement> tasksInOrder = new ArrayList<>();
+
     @Override
     @Transactional(readOnly = true)
     public void setCriticalPath(List<TaskElement> tasksInCriticalPath) {
@@ -90,6 +86,7 @@ public class MonteCarloModel implements IMonteCarloModel {
 
         Collections.sort(this.tasksInCriticalPath, Task.getByStartDateComparator());
         initializeTasksInOrder(getOrderFor(this.tasksInCriticalPath));
+        tasksInOrder = leafTasksOf(getOrderFor(this.tasksInCriticalPath));
         initializeOrderNameFor(this.tasksInCriticalPath);
         feedCriticalPaths(this.tasksInCriticalPath);
     }
@@ -133,6 +130,26 @@ public class MonteCarloModel implements IMonteCarloModel {
         }
     }
 
+    /**
+     * The tasks and milestones of the order, with their dependencies
+     * initialized.
+     */
+    private List<TaskElement> leafTasksOf(Order order) {
+        List<TaskElement> result = new ArrayList<>();
+        TaskElement root = order.getAssociatedTaskElement();
+        if (root == null) {
+            return result;
+        }
+        for (TaskElement each : root.getAllChildren()) {
+            if (each.isLeaf()) {
+                initializeDependenciesFor(each);
+                result.add(each);
+            }
+        }
+
+        return result;
+    }
+
     private void initializeTask(OrderElement orderElement) {
         TaskElement task = orderElement.getAssociatedTaskElement();
 
@@ -195,161 +212,58 @@ public class MonteCarloModel implements IMonteCarloModel {
     }
 
     @Override
-    public Map<LocalDate, BigDecimal> calculateMonteCarlo(List<MonteCarloTask> tasks,
-                                                          int iterations,
-                                                          IDesktopUpdatesEmitter<Integer> iterationProgress) {
-
-        MonteCarloCalculation monteCarloCalculation = new MonteCarloCalculation(
-                copyOf(tasks), iterations, iterationProgress);
-        Map<LocalDate, BigDecimal> monteCarloValues = monteCarloCalculation.doCalculation();
-
-        // Convert number of times to probability
-        for (LocalDate key : monteCarloValues.keySet()) {
-            BigDecimal times = monteCarloValues.get(key);
-            BigDecimal probability = times.divide(BigDecimal.valueOf(iterations), 8, RoundingMode.HALF_UP);
-            monteCarloValues.put(key, probability);
-        }
+    public MonteCarloResult calculateMonteCarlo(List<MonteCarloTask> tasks,
+                                                int iterations,
+                                                IDesktopUpdatesEmitter<Integer> iterationProgress) {
 
-        return monteCarloValues;
-    }
+        List<MonteCarloTask> tasksWithRealDurations = copyOf(tasks);
+        adjustDurationDays(tasksWithRealDurations);
 
-    private List<MonteCarloTask> copyOf(List<MonteCarloTask> tasks) {
-        List<MonteCarloTask> result = new ArrayList<>();
-
-        for (MonteCarloTask each: tasks) {
-            result.add(MonteCarloTask.copy(each));
-        }
-
-        return result;
+        return MonteCarloSimulation.create(tasksWithRealDurations)
+                .run(iterations, System.currentTimeMillis(), iterationProgress);
     }
 
     @Override
-    public String getOrderName() {
-        return orderName;
-    }
-
-    private static class MonteCarloCalculation {
-
-        private Map<MonteCarloTask, Set<EstimationRange>> estimationRangesForTasks = new HashMap<>();
-
-        private List<MonteCarloTask> tasks;
-
-        private int iterations;
-
-        private IDesktopUpdatesEmitter<Integer> iterationProgress;
-
-        public MonteCarloCalculation(List<MonteCarloTask> tasks,
-                                     int iterations,
-                                     IDesktopUpdatesEmitter<Integer> iterationProgress) {
-
-            adjustDurationDays(tasks);
-            initializeEstimationRanges(tasks);
-            this.tasks = tasks;
-            this.iterations = iterations;
-            this.iterationProgress = iterationProgress;
-        }
-
-        public Map<LocalDate, BigDecimal> doCalculation() {
-            Map<LocalDate, BigDecimal> result = new HashMap<>();
-
-            final int onePercent = iterations / 100;
-            Random randomGenerator = new Random((new Date()).getTime());
-
-            // Calculate number of times a date is repeated
-            for (int i = 0; i < iterations; i++) {
-                LocalDate endDate = calculateEndDateFor(tasks, randomGenerator);
-                BigDecimal times = result.get(endDate);
-
-                times = times != null ? times.add(BigDecimal.ONE) : BigDecimal.ONE;
-
-                result.put(endDate, times);
+    public MonteCarloResult calculateMonteCarloForAllTasks(List<MonteCarloTask> estimatedTasks,
+                                                           int iterations,
+                                                           IDesktopUpdatesEmitter<Integer> iterationProgress) {
 
-                if (i % onePercent == 0) {
-                    increaseProgressMeter((i * 100) / iterations);
-                }
+        Map<TaskElement, MonteCarloTask> estimations = new HashMap<>();
+        for (TaskElement each : tasksInOrder) {
+            if (each instanceof Task) {
+                estimations.put(each, MonteCarloTask.create((Task) each));
             }
-
-            return result;
-        }
-
-        private void increaseProgressMeter(int completedPercent) {
-            iterationProgress.doUpdate(completedPercent);
         }
-
-        private LocalDate calculateEndDateFor(List<MonteCarloTask> tasks, Random randomGenerator) {
-            Validate.notEmpty(tasks);
-            BigDecimal durationDays = BigDecimal.ZERO;
-            MonteCarloTask first = tasks.get(0);
-
-            for (MonteCarloTask each : tasks) {
-                BigDecimal randomNumber = generate(randomGenerator);
-                durationDays = durationDays.add(getDuration(each, randomNumber));
-            }
-
-            return first.getStartDate().plusDays(durationDays.intValue());
+        for (MonteCarloTask each : copyOf(estimatedTasks)) {
+            estimations.put(each.getTask(), each);
         }
+        adjustDurationDays(estimations.values());
 
-        private BigDecimal generate(Random randomGenerator) {
-            return BigDecimal.valueOf(randomGenerator.nextDouble());
-        }
-
-        private BigDecimal getDuration(MonteCarloTask each, BigDecimal random) {
-            ESTIMATION_TYPE type = getEstimationType(each, random);
-            Validate.notNull(type);
-            switch (type) {
-
-                case PESSIMISTIC:
-                    return each.getPessimisticDuration();
-
-                case NORMAL:
-                    return each.getNormalDuration();
-
-                case OPTIMISTIC:
-                    return each.getOptimisticDuration();
-
-                default:
-                    break;
-            }
+        return MonteCarloSimulation.createForGraph(tasksInOrder, estimations)
+                .run(iterations, System.currentTimeMillis(), iterationProgress);
+    }
 
-            return BigDecimal.ZERO;
+    private void adjustDurationDays(Collection<MonteCarloTask> tasks) {
+        for (MonteCarloTask each : tasks) {
+            each.setPessimisticDuration(MonteCarloTask.calculateRealDurationFor(each, each.getPessimisticDuration()));
+            each.setNormalDuration(MonteCarloTask.calculateRealDurationFor(each, each.getNormalDuration()));
+            each.setOptimisticDuration(MonteCarloTask.calculateRealDurationFor(each, each.getOptimisticDuration()));
         }
+    }
 
-        private void adjustDurationDays(List<MonteCarloTask> tasks) {
-            for (MonteCarloTask each : tasks) {
-                each.setPessimisticDuration(MonteCarloTask.calculateRealDurationFor(each, each.getPessimisticDuration()));
-                each.setNormalDuration(MonteCarloTask.calculateRealDurationFor(each, each.getNormalDuration()));
-                each.setOptimisticDuration(MonteCarloTask.calculateRealDurationFor(each, each.getOptimisticDuration()));
-            }
-        }
-
-        private void initializeEstimationRanges(List<MonteCarloTask> tasks) {
-            estimationRangesForTasks.clear();
-
-            for (MonteCarloTask each : tasks) {
-                createEstimationRangesFor(each);
-            }
-        }
+    private List<MonteCarloTask> copyOf(List<MonteCarloTask> tasks) {
+        List<MonteCarloTask> result = new ArrayList<>();
 
-        private void createEstimationRangesFor(MonteCarloTask task) {
-            Set<EstimationRange> estimationRanges = new HashSet<>();
-            estimationRanges.add(EstimationRange.pessimisticRangeFor(task));
-            estimationRanges.add(EstimationRange.normalRangeFor(task));
-            estimationRanges.add(EstimationRange.optimisticRangeFor(task));
-            estimationRangesForTasks.put(task, estimationRanges);
+        for (MonteCarloTask each: tasks) {
+            result.add(MonteCarloTask.copy(each));
         }
 
-        public ESTIMATION_TYPE getEstimationType(MonteCarloTask task, BigDecimal random) {
-            Set<EstimationRange> estimationRanges = estimationRangesForTasks.get(task);
-
-            for (EstimationRange each : estimationRanges) {
-                if (each.contains(random)) {
-                    return each.getEstimationType();
-                }
-            }
-
-            return null;
-        }
+        return result;
+    }
 
+    @Override
+    public String getOrderName() {
+        return orderName;
     }
 
 }
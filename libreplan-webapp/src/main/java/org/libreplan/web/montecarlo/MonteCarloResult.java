@@ -0,0 +1,152 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.libreplan.web.montecarlo;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.Validate;
+import org.joda.time.Days;
+import org.joda.time.LocalDate;
+import org.libreplan.business.planner.entities.TaskElement;
+
+/**
+ * The end dates obtained by a {@link MonteCarloSimulation}, kept as a
+ * histogram with the number of iterations that ended on each day after the
+ * start, and the number of iterations in which each task was critical.
+ */
+public class MonteCarloResult {
+
+    private final LocalDate start;
+
+    private final long[] counts;
+
+    private final long iterations;
+
+    private final List<TaskElement> tasks;
+
+    private final long[] criticalCounts;
+
+    MonteCarloResult(LocalDate start,
+                     long[] counts,
+                     long iterations,
+                     List<TaskElement> tasks,
+                     long[] criticalCounts) {
+
+        Validate.notNull(start);
+        Validate.isTrue(iterations > 0);
+        Validate.isTrue(tasks.isEmpty() || tasks.size() == criticalCounts.length);
+        this.start = start;
+        this.counts = counts;
+        this.iterations = iterations;
+        this.tasks = tasks;
+        this.criticalCounts = criticalCounts;
+    }
+
+    public long getIterations() {
+        return iterations;
+    }
+
+    /**
+     * @return how many iterations ended on the provided date
+     */
+    public long getTimes(LocalDate endDate) {
+        int index = Days.daysBetween(start, endDate).getDays();
+        return index < 0 || index >= counts.length ? 0 : counts[index];
+    }
+
+    /**
+     * @return the first date on which at least the provided percentage of the
+     *         iterations have ended
+     */
+    public LocalDate getPercentile(int percentage) {
+        Validate.isTrue(percentage > 0 && percentage <= 100, "percentage must be between 1 and 100");
+        long required = (iterations * percentage + 99) / 100;
+        long accumulated = 0;
+        for (int i = 0; i < counts.length; i++) {
+            accumulated += counts[i];
+            if (accumulated >= required) {
+                return start.plusDays(i);
+            }
+        }
+        throw new IllegalStateException("the counts don't sum the number of iterations");
+    }
+
+    public LocalDate getP50() {
+        return getPercentile(50);
+    }
+
+    public LocalDate getP80() {
+        return getPercentile(80);
+    }
+
+    public LocalDate getP95() {
+        return getPercentile(95);
+    }
+
+    /**
+     * @return the probability of each end date. Only the dates on which some
+     *         iteration ended are included
+     */
+    public Map<LocalDate, BigDecimal> getProbabilities() {
+        Map<LocalDate, BigDecimal> result = new HashMap<>();
+        BigDecimal total = BigDecimal.valueOf(iterations);
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                result.put(start.plusDays(i), BigDecimal.valueOf(counts[i]).divide(total, 8, RoundingMode.HALF_UP));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param node
+     *            the position of the task in the simulation
+     * @return the fraction of the iterations in which the task was on the
+     *         longest path
+     */
+    public BigDecimal getCriticalityIndex(int node) {
+        return BigDecimal.valueOf(criticalCounts[node]).divide(BigDecimal.valueOf(iterations), 8,
+                RoundingMode.HALF_UP);
+    }
+
+    /**
+     * @return the criticality index of each simulated task, sorted from the
+     *         most critical to the least one
+     */
+    public Map<TaskElement, BigDecimal> getCriticalityIndexes() {
+        Integer[] nodes = new Integer[tasks.size()];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = i;
+        }
+        Arrays.sort(nodes, (a, b) -> Long.compare(criticalCounts[b], criticalCounts[a]));
+
+        Map<TaskElement, BigDecimal> result = new LinkedHashMap<>();
+        for (Integer each : nodes) {
+            result.put(tasks.get(each), getCriticalityIndex(each));
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,617 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.libreplan.web.montecarlo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import org.apache.commons.lang3.Validate;
+import org.joda.time.Days;
+import org.joda.time.LocalDate;
+import org.libreplan.business.planner.entities.Dependency;
+import org.libreplan.business.planner.entities.Dependency.Type;
+import org.libreplan.business.planner.entities.TaskElement;
+import org.zkoss.ganttz.util.LongOperationFeedback.IDesktopUpdatesEmitter;
+
+/**
+ * <p>
+ * Runs the MonteCarlo iterations over a graph of tasks linked by
+ * dependencies. On each iteration a duration is sampled for every task and
+ * the earliest start and end of each one are calculated following the
+ * topological order, so the end date is the one of the longest path for the
+ * sampled durations. The tasks on that path are counted to obtain their
+ * criticality index. A critical path is just a graph in which each task
+ * depends on the previous one.
+ * </p>
+ * <p>
+ * The graph, the durations and the probability limits of the tasks are copied
+ * into arrays, so each iteration is just a couple of loops over them. The
+ * iterations are split in chunks of {@link #CHUNK_SIZE} that are executed in
+ * parallel, each one with its own {@link SplittableRandom} split from the seed
+ * in order. Because the chunks don't depend on the number of processors, the
+ * same seed always produces the same result.
+ * </p>
+ *
+ * @see MonteCarloResult
+ */
+public class MonteCarloSimulation {
+
+    static final int CHUNK_SIZE = 1000;
+
+    private static final int[] NO_PREDECESSORS = new int[0];
+
+    private static final Type[] NO_TYPES = new Type[0];
+
+    /**
+     * Creates a simulation of the tasks executed one after the other. As all
+     * of them are always critical, the result doesn't include their
+     * criticality indexes.
+     *
+     * @param tasks
+     *            with the durations already converted to calendar days. Cannot
+     *            be empty
+     */
+    public static MonteCarloSimulation create(List<MonteCarloTask> tasks) {
+        Validate.notEmpty(tasks);
+        Nodes nodes = new Nodes(tasks.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            nodes.set(i, tasks.get(i));
+        }
+        return new MonteCarloSimulation(tasks.get(0).getStartDate(), Collections.<TaskElement> emptyList(), nodes,
+                chainOffsets(tasks.size()), chainPredecessors(tasks.size()), chainTypes(tasks.size()));
+    }
+
+    /**
+     * Creates a simulation of all the provided tasks respecting the
+     * dependencies among them. The tasks without dependencies start on their
+     * current start date, the rest start as soon as their dependencies allow
+     * it. A dependency with a task group is applied to every task of the group
+     * included in <code>leaves</code>.
+     *
+     * @param leaves
+     *            the tasks and milestones to simulate. Cannot be empty
+     * @param estimations
+     *            the estimations of the tasks, with the durations already
+     *            converted to calendar days. The leaves without estimation,
+     *            like milestones, take no time
+     */
+    public static MonteCarloSimulation createForGraph(List<? extends TaskElement> leaves,
+                                                      Map<? extends TaskElement, MonteCarloTask> estimations) {
+        Validate.notEmpty(leaves);
+        Map<TaskElement, Integer> indexes = new HashMap<>();
+        for (TaskElement each : leaves) {
+            indexes.put(each, indexes.size());
+        }
+
+        LocalDate start = null;
+        for (TaskElement each : leaves) {
+            LocalDate taskStart = each.getStartAsLocalDate();
+            start = start == null || taskStart.isBefore(start) ? taskStart : start;
+        }
+
+        int size = leaves.size();
+        Nodes nodes = new Nodes(size);
+        double[] offsets = new double[size];
+        int[][] predecessors = new int[size][];
+        Type[][] types = new Type[size][];
+        for (int i = 0; i < size; i++) {
+            TaskElement each = leaves.get(i);
+            MonteCarloTask estimation = estimations.get(each);
+            if (estimation != null) {
+                nodes.set(i, estimation);
+            }
+            offsets[i] = Days.daysBetween(start, each.getStartAsLocalDate()).getDays();
+
+            List<Integer> origins = new ArrayList<>();
+            List<Type> originTypes = new ArrayList<>();
+            for (Dependency dependency : each.getDependenciesWithThisDestinationAndAllParents()) {
+                for (Integer origin : indexesOf(dependency.getOrigin(), indexes)) {
+                    origins.add(origin);
+                    originTypes.add(dependency.getType());
+                }
+            }
+            predecessors[i] = toArray(origins);
+            types[i] = originTypes.toArray(new Type[originTypes.size()]);
+        }
+        return new MonteCarloSimulation(start, new ArrayList<TaskElement>(leaves), nodes, offsets, predecessors,
+                types);
+    }
+
+    private static Set<Integer> indexesOf(TaskElement element, Map<TaskElement, Integer> indexes) {
+        Integer index = indexes.get(element);
+        if (index != null) {
+            return Collections.singleton(index);
+        }
+        Set<Integer> result = new LinkedHashSet<>();
+        if (!element.isLeaf()) {
+            for (TaskElement each : element.getAllChildren()) {
+                Integer childIndex = indexes.get(each);
+                if (childIndex != null) {
+                    result.add(childIndex);
+                }
+            }
+        }
+        return result;
+    }
+
+    private static int[] toArray(List<Integer> list) {
+        int[] result = new int[list.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = list.get(i);
+        }
+        return result;
+    }
+
+    static MonteCarloSimulation create(LocalDate start,
+                                       double[] pessimistic,
+                                       double[] normal,
+                                       double[] optimistic,
+                                       double[] pessimisticLimit,
+                                       double[] normalLimit) {
+
+        int size = pessimistic.length;
+        return create(start, pessimistic, normal, optimistic, pessimisticLimit, normalLimit, chainOffsets(size),
+                chainPredecessors(size), chainTypes(size));
+    }
+
+    static MonteCarloSimulation create(LocalDate start,
+                                       double[] pessimistic,
+                                       double[] normal,
+                                       double[] optimistic,
+                                       double[] pessimisticLimit,
+                                       double[] normalLimit,
+                                       double[] offsets,
+                                       int[][] predecessors,
+                                       Type[][] types) {
+
+        Nodes nodes = new Nodes(pessimistic.clone(), normal.clone(), optimistic.clone(), pessimisticLimit.clone(),
+                normalLimit.clone());
+        return new MonteCarloSimulation(start, Collections.<TaskElement> emptyList(), nodes, offsets.clone(),
+                predecessors.clone(), types.clone());
+    }
+
+    private static double[] chainOffsets(int size) {
+        return new double[size];
+    }
+
+    private static int[][] chainPredecessors(int size) {
+        int[][] result = new int[size][];
+        for (int i = 0; i < size; i++) {
+            result[i] = i == 0 ? NO_PREDECESSORS : new int[] { i - 1 };
+        }
+        return result;
+    }
+
+    private static Type[][] chainTypes(int size) {
+        Type[][] result = new Type[size][];
+        for (int i = 0; i < size; i++) {
+            result[i] = i == 0 ? NO_TYPES : new Type[] { Type.END_START };
+        }
+        return result;
+    }
+
+    /**
+     * The estimations of the tasks.
+     */
+    private static class Nodes {
+
+        private final double[] pessimistic;
+
+        private final double[] normal;
+
+        private final double[] optimistic;
+
+        private final double[] pessimisticLimit;
+
+        private final double[] normalLimit;
+
+        Nodes(int size) {
+            this(new double[size], new double[size], new double[size], new double[size], new double[size]);
+        }
+
+        Nodes(double[] pessimistic, double[] normal, double[] optimistic, double[] pessimisticLimit,
+                double[] normalLimit) {
+            Validate.isTrue(pessimistic.length == normal.length && normal.length == optimistic.length
+                    && optimistic.length == pessimisticLimit.length && pessimisticLimit.length == normalLimit.length);
+            this.pessimistic = pessimistic;
+            this.normal = normal;
+            this.optimistic = optimistic;
+            this.pessimisticLimit = pessimisticLimit;
+            this.normalLimit = normalLimit;
+        }
+
+        void set(int node, MonteCarloTask task) {
+            pessimistic[node] = task.getPessimisticDuration().doubleValue();
+            normal[node] = task.getNormalDuration().doubleValue();
+            optimistic[node] = task.getOptimisticDuration().doubleValue();
+            pessimisticLimit[node] = task.getPessimisticDurationPercentageUpperLimit().doubleValue();
+            normalLimit[node] = task.getNormalDurationPercentageUpperLimit().doubleValue();
+        }
+
+        Nodes reordered(int[] order) {
+            Nodes result = new Nodes(order.length);
+            for (int i = 0; i < order.length; i++) {
+                result.pessimistic[i] = pessimistic[order[i]];
+                result.normal[i] = normal[order[i]];
+                result.optimistic[i] = optimistic[order[i]];
+                result.pessimisticLimit[i] = pessimisticLimit[order[i]];
+                result.normalLimit[i] = normalLimit[order[i]];
+            }
+            return result;
+        }
+
+        int size() {
+            return pessimistic.length;
+        }
+
+        double sample(int node, double random) {
+            if (random < pessimisticLimit[node]) {
+                return pessimistic[node];
+            } else if (random < normalLimit[node]) {
+                return normal[node];
+            }
+            return optimistic[node];
+        }
+
+        double max(int node) {
+            return Math.max(0, Math.max(pessimistic[node], Math.max(normal[node], optimistic[node])));
+        }
+    }
+
+    private static final int END_START = 0;
+
+    private static final int START_START = 1;
+
+    private static final int END_END = 2;
+
+    private static final int START_END = 3;
+
+    /**
+     * Relative tolerance used to compare the sampled times, as the same time
+     * reached through different sums of fractional durations can differ in
+     * the last bits.
+     */
+    private static final double TIME_TOLERANCE = 1e-9;
+
+    private static int codeOf(Type type) {
+        switch (type) {
+        case START_START:
+            return START_START;
+        case END_END:
+            return END_END;
+        case START_END:
+            return START_END;
+        case END_START:
+        default:
+            return END_START;
+        }
+    }
+
+    private final LocalDate start;
+
+    private final List<TaskElement> elements;
+
+    /**
+     * The node at each position. The positions follow a topological order, so
+     * the predecessors of a node are always in previous positions. The rest of
+     * the arrays are indexed by position.
+     */
+    private final int[] order;
+
+    private final Nodes nodes;
+
+    private final double[] offsets;
+
+    /**
+     * The predecessors of the node at position <code>i</code> are from
+     * <code>firstPredecessor[i]</code> to
+     * <code>firstPredecessor[i + 1]</code>, not included, on
+     * {@link #predecessors} and {@link #dependencyTypes}.
+     */
+    private final int[] firstPredecessor;
+
+    private final int[] predecessors;
+
+    private final int[] dependencyTypes;
+
+    private final int maxDays;
+
+    private MonteCarloSimulation(LocalDate start,
+                                 List<TaskElement> elements,
+                                 Nodes nodes,
+                                 double[] offsets,
+                                 int[][] predecessors,
+                                 Type[][] types) {
+
+        Validate.notNull(start);
+        Validate.isTrue(nodes.size() > 0);
+        Validate.isTrue(offsets.length == nodes.size() && predecessors.length == nodes.size()
+                && types.length == nodes.size());
+
+        this.start = start;
+        this.elements = elements;
+        this.order = topologicalOrder(predecessors, types);
+
+        int size = order.length;
+        int[] positions = new int[size];
+        for (int i = 0; i < size; i++) {
+            positions[order[i]] = i;
+        }
+        int dependencies = 0;
+        for (int[] each : predecessors) {
+            dependencies += each.length;
+        }
+
+        this.nodes = nodes.reordered(order);
+        this.offsets = new double[size];
+        this.firstPredecessor = new int[size + 1];
+        this.predecessors = new int[dependencies];
+        this.dependencyTypes = new int[dependencies];
+        int added = 0;
+        for (int i = 0; i < size; i++) {
+            int node = order[i];
+            this.offsets[i] = offsets[node];
+            this.firstPredecessor[i] = added;
+            for (int j = 0; j < predecessors[node].length; j++) {
+                this.predecessors[added] = positions[predecessors[node][j]];
+                this.dependencyTypes[added] = codeOf(types[node][j]);
+                added++;
+            }
+        }
+        this.firstPredecessor[size] = added;
+        this.maxDays = calculateMaxDays();
+    }
+
+    private static int[] topologicalOrder(int[][] predecessors, Type[][] types) {
+        int size = predecessors.length;
+        int[] pending = new int[size];
+        List<List<Integer>> successors = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            successors.add(new ArrayList<Integer>());
+        }
+        for (int i = 0; i < size; i++) {
+            Validate.isTrue(predecessors[i].length == types[i].length);
+            pending[i] = predecessors[i].length;
+            for (int each : predecessors[i]) {
+                successors.get(each).add(i);
+            }
+        }
+
+        int[] result = new int[size];
+        int added = 0;
+        for (int i = 0; i < size; i++) {
+            if (pending[i] == 0) {
+                result[added++] = i;
+            }
+        }
+        for (int processed = 0; processed < added; processed++) {
+            for (int each : successors.get(result[processed])) {
+                if (--pending[each] == 0) {
+                    result[added++] = each;
+                }
+            }
+        }
+        Validate.isTrue(added == size, "the dependencies among the tasks have cycles");
+
+        return result;
+    }
+
+    /**
+     * The end of the graph can't decrease when a duration increases, so the
+     * end with the maximum durations bounds the end of every iteration.
+     */
+    private int calculateMaxDays() {
+        double[] durations = new double[nodes.size()];
+        for (int i = 0; i < durations.length; i++) {
+            durations[i] = nodes.max(i);
+        }
+        double[] starts = new double[durations.length];
+        double[] ends = new double[durations.length];
+
+        return (int) forwardPass(durations, starts, ends);
+    }
+
+    public MonteCarloResult run(int iterations, long seed) {
+        return run(iterations, seed, null);
+    }
+
+    /**
+     * @param iterationProgress
+     *            notified with the completed percentage. It can be
+     *            <code>null</code>
+     */
+    public MonteCarloResult run(final int iterations,
+                                long seed,
+                                final IDesktopUpdatesEmitter<Integer> iterationProgress) {
+
+        Validate.isTrue(iterations > 0, "iterations must be positive");
+
+        int chunks = (iterations + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        final SplittableRandom[] randoms = new SplittableRandom[chunks];
+        SplittableRandom root = new SplittableRandom(seed);
+        for (int i = 0; i < chunks; i++) {
+            randoms[i] = root.split();
+        }
+
+        final AtomicInteger completed = new AtomicInteger();
+        final AtomicInteger lastPercentNotified = new AtomicInteger(-1);
+
+        Counts counts = IntStream.range(0, chunks).parallel().mapToObj(chunk -> {
+            int chunkIterations = Math.min(CHUNK_SIZE, iterations - chunk * CHUNK_SIZE);
+            Counts result = runChunk(chunkIterations, randoms[chunk]);
+            notifyProgress(iterationProgress, lastPercentNotified,
+                    (int) (completed.addAndGet(chunkIterations) * 100L / iterations));
+            return result;
+        }).reduce(Counts::merge).get();
+
+        long[] criticalByNode = new long[order.length];
+        for (int i = 0; i < order.length; i++) {
+            criticalByNode[order[i]] = counts.critical[i];
+        }
+        return new MonteCarloResult(start, counts.endDays, iterations, elements, criticalByNode);
+    }
+
+    /**
+     * The number of iterations ending on each day and the number of times
+     * the node at each position has been critical.
+     */
+    private static class Counts {
+
+        private final long[] endDays;
+
+        private final long[] critical;
+
+        Counts(int days, int nodes) {
+            endDays = new long[days];
+            critical = new long[nodes];
+        }
+
+        Counts merge(Counts other) {
+            for (int i = 0; i < endDays.length; i++) {
+                endDays[i] += other.endDays[i];
+            }
+            for (int i = 0; i < critical.length; i++) {
+                critical[i] += other.critical[i];
+            }
+            return this;
+        }
+    }
+
+    private Counts runChunk(int iterations, SplittableRandom random) {
+        int size = nodes.size();
+        Counts result = new Counts(maxDays + 1, size);
+        double[] durations = new double[size];
+        double[] starts = new double[size];
+        double[] ends = new double[size];
+        boolean[] critical = new boolean[size];
+        for (int i = 0; i < iterations; i++) {
+            for (int position = 0; position < size; position++) {
+                durations[position] = nodes.sample(position, random.nextDouble());
+            }
+            double end = forwardPass(durations, starts, ends);
+            result.endDays[Math.min(Math.max((int) end, 0), maxDays)]++;
+
+            markCritical(end, starts, ends, critical);
+            for (int position = 0; position < size; position++) {
+                if (critical[position]) {
+                    result.critical[position]++;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Calculates the earliest start and end of each node for the provided
+     * durations.
+     *
+     * @return the end of the last node
+     */
+    private double forwardPass(double[] durations, double[] starts, double[] ends) {
+        double result = 0;
+        for (int position = 0; position < durations.length; position++) {
+            double duration = durations[position];
+            int from = firstPredecessor[position];
+            int to = firstPredecessor[position + 1];
+            double nodeStart = from == to ? offsets[position] : 0;
+            for (int i = from; i < to; i++) {
+                int origin = predecessors[i];
+                double startByDependency;
+                switch (dependencyTypes[i]) {
+                case START_START:
+                    startByDependency = starts[origin];
+                    break;
+                case END_END:
+                    startByDependency = ends[origin] - duration;
+                    break;
+                case START_END:
+                    startByDependency = starts[origin] - duration;
+                    break;
+                default:
+                    startByDependency = ends[origin];
+                    break;
+                }
+                nodeStart = Math.max(nodeStart, startByDependency);
+            }
+            starts[position] = nodeStart;
+            ends[position] = nodeStart + duration;
+            result = Math.max(result, ends[position]);
+        }
+        return result;
+    }
+
+    /**
+     * Marks the nodes ending at <code>end</code> and, going backwards, the
+     * predecessors that determined the start of a critical node.
+     */
+    private void markCritical(double end, double[] starts, double[] ends, boolean[] critical) {
+        for (int position = critical.length - 1; position >= 0; position--) {
+            critical[position] = sameTime(ends[position], end);
+        }
+        for (int position = critical.length - 1; position >= 0; position--) {
+            if (!critical[position]) {
+                continue;
+            }
+            for (int i = firstPredecessor[position]; i < firstPredecessor[position + 1]; i++) {
+                int origin = predecessors[i];
+                if (isBinding(dependencyTypes[i], origin, position, starts, ends)) {
+                    critical[origin] = true;
+                }
+            }
+        }
+    }
+
+    private static boolean isBinding(int type, int origin, int destination, double[] starts, double[] ends) {
+        switch (type) {
+        case START_START:
+            return sameTime(starts[destination], starts[origin]);
+        case END_END:
+            return sameTime(ends[destination], ends[origin]);
+        case START_END:
+            return sameTime(ends[destination], starts[origin]);
+        default:
+            return sameTime(starts[destination], ends[origin]);
+        }
+    }
+
+    private static boolean sameTime(double a, double b) {
+        return Math.abs(a - b) <= TIME_TOLERANCE * Math.max(1, Math.max(Math.abs(a), Math.abs(b)));
+    }
+
+    private static void notifyProgress(IDesktopUpdatesEmitter<Integer> iterationProgress,
+                                       AtomicInteger lastPercentNotified,
+                                       int percent) {
+        if (iterationProgress == null) {
+            return;
+        }
+        int last = lastPercentNotified.get();
+        if (percent > last && lastPercentNotified.compareAndSet(last, percent)) {
+            iterationProgress.doUpdate(percent);
+        }
+    }
+
+}
@@ -43,6 +43,7 @@ import org.springframework.stereotype.Component;
 import org.zkoss.ganttz.Planner;
 import org.zkoss.ganttz.TaskComponent;
 import org.zkoss.ganttz.extensions.IContext;
+import org.zkoss.ganttz.util.IAction;
 import org.zkoss.ganttz.util.LongOperationFeedback;
 import org.zkoss.ganttz.util.LongOperationFeedback.ILongOperation;
 
@@ -110,11 +111,7 @@ public class AdaptPlanningCommand implements IAdaptPlanningCommand {
                 removeTimesheetsProgressIfAny(orderElement);
             }
         }
-        for (TaskElement taskElement : taskElements) {
-            if (taskElement.isUpdatedFromTimesheets()) {
-                updateTask(context, taskElement);
-            }
-        }
+        updateTasks(context, taskElements);
 
         ((Planner) context.getRelativeTo()).invalidate();
         context.reloadCharts();
@@ -205,6 +202,26 @@ public class AdaptPlanningCommand implements IAdaptPlanningCommand {
         }
     }
 
+    /**
+     * The dependencies are enforced once, from all the updated tasks, after
+     * the last one is updated.
+     */
+    private void updateTasks(final IContext<TaskElement> context,
+            final List<TaskElement> taskElements) {
+        context.getGanttDiagramGraph().enforceRestrictionsInBatch(
+                new IAction() {
+
+                    @Override
+                    public void doAction() {
+                        for (TaskElement taskElement : taskElements) {
+                            if (taskElement.isUpdatedFromTimesheets()) {
+                                updateTask(context, taskElement);
+                            }
+                        }
+                    }
+                });
+    }
+
     private void updateTask(IContext<TaskElement> context,
             TaskElement taskElement) {
         taskElement.updateAdvancePercentageFromOrderElement();
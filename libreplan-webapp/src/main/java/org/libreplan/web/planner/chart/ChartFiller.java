@@ -45,6 +45,7 @@ import javax.servlet.http.HttpServletResponse;
 import org.joda.time.DateTime;
 import org.joda.time.Days;
 import org.joda.time.LocalDate;
+import org.libreplan.business.planner.chart.DailyEffortSeries;
 import org.libreplan.business.planner.entities.DayAssignment;
 import org.libreplan.business.resources.entities.Resource;
 import org.libreplan.business.workingday.EffortDuration;
@@ -393,6 +394,43 @@ public abstract class ChartFiller implements IChartFiller {
         return average(accumulatePerWeek(map));
     }
 
+    protected SortedMap<LocalDate, EffortDuration> groupAsNeededByZoom(
+            DailyEffortSeries series) {
+        if (isZoomByDayOrWeek()) {
+            return series.toSortedMap();
+        }
+        return groupByWeekDurations(series);
+    }
+
+    /**
+     * Same as {@link #groupByWeekDurations(SortedMap)} but working over the
+     * seconds of the series, so only one {@link EffortDuration} is created per
+     * week.
+     */
+    protected SortedMap<LocalDate, EffortDuration> groupByWeekDurations(
+            DailyEffortSeries series) {
+        SortedMap<LocalDate, EffortDuration> result = new TreeMap<LocalDate, EffortDuration>();
+        if (series.isEmpty()) {
+            return result;
+        }
+        LocalDate day = series.getStart();
+        LocalDate centerOfWeek = getThursdayOfThisWeek(day);
+        LocalDate nextWeek = centerOfWeek.plusDays(7 - DAYS_TO_THURSDAY);
+        long accumulated = 0;
+        for (int i = 0; i < series.size(); i++) {
+            if (!day.isBefore(nextWeek)) {
+                result.put(centerOfWeek, EffortDuration.seconds((int) (accumulated / 7)));
+                centerOfWeek = getThursdayOfThisWeek(day);
+                nextWeek = centerOfWeek.plusDays(7 - DAYS_TO_THURSDAY);
+                accumulated = 0;
+            }
+            accumulated += series.getSecondsAt(i);
+            day = day.plusDays(1);
+        }
+        result.put(centerOfWeek, EffortDuration.seconds((int) (accumulated / 7)));
+        return result;
+    }
+
     private static SortedMap<LocalDate, EffortDuration> accumulatePerWeek(
             SortedMap<LocalDate, EffortDuration> map) {
         SortedMap<LocalDate, EffortDuration> result = new TreeMap<LocalDate, EffortDuration>();
@@ -51,6 +51,7 @@ import org.libreplan.business.orders.entities.TaskSource;
 import org.libreplan.business.planner.daos.IConsolidationDAO;
 import org.libreplan.business.planner.daos.IDependencyDAO;
 import org.libreplan.business.planner.daos.ISubcontractedTaskDataDAO;
+import org.libreplan.business.planner.daos.ITaskDayAggregateDAO;
 import org.libreplan.business.planner.daos.ITaskElementDAO;
 import org.libreplan.business.planner.daos.ITaskSourceDAO;
 import org.libreplan.business.planner.entities.DayAssignment;
@@ -173,6 +174,9 @@ public class SaveCommandBuilder {
     @Autowired
     private ISumExpensesRecalculator sumExpensesRecalculator;
 
+    @Autowired
+    private ITaskDayAggregateDAO taskDayAggregateDAO;
+
     public ISaveCommand build(PlanningState planningState, PlannerConfiguration<TaskElement> plannerConfiguration) {
         SaveCommand result = new SaveCommand(planningState, plannerConfiguration);
 
@@ -396,9 +400,20 @@ public class SaveCommandBuilder {
 
             removeTaskElementsWithTaskSourceNull();
 
+            updateTaskDayAggregates();
+
             state.updateSavedOrderState();
         }
 
+        private void updateTaskDayAggregates() {
+            taskDayAggregateDAO.removeFor(state.getToRemove());
+
+            TaskGroup rootTask = state.getRootTask();
+            if ( rootTask != null ) {
+                taskDayAggregateDAO.updateFor(rootTask.getChildren(), state.getCurrentScenario());
+            }
+        }
+
         private void removeTaskElementsWithTaskSourceNull() {
             List<TaskElement> toRemove = taskElementDAO.getTaskElementsNoMilestonesWithoutTaskSource();
             List<TaskElement> parentsWithChangesToSave = new ArrayList<>();
@@ -139,7 +139,8 @@ public class ReassignCommand implements IReassignCommand {
     private IAction doReassignations(final GanttDiagramGraph<Task, Dependency> diagramGraph,
                                      final List<WithAssociatedEntity> reassignations,
                                      final IDesktopUpdatesEmitter<IDesktopUpdate> updater) {
-        return () -> {
+        // The dependencies are enforced once, from all the reassigned tasks, after the last reassignation
+        return () -> diagramGraph.enforceRestrictionsInBatch(() -> {
             int i = 1;
             final int total = reassignations.size();
 
@@ -156,7 +157,7 @@ public class ReassignCommand implements IReassignCommand {
                 updater.doUpdate(showCompleted(i, total));
                 i++;
             }
-        };
+        });
     }
 
     private IDesktopUpdate busyStart(final int total) {
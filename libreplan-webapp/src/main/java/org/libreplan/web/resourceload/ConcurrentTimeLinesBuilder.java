@@ -0,0 +1,336 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.web.resourceload;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.lang3.Validate;
+import org.apache.commons.logging.Log;
+import org.hibernate.Hibernate;
+import org.libreplan.business.calendars.entities.BaseCalendar;
+import org.libreplan.business.planner.entities.DayAssignment;
+import org.libreplan.business.planner.entities.GenericResourceAllocation;
+import org.libreplan.business.planner.entities.ResourceAllocation;
+import org.libreplan.business.resources.entities.Criterion;
+import org.libreplan.business.resources.entities.CriterionSatisfaction;
+import org.libreplan.business.resources.entities.Resource;
+import org.libreplan.business.scenarios.entities.Scenario;
+import org.libreplan.web.calendars.BaseCalendarModel;
+import org.zkoss.ganttz.data.resourceload.LoadPeriod;
+import org.zkoss.ganttz.data.resourceload.LoadTimeLine;
+import org.zkoss.ganttz.util.ProfilingLogFactory;
+
+/**
+ * <p>
+ * Builds the groups of {@link LoadTimeLine} shown by the resource load view
+ * calculating the {@link LoadPeriod load periods} of each group concurrently.
+ * </p>
+ * <p>
+ * A {@link LoadTimeLine} needs its periods when it's created, so the groups
+ * are built twice. The first time the periods asked for are only recorded.
+ * Then the periods of each group are calculated on a bounded pool of threads
+ * and the second time the groups are built the periods calculated are
+ * returned in the same order they were asked for. Thus the grouping, the
+ * names and everything else that could need the Hibernate session is done on
+ * the thread of the request, which also forces the loading of the data used
+ * to calculate the periods before they are calculated.
+ * </p>
+ * <p>
+ * The threads calculating the periods have no current scenario, so the
+ * request thread also fixes the scenario used by the allocations and
+ * resources that would ask for it, and calculates the assignments and load
+ * ledgers of the resources that otherwise would be lazily calculated by
+ * several threads at the same time.
+ * </p>
+ */
+class ConcurrentTimeLinesBuilder {
+
+    private static final Log PROFILING_LOG = ProfilingLogFactory.getLog(ConcurrentTimeLinesBuilder.class);
+
+    private static final ExecutorService executor = Executors.newFixedThreadPool(
+            Runtime.getRuntime().availableProcessors(),
+            runnable -> {
+                Thread result = new Thread(runnable, "resource-load-periods");
+                result.setDaemon(true);
+                return result;
+            });
+
+    interface IGroupBuilder<T> {
+
+        /**
+         * @return <code>null</code> if no time line must be shown for the
+         *         group
+         */
+        LoadTimeLine build(PeriodBuilderFactory periodBuilderFactory, T key, List<ResourceAllocation<?>> allocations);
+    }
+
+    /**
+     * @param scenario
+     *            the scenario whose assignments are shown
+     * @param periodBuilderFactory
+     *            used to calculate the periods
+     * @return the time line built for each group, in the same order than the
+     *         groups. It's <code>null</code> for the groups discarded by the
+     *         {@link IGroupBuilder}
+     */
+    static <T> Map<T, LoadTimeLine> build(Scenario scenario,
+                                        PeriodBuilderFactory periodBuilderFactory,
+                                        Map<T, List<ResourceAllocation<?>>> groups,
+                                        IGroupBuilder<T> groupBuilder) {
+
+        if ( groups.size() < 2 ) {
+            return buildGroups(groups, groupBuilder, Collections.nCopies(groups.size(), periodBuilderFactory));
+        }
+
+        long time = System.currentTimeMillis();
+        List<RecordingPeriodBuilderFactory> recorders = new ArrayList<>();
+        for (Entry<T, List<ResourceAllocation<?>>> each : groups.entrySet()) {
+            RecordingPeriodBuilderFactory recorder = new RecordingPeriodBuilderFactory(periodBuilderFactory);
+            groupBuilder.build(recorder, each.getKey(), each.getValue());
+            recorders.add(recorder);
+        }
+        PROFILING_LOG.debug("recording the periods of " + groups.size() + " groups took: " +
+                (System.currentTimeMillis() - time) + " ms");
+
+        time = System.currentTimeMillis();
+        DataLoader loader = new DataLoader(scenario);
+        for (RecordingPeriodBuilderFactory each : recorders) {
+            each.forceLoad(loader);
+        }
+        PROFILING_LOG.debug("loading the data for the periods took: " + (System.currentTimeMillis() - time) + " ms");
+
+        time = System.currentTimeMillis();
+        List<PeriodBuilderFactory> calculated = calculate(recorders);
+        PROFILING_LOG.debug("calculating the periods took: " + (System.currentTimeMillis() - time) + " ms");
+
+        time = System.currentTimeMillis();
+        Map<T, LoadTimeLine> result = buildGroups(groups, groupBuilder, calculated);
+        PROFILING_LOG.debug("building the time lines took: " + (System.currentTimeMillis() - time) + " ms");
+
+        return result;
+    }
+
+    private static <T> Map<T, LoadTimeLine> buildGroups(Map<T, List<ResourceAllocation<?>>> groups,
+                                                        IGroupBuilder<T> groupBuilder,
+                                                        List<PeriodBuilderFactory> periodBuilderFactories) {
+
+        Map<T, LoadTimeLine> result = new LinkedHashMap<>();
+        Iterator<PeriodBuilderFactory> factories = periodBuilderFactories.iterator();
+        for (Entry<T, List<ResourceAllocation<?>>> each : groups.entrySet()) {
+            result.put(each.getKey(), groupBuilder.build(factories.next(), each.getKey(), each.getValue()));
+        }
+
+        return result;
+    }
+
+    private static List<PeriodBuilderFactory> calculate(List<RecordingPeriodBuilderFactory> recorders) {
+        List<Callable<PeriodBuilderFactory>> calculations = new ArrayList<>();
+        for (final RecordingPeriodBuilderFactory each : recorders) {
+            calculations.add(each::calculate);
+        }
+
+        try {
+            List<PeriodBuilderFactory> result = new ArrayList<>();
+            for (Future<PeriodBuilderFactory> each : executor.invokeAll(calculations)) {
+                result.add(each.get());
+            }
+
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            if ( e.getCause() instanceof RuntimeException ) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    private static class PeriodsRequest {
+
+        private final LoadPeriodGeneratorFactory factory;
+
+        private final List<? extends ResourceAllocation<?>> sortedByStartDate;
+
+        private PeriodsRequest(LoadPeriodGeneratorFactory factory,
+                               List<? extends ResourceAllocation<?>> sortedByStartDate) {
+            this.factory = factory;
+            this.sortedByStartDate = sortedByStartDate;
+        }
+
+    }
+
+    /**
+     * Records the periods asked for, returning no periods.
+     */
+    private static class RecordingPeriodBuilderFactory extends PeriodBuilderFactory {
+
+        private final PeriodBuilderFactory calculator;
+
+        private final List<PeriodsRequest> requests = new ArrayList<>();
+
+        private RecordingPeriodBuilderFactory(PeriodBuilderFactory calculator) {
+            super(null, null);
+            this.calculator = calculator;
+        }
+
+        @Override
+        public List<LoadPeriod> build(
+                LoadPeriodGeneratorFactory factory, List<? extends ResourceAllocation<?>> sortedByStartDate) {
+
+            requests.add(new PeriodsRequest(factory, sortedByStartDate));
+
+            return Collections.emptyList();
+        }
+
+        private void forceLoad(DataLoader loader) {
+            for (PeriodsRequest each : requests) {
+                loader.forceLoadResources(each.factory.getResourcesInvolved());
+                loader.forceLoadCriterions(each.factory.getCriterionsInvolved());
+                for (ResourceAllocation<?> allocation : each.sortedByStartDate) {
+                    loader.forceLoad(allocation);
+                }
+            }
+        }
+
+        private PeriodBuilderFactory calculate() {
+            List<List<LoadPeriod>> result = new ArrayList<>();
+            for (PeriodsRequest each : requests) {
+                result.add(calculator.build(each.factory, each.sortedByStartDate));
+            }
+
+            return new CalculatedPeriodBuilderFactory(requests, result);
+        }
+
+    }
+
+    /**
+     * Returns the periods already calculated, expecting them to be asked for
+     * in the same order they were recorded.
+     */
+    private static class CalculatedPeriodBuilderFactory extends PeriodBuilderFactory {
+
+        private final Iterator<PeriodsRequest> requests;
+
+        private final Iterator<List<LoadPeriod>> periods;
+
+        private CalculatedPeriodBuilderFactory(List<PeriodsRequest> requests, List<List<LoadPeriod>> periods) {
+            super(null, null);
+            this.requests = requests.iterator();
+            this.periods = periods.iterator();
+        }
+
+        @Override
+        public List<LoadPeriod> build(
+                LoadPeriodGeneratorFactory factory, List<? extends ResourceAllocation<?>> sortedByStartDate) {
+
+            Validate.isTrue(requests.hasNext() && requests.next().sortedByStartDate.equals(sortedByStartDate),
+                    "the periods must be asked for in the same order they were recorded");
+
+            return periods.next();
+        }
+
+    }
+
+    /**
+     * Initializes the lazy associations used to calculate the periods, so
+     * the threads calculating them don't use the Hibernate session nor the
+     * current scenario.
+     */
+    private static class DataLoader {
+
+        private final Scenario scenario;
+
+        private final Set<Object> loaded = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        DataLoader(Scenario scenario) {
+            Validate.notNull(scenario);
+            this.scenario = scenario;
+        }
+
+        void forceLoad(ResourceAllocation<?> allocation) {
+            if ( !loaded.add(allocation) ) {
+                return;
+            }
+            allocation.useScenarioIfNotSpecified(scenario);
+            if ( allocation.getTask() != null ) {
+                forceLoad(allocation.getTask().getCalendar());
+            }
+            if ( allocation instanceof GenericResourceAllocation ) {
+                forceLoadCriterions(((GenericResourceAllocation) allocation).getCriterions());
+            }
+            forceLoadResources(allocation.getAssociatedResources());
+            for (DayAssignment each : allocation.getAssignments()) {
+                forceLoad(each.getResource());
+            }
+        }
+
+        void forceLoadResources(Collection<? extends Resource> resources) {
+            for (Resource each : resources) {
+                forceLoad(each);
+            }
+        }
+
+        private void forceLoad(Resource resource) {
+            if ( !loaded.add(resource) ) {
+                return;
+            }
+            Hibernate.initialize(resource);
+            forceLoad(resource.getCalendar());
+            for (CriterionSatisfaction each : resource.getCriterionSatisfactions()) {
+                forceLoadCriterions(Collections.singletonList(each.getCriterion()));
+            }
+            resource.useScenarioIfNotSpecified(scenario);
+            resource.prepareAssignedEffort();
+        }
+
+        void forceLoadCriterions(Collection<? extends Criterion> criterions) {
+            for (Criterion each : Criterion.withAllDescendants(criterions)) {
+                if ( loaded.add(each) ) {
+                    Hibernate.initialize(each);
+                    Hibernate.initialize(each.getType());
+                }
+            }
+        }
+
+        private void forceLoad(BaseCalendar calendar) {
+            if ( calendar != null && loaded.add(calendar) ) {
+                BaseCalendarModel.forceLoadBaseCalendar(calendar);
+            }
+        }
+
+    }
+
+}
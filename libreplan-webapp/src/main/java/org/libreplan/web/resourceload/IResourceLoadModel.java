@@ -29,6 +29,12 @@ public interface IResourceLoadModel {
 
     ResourceLoadDisplayData calculateDataToDisplay(ResourceLoadParameters parameters);
 
+    /**
+     * Discards the time lines built in advance for the following pages, so
+     * they are calculated again with the current data.
+     */
+    void clearBuiltTimeLines();
+
     Order getOrderByTask(TaskElement task);
 
     boolean userCanRead(Order order, String loginName);
@@ -27,7 +27,9 @@ import static org.libreplan.business.workingday.IntraDayDate.min;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.apache.commons.lang3.Validate;
 import org.apache.commons.lang3.math.Fraction;
@@ -82,6 +84,8 @@ abstract class LoadPeriodGenerator {
 
         private final Resource resource;
 
+        private final Collection<Criterion> criterionsToSatisfy;
+
         private final ICriterion criterion;
 
         public OnResourceFactory(Resource resource) {
@@ -91,6 +95,7 @@ abstract class LoadPeriodGenerator {
         public OnResourceFactory(Resource resource, Collection<Criterion> criterionsToSatisfy) {
             Validate.notNull(resource);
             this.resource = resource;
+            this.criterionsToSatisfy = criterionsToSatisfy;
             this.criterion = CriterionCompounder.buildAnd(criterionsToSatisfy).getResult();
         }
 
@@ -99,6 +104,16 @@ abstract class LoadPeriodGenerator {
             return new LoadPeriodGeneratorOnResource(resource, allocation, criterion);
         }
 
+        @Override
+        public Collection<Resource> getResourcesInvolved() {
+            return Collections.singletonList(resource);
+        }
+
+        @Override
+        public Collection<Criterion> getCriterionsInvolved() {
+            return criterionsToSatisfy;
+        }
+
     }
 
     public static LoadPeriodGeneratorFactory onCriterion(
@@ -107,7 +122,99 @@ abstract class LoadPeriodGenerator {
         final List<Resource> potentialResources =
                 resourceSearch.searchBoth().byCriteria(Collections.singletonList(criterion)).execute();
 
-        return allocation -> new LoadPeriodGeneratorOnCriterion(criterion, allocation, potentialResources);
+        return new LoadPeriodGeneratorFactory() {
+
+            @Override
+            public LoadPeriodGenerator create(ResourceAllocation<?> allocation) {
+                return new LoadPeriodGeneratorOnCriterion(criterion, allocation, potentialResources);
+            }
+
+            @Override
+            public Collection<Resource> getResourcesInvolved() {
+                return potentialResources;
+            }
+
+            @Override
+            public Collection<Criterion> getCriterionsInvolved() {
+                return Collections.singletonList(criterion);
+            }
+        };
+    }
+
+    /**
+     * Splits the generators in not overlapping ones. Each day covered by some
+     * generator ends up in a generator having the allocations of all the
+     * generators covering it, the same result of {@link #join joining} the
+     * overlapping ones until no one overlaps.
+     * <p>
+     * It sweeps the boundaries of the generators once, keeping the generators
+     * active at each point, instead of joining them by pairs.
+     * </p>
+     *
+     * @return the generators sorted by start date
+     */
+    public static List<LoadPeriodGenerator> joinAll(Collection<? extends LoadPeriodGenerator> generators) {
+        List<LoadPeriodGenerator> byStart = new ArrayList<>();
+        List<LoadPeriodGenerator> inconsistent = new ArrayList<>();
+        List<IntraDayDate> points = new ArrayList<>();
+        for (LoadPeriodGenerator each : generators) {
+            if (each.start.compareTo(each.end) > 0) {
+                inconsistent.add(each);
+            } else {
+                byStart.add(each);
+                points.add(each.start);
+                points.add(each.end);
+            }
+        }
+        Collections.sort(byStart, (a, b) -> a.start.compareTo(b.start));
+        List<LoadPeriodGenerator> byEnd = new ArrayList<>(byStart);
+        Collections.sort(byEnd, (a, b) -> a.end.compareTo(b.end));
+        List<IntraDayDate> boundaries = distinct(points);
+
+        List<LoadPeriodGenerator> result = new ArrayList<>();
+        Set<LoadPeriodGenerator> active = new LinkedHashSet<>();
+        int started = 0;
+        int ended = 0;
+        for (int i = 0; i < boundaries.size(); i++) {
+            IntraDayDate point = boundaries.get(i);
+            while (ended < byEnd.size() && byEnd.get(ended).end.compareTo(point) <= 0) {
+                active.remove(byEnd.get(ended++));
+            }
+            boolean pointInsideSomeGenerator = !active.isEmpty();
+            while (started < byStart.size() && byStart.get(started).start.compareTo(point) <= 0) {
+                LoadPeriodGenerator each = byStart.get(started++);
+                if (!each.isEmpty()) {
+                    active.add(each);
+                } else if (!pointInsideSomeGenerator) {
+                    result.add(each);
+                }
+            }
+            if (i + 1 < boundaries.size() && !active.isEmpty()) {
+                result.add(active.iterator().next().create(point, boundaries.get(i + 1), allocationsOf(active)));
+            }
+        }
+        result.addAll(inconsistent);
+
+        return result;
+    }
+
+    private static List<IntraDayDate> distinct(List<IntraDayDate> dates) {
+        Collections.sort(dates);
+        List<IntraDayDate> result = new ArrayList<>();
+        for (IntraDayDate each : dates) {
+            if (result.isEmpty() || result.get(result.size() - 1).compareTo(each) < 0) {
+                result.add(each);
+            }
+        }
+        return result;
+    }
+
+    private static List<ResourceAllocation<?>> allocationsOf(Collection<LoadPeriodGenerator> generators) {
+        List<ResourceAllocation<?>> result = new ArrayList<>();
+        for (LoadPeriodGenerator each : generators) {
+            result.addAll(each.allocationsOnInterval);
+        }
+        return result;
     }
 
     public List<LoadPeriodGenerator> join(LoadPeriodGenerator next) {
@@ -349,4 +456,12 @@ class LoadPeriodGeneratorOnCriterion extends LoadPeriodGenerator {
 
 interface LoadPeriodGeneratorFactory {
     LoadPeriodGenerator create(ResourceAllocation<?> allocation);
+
+    /**
+     * @return the resources whose calendars and satisfactions are used by the
+     *         generators created, besides the ones of the allocations
+     */
+    Collection<Resource> getResourcesInvolved();
+
+    Collection<Criterion> getCriterionsInvolved();
 }
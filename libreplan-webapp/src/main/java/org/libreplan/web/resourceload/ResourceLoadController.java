@@ -149,6 +149,7 @@ public class ResourceLoadController implements Composer {
 
     public void reload() {
         reloader.resetToInitialState();
+        resourceLoadModel.clearBuiltTimeLines();
         reloadWithoutReset();
     }
 
@@ -606,6 +607,13 @@ public class ResourceLoadController implements Composer {
             return entitiesSelected != null && !entitiesSelected.isEmpty();
         }
 
+        /**
+         * @return <code>null</code> if nothing has been selected yet
+         */
+        public List<Object> getEntitiesSelected() {
+            return entitiesSelected;
+        }
+
         private List<Object> getSelected() {
             List<Object> result = new ArrayList<>();
 
@@ -631,6 +639,8 @@ public class ResourceLoadController implements Composer {
 
         private List<? extends BaseEntity> allEntitiesShown = null;
 
+        private List<Object> selectionShown = null;
+
         public ByNamePaginator(Runnable onChange,
                                PlanningState filterBy,
                                FilterTypeChanger filterTypeChanger,
@@ -662,8 +672,9 @@ public class ResourceLoadController implements Composer {
         @Override
         void checkDependencies() {
             super.checkDependencies();
-            if ( bandbox.hasEntitiesSelected() ) {
-                this.currentPosition = ALL;
+            if ( !ObjectUtils.equals(selectionShown, bandbox.getEntitiesSelected()) ) {
+                this.selectionShown = bandbox.getEntitiesSelected();
+                this.currentPosition = initialPage();
             }
         }
 
@@ -681,7 +692,6 @@ public class ResourceLoadController implements Composer {
         @Override
         void updateUI(ResourcesLoadPanel panel, ResourceLoadDisplayData generatedData) {
 
-            panel.setInternalPaginationDisabled(bandbox.hasEntitiesSelected());
             Paginator<? extends BaseEntity> paginator = generatedData.getPaginator();
             List<? extends BaseEntity> newAllEntities = paginator.getAll();
 
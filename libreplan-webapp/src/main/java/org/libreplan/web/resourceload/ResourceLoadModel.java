@@ -26,6 +26,7 @@ import static org.libreplan.web.I18nHelper._;
 import static org.libreplan.web.planner.order.PlanningStateCreator.and;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
@@ -33,14 +34,13 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.ListIterator;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.Callable;
 
+import org.apache.commons.logging.Log;
 import org.joda.time.LocalDate;
 import org.libreplan.business.calendars.entities.ResourceCalendar;
 import org.libreplan.business.common.BaseEntity;
@@ -75,6 +75,7 @@ import org.libreplan.web.planner.order.PlanningStateCreator.RelatedWith;
 import org.libreplan.web.planner.order.PlanningStateCreator.RelatedWithResource;
 import org.libreplan.web.planner.order.PlanningStateCreator.SpecificRelatedWithCriterionOnInterval;
 import org.libreplan.web.planner.order.PlanningStateCreator.TaskOnInterval;
+import org.libreplan.web.resourceload.ConcurrentTimeLinesBuilder.IGroupBuilder;
 import org.libreplan.web.resourceload.ResourceLoadParameters.Paginator;
 import org.libreplan.web.security.SecurityUtils;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -86,11 +87,14 @@ import org.zkoss.ganttz.data.GanttDate;
 import org.zkoss.ganttz.data.resourceload.LoadPeriod;
 import org.zkoss.ganttz.data.resourceload.LoadTimeLine;
 import org.zkoss.ganttz.data.resourceload.TimeLineRole;
+import org.zkoss.ganttz.util.ProfilingLogFactory;
 
 @Component
 @Scope(BeanDefinition.SCOPE_PROTOTYPE)
 public class ResourceLoadModel implements IResourceLoadModel {
 
+    private static final Log PROFILING_LOG = ProfilingLogFactory.getLog(ResourceLoadModel.class);
+
     private String TYPE_RESOURCE = "resource";
 
     @Autowired
@@ -117,6 +121,8 @@ public class ResourceLoadModel implements IResourceLoadModel {
     @Autowired
     private IScenarioManager scenarioManager;
 
+    private final BuiltGroups builtGroups = new BuiltGroups();
+
     @Override
     @Transactional(readOnly = true)
     public ResourceLoadDisplayData calculateDataToDisplay(ResourceLoadParameters parameters) {
@@ -128,8 +134,13 @@ public class ResourceLoadModel implements IResourceLoadModel {
             planningState.reassociateResourcesWithSession();
         }
 
+        long time = System.currentTimeMillis();
         ResourceAllocationsFinder<?> allocationsFinder = create(parameters);
+        PROFILING_LOG.debug("finding the allocations took: " + (System.currentTimeMillis() - time) + " ms");
+
+        time = System.currentTimeMillis();
         List<LoadTimeLine> loadTimeLines = allocationsFinder.buildTimeLines();
+        PROFILING_LOG.debug("building the time lines took: " + (System.currentTimeMillis() - time) + " ms");
 
         return new ResourceLoadDisplayData(
                 loadTimeLines,
@@ -139,6 +150,11 @@ public class ResourceLoadModel implements IResourceLoadModel {
     }
 
 
+    @Override
+    public void clearBuiltTimeLines() {
+        builtGroups.clear();
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Order getOrderByTask(TaskElement task) {
@@ -228,7 +244,53 @@ public class ResourceLoadModel implements IResourceLoadModel {
             return new ArrayList<>(result);
         }
 
-        abstract List<LoadTimeLine> buildTimeLines();
+        /**
+         * Builds the time lines of the current page. The ones of the entities
+         * following it are built too if they aren't yet, so they're
+         * available when going to the next page.
+         */
+        List<LoadTimeLine> buildTimeLines() {
+            BuiltGroups built = parameters.getPlanningState() == null
+                    ? builtGroups.usedFor(parameters)
+                    : new BuiltGroups();
+
+            Map<T, List<ResourceAllocation<?>>> toBuild = new LinkedHashMap<>();
+            for (Entry<T, List<ResourceAllocation<?>>> each : getFoundAllocations().entrySet()) {
+                if ( !built.contains(each.getKey()) ) {
+                    toBuild.put(each.getKey(), each.getValue());
+                }
+            }
+            if ( parameters.getPlanningState() == null ) {
+                toBuild.putAll(findAllocations(notBuilt(built, getPaginator().getFollowing())));
+            }
+            built.addAll(ConcurrentTimeLinesBuilder.build(
+                    getCurrentScenario(), createPeriodBuilderFactory(), toBuild, createGroupBuilder()));
+
+            List<LoadTimeLine> result = new ArrayList<>();
+            for (T each : getFoundAllocations().keySet()) {
+                LoadTimeLine timeLine = built.get(each);
+                if ( timeLine != null ) {
+                    result.add(timeLine);
+                }
+            }
+
+            return result;
+        }
+
+        private List<T> notBuilt(BuiltGroups built, List<T> entities) {
+            List<T> result = new ArrayList<>();
+            for (T each : entities) {
+                if ( !built.contains(each) ) {
+                    result.add(each);
+                }
+            }
+
+            return result;
+        }
+
+        abstract IGroupBuilder<T> createGroupBuilder();
+
+        abstract Map<T, List<ResourceAllocation<?>>> findAllocations(List<T> entities);
 
         abstract Map<T, List<ResourceAllocation<?>>> getFoundAllocations();
 
@@ -251,6 +313,10 @@ public class ResourceLoadModel implements IResourceLoadModel {
             return new TaskOnInterval(parameters.getInitDateFilter(), parameters.getEndDateFilter());
         }
 
+        PeriodBuilderFactory createPeriodBuilderFactory() {
+            return new PeriodBuilderFactory(parameters.getInitDateFilter(), parameters.getEndDateFilter());
+        }
+
     }
 
     private class ByResourceFinder extends ResourceAllocationsFinder<Resource> {
@@ -281,8 +347,15 @@ public class ResourceLoadModel implements IResourceLoadModel {
         }
 
         @Override
-        List<LoadTimeLine> buildTimeLines() {
-            return new ByResourceLoadTimesLinesBuilder(parameters).buildGroupsByResource(getFoundAllocations());
+        Map<Resource, List<ResourceAllocation<?>>> findAllocations(List<Resource> entities) {
+            return eachWithAllocations(entities);
+        }
+
+        @Override
+        IGroupBuilder<Resource> createGroupBuilder() {
+            return (periodBuilderFactory, resource, allocations) ->
+                    new ByResourceLoadTimesLinesBuilder(parameters, periodBuilderFactory)
+                            .buildGroupFor(resource, allocations);
         }
 
         private Paginator<Resource> resourcesToShow() {
@@ -393,8 +466,17 @@ public class ResourceLoadModel implements IResourceLoadModel {
         }
 
         @Override
-        List<LoadTimeLine> buildTimeLines() {
-            return new ByCriterionLoadTimesLinesBuilder(parameters).buildGroupsByCriterion(getFoundAllocations());
+        Map<Criterion, List<ResourceAllocation<?>>> findAllocations(List<Criterion> entities) {
+            return allocationsByCriterion(entities);
+        }
+
+        @Override
+        IGroupBuilder<Criterion> createGroupBuilder() {
+            final Map<Criterion, LoadPeriodGeneratorFactory> generatorFactories = new HashMap<>();
+
+            return (periodBuilderFactory, criterion, allocations) ->
+                    new ByCriterionLoadTimesLinesBuilder(parameters, periodBuilderFactory, generatorFactories)
+                            .buildGroupFor(criterion, allocations);
         }
 
         private Paginator<Criterion> findCriterions() {
@@ -541,11 +623,9 @@ public class ResourceLoadModel implements IResourceLoadModel {
 
         private final ResourceLoadParameters parameters;
 
-        public LoadTimeLinesBuilder(ResourceLoadParameters parameters) {
+        public LoadTimeLinesBuilder(ResourceLoadParameters parameters, PeriodBuilderFactory periodBuilderFactory) {
             this.parameters = parameters;
-
-            this.periodBuilderFactory =
-                    new PeriodBuilderFactory(parameters.getInitDateFilter(), parameters.getEndDateFilter());
+            this.periodBuilderFactory = periodBuilderFactory;
         }
 
         TimeLineRole<BaseEntity> getCurrentTimeLineRole(BaseEntity entity) {
@@ -736,18 +816,10 @@ public class ResourceLoadModel implements IResourceLoadModel {
 
     class ByResourceLoadTimesLinesBuilder extends LoadTimeLinesBuilder {
 
-        public ByResourceLoadTimesLinesBuilder(ResourceLoadParameters parameters) {
-            super(parameters);
-        }
-
-        List<LoadTimeLine> buildGroupsByResource(Map<Resource, List<ResourceAllocation<?>>> map) {
-            List<LoadTimeLine> result = new ArrayList<>();
-            for (Entry<Resource, List<ResourceAllocation<?>>> each : map.entrySet()) {
-                LoadTimeLine l = buildGroupFor(each.getKey(), each.getValue());
-                result.add(l);
-            }
+        public ByResourceLoadTimesLinesBuilder(
+                ResourceLoadParameters parameters, PeriodBuilderFactory periodBuilderFactory) {
 
-            return result;
+            super(parameters, periodBuilderFactory);
         }
 
     }
@@ -756,36 +828,37 @@ public class ResourceLoadModel implements IResourceLoadModel {
 
         private String LOAD_TIMELINE_TYPE_GLOBAL = "global-generic";
 
-        public ByCriterionLoadTimesLinesBuilder(ResourceLoadParameters parameters) {
-            super(parameters);
-        }
+        /**
+         * Shared by the builders of the different criteria, so the resources
+         * satisfying each criterion are searched only once.
+         */
+        private final Map<Criterion, LoadPeriodGeneratorFactory> generatorFactories;
 
-        List<LoadTimeLine> buildGroupsByCriterion(Map<Criterion, List<ResourceAllocation<?>>> map) {
-            return groupsFor(map);
+        public ByCriterionLoadTimesLinesBuilder(ResourceLoadParameters parameters,
+                                                PeriodBuilderFactory periodBuilderFactory,
+                                                Map<Criterion, LoadPeriodGeneratorFactory> generatorFactories) {
+
+            super(parameters, periodBuilderFactory);
+            this.generatorFactories = generatorFactories;
         }
 
-        private List<LoadTimeLine> groupsFor(Map<Criterion, List<ResourceAllocation<?>>> allocationsByCriterion) {
-            List<LoadTimeLine> result = new ArrayList<>();
-            for (Entry<Criterion, List<ResourceAllocation<?>>> each : allocationsByCriterion.entrySet()) {
-                Criterion criterion = each.getKey();
-                List<ResourceAllocation<?>> allocations = ResourceAllocation.sortedByStartDate(each.getValue());
+        /**
+         * @return <code>null</code> if there is no load for the criterion
+         */
+        LoadTimeLine buildGroupFor(Criterion criterion, List<ResourceAllocation<?>> criterionAllocations) {
+            List<ResourceAllocation<?>> allocations = ResourceAllocation.sortedByStartDate(criterionAllocations);
 
-                if ( allocations == null ) {
-                    continue;
-                }
+            if ( allocations == null ) {
+                return null;
+            }
 
-                TimeLineRole<BaseEntity> role = getCurrentTimeLineRole(criterion);
+            TimeLineRole<BaseEntity> role = getCurrentTimeLineRole(criterion);
 
-                LoadTimeLine group = new LoadTimeLine(
-                        createMain(criterion, allocations, role),
-                        buildSecondaryLevels(criterion, allocations));
+            LoadTimeLine group = new LoadTimeLine(
+                    createMain(criterion, allocations, role),
+                    buildSecondaryLevels(criterion, allocations));
 
-                if ( !group.isEmpty() ) {
-                    result.add(group);
-                }
-            }
-
-            return result;
+            return group.isEmpty() ? null : group;
         }
 
         private LoadTimeLine createMain(Criterion criterion,
@@ -798,7 +871,13 @@ public class ResourceLoadModel implements IResourceLoadModel {
         }
 
         private List<LoadPeriod> createPeriods(Criterion criterion, List<? extends ResourceAllocation<?>> value) {
-            return periodBuilderFactory.build(LoadPeriodGenerator.onCriterion(criterion, resourcesSearchModel), value);
+            LoadPeriodGeneratorFactory generatorFactory = generatorFactories.get(criterion);
+            if ( generatorFactory == null ) {
+                generatorFactory = LoadPeriodGenerator.onCriterion(criterion, resourcesSearchModel);
+                generatorFactories.put(criterion, generatorFactory);
+            }
+
+            return periodBuilderFactory.build(generatorFactory, value);
         }
 
         private List<LoadTimeLine> buildSecondaryLevels(
@@ -1007,6 +1086,55 @@ public class ResourceLoadModel implements IResourceLoadModel {
     }
 
 
+    /**
+     * The groups of time lines already built for the entities shown by the
+     * global resource load view. They're kept while the parameters they
+     * depend on don't change, so the entities calculated in advance are
+     * shown at once when going to the next page.
+     */
+    private static class BuiltGroups {
+
+        private List<Object> builtFor = null;
+
+        private final Map<Long, LoadTimeLine> byEntityId = new HashMap<>();
+
+        BuiltGroups usedFor(ResourceLoadParameters parameters) {
+            List<Object> dependingOn = Arrays.asList(
+                    parameters.isFilterByResources(), parameters.getInitDateFilter(), parameters.getEndDateFilter());
+
+            if ( !dependingOn.equals(builtFor) ) {
+                byEntityId.clear();
+                builtFor = dependingOn;
+            }
+
+            return this;
+        }
+
+        boolean contains(BaseEntity entity) {
+            return byEntityId.containsKey(entity.getId());
+        }
+
+        /**
+         * @return <code>null</code> if there is no time line to show for
+         *         the entity
+         */
+        LoadTimeLine get(BaseEntity entity) {
+            return byEntityId.get(entity.getId());
+        }
+
+        void addAll(Map<? extends BaseEntity, LoadTimeLine> built) {
+            for (Entry<? extends BaseEntity, LoadTimeLine> each : built.entrySet()) {
+                byEntityId.put(each.getKey().getId(), each.getValue());
+            }
+        }
+
+        void clear() {
+            builtFor = null;
+            byEntityId.clear();
+        }
+
+    }
+
     public static Date asDate(LocalDate date) {
         return date == null ? null : date.toDateTimeAtStartOfDay().toDate();
     }
@@ -1115,8 +1243,6 @@ class PeriodsBuilder {
 
     private final List<? extends ResourceAllocation<?>> sortedByStartDate;
 
-    private final List<LoadPeriodGenerator> loadPeriodsGenerators = new LinkedList<>();
-
     private final LoadPeriodGeneratorFactory factory;
 
     private PeriodsBuilder(
@@ -1174,12 +1300,12 @@ class PeriodsBuilder {
     }
 
     private List<LoadPeriod> buildPeriods() {
+        List<LoadPeriodGenerator> generators = new ArrayList<>();
         for (ResourceAllocation<?> resourceAllocation : sortedByStartDate) {
-            loadPeriodsGenerators.add(factory.create(resourceAllocation));
+            generators.add(factory.create(resourceAllocation));
         }
-        joinPeriodGenerators();
 
-        return toGenerators(loadPeriodsGenerators);
+        return toGenerators(LoadPeriodGenerator.joinAll(generators));
     }
 
     private List<LoadPeriod> toGenerators(List<LoadPeriodGenerator> generators) {
@@ -1195,107 +1321,4 @@ class PeriodsBuilder {
         return result;
     }
 
-    private void joinPeriodGenerators() {
-        ListIterator<LoadPeriodGenerator> iterator = loadPeriodsGenerators.listIterator();
-
-        while (iterator.hasNext()) {
-            final LoadPeriodGenerator current = findNextOneOverlapping(iterator);
-
-            if ( current != null ) {
-                rewind(iterator, current);
-                iterator.remove();
-                LoadPeriodGenerator next = iterator.next();
-                iterator.remove();
-                List<LoadPeriodGenerator> generated = current.join(next);
-                final LoadPeriodGenerator positionToComeBack = generated.get(0);
-
-                final List<LoadPeriodGenerator> remaining =
-                        loadPeriodsGenerators.subList(iterator.nextIndex(), loadPeriodsGenerators.size());
-
-                List<LoadPeriodGenerator> generatorsSortedByStartDate =
-                        mergeListsKeepingByStartSortOrder(generated, remaining);
-
-                final int takenFromRemaining = generatorsSortedByStartDate.size() - generated.size();
-                removeNextElements(iterator, takenFromRemaining);
-                addAtCurrentPosition(iterator, generatorsSortedByStartDate);
-                rewind(iterator, positionToComeBack);
-            }
-        }
-    }
-
-    private LoadPeriodGenerator findNextOneOverlapping(ListIterator<LoadPeriodGenerator> iterator) {
-        while (iterator.hasNext()) {
-            LoadPeriodGenerator current = iterator.next();
-
-            if ( !iterator.hasNext() ) {
-                return null;
-            }
-
-            LoadPeriodGenerator next = peekNext(iterator);
-            if ( current.overlaps(next) ) {
-                return current;
-            }
-        }
-
-        return null;
-    }
-
-    private void addAtCurrentPosition(
-            ListIterator<LoadPeriodGenerator> iterator, List<LoadPeriodGenerator> sortedByStartDate) {
-
-        for (LoadPeriodGenerator l : sortedByStartDate) {
-            iterator.add(l);
-        }
-    }
-
-    private void removeNextElements(ListIterator<LoadPeriodGenerator> iterator, final int elementsNumber) {
-        for (int i = 0; i < elementsNumber; i++) {
-            iterator.next();
-            iterator.remove();
-        }
-    }
-
-    private void rewind(ListIterator<LoadPeriodGenerator> iterator, LoadPeriodGenerator nextOne) {
-        while (peekNext(iterator) != nextOne) {
-            iterator.previous();
-        }
-    }
-
-    private List<LoadPeriodGenerator> mergeListsKeepingByStartSortOrder(
-            List<LoadPeriodGenerator> joined, List<LoadPeriodGenerator> remaining) {
-
-        List<LoadPeriodGenerator> result = new ArrayList<>();
-        ListIterator<LoadPeriodGenerator> joinedIterator = joined.listIterator();
-        ListIterator<LoadPeriodGenerator> remainingIterator = remaining.listIterator();
-
-        while (joinedIterator.hasNext() && remainingIterator.hasNext()) {
-            LoadPeriodGenerator fromJoined = peekNext(joinedIterator);
-            LoadPeriodGenerator fromRemaining = peekNext(remainingIterator);
-
-            if ( fromJoined.getStart().compareTo(fromRemaining.getStart()) <= 0 ) {
-                result.add(fromJoined);
-                joinedIterator.next();
-            } else {
-                result.add(fromRemaining);
-                remainingIterator.next();
-            }
-        }
-        if ( joinedIterator.hasNext() ) {
-            result.addAll(joined.subList(joinedIterator.nextIndex(), joined.size()));
-        }
-
-        return result;
-    }
-
-    private LoadPeriodGenerator peekNext(ListIterator<LoadPeriodGenerator> iterator) {
-        if ( !iterator.hasNext() ) {
-            return null;
-        }
-
-        LoadPeriodGenerator result = iterator.next();
-        iterator.previous();
-
-        return result;
-    }
-
 }
@@ -20,6 +20,7 @@ package org.libreplan.web.resourceload;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.Callable;
 
@@ -54,6 +55,12 @@ public class ResourceLoadParameters {
 
     private int pageSize = 10;
 
+    /**
+     * Number of entities following the current page whose load is calculated
+     * in advance.
+     */
+    private int prefetchSize = 5;
+
     public ResourceLoadParameters(PlanningState planningState) {
         this.planningState = planningState;
     }
@@ -127,21 +134,22 @@ public class ResourceLoadParameters {
     }
 
     private <T> Paginator<T> buildPaginator(List<T> selected, Callable<List<T>> all, IReattacher<T> reattacher) {
-        List<T> reattached = reattach(selected, reattacher);
-
         return selected == null || selected.isEmpty()
-                ? paginateAll(all)
-                : new Paginator<>(reattached, pageSize, reattached);
+                ? paginate(call(all))
+                : paginate(reattach(selected, reattacher));
     }
 
-    private <T> Paginator<T> paginateAll(Callable<List<T>> allCallable) {
-        List<T> allEntities = call(allCallable);
+    private <T> Paginator<T> paginate(List<T> allEntities) {
+        if ( pageFilterPosition == -1 ) {
+            return new Paginator<>(allEntities, Collections.<T> emptyList(), pageSize, allEntities);
+        }
 
-        return pageFilterPosition == -1
-                ? new Paginator<>(allEntities, pageSize, allEntities)
-                : new Paginator<>(
-                allEntities.subList(
-                        pageFilterPosition, Math.min(pageFilterPosition + pageSize, allEntities.size())),
+        int start = Math.min(pageFilterPosition, allEntities.size());
+        int end = Math.min(start + pageSize, allEntities.size());
+
+        return new Paginator<>(
+                allEntities.subList(start, end),
+                allEntities.subList(end, Math.min(end + prefetchSize, allEntities.size())),
                 pageSize,
                 allEntities);
     }
@@ -170,12 +178,15 @@ public class ResourceLoadParameters {
 
         private final List<T> forCurrentPage;
 
+        private final List<T> following;
+
         private final int pageSize;
 
         private final List<T> allEntities;
 
-        private Paginator(List<T> forCurrentPage, int pageSize, List<T> allEntities) {
+        private Paginator(List<T> forCurrentPage, List<T> following, int pageSize, List<T> allEntities) {
             this.forCurrentPage = forCurrentPage;
+            this.following = following;
             this.pageSize = pageSize;
             this.allEntities = allEntities;
         }
@@ -184,6 +195,14 @@ public class ResourceLoadParameters {
             return forCurrentPage;
         }
 
+        /**
+         * @return the first entities after the current page, the ones worth
+         *         calculating in advance
+         */
+        public List<T> getFollowing() {
+            return following;
+        }
+
         public List<T> getAll() {
             return allEntities;
         }
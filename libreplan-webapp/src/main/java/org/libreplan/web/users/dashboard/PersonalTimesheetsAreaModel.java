@@ -31,7 +31,7 @@ import org.libreplan.business.resources.entities.Resource;
 import org.libreplan.business.resources.entities.Worker;
 import org.libreplan.business.users.entities.User;
 import org.libreplan.business.workingday.EffortDuration;
-import org.libreplan.business.workingday.IntraDayDate.PartialDay;
+import org.libreplan.business.workingday.IntraDayDate;
 import org.libreplan.business.workreports.daos.IWorkReportDAO;
 import org.libreplan.business.workreports.entities.WorkReport;
 import org.libreplan.business.workreports.entities.WorkReportLine;
@@ -120,11 +120,8 @@ public class PersonalTimesheetsAreaModel implements IPersonalTimesheetsAreaModel
         LocalDate start = periodicity.getStart(date);
         LocalDate end = periodicity.getEnd(date);
 
-        EffortDuration capacity = EffortDuration.zero();
-        for (LocalDate day = start; day.compareTo(end) <= 0; day = day.plusDays(1)) {
-            capacity = capacity.plus(resource.getCalendar().getCapacityOn(PartialDay.wholeDay(day)));
-        }
-        return capacity;
+        return resource.getCalendar().getCapacityBetween(IntraDayDate.startOfDay(start),
+                IntraDayDate.startOfDay(end).nextDayAtStart());
     }
 
     private void forceLoad(WorkReport workReport) {
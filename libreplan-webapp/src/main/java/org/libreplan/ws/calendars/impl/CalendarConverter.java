@@ -194,6 +194,7 @@ public final class CalendarConverter {
                     CalendarException exception = baseCalendar
                             .getCalendarExceptionByCode(exceptionDTO.code);
                     update(exception, exceptionDTO);
+                    baseCalendar.invalidateCapacityIndex();
                 } catch (InstanceNotFoundException e) {
                     // find by date
                     CalendarException exception = baseCalendar
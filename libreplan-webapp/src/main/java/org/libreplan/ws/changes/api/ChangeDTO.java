@@ -0,0 +1,55 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.ws.changes.api;
+
+import javax.xml.bind.annotation.XmlAttribute;
+import javax.xml.bind.annotation.XmlRootElement;
+
+/**
+ * DTO for a change of the change feed. When <code>deleted</code> is
+ * <code>true</code> no entity exists any more with <code>code</code>, either
+ * because it was deleted or because its code was changed.
+ */
+@XmlRootElement(name = "change")
+public class ChangeDTO {
+
+    @XmlAttribute
+    public long id;
+
+    @XmlAttribute
+    public String type;
+
+    @XmlAttribute
+    public String code;
+
+    @XmlAttribute
+    public boolean deleted;
+
+    public ChangeDTO() {
+    }
+
+    public ChangeDTO(long id, String type, String code, boolean deleted) {
+        this.id = id;
+        this.type = type;
+        this.code = code;
+        this.deleted = deleted;
+    }
+
+}
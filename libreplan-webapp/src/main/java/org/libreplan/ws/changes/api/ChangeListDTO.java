@@ -0,0 +1,50 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.ws.changes.api;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.bind.annotation.XmlAttribute;
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlRootElement;
+
+/**
+ * DTO for a list of {@link ChangeDTO}. <code>nextCursor</code> is the cursor
+ * to use in the next request.
+ */
+@XmlRootElement(name = "change-list")
+public class ChangeListDTO {
+
+    @XmlElement(name = "change")
+    public List<ChangeDTO> changes = new ArrayList<ChangeDTO>();
+
+    @XmlAttribute(name = "next-cursor")
+    public long nextCursor;
+
+    public ChangeListDTO() {
+    }
+
+    public ChangeListDTO(List<ChangeDTO> changes, long nextCursor) {
+        this.changes = changes;
+        this.nextCursor = nextCursor;
+    }
+
+}
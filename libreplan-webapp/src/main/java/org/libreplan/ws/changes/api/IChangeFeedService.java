@@ -0,0 +1,35 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.ws.changes.api;
+
+/**
+ * Service to export the changes of orders, resources and work reports, so
+ * integrations do not need to download all of them again to synchronize.
+ * <br />
+ * A client starts with cursor 0 and, after applying the returned changes,
+ * asks again with the <code>next-cursor</code> of the response. Each change
+ * only says which entity changed; its current state is retrieved from the
+ * service of its type.
+ */
+public interface IChangeFeedService {
+
+    ChangeListDTO getChanges(long cursor, int limit);
+
+}
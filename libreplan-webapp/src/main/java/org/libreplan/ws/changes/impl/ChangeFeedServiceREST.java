@@ -0,0 +1,71 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.ws.changes.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.ws.rs.DefaultValue;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+
+import org.libreplan.business.common.daos.IIntegrationEntityChangeDAO;
+import org.libreplan.business.common.entities.IntegrationEntityChange;
+import org.libreplan.ws.changes.api.ChangeDTO;
+import org.libreplan.ws.changes.api.ChangeListDTO;
+import org.libreplan.ws.changes.api.IChangeFeedService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * REST-based implementation of {@link IChangeFeedService}.
+ */
+@Path("/changes/")
+@Produces("application/xml")
+@Service("changeFeedServiceREST")
+public class ChangeFeedServiceREST implements IChangeFeedService {
+
+    private static final int MAX_LIMIT = 1000;
+
+    @Autowired
+    private IIntegrationEntityChangeDAO integrationEntityChangeDAO;
+
+    @Override
+    @GET
+    public ChangeListDTO getChanges(
+            @QueryParam("cursor") @DefaultValue("0") long cursor,
+            @QueryParam("limit") @DefaultValue("1000") int limit) {
+        List<IntegrationEntityChange> changes = integrationEntityChangeDAO
+                .getChangesAfter(cursor, Math.max(1, Math.min(limit, MAX_LIMIT)));
+
+        List<ChangeDTO> result = new ArrayList<ChangeDTO>();
+        long nextCursor = cursor;
+        for (IntegrationEntityChange each : changes) {
+            result.add(new ChangeDTO(each.getId(), each.getType().name(),
+                    each.getCode(), each.isDeleted()));
+            nextCursor = each.getId();
+        }
+
+        return new ChangeListDTO(result, nextCursor);
+    }
+
+}
@@ -21,21 +21,37 @@
 
 package org.libreplan.ws.common.impl;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
+import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.core.StreamingOutput;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
 
 import org.libreplan.business.common.IAdHocTransactionService;
 import org.libreplan.business.common.IOnTransaction;
 import org.libreplan.business.common.IntegrationEntity;
 import org.libreplan.business.common.daos.IIntegrationEntityDAO;
+import org.libreplan.business.common.daos.IIntegrationEntityVisitor;
 import org.libreplan.business.common.exceptions.InstanceNotFoundException;
 import org.libreplan.business.common.exceptions.ValidationException;
 import org.libreplan.ws.common.api.InstanceConstraintViolationsDTO;
 import org.libreplan.ws.common.api.InstanceConstraintViolationsListDTO;
 import org.libreplan.ws.common.api.IntegrationEntityDTO;
+import org.libreplan.ws.common.api.WSCommonGlobalNames;
 import org.springframework.beans.factory.annotation.Autowired;
 
 /**
@@ -58,23 +74,184 @@ public abstract class GenericRESTService<E extends IntegrationEntity,
     }
 
     /**
-     * It saves (inserts or updates) a list of entities. Each entity is
-     * saved in a separate transaction.
+     * It streams entities as the XML document of <code>listDTOClass</code>
+     * (e.g. <code>ResourceListDTO</code>), without building the list of DTOs.
+     * Entities are read ordered by code with a database cursor, in a new
+     * read-only transaction opened when the response is written, and each one
+     * is converted and written before reading the next one.
+     *
+     * The status (200) and the start of the document are sent before the
+     * entities are read, so an error found while reading or converting them
+     * can not change the response any more: the document is left unfinished
+     * (without the closing tag of the root element) and the connection is
+     * closed. Clients must treat a document that can not be parsed as a
+     * failed request. The JAXB context is created here, so errors in it are
+     * still reported as a failed response.
+     *
+     * @param offset
+     *            number of entities skipped at the beginning
+     * @param limit
+     *            maximum number of entities returned, or zero to return all
+     *            of them
+     */
+    protected Response streamAll(final Class<?> listDTOClass, final int offset,
+        final int limit) {
+
+        final JAXBContext context;
+        try {
+            context = JAXBContext.newInstance(listDTOClass);
+        } catch (JAXBException e) {
+            throw new RuntimeException(e);
+        }
+
+        StreamingOutput output = new StreamingOutput() {
+
+            @Override
+            public void write(OutputStream outputStream) throws IOException {
+                try {
+                    writeAll(context, listDTOClass, Math.max(0, offset),
+                        Math.max(0, limit), outputStream);
+                } catch (JAXBException e) {
+                    throw new IOException(e);
+                } catch (XMLStreamException e) {
+                    throw new IOException(e);
+                }
+            }
+
+        };
+
+        return Response.ok(output, MediaType.APPLICATION_XML_TYPE).build();
+
+    }
+
+    private void writeAll(JAXBContext context, Class<?> listDTOClass,
+        final int offset, final int limit, OutputStream outputStream)
+        throws JAXBException, XMLStreamException {
+
+        final Marshaller marshaller = context.createMarshaller();
+        marshaller.setProperty(Marshaller.JAXB_FRAGMENT, true);
+
+        final XMLStreamWriter writer = XMLOutputFactory.newInstance()
+            .createXMLStreamWriter(outputStream, "UTF-8");
+        writer.writeStartDocument("UTF-8", "1.0");
+        writer.setDefaultNamespace(WSCommonGlobalNames.REST_NAMESPACE);
+        writer.writeStartElement(WSCommonGlobalNames.REST_NAMESPACE,
+            listDTOClass.getAnnotation(XmlRootElement.class).name());
+        writer.writeDefaultNamespace(WSCommonGlobalNames.REST_NAMESPACE);
+
+        transactionService.runOnAnotherReadOnlyTransaction(
+            new IOnTransaction<Void>() {
+
+            @Override
+            public Void execute() {
+                getIntegrationEntityDAO().visitAll(offset, limit,
+                    new IIntegrationEntityVisitor<E>() {
+
+                    @Override
+                    public void visit(E entity) {
+                        try {
+                            marshaller.marshal(toDTO(entity), writer);
+                        } catch (JAXBException e) {
+                            throw new RuntimeException(e);
+                        }
+                    }
+
+                });
+                return null;
+            }
+
+        });
+
+        writer.writeEndElement();
+        writer.writeEndDocument();
+        writer.flush();
+
+    }
+
+    /**
+     * Default number of entities saved in the same transaction by
+     * {@link #save(List)}.
+     */
+    public static final int DEFAULT_BULK_CHUNK_SIZE = 100;
+
+    /**
+     * System property to change the number of entities saved in the same
+     * transaction by {@link #save(List)}.
+     */
+    public static final String BULK_CHUNK_SIZE_PROPERTY = "libreplan.ws.bulk.chunk.size";
+
+    /**
+     * It saves (inserts or updates) a list of entities. Entities are saved in
+     * chunks of {@link #getBulkChunkSize()} elements, each chunk in a separate
+     * transaction. If a chunk fails, its entities are saved again one by one,
+     * each in a separate transaction, so the constraint violations are still
+     * reported per entity. The operation returned by
+     * {@link #afterSavingAll(List)} is run after each committed transaction.
      */
     protected InstanceConstraintViolationsListDTO save(
         List<? extends DTO> entityDTOs) {
 
         List<InstanceConstraintViolationsDTO> instanceConstraintViolationsList =
             new ArrayList<InstanceConstraintViolationsDTO>();
-        long numItem = 1;
+        int chunkSize = Math.max(1, getBulkChunkSize());
+
+        for (int from = 0; from < entityDTOs.size(); from += chunkSize) {
+
+            List<? extends DTO> chunk = entityDTOs.subList(from,
+                Math.min(from + chunkSize, entityDTOs.size()));
+            long firstNumItem = from + 1;
+
+            if (chunk.size() == 1) {
+                saveOneByOne(chunk, firstNumItem,
+                    instanceConstraintViolationsList);
+            } else {
+                Runnable afterCommit;
+                try {
+                    afterCommit = insertOrUpdateInBulk(chunk);
+                } catch (RuntimeException e) {
+                    saveOneByOne(chunk, firstNumItem,
+                        instanceConstraintViolationsList);
+                    continue;
+                }
+                runAfterCommitting(afterCommit);
+            }
+
+        }
+
+        return new InstanceConstraintViolationsListDTO(
+            instanceConstraintViolationsList);
+
+    }
+
+    /**
+     * It returns the number of entities saved in the same transaction by
+     * {@link #save(List)}, {@link #DEFAULT_BULK_CHUNK_SIZE} unless the system
+     * property {@link #BULK_CHUNK_SIZE_PROPERTY} is set. A value of 1 saves
+     * every entity in a separate transaction.
+     *
+     * Effects besides the entities themselves, like updating totals
+     * calculated from them, belong to {@link #afterSavingAll(List)}, which is
+     * called once per chunk.
+     */
+    protected int getBulkChunkSize() {
+        return Integer.getInteger(BULK_CHUNK_SIZE_PROPERTY,
+            DEFAULT_BULK_CHUNK_SIZE);
+    }
+
+    private void saveOneByOne(List<? extends DTO> entityDTOs,
+        long firstNumItem,
+        List<InstanceConstraintViolationsDTO> instanceConstraintViolationsList) {
+
+        long numItem = firstNumItem;
 
         for (DTO entityDTO : entityDTOs) {
 
             InstanceConstraintViolationsDTO instanceConstraintViolationsDTO =
                 null;
+            Runnable afterCommit = null;
 
             try {
-                insertOrUpdate(entityDTO);
+                afterCommit = insertOrUpdate(entityDTO);
             } catch (ValidationException e) {
                 instanceConstraintViolationsDTO =
                     ConstraintViolationConverter.toDTO(
@@ -96,23 +273,107 @@ public abstract class GenericRESTService<E extends IntegrationEntity,
                 instanceConstraintViolationsList.add(
                     instanceConstraintViolationsDTO);
             }
+            runAfterCommitting(afterCommit);
 
             numItem++;
 
         }
 
-        return new InstanceConstraintViolationsListDTO(
-            instanceConstraintViolationsList);
+    }
+
+    /**
+     * It saves (inserts or updates) several entity DTOs by using a single new
+     * transaction. Existing entities are retrieved with one query.
+     *
+     * @return the operation returned by {@link #afterSavingAll(List)}, to be
+     *         run by the caller now that the transaction is committed
+     * @throws RuntimeException if any entity can not be saved, in which case
+     *         none of them is saved
+     */
+    protected Runnable insertOrUpdateInBulk(final List<? extends DTO> entityDTOs) {
+
+        IOnTransaction<Runnable> save = new IOnTransaction<Runnable>() {
+
+            @Override
+            public Runnable execute() {
+
+                IIntegrationEntityDAO<E> entityDAO =
+                    getIntegrationEntityDAO();
+                Map<String, E> entitiesByCode = findByCodes(entityDAO,
+                    entityDTOs);
+                List<E> entities = new ArrayList<E>();
+
+                for (DTO entityDTO : entityDTOs) {
+
+                    /* Insert or update? */
+                    String key = normalizeCode(entityDTO.code);
+                    E entity = key == null ? null : entitiesByCode.get(key);
+                    if (entity != null) {
+                        updateEntity(entity, entityDTO);
+                    } else {
+                        entity = toEntity(entityDTO);
+                    }
+
+                    entity.validate();
+                    beforeSaving(entity);
+                    entityDAO.saveWithoutValidating(entity);
+                    afterSaving(entity);
+                    entities.add(entity);
+
+                    /*
+                     * A later DTO with the same code updates this entity, as
+                     * it would happen when saving them one by one.
+                     */
+                    if (key != null) {
+                        entitiesByCode.put(key, entity);
+                    }
+
+                }
+
+                entityDAO.flush();
+
+                return afterSavingAll(entities);
+
+            }
+
+        };
+
+        return transactionService.runOnAnotherTransaction(save);
 
     }
 
+    private Map<String, E> findByCodes(IIntegrationEntityDAO<E> entityDAO,
+        List<? extends DTO> entityDTOs) {
+
+        List<String> codes = new ArrayList<String>();
+        for (DTO entityDTO : entityDTOs) {
+            codes.add(entityDTO.code);
+        }
+
+        Map<String, E> result = new HashMap<String, E>();
+        for (E entity : entityDAO.findByCodes(codes)) {
+            result.put(normalizeCode(entity.getCode()), entity);
+        }
+        return result;
+
+    }
+
+    private static String normalizeCode(String code) {
+        if (code == null || code.trim().isEmpty()) {
+            return null;
+        }
+        return code.trim().toLowerCase();
+    }
+
     /**
      * It saves (inserts or updates) an entity DTO by using a new transaction.
      *
+     * @return the operation returned by {@link #afterSavingAll(List)}, to be
+     *         run by the caller now that the transaction is committed
      * @throws ValidationException if validations are not passed
      * @throws RecoverableErrorException if a recoverable error occurs
      */
-    protected void insertOrUpdate(final DTO entityDTO)
+    protected Runnable insertOrUpdate(final DTO entityDTO)
         throws ValidationException, RecoverableErrorException {
         /*
          * NOTE: ValidationException and RecoverableErrorException are runtime
@@ -120,10 +381,10 @@ public abstract class GenericRESTService<E extends IntegrationEntity,
          * automatically rolled back.
          */
 
-        IOnTransaction<Void> save = new IOnTransaction<Void>() {
+        IOnTransaction<Runnable> save = new IOnTransaction<Runnable>() {
 
             @Override
-            public Void execute() {
+            public Runnable execute() {
 
                 E entity = null;
                 IIntegrationEntityDAO<E> entityDAO =
@@ -145,14 +406,20 @@ public abstract class GenericRESTService<E extends IntegrationEntity,
                 entityDAO.saveWithoutValidating(entity);
                 afterSaving(entity);
 
-                return null;
+                return afterSavingAll(Collections.singletonList(entity));
 
             }
 
         };
 
-        transactionService.runOnAnotherTransaction(save);
+        return transactionService.runOnAnotherTransaction(save);
+
+    }
 
+    private static void runAfterCommitting(Runnable afterCommit) {
+        if (afterCommit != null) {
+            afterCommit.run();
+        }
     }
 
     /**
@@ -173,6 +440,21 @@ public abstract class GenericRESTService<E extends IntegrationEntity,
 
     }
 
+    /**
+     * It allows to add operations that must be done once for all the
+     * entities saved in the same transaction, like updating totals
+     * calculated from them. It is called in that transaction after saving
+     * the entities, so their previous state can still be read from another
+     * transaction, and the returned operation is run when it has been
+     * committed. If the transaction fails the operation is not run.
+     *
+     * Default implementation returns <code>null</code>, meaning there is
+     * nothing to do.
+     */
+    protected Runnable afterSavingAll(List<E> entities) {
+        return null;
+    }
+
     /**
      * It creates an entity from a DTO.
      *
@@ -60,6 +60,16 @@ public class ExpenseSheetServiceREST extends
     @Autowired
     private IExpenseSheetDAO expenseSheetDAO;
 
+    /**
+     * The expense totals updated by {@link #beforeSaving(ExpenseSheet)} are
+     * calculated against the saved expense sheets, so they are saved one by
+     * one.
+     */
+    @Override
+    protected int getBulkChunkSize() {
+        return 1;
+    }
+
     @Override
     protected void beforeSaving(ExpenseSheet entity) {
         sumExpensesDAO.updateRelatedSumExpensesWithExpenseSheetLineSet(entity
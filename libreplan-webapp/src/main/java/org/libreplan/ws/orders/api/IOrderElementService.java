@@ -35,7 +35,21 @@ public interface IOrderElementService {
 
     InstanceConstraintViolationsListDTO addOrders(OrderListDTO orderListDTO);
 
-    OrderListDTO getOrders();
+    /**
+     * It returns the orders, ordered by code, as an {@link OrderListDTO}
+     * written while they are read from the database.
+     *
+     * If an error happens once the response has started, the document is
+     * left unfinished, so a document that can not be parsed must be handled
+     * as a failed request.
+     *
+     * @param offset
+     *            number of orders skipped at the beginning
+     * @param limit
+     *            maximum number of orders returned, or zero to return all of
+     *            them
+     */
+    Response getOrders(int offset, int limit);
 
     Response getOrderElement(String code);
 
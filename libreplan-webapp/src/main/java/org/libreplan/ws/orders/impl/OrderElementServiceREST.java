@@ -25,11 +25,13 @@ import java.util.UUID;
 
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
 
@@ -78,9 +80,10 @@ public class OrderElementServiceREST
 
     @Override
     @GET
-    @Transactional(readOnly = true)
-    public OrderListDTO getOrders() {
-        return new OrderListDTO(findAll());
+    public Response getOrders(
+            @QueryParam("offset") @DefaultValue("0") int offset,
+            @QueryParam("limit") @DefaultValue("0") int limit) {
+        return streamAll(OrderListDTO.class, offset, limit);
     }
 
     @Override
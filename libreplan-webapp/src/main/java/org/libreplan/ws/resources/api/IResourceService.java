@@ -41,7 +41,21 @@ public interface IResourceService {
     public InstanceConstraintViolationsListDTO addResources(
         ResourceListDTO resources);
 
-    public ResourceListDTO getResources();
+    /**
+     * It returns the resources (except virtual workers), ordered by code, as a
+     * {@link ResourceListDTO} written while they are read from the database.
+     *
+     * If an error happens once the response has started, the document is
+     * left unfinished, so a document that can not be parsed must be handled
+     * as a failed request.
+     *
+     * @param offset
+     *            number of resources skipped at the beginning
+     * @param limit
+     *            maximum number of resources returned, or zero to return all
+     *            of them
+     */
+    public Response getResources(int offset, int limit);
 
     Response getResource(String code);
 
@@ -21,16 +21,16 @@
 
 package org.libreplan.ws.resources.impl;
 
-import java.util.ArrayList;
 import java.util.ConcurrentModificationException;
-import java.util.List;
 
 import javax.ws.rs.Consumes;
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.Response;
 
 import org.apache.commons.lang3.StringUtils;
@@ -40,9 +40,7 @@ import org.libreplan.business.common.daos.IIntegrationEntityDAO;
 import org.libreplan.business.common.entities.EntityNameEnum;
 import org.libreplan.business.common.exceptions.ValidationException;
 import org.libreplan.business.costcategories.entities.ResourcesCostCategoryAssignment;
-import org.libreplan.business.resources.daos.IMachineDAO;
 import org.libreplan.business.resources.daos.IResourceDAO;
-import org.libreplan.business.resources.daos.IWorkerDAO;
 import org.libreplan.business.resources.entities.CriterionSatisfaction;
 import org.libreplan.business.resources.entities.Resource;
 import org.libreplan.ws.common.api.InstanceConstraintViolationsListDTO;
@@ -118,25 +116,12 @@ public class ResourceServiceREST
         generateCodes(entity);
     }
 
-    @Autowired
-    private IWorkerDAO workerDAO;
-
-    @Autowired
-    private IMachineDAO machineDAO;
-
     @Override
     @GET
-    @Transactional(readOnly = true)
-    public ResourceListDTO getResources() {
-        return new ResourceListDTO(findAll());
-    }
-
-    @Override
-    protected List<ResourceDTO> findAll() {
-        List<Resource> result = new ArrayList<Resource>();
-        result.addAll(workerDAO.getWorkers());
-        result.addAll(machineDAO.getAll());
-        return toDTO(result);
+    public Response getResources(
+        @QueryParam("offset") @DefaultValue("0") int offset,
+        @QueryParam("limit") @DefaultValue("0") int limit) {
+        return streamAll(ResourceListDTO.class, offset, limit);
     }
 
     private void generateCodes(Resource resource) {
@@ -23,6 +23,7 @@ package org.libreplan.ws.workreports.impl;
 
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import javax.ws.rs.Consumes;
@@ -39,6 +40,7 @@ import org.libreplan.business.common.daos.IIntegrationEntityDAO;
 import org.libreplan.business.common.exceptions.InstanceNotFoundException;
 import org.libreplan.business.common.exceptions.ValidationException;
 import org.libreplan.business.orders.daos.ISumChargedEffortDAO;
+import org.libreplan.business.orders.entities.ISumChargedEffortRecalculator;
 import org.libreplan.business.orders.entities.OrderElement;
 import org.libreplan.business.workreports.daos.IWorkReportDAO;
 import org.libreplan.business.workreports.daos.IWorkReportLineDAO;
@@ -50,6 +52,7 @@ import org.libreplan.ws.workreports.api.IWorkReportService;
 import org.libreplan.ws.workreports.api.WorkReportDTO;
 import org.libreplan.ws.workreports.api.WorkReportListDTO;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -63,8 +66,6 @@ import org.springframework.transaction.annotation.Transactional;
 @Service("workReportServiceREST")
 public class WorkReportServiceREST extends GenericRESTService<WorkReport, WorkReportDTO> implements IWorkReportService {
 
-    private Set<OrderElement> orderElements;
-
     @Autowired
     private IWorkReportDAO workReportDAO;
 
@@ -74,6 +75,9 @@ public class WorkReportServiceREST extends GenericRESTService<WorkReport, WorkRe
     @Autowired
     private ISumChargedEffortDAO sumChargedEffortDAO;
 
+    @Autowired
+    private ISumChargedEffortRecalculator sumChargedEffortRecalculator;
+
     @Override
     @GET
     @Transactional(readOnly = true)
@@ -115,19 +119,32 @@ public class WorkReportServiceREST extends GenericRESTService<WorkReport, WorkRe
 
     }
 
+    /**
+     * The charged efforts of the orders with lines of the saved work reports,
+     * before or after saving them, are recalculated once for all of them when
+     * they are committed. If a work report is saved at the same time with
+     * lines in the same order, the recalculation is tried again later.
+     */
     @Override
-    protected void beforeSaving(WorkReport entity) {
-        orderElements = sumChargedEffortDAO
-                .getOrderElementsToRecalculateTimsheetDates(
-                        entity.getWorkReportLines(), null);
-        sumChargedEffortDAO
-                .updateRelatedSumChargedEffortWithWorkReportLineSet(entity
-                        .getWorkReportLines());
-    }
-
-    @Override
-    protected void afterSaving(WorkReport entity) {
-        sumChargedEffortDAO.recalculateTimesheetData(orderElements);
+    protected Runnable afterSavingAll(List<WorkReport> entities) {
+        Set<WorkReportLine> workReportLines = new HashSet<>();
+        for (WorkReport each : entities) {
+            workReportLines.addAll(each.getWorkReportLines());
+        }
+        final Set<Long> orderIds = sumChargedEffortDAO.getOrderIdsToRecalculate(workReportLines);
+
+        return new Runnable() {
+            @Override
+            public void run() {
+                for (Long each : orderIds) {
+                    try {
+                        sumChargedEffortDAO.recalculateSumChargedEfforts(each);
+                    } catch (OptimisticLockingFailureException e) {
+                        sumChargedEffortRecalculator.recalculate(each);
+                    }
+                }
+            }
+        };
     }
 
     @Override
@@ -0,0 +1,155 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.web.limitingresources;
+
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.easymock.EasyMock;
+import org.easymock.IAnswer;
+import org.joda.time.LocalDate;
+import org.junit.Test;
+import org.libreplan.business.planner.limiting.entities.DateAndHour;
+import org.libreplan.business.planner.limiting.entities.Gap;
+import org.libreplan.business.planner.limiting.entities.Gap.GapOnQueue;
+import org.libreplan.business.planner.limiting.entities.InsertionRequirements;
+import org.libreplan.business.resources.entities.LimitingResourceQueue;
+
+/**
+ * Tests for the lazy merge of the gaps of several queues done by
+ * {@link QueuesGapsIndex#getPotentiallyValidGaps(List, InsertionRequirements)}.
+ */
+public class QueuesGapsIndexTest {
+
+    private static final LocalDate START = new LocalDate(2026, 1, 5);
+
+    private final Set<Gap> notValid = new HashSet<>();
+
+    private static Gap gapStartingAt(int day) {
+        return new Gap(null, new DateAndHour(START.plusDays(day), 0), null);
+    }
+
+    private static LimitingResourceQueue queueWithGapsAt(int... days) {
+        LimitingResourceQueue queue = createNiceMock(LimitingResourceQueue.class);
+        List<Gap> gaps = new ArrayList<>();
+        for (int each : days) {
+            gaps.add(gapStartingAt(each));
+        }
+        expect(queue.getGaps()).andReturn(GapOnQueue.onQueue(queue, gaps)).anyTimes();
+        replay(queue);
+        return queue;
+    }
+
+    private InsertionRequirements requirements() {
+        InsertionRequirements result = createNiceMock(InsertionRequirements.class);
+        expect(result.isPotentiallyValid(anyObject(Gap.class))).andAnswer(new IAnswer<Boolean>() {
+            @Override
+            public Boolean answer() {
+                return !notValid.contains(EasyMock.getCurrentArguments()[0]);
+            }
+        }).anyTimes();
+        replay(result);
+        return result;
+    }
+
+    private List<GapOnQueue> merge(LimitingResourceQueue... queues) {
+        List<GapOnQueue> result = new ArrayList<>();
+        Iterable<GapOnQueue> gaps = new QueuesGapsIndex(Arrays.asList(queues))
+                .getPotentiallyValidGaps(Arrays.asList(queues), requirements());
+        for (GapOnQueue each : gaps) {
+            result.add(each);
+        }
+        return result;
+    }
+
+    private static void assertGaps(List<GapOnQueue> gaps, Object... queuesAndDays) {
+        assertEquals(queuesAndDays.length / 2, gaps.size());
+        for (int i = 0; i < gaps.size(); i++) {
+            assertSame(queuesAndDays[2 * i], gaps.get(i).getOriginQueue());
+            assertEquals(START.plusDays((Integer) queuesAndDays[2 * i + 1]),
+                    gaps.get(i).getGap().getStartTime().getDate());
+        }
+    }
+
+    @Test
+    public void theGapsOfInterleavedQueuesAreMergedByStart() {
+        LimitingResourceQueue a = queueWithGapsAt(1, 3, 5);
+        LimitingResourceQueue b = queueWithGapsAt(2, 4);
+
+        assertGaps(merge(a, b), a, 1, b, 2, a, 3, b, 4, a, 5);
+    }
+
+    @Test
+    public void gapsStartingAtTheSameTimeFollowTheOrderOfTheQueues() {
+        LimitingResourceQueue a = queueWithGapsAt(1, 2);
+        LimitingResourceQueue b = queueWithGapsAt(1, 2);
+
+        assertGaps(merge(a, b), a, 1, b, 1, a, 2, b, 2);
+        assertGaps(merge(b, a), b, 1, a, 1, b, 2, a, 2);
+    }
+
+    @Test
+    public void exhaustedQueuesAreSkipped() {
+        LimitingResourceQueue empty = queueWithGapsAt();
+        LimitingResourceQueue a = queueWithGapsAt(1);
+        LimitingResourceQueue b = queueWithGapsAt(2, 3, 4);
+
+        assertGaps(merge(empty, a, b), a, 1, b, 2, b, 3, b, 4);
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void thereIsNoGapAfterTheLastOne() {
+        LimitingResourceQueue a = queueWithGapsAt(1);
+        Iterator<GapOnQueue> iterator = new QueuesGapsIndex(Collections.singletonList(a))
+                .getPotentiallyValidGaps(Collections.singletonList(a), requirements()).iterator();
+
+        iterator.next();
+        assertFalse(iterator.hasNext());
+        iterator.next();
+    }
+
+    @Test
+    public void onlyPotentiallyValidGapsAreReturned() {
+        LimitingResourceQueue a = queueWithGapsAt(1, 3, 5);
+        LimitingResourceQueue b = queueWithGapsAt(2, 4);
+        LimitingResourceQueue c = queueWithGapsAt(0);
+        notValid.add(a.getGaps().get(0).getGap());
+        notValid.add(a.getGaps().get(2).getGap());
+        notValid.add(b.getGaps().get(1).getGap());
+        notValid.add(c.getGaps().get(0).getGap());
+
+        assertGaps(merge(a, b, c), b, 2, a, 3);
+    }
+
+}
@@ -0,0 +1,184 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.web.montecarlo;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.joda.time.Days;
+import org.joda.time.LocalDate;
+import org.junit.Test;
+import org.libreplan.business.planner.entities.Dependency.Type;
+
+/**
+ * Tests for {@link MonteCarloSimulation}.
+ */
+public class MonteCarloSimulationTest {
+
+    private static final LocalDate start = new LocalDate(2012, 1, 2);
+
+    private static MonteCarloSimulation twoTasks() {
+        return MonteCarloSimulation.create(start,
+                new double[] { 15, 30 },
+                new double[] { 10, 20 },
+                new double[] { 5, 10 },
+                new double[] { 0.3, 0.3 },
+                new double[] { 0.8, 0.8 });
+    }
+
+    @Test
+    public void theSameSeedProducesTheSameResult() {
+        MonteCarloResult first = twoTasks().run(25000, 7L);
+        MonteCarloResult second = twoTasks().run(25000, 7L);
+
+        assertThat(first.getProbabilities(), equalTo(second.getProbabilities()));
+    }
+
+    @Test
+    public void onlyTheCombinationsOfTheEstimationsAreObtained() {
+        MonteCarloResult result = twoTasks().run(MonteCarloSimulation.CHUNK_SIZE * 3 + 17, 1L);
+
+        long total = 0;
+        for (LocalDate each : result.getProbabilities().keySet()) {
+            int days = Days.daysBetween(start, each).getDays();
+            assertTrue(days == 15 || days == 20 || days == 25 || days == 30 || days == 35 || days == 40
+                    || days == 45);
+            total += result.getTimes(each);
+        }
+        assertThat(total, equalTo(result.getIterations()));
+    }
+
+    @Test
+    public void theProbabilitiesAreCloseToTheExpectedOnes() {
+        MonteCarloResult result = twoTasks().run(200000, 3L);
+        Map<LocalDate, BigDecimal> probabilities = result.getProbabilities();
+
+        // both tasks pessimistic: 0.3 * 0.3
+        assertClose(probabilities.get(start.plusDays(45)), 0.09);
+        // both tasks optimistic: 0.2 * 0.2
+        assertClose(probabilities.get(start.plusDays(15)), 0.04);
+    }
+
+    private static void assertClose(BigDecimal value, double expected) {
+        assertTrue(value + " is not close to " + expected, Math.abs(value.doubleValue() - expected) < 0.005);
+    }
+
+    @Test
+    public void thePercentilesAreTheFirstDatesReachingTheProbability() {
+        MonteCarloSimulation oneTask = MonteCarloSimulation.create(start,
+                new double[] { 3 }, new double[] { 2 }, new double[] { 1 },
+                new double[] { 0.5 }, new double[] { 0.5 });
+        MonteCarloResult result = oneTask.run(100000, 11L);
+
+        assertThat(result.getPercentile(1), equalTo(start.plusDays(1)));
+        assertThat(result.getP95(), equalTo(start.plusDays(3)));
+        assertTrue(result.getP50().equals(start.plusDays(1)) || result.getP50().equals(start.plusDays(3)));
+    }
+
+    /**
+     * A first task of 10 days followed by two branches, one of 20 days and
+     * another one of 30 or 5 days with the same probability, that are joined
+     * by a last task of 2 days.
+     */
+    private static MonteCarloSimulation twoBranches() {
+        return MonteCarloSimulation.create(start,
+                new double[] { 10, 20, 30, 2 },
+                new double[] { 10, 20, 30, 2 },
+                new double[] { 10, 20, 5, 2 },
+                new double[] { 1, 1, 0.5, 1 },
+                new double[] { 1, 1, 0.5, 1 },
+                new double[4],
+                new int[][] { {}, { 0 }, { 0 }, { 1, 2 } },
+                new Type[][] { {}, { Type.END_START }, { Type.END_START }, { Type.END_START, Type.END_START } });
+    }
+
+    @Test
+    public void theEndIsTheOneOfTheLongestBranch() {
+        MonteCarloResult result = twoBranches().run(20000, 5L);
+
+        assertThat(result.getProbabilities().keySet(),
+                equalTo((Set<LocalDate>) new HashSet<>(asList(start.plusDays(32), start.plusDays(42)))));
+        assertClose(result.getProbabilities().get(start.plusDays(42)), 0.5);
+    }
+
+    @Test
+    public void theCriticalityIndexIsTheFractionOfIterationsOnTheLongestPath() {
+        MonteCarloResult result = twoBranches().run(20000, 5L);
+
+        assertThat(result.getCriticalityIndex(0), equalTo(new BigDecimal("1.00000000")));
+        assertThat(result.getCriticalityIndex(3), equalTo(new BigDecimal("1.00000000")));
+        assertClose(result.getCriticalityIndex(1), 0.5);
+        assertClose(result.getCriticalityIndex(2), 0.5);
+        assertThat(result.getCriticalityIndex(1).add(result.getCriticalityIndex(2)),
+                equalTo(new BigDecimal("1.00000000")));
+    }
+
+    @Test
+    public void theTasksWithoutDependenciesStartOnTheirOffset() {
+        MonteCarloSimulation independent = MonteCarloSimulation.create(start,
+                new double[] { 5, 3 }, new double[] { 5, 3 }, new double[] { 5, 3 },
+                new double[] { 1, 1 }, new double[] { 1, 1 },
+                new double[] { 0, 4 },
+                new int[][] { {}, {} },
+                new Type[][] { {}, {} });
+        MonteCarloResult result = independent.run(10, 1L);
+
+        assertThat(result.getTimes(start.plusDays(7)), equalTo(10L));
+        assertThat(result.getCriticalityIndex(0), equalTo(new BigDecimal("0E-8")));
+    }
+
+    @Test
+    public void theCriticalChainToleratesRoundingOfFractionalDurations() {
+        // (3.1 - 0.7) + 0.7 is 3.1000000000000005
+        MonteCarloSimulation endEnd = MonteCarloSimulation.create(start,
+                new double[] { 0.1, 0.7 }, new double[] { 0.1, 0.7 }, new double[] { 0.1, 0.7 },
+                new double[] { 1, 1 }, new double[] { 1, 1 },
+                new double[] { 3, 0 },
+                new int[][] { {}, { 0 } },
+                new Type[][] { {}, { Type.END_END } });
+        MonteCarloResult result = endEnd.run(10, 1L);
+
+        assertThat(result.getCriticalityIndex(0), equalTo(new BigDecimal("1.00000000")));
+        assertThat(result.getCriticalityIndex(1), equalTo(new BigDecimal("1.00000000")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void theDependenciesCannotHaveCycles() {
+        MonteCarloSimulation.create(start,
+                new double[] { 1, 1 }, new double[] { 1, 1 }, new double[] { 1, 1 },
+                new double[] { 1, 1 }, new double[] { 1, 1 },
+                new double[2],
+                new int[][] { { 1 }, { 0 } },
+                new Type[][] { { Type.END_START }, { Type.END_START } });
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void theIterationsMustBePositive() {
+        twoTasks().run(0, 1L);
+    }
+
+}
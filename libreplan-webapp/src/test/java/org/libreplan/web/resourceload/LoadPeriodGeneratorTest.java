@@ -0,0 +1,261 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.web.resourceload;
+
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Random;
+
+import org.joda.time.LocalDate;
+import org.junit.Test;
+import org.libreplan.business.planner.entities.ResourceAllocation;
+import org.libreplan.business.planner.entities.SpecificResourceAllocation;
+import org.libreplan.business.workingday.EffortDuration;
+import org.libreplan.business.workingday.IntraDayDate;
+
+/**
+ * Checks that {@link LoadPeriodGenerator#joinAll(java.util.Collection)}
+ * splits the generators the same way than joining the overlapping ones by
+ * pairs, as it was done before, and that each interval ends up in just one
+ * generator with all the allocations including it.
+ */
+public class LoadPeriodGeneratorTest {
+
+    private static final LocalDate START = new LocalDate(2026, 1, 5);
+
+    private static class Generator extends LoadPeriodGenerator {
+
+        Generator(IntraDayDate start, IntraDayDate end, List<ResourceAllocation<?>> allocations) {
+            super(start, end, allocations);
+        }
+
+        @Override
+        protected LoadPeriodGenerator create(
+                IntraDayDate start, IntraDayDate end, List<ResourceAllocation<?>> allocationsOnInterval) {
+
+            return new Generator(start, end, allocationsOnInterval);
+        }
+
+        @Override
+        protected EffortDuration getTotalAvailableEffort() {
+            return EffortDuration.zero();
+        }
+
+        @Override
+        protected EffortDuration getEffortAssigned() {
+            return EffortDuration.zero();
+        }
+
+        @Override
+        protected EffortDuration getAssignedEffortFor(ResourceAllocation<?> resourceAllocation) {
+            return EffortDuration.zero();
+        }
+    }
+
+    private final List<ResourceAllocation<?>> allocations = new ArrayList<>();
+
+    private ResourceAllocation<?> createAllocation(boolean satisfied) {
+        SpecificResourceAllocation result = createNiceMock(SpecificResourceAllocation.class);
+        expect(result.isSatisfied()).andReturn(satisfied).anyTimes();
+        replay(result);
+        allocations.add(result);
+
+        return result;
+    }
+
+    private Generator generator(int startDay, int startHours, int endDay, int endHours) {
+        return generator(startDay, startHours, endDay, endHours, true);
+    }
+
+    private Generator generator(int startDay, int startHours, int endDay, int endHours, boolean satisfied) {
+        return new Generator(
+                date(startDay, startHours),
+                date(endDay, endHours),
+                Collections.<ResourceAllocation<?>> singletonList(createAllocation(satisfied)));
+    }
+
+    private static IntraDayDate date(int day, int hours) {
+        return IntraDayDate.create(START.plusDays(day), EffortDuration.hours(hours));
+    }
+
+    @Test
+    public void notOverlappingGeneratorsAreKept() {
+        assertSameJoin(generator(0, 0, 2, 0), generator(3, 0, 5, 0), generator(5, 0, 6, 0));
+    }
+
+    @Test
+    public void anIncludedGeneratorSplitsTheOneIncludingIt() {
+        assertSameJoin(generator(0, 0, 10, 0), generator(2, 0, 5, 0));
+    }
+
+    @Test
+    public void severalOverlappingGeneratorsAreSplitAtEachBoundary() {
+        assertSameJoin(generator(0, 0, 10, 0), generator(2, 0, 5, 0), generator(3, 4, 8, 2), generator(3, 4, 4, 0));
+    }
+
+    @Test
+    public void emptyGeneratorsAreKeptUnlessSomeGeneratorIncludesThem() {
+        assertSameJoin(
+                generator(0, 0, 0, 0),
+                generator(0, 0, 4, 0),
+                generator(2, 0, 2, 0),
+                generator(4, 0, 4, 0),
+                generator(6, 0, 6, 0));
+    }
+
+    @Test
+    public void theAllocationsNotSatisfiedDontContribute() {
+        assertSameJoin(generator(0, 0, 4, 0, false), generator(2, 0, 6, 0));
+    }
+
+    @Test
+    public void eachIntervalIsCoveredOnceByTheAllocationsIncludingIt() {
+        Random random = new Random(13);
+        for (int i = 0; i < 500; i++) {
+            List<LoadPeriodGenerator> generators = new ArrayList<>();
+            int size = 1 + random.nextInt(12);
+            for (int j = 0; j < size; j++) {
+                int startDay = random.nextInt(20);
+                int startHours = random.nextInt(3) * 4;
+                int endDay = startDay + random.nextInt(8);
+                int endHours = endDay == startDay ? startHours + random.nextInt(2) * 4 : random.nextInt(3) * 4;
+                generators.add(generator(startDay, startHours, endDay, endHours, random.nextInt(10) > 0));
+            }
+            Collections.sort(generators, (a, b) -> a.getStart().compareTo(b.getStart()));
+
+            assertCoveredOnce(generators, LoadPeriodGenerator.joinAll(generators));
+        }
+    }
+
+    private void assertCoveredOnce(List<LoadPeriodGenerator> original, List<LoadPeriodGenerator> joined) {
+        List<LoadPeriodGenerator> notEmpty = new ArrayList<>();
+        for (LoadPeriodGenerator each : joined) {
+            if ( each.getStart().compareTo(each.getEnd()) < 0 ) {
+                notEmpty.add(each);
+            }
+        }
+        for (int i = 1; i < notEmpty.size(); i++) {
+            assertTrue(notEmpty.get(i - 1).getEnd().compareTo(notEmpty.get(i).getStart()) <= 0);
+        }
+
+        List<IntraDayDate> boundaries = new ArrayList<>();
+        for (LoadPeriodGenerator each : original) {
+            boundaries.add(each.getStart());
+            boundaries.add(each.getEnd());
+        }
+        Collections.sort(boundaries);
+        for (int i = 1; i < boundaries.size(); i++) {
+            IntraDayDate start = boundaries.get(i - 1);
+            IntraDayDate end = boundaries.get(i);
+            if ( start.equals(end) ) {
+                continue;
+            }
+            boolean covered = false;
+            List<ResourceAllocation<?>> expected = new ArrayList<>();
+            for (LoadPeriodGenerator each : original) {
+                if ( each.getStart().compareTo(start) <= 0 && end.compareTo(each.getEnd()) <= 0 ) {
+                    covered = true;
+                    expected.addAll(each.getAllocationsOnInterval());
+                }
+            }
+            List<LoadPeriodGenerator> including = new ArrayList<>();
+            for (LoadPeriodGenerator each : notEmpty) {
+                if ( each.getStart().compareTo(start) <= 0 && end.compareTo(each.getEnd()) <= 0 ) {
+                    including.add(each);
+                }
+            }
+            if ( !covered ) {
+                assertTrue(including.isEmpty());
+            } else {
+                assertEquals(1, including.size());
+                assertEquals(indexes(expected), indexes(including.get(0).getAllocationsOnInterval()));
+            }
+        }
+    }
+
+    private List<Integer> indexes(List<ResourceAllocation<?>> allocationsToDescribe) {
+        List<Integer> result = new ArrayList<>();
+        for (ResourceAllocation<?> each : allocationsToDescribe) {
+            result.add(allocations.indexOf(each));
+        }
+        Collections.sort(result);
+
+        return result;
+    }
+
+    private void assertSameJoin(Generator... generators) {
+        List<LoadPeriodGenerator> sortedByStart = new ArrayList<>();
+        Collections.addAll(sortedByStart, generators);
+        Collections.sort(sortedByStart, (a, b) -> a.getStart().compareTo(b.getStart()));
+
+        assertEquals(
+                describe(joinByPairs(sortedByStart)),
+                describe(LoadPeriodGenerator.joinAll(sortedByStart)));
+    }
+
+    private List<String> describe(List<LoadPeriodGenerator> generators) {
+        List<String> result = new ArrayList<>();
+        for (LoadPeriodGenerator each : generators) {
+            result.add(each.getStart() + " - " + each.getEnd() + " " + indexes(each.getAllocationsOnInterval()));
+        }
+        Collections.sort(result);
+
+        return result;
+    }
+
+    /**
+     * The previous implementation, joining the first two consecutive
+     * overlapping generators until there are none. Used as reference for
+     * simple cases only, as it can leave overlapping generators that are not
+     * consecutive.
+     */
+    private static List<LoadPeriodGenerator> joinByPairs(List<LoadPeriodGenerator> sortedByStart) {
+        List<LoadPeriodGenerator> generators = new ArrayList<>(sortedByStart);
+        boolean joined = true;
+        while (joined) {
+            joined = false;
+            ListIterator<LoadPeriodGenerator> iterator = generators.listIterator();
+            while (iterator.hasNext() && !joined) {
+                int position = iterator.nextIndex();
+                LoadPeriodGenerator current = iterator.next();
+                if ( iterator.hasNext() && current.overlaps(generators.get(position + 1)) ) {
+                    LoadPeriodGenerator next = generators.remove(position + 1);
+                    generators.remove(position);
+                    List<LoadPeriodGenerator> result = current.join(next);
+                    generators.addAll(position, result);
+                    Collections.sort(generators.subList(position, generators.size()),
+                            (a, b) -> a.getStart().compareTo(b.getStart()));
+                    joined = true;
+                }
+            }
+        }
+
+        return generators;
+    }
+
+}
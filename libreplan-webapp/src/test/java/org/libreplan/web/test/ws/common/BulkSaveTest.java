@@ -0,0 +1,205 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.web.test.ws.common;
+
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Test;
+import org.libreplan.business.common.IAdHocTransactionService;
+import org.libreplan.business.common.IOnTransaction;
+import org.libreplan.business.common.daos.IIntegrationEntityDAO;
+import org.libreplan.business.common.exceptions.InstanceNotFoundException;
+import org.libreplan.business.materials.entities.UnitType;
+import org.libreplan.ws.common.api.InstanceConstraintViolationsListDTO;
+import org.libreplan.ws.common.impl.GenericRESTService;
+import org.libreplan.ws.unittypes.api.UnitTypeDTO;
+
+/**
+ * Tests for the chunks of entities saved by <code>GenericRESTService</code>
+ * and the operations run after committing them, without database.
+ */
+public class BulkSaveTest {
+
+    private final List<String> events = new ArrayList<String>();
+
+    private final IAdHocTransactionService recordingTransactionService =
+        new IAdHocTransactionService() {
+
+        @Override
+        public <T> T runOnTransaction(IOnTransaction<T> onTransaction) {
+            return runOnAnotherTransaction(onTransaction);
+        }
+
+        @Override
+        public <T> T runOnReadOnlyTransaction(IOnTransaction<T> onTransaction) {
+            return runOnAnotherTransaction(onTransaction);
+        }
+
+        @Override
+        public <T> T runOnAnotherTransaction(IOnTransaction<T> onTransaction) {
+            try {
+                T result = onTransaction.execute();
+                events.add("commit");
+                return result;
+            } catch (RuntimeException e) {
+                events.add("rollback");
+                throw e;
+            }
+        }
+
+        @Override
+        public <T> T runOnAnotherReadOnlyTransaction(
+            IOnTransaction<T> onTransaction) {
+            return runOnAnotherTransaction(onTransaction);
+        }
+
+    };
+
+    private class TestUnitTypeService
+        extends GenericRESTService<UnitType, UnitTypeDTO> {
+
+        private final IIntegrationEntityDAO<UnitType> unitTypeDAO =
+            emptyDAO();
+
+        TestUnitTypeService() {
+            this.transactionService = recordingTransactionService;
+        }
+
+        InstanceConstraintViolationsListDTO save(String... codes) {
+            List<UnitTypeDTO> unitTypeDTOs = new ArrayList<UnitTypeDTO>();
+            for (String each : codes) {
+                unitTypeDTOs.add(new UnitTypeDTO(each, "measure " + each));
+            }
+            return save(unitTypeDTOs);
+        }
+
+        @Override
+        protected UnitType toEntity(UnitTypeDTO entityDTO) {
+            if (entityDTO.code.startsWith("wrong")) {
+                throw new RuntimeException("wrong unit type");
+            }
+            UnitType result = createNiceMock(UnitType.class);
+            expect(result.getCode()).andReturn(entityDTO.code).anyTimes();
+            replay(result);
+            return result;
+        }
+
+        @Override
+        protected UnitTypeDTO toDTO(UnitType entity) {
+            return null;
+        }
+
+        @Override
+        protected IIntegrationEntityDAO<UnitType> getIntegrationEntityDAO() {
+            return unitTypeDAO;
+        }
+
+        @Override
+        protected void updateEntity(UnitType entity, UnitTypeDTO entityDTO) {
+        }
+
+        @Override
+        protected Runnable afterSavingAll(List<UnitType> entities) {
+            final List<String> codes = codesOf(entities);
+            events.add("saved " + codes);
+            return new Runnable() {
+                @Override
+                public void run() {
+                    events.add("after commit of " + codes);
+                }
+            };
+        }
+
+    }
+
+    @SuppressWarnings("unchecked")
+    private static IIntegrationEntityDAO<UnitType> emptyDAO() {
+        IIntegrationEntityDAO<UnitType> result =
+            createNiceMock(IIntegrationEntityDAO.class);
+        expect(result.findByCodes(anyObject(Collection.class)))
+            .andReturn(Collections.<UnitType> emptyList()).anyTimes();
+        try {
+            expect(result.findByCode(anyObject(String.class))).andThrow(
+                new InstanceNotFoundException(null, null)).anyTimes();
+        } catch (InstanceNotFoundException e) {
+            throw new RuntimeException(e);
+        }
+        replay(result);
+        return result;
+    }
+
+    private static List<String> codesOf(List<UnitType> unitTypes) {
+        List<String> result = new ArrayList<String>();
+        for (UnitType each : unitTypes) {
+            result.add(each.getCode());
+        }
+        return result;
+    }
+
+    @After
+    public void clearChunkSize() {
+        System.clearProperty(GenericRESTService.BULK_CHUNK_SIZE_PROPERTY);
+    }
+
+    @Test
+    public void theOperationAfterSavingIsRunOncePerCommittedChunk() {
+        System.setProperty(GenericRESTService.BULK_CHUNK_SIZE_PROPERTY, "2");
+
+        new TestUnitTypeService().save("a", "b", "c");
+
+        assertEquals(Arrays.asList(
+            "saved [a, b]", "commit", "after commit of [a, b]",
+            "saved [c]", "commit", "after commit of [c]"), events);
+    }
+
+    @Test
+    public void allTheEntitiesAreSavedInAChunkByDefault() {
+        new TestUnitTypeService().save("a", "b", "c");
+
+        assertEquals(Arrays.asList(
+            "saved [a, b, c]", "commit", "after commit of [a, b, c]"), events);
+    }
+
+    @Test
+    public void theOperationAfterSavingIsNotRunForAFailedChunk() {
+        InstanceConstraintViolationsListDTO violations =
+            new TestUnitTypeService().save("a", "wrong", "c");
+
+        assertEquals(1,
+            violations.instanceConstraintViolationsList.size());
+        assertEquals(Arrays.asList(
+            "rollback",
+            "saved [a]", "commit", "after commit of [a]",
+            "rollback",
+            "saved [c]", "commit", "after commit of [c]"), events);
+    }
+
+}
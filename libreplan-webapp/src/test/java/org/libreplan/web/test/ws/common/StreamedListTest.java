@@ -0,0 +1,260 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.web.test.ws.common;
+
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.eq;
+import static org.easymock.EasyMock.expectLastCall;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+
+import org.easymock.EasyMock;
+import org.easymock.IAnswer;
+import org.joda.time.LocalDate;
+import org.junit.Test;
+import org.libreplan.business.calendars.entities.ResourceCalendar;
+import org.libreplan.business.common.IAdHocTransactionService;
+import org.libreplan.business.common.IOnTransaction;
+import org.libreplan.business.common.IntegrationEntity;
+import org.libreplan.business.common.daos.IIntegrationEntityDAO;
+import org.libreplan.business.common.daos.IIntegrationEntityVisitor;
+import org.libreplan.business.orders.daos.IOrderDAO;
+import org.libreplan.business.orders.entities.Order;
+import org.libreplan.business.resources.daos.IResourceDAO;
+import org.libreplan.business.resources.entities.Resource;
+import org.libreplan.business.resources.entities.Worker;
+import org.libreplan.ws.common.api.OrderDTO;
+import org.libreplan.ws.orders.api.OrderListDTO;
+import org.libreplan.ws.orders.impl.OrderElementServiceREST;
+import org.libreplan.ws.resources.api.ResourceDTO;
+import org.libreplan.ws.resources.api.ResourceListDTO;
+import org.libreplan.ws.resources.impl.ResourceServiceREST;
+
+/**
+ * Tests for the XML documents streamed by <code>IResourceService</code> and
+ * <code>IOrderElementService</code>, without database.
+ */
+public class StreamedListTest {
+
+    private static final IAdHocTransactionService inlineTransactionService =
+        new IAdHocTransactionService() {
+
+        @Override
+        public <T> T runOnTransaction(IOnTransaction<T> onTransaction) {
+            return onTransaction.execute();
+        }
+
+        @Override
+        public <T> T runOnReadOnlyTransaction(IOnTransaction<T> onTransaction) {
+            return onTransaction.execute();
+        }
+
+        @Override
+        public <T> T runOnAnotherTransaction(IOnTransaction<T> onTransaction) {
+            return onTransaction.execute();
+        }
+
+        @Override
+        public <T> T runOnAnotherReadOnlyTransaction(
+            IOnTransaction<T> onTransaction) {
+            return onTransaction.execute();
+        }
+
+    };
+
+    private static class TestResourceService extends ResourceServiceREST {
+
+        private final IResourceDAO resourceDAO;
+
+        TestResourceService(IResourceDAO resourceDAO) {
+            this.resourceDAO = resourceDAO;
+            this.transactionService = inlineTransactionService;
+        }
+
+        @Override
+        protected IIntegrationEntityDAO<Resource> getIntegrationEntityDAO() {
+            return resourceDAO;
+        }
+
+    }
+
+    private static class TestOrderService extends OrderElementServiceREST {
+
+        private final IOrderDAO orderDAO;
+
+        TestOrderService(IOrderDAO orderDAO) {
+            this.orderDAO = orderDAO;
+            this.transactionService = inlineTransactionService;
+        }
+
+        @Override
+        protected IIntegrationEntityDAO<Order> getIntegrationEntityDAO() {
+            return orderDAO;
+        }
+
+    }
+
+    private static <E extends IntegrationEntity> void expectVisitAll(
+        IIntegrationEntityDAO<E> dao, int offset, int limit,
+        final List<? extends E> entities) {
+
+        dao.visitAll(eq(offset), eq(limit),
+            EasyMock.<IIntegrationEntityVisitor<E>> anyObject());
+        expectLastCall().andAnswer(new IAnswer<Object>() {
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public Object answer() {
+                IIntegrationEntityVisitor<E> visitor =
+                    (IIntegrationEntityVisitor<E>) EasyMock
+                        .getCurrentArguments()[2];
+                for (E each : entities) {
+                    visitor.visit(each);
+                }
+                return null;
+            }
+
+        });
+        replay(dao);
+
+    }
+
+    private static <T> T unmarshal(Class<T> listDTOClass, Response response)
+        throws IOException, JAXBException {
+
+        assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ((StreamingOutput) response.getEntity()).write(outputStream);
+
+        return listDTOClass.cast(JAXBContext.newInstance(listDTOClass)
+            .createUnmarshaller().unmarshal(
+                new ByteArrayInputStream(outputStream.toByteArray())));
+
+    }
+
+    private static Worker createWorker(String code) {
+        Worker worker = Worker.createUnvalidated(code, "first name " + code,
+            "surname " + code, "nif " + code);
+        worker.setCalendar(ResourceCalendar.create());
+        return worker;
+    }
+
+    private static Order createOrder(String code) {
+        Order order = Order.createUnvalidated(code);
+        order.setName("order " + code);
+        order.setInitDate(new LocalDate(2026, 1, 1).toDateTimeAtStartOfDay()
+            .toDate());
+        return order;
+    }
+
+    private static List<String> resourceCodes(ResourceListDTO resourceListDTO) {
+        List<String> result = new ArrayList<String>();
+        for (ResourceDTO each : resourceListDTO.resources) {
+            result.add(each.code);
+        }
+        return result;
+    }
+
+    private static List<String> orderCodes(OrderListDTO orderListDTO) {
+        List<String> result = new ArrayList<String>();
+        for (OrderDTO each : orderListDTO.orderDTOs) {
+            result.add(each.code);
+        }
+        return result;
+    }
+
+    @Test
+    public void resourcesAreStreamedAsResourceListDTO()
+        throws IOException, JAXBException {
+
+        IResourceDAO resourceDAO = createMock(IResourceDAO.class);
+        expectVisitAll(resourceDAO, 1, 2,
+            Arrays.asList(createWorker("b"), createWorker("c")));
+
+        ResourceListDTO resourceListDTO = unmarshal(ResourceListDTO.class,
+            new TestResourceService(resourceDAO).getResources(1, 2));
+
+        assertEquals(Arrays.asList("b", "c"), resourceCodes(resourceListDTO));
+        verify(resourceDAO);
+
+    }
+
+    @Test
+    public void negativeOffsetAndLimitReturnAllResources()
+        throws IOException, JAXBException {
+
+        IResourceDAO resourceDAO = createMock(IResourceDAO.class);
+        expectVisitAll(resourceDAO, 0, 0,
+            Arrays.asList(createWorker("a"), createWorker("b")));
+
+        ResourceListDTO resourceListDTO = unmarshal(ResourceListDTO.class,
+            new TestResourceService(resourceDAO).getResources(-1, -1));
+
+        assertEquals(Arrays.asList("a", "b"), resourceCodes(resourceListDTO));
+        verify(resourceDAO);
+
+    }
+
+    @Test
+    public void noResourcesAreStreamedAsAnEmptyResourceListDTO()
+        throws IOException, JAXBException {
+
+        IResourceDAO resourceDAO = createMock(IResourceDAO.class);
+        expectVisitAll(resourceDAO, 5, 0, new ArrayList<Resource>());
+
+        ResourceListDTO resourceListDTO = unmarshal(ResourceListDTO.class,
+            new TestResourceService(resourceDAO).getResources(5, 0));
+
+        assertEquals(0, resourceCodes(resourceListDTO).size());
+        verify(resourceDAO);
+
+    }
+
+    @Test
+    public void ordersAreStreamedAsOrderListDTO()
+        throws IOException, JAXBException {
+
+        IOrderDAO orderDAO = createMock(IOrderDAO.class);
+        expectVisitAll(orderDAO, 2, 1, Arrays.asList(createOrder("c")));
+
+        OrderListDTO orderListDTO = unmarshal(OrderListDTO.class,
+            new TestOrderService(orderDAO).getOrders(2, 1));
+
+        assertEquals(Arrays.asList("c"), orderCodes(orderListDTO));
+        verify(orderDAO);
+
+    }
+
+}
@@ -0,0 +1,37 @@
+#!/bin/sh
+
+. ./rest-common-env.sh
+
+printf "Username: "
+read loginName
+printf "Password: "
+read password
+
+baseServiceURL=$DEMO_BASE_SERVICE_URL
+certificate=$DEMO_CERTIFICATE
+cursor=$1
+
+if [ "$1" = "--prod" ]; then
+    baseServiceURL=$PRODUCTION_BASE_SERVICE_URL
+    certificate=$PRODUCTION_CERTIFICATE
+    cursor=$2
+elif [ "$1" = "--dev" ]; then
+    baseServiceURL=$DEVELOPMENT_BASE_SERVICE_URL
+    certificate=$DEVELOPMENT_CERTIFICATE
+    cursor=$2
+fi
+
+if [ "$cursor" = "" ]; then
+    cursor=0
+fi
+
+authorization=`echo -n "$loginName:$password" | base64`
+
+result=`curl -sv -X GET $certificate --header "Authorization: Basic $authorization" \
+    "$baseServiceURL/changes/?cursor=$cursor"`
+
+if hash tidy &> /dev/null; then
+    echo $result | tidy -xml -i -q -utf8
+else
+    echo $result
+fi